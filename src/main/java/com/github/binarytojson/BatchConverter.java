@@ -0,0 +1,321 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.GzipSource;
+import com.github.binarytojson.reader.file.RecordIndex;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.writer.ChannelOutputStream;
+import com.github.binarytojson.writer.FlushPolicy;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts a batch of files with the same layout on a bounded pool of threads. The layout is read
+ * once by the caller and shared by all files, and every file is converted into its own output
+ * files in the target directory.
+ */
+@Slf4j
+public class BatchConverter {
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final EbcdicToAsciiConvertor convertor;
+    private final int jobs;
+    private final int outputBufferSize;
+
+    /**
+     * Creates a batch converter.
+     *
+     * @param convertor the convertor of the files
+     * @param jobs the number of files converted at the same time
+     * @param outputBufferSize the size of the buffer of every output file
+     */
+    public BatchConverter(EbcdicToAsciiConvertor convertor, int jobs, int outputBufferSize) {
+        if (jobs <= 0) {
+            throw new IllegalArgumentException("Number of jobs must be positive");
+        }
+        this.convertor = convertor;
+        this.jobs = jobs;
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    /**
+     * Checks if the source names a batch of files, which is the case for a directory or a glob
+     * pattern.
+     *
+     * @param source the source given by the user
+     * @return true if the source is a directory or a glob pattern
+     */
+    public static boolean isBatch(String source) {
+        return isGlob(source) || Files.isDirectory(Paths.get(source));
+    }
+
+    /**
+     * Finds the files of a batch. A directory gives all its regular files except index sidecars,
+     * a glob pattern such as {@code data/part-*.dat} gives the matching files below the directory
+     * before the first path element with a wildcard.
+     *
+     * @param source the directory or glob pattern
+     * @return the paths of the files, sorted by name
+     * @throws IOException if a directory could not be listed
+     */
+    public static List<Path> findSources(String source) throws IOException {
+        if (!isGlob(source)) {
+            try (Stream<Path> paths = Files.list(Paths.get(source))) {
+                return paths.filter(Files::isRegularFile)
+                        .filter(it -> !it.getFileName().toString().endsWith(RecordIndex.EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+        String normalized = source.replace(File.separatorChar, '/');
+        int wildcard = indexOfGlob(normalized);
+        int separator = normalized.lastIndexOf('/', wildcard);
+        Path base =
+                separator < 0 ? Paths.get(".") : Paths.get(normalized.substring(0, separator + 1));
+        PathMatcher matcher =
+                FileSystems.getDefault()
+                        .getPathMatcher("glob:" + normalized.substring(separator + 1));
+        try (Stream<Path> paths = Files.walk(base)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(it -> matcher.matches(base.relativize(it)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Converts the files into the given formats. A file which could not be converted does not stop
+     * the batch, its error is reported in its result. The outputs keep the directories of the
+     * files below their common directory, so files of the same name found by a recursive glob
+     * pattern do not overwrite each other's outputs.
+     *
+     * @param sources the paths of the files
+     * @param targetDirectory the directory of the output files, created if needed
+     * @param headers the layout shared by all files
+     * @param generationTypes the output formats
+     * @param options the options of the conversion, the index of every file is read from its
+     *     sidecar
+     * @return the results in the order of the files
+     * @throws IOException if the target directory could not be created
+     */
+    public List<BatchResult> convert(
+            List<Path> sources,
+            Path targetDirectory,
+            List<HeaderRecordDto> headers,
+            Collection<GenerationType> generationTypes,
+            ConversionOptions options)
+            throws IOException {
+        Files.createDirectories(targetDirectory);
+        Path commonDirectory = commonDirectory(sources);
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Math.max(1, Math.min(jobs, sources.size())));
+        try {
+            List<Future<BatchResult>> futures = new ArrayList<>();
+            for (Path source : sources) {
+                Path output =
+                        targetDirectory.resolve(
+                                commonDirectory.relativize(absolute(source)).toString());
+                futures.add(
+                        executor.submit(
+                                () ->
+                                        convertInto(
+                                                source,
+                                                output,
+                                                headers,
+                                                generationTypes,
+                                                options)));
+            }
+            List<BatchResult> results = new ArrayList<>();
+            for (Future<BatchResult> future : futures) {
+                results.add(await(future));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Logs the throughput of every file and of the whole batch.
+     *
+     * @param results the results of the batch
+     * @param nanos the time spent on the whole batch, in nanoseconds
+     */
+    public static void logSummary(List<BatchResult> results, long nanos) {
+        long records = 0;
+        long bytes = 0;
+        int failed = 0;
+        for (BatchResult result : results) {
+            if (!result.isSuccessful()) {
+                failed++;
+                log.info("{}: failed: {}", result.getSource(), result.getError());
+                continue;
+            }
+            records += result.getRecords();
+            bytes += result.getBytes();
+            log.info(
+                    "{}: {} records, {} bytes in {} ms ({} records/s, {} bytes/s)",
+                    result.getSource(),
+                    result.getRecords(),
+                    result.getBytes(),
+                    result.getNanos() / 1_000_000,
+                    Math.round(result.getRecordsPerSecond()),
+                    Math.round(result.getBytesPerSecond()));
+        }
+        BatchResult total = new BatchResult(null, records, bytes, nanos, null);
+        log.info(
+                "{} files converted, {} failed: {} records, {} bytes in {} ms "
+                        + "({} records/s, {} bytes/s)",
+                results.size() - failed,
+                failed,
+                records,
+                bytes,
+                nanos / 1_000_000,
+                Math.round(total.getRecordsPerSecond()),
+                Math.round(total.getBytesPerSecond()));
+    }
+
+    /**
+     * Converts one file into the given formats, reporting an error in the result.
+     *
+     * @param source the path of the file
+     * @param targetDirectory the directory of the output files
+     * @param headers the layout of the file
+     * @param generationTypes the output formats
+     * @param options the options of the conversion, the index is read from the sidecar
+     * @return the result of the conversion
+     */
+    BatchResult convertFile(
+            Path source,
+            Path targetDirectory,
+            List<HeaderRecordDto> headers,
+            Collection<GenerationType> generationTypes,
+            ConversionOptions options) {
+        return convertInto(
+                source,
+                targetDirectory.resolve(source.getFileName().toString()),
+                headers,
+                generationTypes,
+                options);
+    }
+
+    /**
+     * Converts one file into the given formats, reporting an error in the result.
+     *
+     * @param source the path of the file
+     * @param output the path of the output files without the extension of their format, whose
+     *     directory is created if needed
+     * @param headers the layout of the file
+     * @param generationTypes the output formats
+     * @param options the options of the conversion, the index is read from the sidecar
+     * @return the result of the conversion
+     */
+    private BatchResult convertInto(
+            Path source,
+            Path output,
+            List<HeaderRecordDto> headers,
+            Collection<GenerationType> generationTypes,
+            ConversionOptions options) {
+        long start = System.nanoTime();
+        long records = 0;
+        try {
+            ConversionOptions fileOptions =
+                    options.toBuilder().recordIndex(readIndex(source, headers, options)).build();
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            for (GenerationType generationType : generationTypes) {
+                Path target = Paths.get(output + generationType.getFileExtension());
+                try (OutputStream os =
+                        ChannelOutputStream.open(
+                                target, outputBufferSize, FlushPolicy.BUFFER_FULL)) {
+                    records = convertor.convert(source, os, headers, generationType, fileOptions);
+                }
+            }
+            return new BatchResult(
+                    source, records, Files.size(source), System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error converting {}: {}", source, e.getMessage());
+            return new BatchResult(
+                    source, records, 0, System.nanoTime() - start, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Gets the deepest directory holding all the files.
+     *
+     * @param sources the paths of the files
+     * @return the common directory, the current directory if there is no file
+     */
+    static Path commonDirectory(List<Path> sources) {
+        Path common = null;
+        for (Path source : sources) {
+            Path directory = absolute(source).getParent();
+            if (common == null) {
+                common = directory;
+            }
+            while (!directory.startsWith(common)) {
+                common = common.getParent();
+            }
+        }
+        return common != null ? common : absolute(Paths.get("."));
+    }
+
+    private static Path absolute(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static RecordIndex readIndex(
+            Path source, List<HeaderRecordDto> headers, ConversionOptions options)
+            throws IOException {
+        if (HeaderRecordType.FIXED_FORMAT.equals(headers.get(0).getRecordType())
+                || GzipSource.isGzip(source)) {
+            return null;
+        }
+        RecordIndex recordIndex = RecordIndex.readSidecar(source);
+        return recordIndex != null
+                        && recordIndex.isBlockDescriptors() == options.isBlockDescriptors()
+                ? recordIndex
+                : null;
+    }
+
+    private static BatchResult await(Future<BatchResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The batch was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static boolean isGlob(String source) {
+        return indexOfGlob(source) >= 0;
+    }
+
+    private static int indexOfGlob(String source) {
+        for (int i = 0; i < source.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(source.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.binarytojson;
+
+import java.nio.file.Path;
+import lombok.Value;
+
+/** The result of the conversion of one file of a batch. */
+@Value
+public class BatchResult {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /** The path of the converted file. */
+    Path source;
+
+    /** The number of records converted. */
+    long records;
+
+    /** The size of the converted file in bytes. */
+    long bytes;
+
+    /** The time spent converting the file into all formats, in nanoseconds. */
+    long nanos;
+
+    /** The message of the error which stopped the conversion, null if it succeeded. */
+    String error;
+
+    /**
+     * Checks if the file was converted without error.
+     *
+     * @return true if the conversion succeeded
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * Gets the number of records converted per second.
+     *
+     * @return the throughput in records per second
+     */
+    public double getRecordsPerSecond() {
+        return nanos > 0 ? records * NANOS_PER_SECOND / nanos : 0;
+    }
+
+    /**
+     * Gets the number of source bytes converted per second.
+     *
+     * @return the throughput in bytes per second
+     */
+    public double getBytesPerSecond() {
+        return nanos > 0 ? bytes * NANOS_PER_SECOND / nanos : 0;
+    }
+}
@@ -1,13 +1,27 @@
 package com.github.binarytojson;
 
+import com.github.binarytojson.layout.CachingLayoutReader;
 import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.reader.file.GzipSource;
+import com.github.binarytojson.reader.file.RecordIndex;
+import com.github.binarytojson.reader.source.HttpRangedSource;
+import com.github.binarytojson.reader.source.RangedSource;
 import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.writer.ChannelOutputStream;
+import com.github.binarytojson.writer.FlushPolicy;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -17,6 +31,8 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
@@ -25,19 +41,13 @@ public class BinaryToJsonConverter {
     private static final String HEADER =
             "Converts data from a cobol copybook file into a readable format such as CSV or JSON.";
     private static final String FOOTER = "\nKindly submit any issues to support.";
+    private static final String STANDARD_STREAM = "-";
     private static final LayoutReader layoutReader = new LayoutReader();
     private static final EbcdicToAsciiConvertor ebcdicToAsciiConvertor =
             new EbcdicToAsciiConvertor();
 
     public static void main(String[] args) {
-        // Set up command line options
-        Options options = new Options();
-        options.addRequiredOption("l", "layout", true, "Path to the layout file");
-        options.addRequiredOption("s", "source", true, "Path to the source binary file");
-        options.addOption(
-                "f", "format", true, "Output formats (csv,json,json_compact; separate with comma)");
-        options.addOption("t", "target", true, "Base path for the output files (default: output)");
-
+        Options options = createOptions();
         CommandLineParser parser = new DefaultParser();
         CommandLine cmd;
 
@@ -55,56 +65,683 @@ public class BinaryToJsonConverter {
             return;
         }
 
-        String layoutFilePath = cmd.getOptionValue("l");
+        ConversionOptions conversionOptions = toConversionOptions(cmd);
+        if (cmd.hasOption("watch")) {
+            runWatch(cmd, conversionOptions);
+            return;
+        }
+        LayoutReader reader =
+                cmd.hasOption("layout-cache")
+                        ? new CachingLayoutReader(Paths.get(cmd.getOptionValue("layout-cache")))
+                        : layoutReader;
+        List<HeaderRecordDto> headerRecordDtos =
+                reader.readAllLinesFromFile(cmd.getOptionValue("l"));
         String sourceFilePath = cmd.getOptionValue("s");
-        String outputFormats = cmd.getOptionValue("f", "json").toLowerCase();
-        String baseOutputPath = cmd.getOptionValue("t", "output");
+        if (isStandardStream(cmd) || HttpRangedSource.isUrl(sourceFilePath)) {
+            runStreams(cmd, headerRecordDtos, conversionOptions);
+        } else if (BatchConverter.isBatch(sourceFilePath)) {
+            runBatch(cmd, headerRecordDtos, conversionOptions);
+        } else if (cmd.hasOption("follow")) {
+            runFollow(cmd, headerRecordDtos, conversionOptions);
+        } else {
+            runFiles(cmd, headerRecordDtos, conversionOptions);
+        }
+    }
 
-        Set<String> formatList = new LinkedHashSet<>(Arrays.asList(outputFormats.split(",")));
-        List<HeaderRecordDto> headerRecordDtos = layoutReader.readAllLinesFromFile(layoutFilePath);
+    private static Options createOptions() {
+        Options options = new Options();
+        OptionGroup layoutGroup = new OptionGroup();
+        layoutGroup.addOption(new Option("l", "layout", true, "Path to the layout file"));
+        layoutGroup.addOption(
+                new Option(
+                        null,
+                        "watch",
+                        true,
+                        "Convert the files arriving in the source directory, by layout rules"));
+        layoutGroup.setRequired(true);
+        options.addOptionGroup(layoutGroup);
+        options.addRequiredOption(
+                "s",
+                "source",
+                true,
+                "Path to the source binary file, a directory, a glob, a URL or - for stdin");
+        options.addOption(
+                "f",
+                "format",
+                true,
+                "Output formats (csv,json,json_compact,ndjson; separate with comma)");
+        options.addOption(
+                "t",
+                "target",
+                true,
+                "Base path for the output files or - for stdout (default: output)");
+        options.addOption(
+                null, "bdw", false, "Variable length blocks start with a block descriptor word");
+        options.addOption(
+                null,
+                "index",
+                false,
+                "Build the record offset index next to a variable length source");
+        options.addOption(
+                null, "count", false, "Print the number of records instead of converting them");
+        options.addOption(
+                null, "from-record", true, "Number of the first record to convert (default: 0)");
+        options.addOption(
+                null,
+                "to-record",
+                true,
+                "Number of the record after the last one to convert (default: all)");
+        options.addOption(
+                null,
+                "sample-every",
+                true,
+                "Convert only every n-th record, or group of records (default: 1)");
+        options.addOption(
+                null,
+                "read-ahead",
+                true,
+                "Number of input buffers read ahead on an I/O thread (default: 0)");
+        options.addOption(
+                null,
+                "threads",
+                true,
+                "Number of threads converting a file in parallel (default: 1)");
+        options.addOption(
+                null,
+                "output-buffer",
+                true,
+                "Size of the output buffer in kilobytes (default: 1024)");
+        options.addOption(
+                null, "jobs", true, "Number of files converted at the same time in batch mode");
+        options.addOption(
+                null, "checkpoint", true, "Save a checkpoint after every given number of records");
+        options.addOption(
+                null, "resume", false, "Continue interrupted conversions from their checkpoints");
+        options.addOption(
+                null,
+                "follow",
+                false,
+                "Keep converting the records appended to the source to NDJSON");
+        options.addOption(
+                null,
+                "stable-period",
+                true,
+                "Time a watched file must stay unchanged before conversion in ms");
+        options.addOption(
+                null,
+                "poll-interval",
+                true,
+                "Maximal time between two checks of a followed source in ms");
+        options.addOption(
+                null, "layout-cache", true, "Directory keeping parsed layouts between runs");
+        options.addOption(
+                null,
+                "generate-decoders",
+                false,
+                "Decode records with classes generated for the layout");
+        options.addOption(
+                null,
+                "versions-by-length",
+                false,
+                "Convert every record with the layout version of its length");
+        options.addOption(
+                null,
+                "version-offset",
+                true,
+                "Offset of the version byte telling apart versions of one length");
+        return options;
+    }
+
+    /**
+     * Reads the options of the conversion from the command line.
+     *
+     * @param cmd the command line
+     * @return the options of the conversion
+     */
+    private static ConversionOptions toConversionOptions(CommandLine cmd) {
+        return ConversionOptions.builder()
+                .blockDescriptors(cmd.hasOption("bdw"))
+                .fromRecord(Long.parseLong(cmd.getOptionValue("from-record", "0")))
+                .toRecord(
+                        Long.parseLong(
+                                cmd.getOptionValue("to-record", String.valueOf(Long.MAX_VALUE))))
+                .sampleEvery(Long.parseLong(cmd.getOptionValue("sample-every", "1")))
+                .threads(Integer.parseInt(cmd.getOptionValue("threads", "1")))
+                .readAheadDepth(Integer.parseInt(cmd.getOptionValue("read-ahead", "0")))
+                .generatedDecoders(cmd.hasOption("generate-decoders"))
+                .versionsByLength(cmd.hasOption("versions-by-length"))
+                .versionOffset(Integer.parseInt(cmd.getOptionValue("version-offset", "-1")))
+                .checkpointInterval(
+                        Long.parseLong(
+                                cmd.getOptionValue(
+                                        "checkpoint",
+                                        String.valueOf(
+                                                ConversionOptions.DEFAULT_CHECKPOINT_INTERVAL))))
+                .build();
+    }
+
+    /**
+     * Watches the drop directory given as source with the layout rules of --watch.
+     *
+     * @param cmd the command line
+     * @param conversionOptions the options of the conversions
+     */
+    private static void runWatch(CommandLine cmd, ConversionOptions conversionOptions) {
+        processWatch(
+                Paths.get(cmd.getOptionValue("watch")),
+                LandingZoneOptions.builder()
+                        .dropDirectory(Paths.get(cmd.getOptionValue("s")))
+                        .targetDirectory(Paths.get(cmd.getOptionValue("t", "output")))
+                        .generationTypes(toGenerationTypes(toFormatList(cmd)))
+                        .conversionOptions(conversionOptions)
+                        .jobs(toJobs(cmd))
+                        .outputBufferSize(toOutputBufferSize(cmd))
+                        .stablePeriod(
+                                Long.parseLong(
+                                        cmd.getOptionValue(
+                                                "stable-period",
+                                                String.valueOf(
+                                                        LandingZoneOptions
+                                                                .DEFAULT_STABLE_PERIOD))))
+                        .build(),
+                toPollInterval(cmd));
+    }
+
+    /**
+     * Converts the standard input or a URL, or converts into the standard output, once per
+     * format.
+     *
+     * @param cmd the command line
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversion
+     */
+    private static void runStreams(
+            CommandLine cmd,
+            List<HeaderRecordDto> headerRecordDtos,
+            ConversionOptions conversionOptions) {
+        Set<String> formatList = toFormatList(cmd);
+        if (isStandardStream(cmd) && formatList.size() != 1) {
+            log.error("Standard input and output support a single format");
+            return;
+        }
+        if (hasCheckpoints(cmd) || cmd.hasOption("follow") || cmd.hasOption("count")) {
+            log.error(
+                    "Standard streams and URLs are converted without --checkpoint,"
+                            + " --resume, --follow or --count");
+            return;
+        }
+        for (GenerationType type : toGenerationTypes(formatList)) {
+            processStream(
+                    cmd.getOptionValue("s"),
+                    cmd.getOptionValue("t", "output"),
+                    headerRecordDtos,
+                    conversionOptions,
+                    toOutputBufferSize(cmd),
+                    type);
+        }
+    }
 
-        Path sourcePath = Paths.get(sourceFilePath);
+    /**
+     * Converts the files of a directory or glob pattern.
+     *
+     * @param cmd the command line
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversions
+     */
+    private static void runBatch(
+            CommandLine cmd,
+            List<HeaderRecordDto> headerRecordDtos,
+            ConversionOptions conversionOptions) {
+        if (hasCheckpoints(cmd)) {
+            log.error(
+                    "Directories and glob patterns are converted without --checkpoint or"
+                            + " --resume");
+            return;
+        }
+        processBatch(
+                cmd.getOptionValue("s"),
+                Paths.get(cmd.getOptionValue("t", "output")),
+                headerRecordDtos,
+                toFormatList(cmd),
+                conversionOptions,
+                toJobs(cmd),
+                toOutputBufferSize(cmd));
+    }
+
+    /**
+     * Follows the source into NDJSON.
+     *
+     * @param cmd the command line
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversion
+     */
+    private static void runFollow(
+            CommandLine cmd,
+            List<HeaderRecordDto> headerRecordDtos,
+            ConversionOptions conversionOptions) {
+        processFollow(
+                Paths.get(cmd.getOptionValue("s")),
+                Paths.get(
+                        cmd.getOptionValue("t", "output")
+                                + GenerationType.NDJSON.getFileExtension()),
+                headerRecordDtos,
+                conversionOptions,
+                toOutputBufferSize(cmd),
+                toPollInterval(cmd));
+    }
+
+    /**
+     * Counts the records of the source file or converts it once per format, with its record index
+     * and checkpoints if requested.
+     *
+     * @param cmd the command line
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversion
+     */
+    private static void runFiles(
+            CommandLine cmd,
+            List<HeaderRecordDto> headerRecordDtos,
+            ConversionOptions conversionOptions) {
+        Path sourcePath = Paths.get(cmd.getOptionValue("s"));
+        ConversionOptions indexedOptions;
+        try {
+            indexedOptions =
+                    conversionOptions.toBuilder()
+                            .recordIndex(
+                                    loadIndex(
+                                            sourcePath,
+                                            headerRecordDtos,
+                                            conversionOptions.isBlockDescriptors(),
+                                            cmd.hasOption("index"),
+                                            conversionOptions.getThreads() > 1
+                                                    && conversionOptions.getSampleEvery() <= 1))
+                            .build();
+            if (cmd.hasOption("count")) {
+                log.info(
+                        "Number of records in {}: {}",
+                        sourcePath,
+                        ebcdicToAsciiConvertor.countRecords(
+                                sourcePath, headerRecordDtos, indexedOptions));
+                return;
+            }
+        } catch (IOException e) {
+            log.error("Error reading {}: {}", sourcePath, e.getMessage());
+            return;
+        }
 
         // Process each format
+        for (String format : toFormatList(cmd)) {
+            GenerationType type = toGenerationType(format);
+            if (type == null) {
+                log.error("Unsupported format: {}", format);
+                continue;
+            }
+            processFile(
+                    sourcePath,
+                    cmd.getOptionValue("t", "output") + type.getFileExtension(),
+                    headerRecordDtos,
+                    indexedOptions,
+                    toOutputBufferSize(cmd),
+                    type,
+                    hasCheckpoints(cmd),
+                    cmd.hasOption("resume"));
+        }
+    }
+
+    private static boolean isStandardStream(CommandLine cmd) {
+        return STANDARD_STREAM.equals(cmd.getOptionValue("s"))
+                || STANDARD_STREAM.equals(cmd.getOptionValue("t", "output"));
+    }
+
+    private static boolean hasCheckpoints(CommandLine cmd) {
+        return cmd.hasOption("checkpoint") || cmd.hasOption("resume");
+    }
+
+    private static Set<String> toFormatList(CommandLine cmd) {
+        String outputFormats = cmd.getOptionValue("f", "json").toLowerCase();
+        return new LinkedHashSet<>(Arrays.asList(outputFormats.split(",")));
+    }
+
+    private static int toOutputBufferSize(CommandLine cmd) {
+        return cmd.hasOption("output-buffer")
+                ? Integer.parseInt(cmd.getOptionValue("output-buffer")) * 1024
+                : ChannelOutputStream.DEFAULT_BUFFER_SIZE;
+    }
+
+    private static int toJobs(CommandLine cmd) {
+        return Integer.parseInt(
+                cmd.getOptionValue(
+                        "jobs", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    private static long toPollInterval(CommandLine cmd) {
+        return Long.parseLong(
+                cmd.getOptionValue(
+                        "poll-interval", String.valueOf(FollowConverter.DEFAULT_POLL_INTERVAL)));
+    }
+
+    /**
+     * Converts a directory or the files matching a glob pattern on a pool of threads and logs
+     * a summary of the throughput.
+     *
+     * @param source the directory or glob pattern
+     * @param targetDirectory the directory of the output files
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param formatList the output formats
+     * @param conversionOptions the options of the conversion
+     * @param jobs the number of files converted at the same time
+     * @param outputBufferSize the size of the buffer of every output file
+     */
+    private static void processBatch(
+            String source,
+            Path targetDirectory,
+            List<HeaderRecordDto> headerRecordDtos,
+            Set<String> formatList,
+            ConversionOptions conversionOptions,
+            int jobs,
+            int outputBufferSize) {
+        List<GenerationType> types = toGenerationTypes(formatList);
+        try {
+            List<Path> sources = BatchConverter.findSources(source);
+            log.info("Converting {} files from {}", sources.size(), source);
+            long start = System.nanoTime();
+            List<BatchResult> results =
+                    new BatchConverter(ebcdicToAsciiConvertor, jobs, outputBufferSize)
+                            .convert(
+                                    sources,
+                                    targetDirectory,
+                                    headerRecordDtos,
+                                    types,
+                                    conversionOptions);
+            BatchConverter.logSummary(results, System.nanoTime() - start);
+        } catch (IOException e) {
+            log.error("Error converting {}: {}", source, e.getMessage());
+        }
+    }
+
+    /**
+     * Converts a source into one output, where the source can be the standard input or a URL and
+     * the output the standard output. The standard input is read as a stream until its end,
+     * inflating it if it is gzip compressed, so pipes and sockets are converted with constant
+     * memory. A URL is read with concurrent range requests.
+     *
+     * @param source the path of the source binary file, a URL, or - for the standard input
+     * @param target the base path of the output file, or - for the standard output
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversion
+     * @param outputBufferSize the size of the output buffer
+     * @param type the output format
+     */
+    private static void processStream(
+            String source,
+            String target,
+            List<HeaderRecordDto> headerRecordDtos,
+            ConversionOptions conversionOptions,
+            int outputBufferSize,
+            GenerationType type) {
+        try (OutputStream outputStream =
+                STANDARD_STREAM.equals(target)
+                        ? new BufferedOutputStream(
+                                new FileOutputStream(FileDescriptor.out), outputBufferSize)
+                        : ChannelOutputStream.open(
+                                Paths.get(target + type.getFileExtension()),
+                                outputBufferSize,
+                                FlushPolicy.BUFFER_FULL)) {
+            long records;
+            if (STANDARD_STREAM.equals(source)) {
+                try (InputStream inputStream =
+                        GzipSource.inflateIfGzip(
+                                new FileInputStream(FileDescriptor.in), GzipSource.DEFAULT_DEPTH)) {
+                    records =
+                            ebcdicToAsciiConvertor.convert(
+                                    inputStream,
+                                    outputStream,
+                                    headerRecordDtos,
+                                    type,
+                                    conversionOptions);
+                }
+            } else if (HttpRangedSource.isUrl(source)) {
+                try (RangedSource rangedSource = new HttpRangedSource(new URL(source))) {
+                    records =
+                            ebcdicToAsciiConvertor.convert(
+                                    rangedSource,
+                                    outputStream,
+                                    headerRecordDtos,
+                                    type,
+                                    conversionOptions);
+                }
+            } else {
+                records =
+                        ebcdicToAsciiConvertor.convert(
+                                Paths.get(source),
+                                outputStream,
+                                headerRecordDtos,
+                                type,
+                                conversionOptions);
+            }
+            log.info("{} records converted from {} to {}", records, source, target);
+        } catch (IOException e) {
+            log.error("Error converting {}: {}", source, e.getMessage());
+        }
+    }
+
+    /**
+     * Follows a source which is appended to continuously until the JVM is stopped. The records are
+     * converted to NDJSON, and a restarted follower continues after the last converted record.
+     *
+     * @param sourcePath the path of the followed file
+     * @param outputPath the path of the output file
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversion
+     * @param outputBufferSize the size of the output buffer
+     * @param pollInterval the maximal time between two checks of the source, in milliseconds
+     */
+    private static void processFollow(
+            Path sourcePath,
+            Path outputPath,
+            List<HeaderRecordDto> headerRecordDtos,
+            ConversionOptions conversionOptions,
+            int outputBufferSize,
+            long pollInterval) {
+        try (FollowConverter followConverter =
+                new FollowConverter(
+                        ebcdicToAsciiConvertor,
+                        sourcePath,
+                        outputPath,
+                        headerRecordDtos,
+                        conversionOptions,
+                        outputBufferSize)) {
+            Thread followThread = Thread.currentThread();
+            Runtime.getRuntime()
+                    .addShutdownHook(
+                            new Thread(
+                                    () -> {
+                                        followConverter.stop();
+                                        followThread.interrupt();
+                                        try {
+                                            // let the output be closed before the JVM exits
+                                            followThread.join();
+                                        } catch (InterruptedException e) {
+                                            Thread.currentThread().interrupt();
+                                        }
+                                    }));
+            log.info("Following {} into {}", sourcePath, outputPath);
+            followConverter.run(pollInterval);
+        } catch (IOException e) {
+            log.error("Error following {}: {}", sourcePath, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Stopped following {}", sourcePath);
+        }
+    }
+
+    /**
+     * Watches a drop directory until the JVM is stopped, converting every arriving file with the
+     * layout of the first rule matching its name.
+     *
+     * @param rulesFile the file of the layout rules
+     * @param landingZoneOptions the options of the daemon
+     * @param pollInterval the maximal time between two checks of the drop directory, in ms
+     */
+    private static void processWatch(
+            Path rulesFile, LandingZoneOptions landingZoneOptions, long pollInterval) {
+        try (LandingZoneDaemon daemon =
+                new LandingZoneDaemon(
+                        ebcdicToAsciiConvertor,
+                        LayoutRule.read(rulesFile, layoutReader),
+                        landingZoneOptions)) {
+            Thread watchThread = Thread.currentThread();
+            Runtime.getRuntime()
+                    .addShutdownHook(
+                            new Thread(
+                                    () -> {
+                                        daemon.stop();
+                                        watchThread.interrupt();
+                                        try {
+                                            // let the running conversions complete
+                                            watchThread.join();
+                                        } catch (InterruptedException e) {
+                                            Thread.currentThread().interrupt();
+                                        }
+                                    }));
+            log.info("Watching {}", landingZoneOptions.getDropDirectory());
+            daemon.run(pollInterval);
+        } catch (IOException e) {
+            log.error(
+                    "Error watching {}: {}", landingZoneOptions.getDropDirectory(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Stopped watching {}", landingZoneOptions.getDropDirectory());
+        }
+    }
+
+    private static List<GenerationType> toGenerationTypes(Set<String> formatList) {
+        List<GenerationType> types = new ArrayList<>();
         for (String format : formatList) {
-            switch (format) {
-                case "json":
-                    processFile(
-                            sourcePath,
-                            baseOutputPath + ".json",
-                            headerRecordDtos,
-                            GenerationType.JSON);
-                    break;
-                case "json_compact":
-                    processFile(
-                            sourcePath,
-                            baseOutputPath + ".compact.json",
-                            headerRecordDtos,
-                            GenerationType.JSON_COMPACT);
-                    break;
-                case "csv":
-                    processFile(
-                            sourcePath,
-                            baseOutputPath + ".csv",
-                            headerRecordDtos,
-                            GenerationType.CSV);
-                    break;
-                default:
-                    log.error("Unsupported format: {}", format);
-                    break;
+            GenerationType type = toGenerationType(format);
+            if (type == null) {
+                log.error("Unsupported format: {}", format);
+            } else {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    private static GenerationType toGenerationType(String format) {
+        switch (format) {
+            case "json":
+                return GenerationType.JSON;
+            case "json_compact":
+                return GenerationType.JSON_COMPACT;
+            case "csv":
+                return GenerationType.CSV;
+            case "ndjson":
+                return GenerationType.NDJSON;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Loads the record index of a variable length source, building it if requested. A parallel
+     * conversion without a valid sidecar gets an index built once in memory, which all its output
+     * formats share instead of building it again for every format.
+     *
+     * @param sourcePath the path of the source binary file
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param blockDescriptors whether blocks start with a block descriptor word
+     * @param build whether to build and save the index
+     * @param parallel whether the source is converted in parallel ranges, which need an index
+     * @return the index, or null if the source has fixed length records, is compressed or has no
+     *     valid index and is converted on one thread
+     * @throws IOException if an I/O error occurs while reading or writing the index
+     */
+    private static RecordIndex loadIndex(
+            Path sourcePath,
+            List<HeaderRecordDto> headerRecordDtos,
+            boolean blockDescriptors,
+            boolean build,
+            boolean parallel)
+            throws IOException {
+        if (HeaderRecordType.FIXED_FORMAT.equals(headerRecordDtos.get(0).getRecordType())) {
+            return null;
+        }
+        if (GzipSource.isGzip(sourcePath)) {
+            if (build) {
+                log.warn("Index is not supported for compressed sources: {}", sourcePath);
             }
+            return null;
+        }
+        if (build) {
+            RecordIndex recordIndex =
+                    RecordIndex.build(sourcePath, RecordIndex.DEFAULT_INTERVAL, blockDescriptors);
+            Path indexPath = RecordIndex.sidecarOf(sourcePath);
+            recordIndex.write(indexPath);
+            log.info("Index file created successfully: {}", indexPath);
+            return recordIndex;
         }
+        RecordIndex recordIndex = RecordIndex.readSidecar(sourcePath);
+        if (recordIndex != null && recordIndex.isBlockDescriptors() == blockDescriptors) {
+            return recordIndex;
+        }
+        return parallel
+                ? RecordIndex.build(sourcePath, RecordIndex.DEFAULT_INTERVAL, blockDescriptors)
+                : null;
     }
 
+    /**
+     * Converts the source into one output file. With checkpoints, the state of the conversion is
+     * saved next to the output file, and a resumed conversion continues from the saved state if
+     * there is one.
+     *
+     * @param sourcePath the path of the source binary file
+     * @param outputPath the path of the output file
+     * @param headerRecordDtos the list of header records describing the layout
+     * @param conversionOptions the options of the conversion
+     * @param outputBufferSize the size of the output buffer
+     * @param type the output format
+     * @param checkpoints whether to save checkpoints
+     * @param resume whether to continue from the checkpoint of an interrupted conversion
+     */
     private static void processFile(
             Path sourcePath,
             String outputPath,
             List<HeaderRecordDto> headerRecordDtos,
-            GenerationType type) {
-        try (InputStream inputStream = Files.newInputStream(sourcePath);
-                OutputStream outputStream = Files.newOutputStream(Paths.get(outputPath))) {
-            ebcdicToAsciiConvertor.convert(
-                    inputStream, outputStream, headerRecordDtos, type, Cache.TEN_MEGABYTES);
+            ConversionOptions conversionOptions,
+            int outputBufferSize,
+            GenerationType type,
+            boolean checkpoints,
+            boolean resume) {
+        Path outputFile = Paths.get(outputPath);
+        try {
+            ConversionOptions fileOptions = conversionOptions;
+            Checkpoint checkpoint = null;
+            if (checkpoints) {
+                Path checkpointFile = Checkpoint.sidecarOf(outputFile);
+                if (resume && Files.exists(checkpointFile)) {
+                    checkpoint = Checkpoint.read(checkpointFile);
+                    log.info("Resuming {} from record {}", outputPath, checkpoint.getRecord());
+                }
+                fileOptions =
+                        conversionOptions.toBuilder()
+                                .checkpointFile(checkpointFile)
+                                .resumeFrom(checkpoint)
+                                .build();
+            }
+            // checkpoints need the flushed groups in the file before the checkpoint is saved
+            FlushPolicy flushPolicy = checkpoints ? FlushPolicy.FLUSH : FlushPolicy.BUFFER_FULL;
+            try (OutputStream outputStream =
+                    checkpoint != null
+                            ? ChannelOutputStream.openAt(
+                                    outputFile,
+                                    checkpoint.getOutputPosition(),
+                                    outputBufferSize,
+                                    flushPolicy)
+                            : ChannelOutputStream.open(outputFile, outputBufferSize, flushPolicy)) {
+                ebcdicToAsciiConvertor.convert(
+                        sourcePath, outputStream, headerRecordDtos, type, fileOptions);
+            }
             log.info("{} file created successfully: {}", type.name(), outputPath);
         } catch (IOException e) {
             log.error("Error creating {} file: {}", type.name(), e.getMessage());
@@ -0,0 +1,100 @@
+package com.github.binarytojson;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import lombok.Value;
+
+/**
+ * State of an interrupted conversion, taken after a group of records was written. A conversion
+ * resumed from a checkpoint truncates the output to the saved position and continues with the
+ * next record, so it produces the same output as an uninterrupted one.
+ */
+@Value
+public class Checkpoint {
+
+    /** The extension of the checkpoint file, appended to the name of the output file. */
+    public static final String EXTENSION = ".ckpt";
+
+    private static final int MAGIC = 0x52434B50;
+    private static final int VERSION = 1;
+
+    /** The number of the next record to convert, starting from 0. */
+    long record;
+
+    /** The offset of the next record in the source, -1 if it can only be found by skipping. */
+    long inputOffset;
+
+    /** The number of groups written before the next record. */
+    int groupIndex;
+
+    /** The number of bytes of the output up to the last written group. */
+    long outputPosition;
+
+    /**
+     * Gets the path of the checkpoint file of the given output file.
+     *
+     * @param output the path of the output file
+     * @return the path of the checkpoint file
+     */
+    public static Path sidecarOf(Path output) {
+        return output.resolveSibling(output.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @param path the path of the checkpoint file
+     * @return the checkpoint
+     * @throws IOException if an I/O error occurs or the file is not a checkpoint
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path);
+                DataInputStream in = new DataInputStream(inputStream)) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a checkpoint: " + path);
+            }
+            return new Checkpoint(in.readLong(), in.readLong(), in.readInt(), in.readLong());
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a file. The file is replaced atomically where the file system
+     * supports it, so an interruption never leaves a partial checkpoint.
+     *
+     * @param path the path of the checkpoint file
+     * @throws IOException if an I/O error occurs while writing the checkpoint
+     */
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporary);
+                    DataOutputStream out = new DataOutputStream(outputStream)) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(record);
+                out.writeLong(inputOffset);
+                out.writeInt(groupIndex);
+                out.writeLong(outputPosition);
+            }
+            try {
+                Files.move(
+                        temporary,
+                        path,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
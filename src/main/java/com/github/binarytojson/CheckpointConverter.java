@@ -0,0 +1,188 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.GzipSource;
+import com.github.binarytojson.reader.file.MappedFileReader;
+import com.github.binarytojson.reader.file.RecordRange;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.writer.Writer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Converts a file on one thread, saving a checkpoint after a group of records once the checkpoint
+ * interval has passed. A resumed conversion continues with the next record of the checkpoint,
+ * from its input offset when it is known. The checkpoint file is deleted once the conversion is
+ * complete.
+ */
+final class CheckpointConverter {
+
+    private CheckpointConverter() {}
+
+    /**
+     * Converts the file with checkpoints, or resumes its conversion.
+     *
+     * @param source the path of the binary file
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion, with the checkpoint file or the checkpoint
+     *     to resume from
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    static long convert(
+            Path source,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        if (options.getSampleEvery() > 1) {
+            throw new IllegalArgumentException("Sampled conversions do not support checkpoints");
+        }
+        Checkpoint resume = options.getResumeFrom();
+        long firstRecord = resume != null ? resume.getRecord() : options.getFromRecord();
+        HeaderRecordDto headerRecordDto = headers.get(0);
+        if (GzipSource.isGzip(source)) {
+            try (InputStream inputStream =
+                    GzipSource.open(source, RecordSource.gzipDepth(options))) {
+                RecordSource recordSource =
+                        RecordSource.stream(inputStream, headerRecordDto, options, firstRecord);
+                return convert(
+                        recordSource,
+                        record -> -1,
+                        os,
+                        headers,
+                        generationType,
+                        options,
+                        firstRecord);
+            }
+        }
+        if (RecordConverter.isFixedFormat(headerRecordDto)) {
+            long fixedLength =
+                    RecordConverter.calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+            try (MappedFileReader mappedFileReader = new MappedFileReader(source)) {
+                RecordConverter.setFixedLengthIfNeeded(headerRecordDto, mappedFileReader);
+                RecordSource recordSource =
+                        new RecordSource(
+                                mappedFileReader.readBinaryFile(
+                                        firstRecord * fixedLength,
+                                        RecordSource.endOffset(
+                                                options.getToRecord(), fixedLength)),
+                                mappedFileReader,
+                                false,
+                                count -> {},
+                                () -> -1);
+                return convert(
+                        recordSource,
+                        record -> record * fixedLength,
+                        os,
+                        headers,
+                        generationType,
+                        options,
+                        firstRecord);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long skipRecords = firstRecord;
+            if (resume != null && resume.getInputOffset() >= 0) {
+                channel.position(resume.getInputOffset());
+                skipRecords = 0;
+            } else if (options.getRecordIndex() != null && skipRecords > 0) {
+                RecordRange range = options.getRecordIndex().locate(skipRecords);
+                channel.position(range.getStartOffset());
+                skipRecords -= range.getFirstRecord();
+            }
+            long startOffset = channel.position();
+            try (InputStream inputStream =
+                    RecordSource.readAhead(Channels.newInputStream(channel), options)) {
+                RecordSource recordSource =
+                        RecordSource.stream(inputStream, headerRecordDto, options, skipRecords);
+                return convert(
+                        recordSource,
+                        record -> {
+                            long offset = recordSource.getNextOffset().getAsLong();
+                            return offset < 0 ? -1 : startOffset + offset;
+                        },
+                        os,
+                        headers,
+                        generationType,
+                        options,
+                        firstRecord);
+            }
+        }
+    }
+
+    /**
+     * Converts the records with checkpoints. A resumed conversion replays the start of the output
+     * into a detached stream, so the writer continues the array after the last written group.
+     *
+     * @param recordSource the records to convert
+     * @param inputOffset the offset in the source of the record with the given number, -1 if
+     *     unknown
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @param firstRecord the number of the first record
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    private static long convert(
+            RecordSource recordSource,
+            LongUnaryOperator inputOffset,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options,
+            long firstRecord)
+            throws IOException {
+        Checkpoint resume = options.getResumeFrom();
+        PositionOutputStream output =
+                new PositionOutputStream(
+                        os, resume != null ? resume.getOutputPosition() : 0, resume != null);
+        long count;
+        try (Writer writer = generationType.getWriterFactory().create(output)) {
+            writer.writeStartArray();
+            int groupIndex = 0;
+            if (resume != null) {
+                groupIndex = resume.getGroupIndex();
+                if (groupIndex > 0) {
+                    writer.writeSegmentSeparator();
+                }
+                writer.flush();
+                output.attach();
+            }
+            Checkpointer checkpointer =
+                    options.getCheckpointFile() == null
+                            ? null
+                            : new Checkpointer(writer, output, inputOffset, options, firstRecord);
+            count =
+                    RecordConverter.convertRecords(
+                            RecordSource.limit(
+                                    recordSource.getRecords(),
+                                    RecordSource.recordCount(firstRecord, options.getToRecord())),
+                            writer,
+                            headers,
+                            options.getMode(),
+                            firstRecord,
+                            groupIndex,
+                            recordSource.getReader(),
+                            recordSource.isReusedBuffers(),
+                            checkpointer);
+            writer.writeEndArray();
+        }
+        if (options.getCheckpointFile() != null) {
+            Files.deleteIfExists(options.getCheckpointFile());
+        }
+        return count;
+    }
+}
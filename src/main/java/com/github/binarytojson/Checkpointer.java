@@ -0,0 +1,63 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.writer.Writer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.LongUnaryOperator;
+
+/** Saves a checkpoint after a written group once the checkpoint interval has passed. */
+final class Checkpointer {
+    private final Writer writer;
+    private final PositionOutputStream output;
+    private final LongUnaryOperator inputOffset;
+    private final Path checkpointFile;
+    private final long interval;
+    private long lastRecord;
+
+    /**
+     * Creates the checkpointer of a conversion.
+     *
+     * @param writer the writer of the converted data
+     * @param output the output stream of the writer, counting the written bytes
+     * @param inputOffset the offset in the source of the record with the given number, -1 if
+     *     unknown
+     * @param options the options of the conversion, with the checkpoint file and interval
+     * @param firstRecord the number of the first converted record
+     */
+    Checkpointer(
+            Writer writer,
+            PositionOutputStream output,
+            LongUnaryOperator inputOffset,
+            ConversionOptions options,
+            long firstRecord) {
+        this.writer = writer;
+        this.output = output;
+        this.inputOffset = inputOffset;
+        this.checkpointFile = options.getCheckpointFile();
+        this.interval = options.getCheckpointInterval();
+        this.lastRecord = firstRecord;
+    }
+
+    /**
+     * Saves a checkpoint if the interval has passed. The written groups are flushed to the output
+     * stream first, so the output position covers them.
+     *
+     * @param nextRecord the number of the next record
+     * @param groupIndex the number of groups written
+     * @throws IOException if the checkpoint could not be saved
+     */
+    void groupWritten(long nextRecord, int groupIndex) throws IOException {
+        if (nextRecord - lastRecord < interval) {
+            return;
+        }
+        writer.flush();
+        output.flush();
+        new Checkpoint(
+                        nextRecord,
+                        inputOffset.applyAsLong(nextRecord),
+                        groupIndex,
+                        output.getPosition())
+                .write(checkpointFile);
+        lastRecord = nextRecord;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.RecordIndex;
+import java.nio.file.Path;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Options controlling how a binary file is read and converted. */
+@Builder(toBuilder = true)
+@Getter
+public class ConversionOptions {
+
+    /** Default minimal number of records between two checkpoints. */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 100_000;
+
+    /** The mode in which records are written, WITH_ARRAY by default. */
+    @Builder.Default private final Mode mode = Mode.WITH_ARRAY;
+
+    /** The size of the input buffer, ten megabytes by default. */
+    @Builder.Default private final Cache cache = Cache.TEN_MEGABYTES;
+
+    /** Whether blocks of variable length records start with a block descriptor word (BDW). */
+    private final boolean blockDescriptors;
+
+    /** The number of the first record to convert, starting from 0. */
+    private final long fromRecord;
+
+    /** The number of the record after the last one to convert, all records by default. */
+    @Builder.Default private final long toRecord = Long.MAX_VALUE;
+
+    /**
+     * The distance between two converted groups of records, in groups, 1 by default to convert
+     * all of them. Groups hold one record unless the layout has several. The records between
+     * the converted groups are skipped without being decoded.
+     */
+    @Builder.Default private final long sampleEvery = 1;
+
+    /** The optional index of a variable length file, used to jump to the first record. */
+    private final RecordIndex recordIndex;
+
+    /**
+     * Whether the records are decoded by classes generated for the layout and compiled with the
+     * compiler of the running JDK. Layouts with repeated groups, and all layouts when there is no
+     * compiler, are interpreted as without this option.
+     */
+    private final boolean generatedDecoders;
+
+    /**
+     * Whether the headers are versions of one layout told apart by the length of their records.
+     * Every record is then converted with the version of its length, instead of the headers being
+     * taken in turn, and the records are read as variable length records.
+     */
+    private final boolean versionsByLength;
+
+    /**
+     * The offset of the byte telling apart the versions of the same length, matched against the
+     * VERSION('c') of their headers, -1 by default when the length is enough.
+     */
+    @Builder.Default private final int versionOffset = -1;
+
+    /** The number of threads converting a file in parallel, 1 by default. */
+    @Builder.Default private final int threads = 1;
+
+    /**
+     * The number of input buffers read ahead on a dedicated I/O thread, 0 to read on the
+     * converting thread. A stream given to the conversion is closed at its end when reading ahead.
+     */
+    private final int readAheadDepth;
+
+    /**
+     * The file in which the state of the conversion is saved, null to convert without
+     * checkpoints. Checkpoints are taken only after whole groups, so layouts grouped by segment
+     * name are converted without them.
+     */
+    private final Path checkpointFile;
+
+    /** The minimal number of records between two checkpoints, 100000 by default. */
+    @Builder.Default private final long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /**
+     * The checkpoint of an interrupted conversion to resume. The output stream must continue the
+     * output at the position of the checkpoint.
+     */
+    private final Checkpoint resumeFrom;
+}
@@ -1,50 +1,37 @@
 package com.github.binarytojson;
 
-import com.github.binarytojson.reader.file.BufferedInputStreamReader;
+import com.github.binarytojson.reader.file.FileSplit;
+import com.github.binarytojson.reader.file.GzipSource;
 import com.github.binarytojson.reader.file.IReader;
+import com.github.binarytojson.reader.file.MappedFileReader;
+import com.github.binarytojson.reader.file.RecordIndex;
+import com.github.binarytojson.reader.file.RecordRange;
+import com.github.binarytojson.reader.file.SplitReader;
+import com.github.binarytojson.reader.file.VariableRecordReader;
+import com.github.binarytojson.reader.source.PrefetchInputStream;
+import com.github.binarytojson.reader.source.RangedSource;
 import com.github.binarytojson.reader.structure.StructureRecord;
-import com.github.binarytojson.type.DataType;
 import com.github.binarytojson.type.HeaderRecordDto;
-import com.github.binarytojson.type.HeaderRecordType;
 import com.github.binarytojson.type.PrimitiveType;
 import com.github.binarytojson.writer.Writer;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.AbstractMap;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class EbcdicToAsciiConvertor {
 
-    private static final String FILL_KEY = "FILL1";
-    private static final String SEG_NAME_KEY = "SEGNAME";
-    private static final String HEADER_NAME_SKIP = "SKIP";
-    private static final List<PrimitiveType> FILL_AND_SEG_NAME =
-            Arrays.asList(
-                    PrimitiveType.builder()
-                            .name(FILL_KEY)
-                            .dataType(DataType.CHAR)
-                            .level(1)
-                            .length(6)
-                            .build(),
-                    PrimitiveType.builder()
-                            .name(SEG_NAME_KEY)
-                            .dataType(DataType.CHAR)
-                            .level(1)
-                            .length(8)
-                            .build());
-
-    private final BufferedInputStreamReader reader = new BufferedInputStreamReader();
-
-    public void convert(
+    public long convert(
             InputStream inputStream,
             OutputStream os,
             List<HeaderRecordDto> headers,
@@ -52,160 +39,488 @@ public class EbcdicToAsciiConvertor {
             Cache cache,
             Mode... modes)
             throws IOException {
-        Iterable<byte[]> records =
-                reader.readBinaryFile(new BufferedInputStream(inputStream, cache.getBufferSize()));
-        Mode mode = modes.length == 0 ? Mode.WITH_ARRAY : modes[0];
+        return convert(
+                inputStream,
+                os,
+                headers,
+                generationType,
+                options(modes).toBuilder().cache(cache).build());
+    }
+
+    /**
+     * Converts the binary data read from the given stream.
+     *
+     * @param inputStream the stream with the binary data
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    public long convert(
+            InputStream inputStream,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        generateDecoders(headers, options);
+        headers = versions(headers, options);
+        if (options.getReadAheadDepth() > 0) {
+            try (InputStream readAheadStream = RecordSource.readAhead(inputStream, options)) {
+                return convertStream(
+                        readAheadStream,
+                        os,
+                        headers,
+                        generationType,
+                        options,
+                        options.getFromRecord());
+            }
+        }
+        return convertStream(
+                inputStream, os, headers, generationType, options, options.getFromRecord());
+    }
+
+    /**
+     * Converts the binary data of a ranged source, such as an object read over HTTP. The source is
+     * read in chunks fetched concurrently, the read ahead depth of the options giving the number
+     * of chunks fetched at the same time. Compressed sources are inflated, and the first records
+     * skipped in an uncompressed source are not fetched past the chunks already requested. The
+     * source is left open.
+     *
+     * @param source the source with the binary data
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    public long convert(
+            RangedSource source,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        generateDecoders(headers, options);
+        headers = versions(headers, options);
+        try (InputStream inputStream =
+                GzipSource.inflateIfGzip(
+                        new PrefetchInputStream(
+                                source,
+                                PrefetchInputStream.DEFAULT_CHUNK_SIZE,
+                                options.getReadAheadDepth() > 0
+                                        ? options.getReadAheadDepth()
+                                        : PrefetchInputStream.DEFAULT_DEPTH),
+                        RecordSource.gzipDepth(options))) {
+            return convertStream(
+                    inputStream, os, headers, generationType, options, options.getFromRecord());
+        }
+    }
+
+    /**
+     * Converts the file at the given path. Files with fixed length records are read through memory
+     * mapped chunks, other files are read as a stream.
+     *
+     * @param source the path of the binary file
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param modes the optional mode, WITH_ARRAY by default
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    public long convert(
+            Path source,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            Mode... modes)
+            throws IOException {
+        return convert(source, os, headers, generationType, options(modes));
+    }
+
+    /**
+     * Converts the file at the given path. Files with fixed length records are read through memory
+     * mapped chunks, other files are read as a stream. With a read ahead depth, a single threaded
+     * conversion reads every file as a stream filled ahead on a dedicated I/O thread. Gzip
+     * compressed files are always inflated on such a thread and converted on one thread, as are
+     * conversions with checkpoints.
+     *
+     * @param source the path of the binary file
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    public long convert(
+            Path source,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        generateDecoders(headers, options);
+        return convertFile(source, os, versions(headers, options), generationType, options);
+    }
+
+    private long convertFile(
+            Path source,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        if (options.getCheckpointFile() != null || options.getResumeFrom() != null) {
+            return CheckpointConverter.convert(source, os, headers, generationType, options);
+        }
         HeaderRecordDto headerRecordDto = headers.get(0);
-        setFixedLengthIfNeeded(headerRecordDto, reader);
-        try (Writer writer = generationType.getWriterFactory().create(os)) {
-            writer.writeStartArray();
-            int index = 0;
-            int groupIndex = 0;
-            List<StructureRecord> structureRecords = new ArrayList<>();
-            String headerName =
-                    headers.stream()
-                            .filter(it -> it.getPrimitiveTypes().get(0).isRootElement())
-                            .findFirst()
-                            .map(it -> it.getPrimitiveTypes().get(0).getName())
-                            .orElse(null);
+        if (GzipSource.isGzip(source)) {
+            try (InputStream inputStream =
+                    GzipSource.open(source, RecordSource.gzipDepth(options))) {
+                return convertStream(
+                        inputStream,
+                        os,
+                        headers,
+                        generationType,
+                        options,
+                        options.getFromRecord());
+            }
+        }
+        if (!RecordConverter.isFixedFormat(headerRecordDto)) {
             List<HeaderRecordDto> headersWithoutRoot =
-                    headers.stream()
-                            .filter(it -> !it.getPrimitiveTypes().get(0).isRootElement())
-                            .collect(Collectors.toList());
-            for (byte[] bytes : records) {
-                HeaderRecordDto headerRecord = getHeaderRecordDto(headersWithoutRoot, index, bytes);
-                List<PrimitiveType> primitiveTypes =
-                        headerRecord.getPrimitiveTypes().stream()
-                                .map(PrimitiveType::copy)
-                                .collect(Collectors.toList());
-                if (HEADER_NAME_SKIP.equals(primitiveTypes.get(0).getName())) {
-                    index++;
-                    continue;
+                    RecordConverter.getHeadersWithoutRoot(headers);
+            if (ParallelConverter.isParallel(headersWithoutRoot, options)) {
+                RecordIndex recordIndex =
+                        options.getRecordIndex() != null
+                                ? options.getRecordIndex()
+                                : RecordIndex.build(
+                                        source,
+                                        RecordIndex.DEFAULT_INTERVAL,
+                                        options.isBlockDescriptors());
+                List<RecordRange> ranges =
+                        recordIndex.split(
+                                options.getFromRecord(),
+                                options.getToRecord(),
+                                ParallelConverter.rangeCount(options),
+                                headersWithoutRoot.size());
+                if (ranges.size() > 1) {
+                    return ParallelConverter.convertVariable(
+                            source, recordIndex, ranges, os, headers, generationType, options);
+                }
+            }
+            RecordIndex recordIndex = options.getRecordIndex();
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                long skipRecords = options.getFromRecord();
+                if (recordIndex != null && skipRecords > 0) {
+                    RecordRange range = recordIndex.locate(skipRecords);
+                    channel.position(range.getStartOffset());
+                    skipRecords -= range.getFirstRecord();
+                }
+                try (InputStream inputStream =
+                        RecordSource.readAhead(Channels.newInputStream(channel), options)) {
+                    return convertStream(
+                            inputStream, os, headers, generationType, options, skipRecords);
                 }
-                StructureRecord structureRecord = new StructureRecord(bytes, primitiveTypes);
-                if (HEADER_NAME_SKIP.equals(
-                        headersWithoutRoot.get(0).getPrimitiveTypes().get(0).getName())) {
-                    int level = primitiveTypes.get(0).getLevel();
-                    if (level == 1 && !structureRecords.isEmpty()) {
-                        writeGroup(mode, structureRecords, groupIndex, writer);
-                        groupIndex++;
-                    }
-                    structureRecords.add(structureRecord);
-                } else {
-                    structureRecords.add(structureRecord);
-                    groupIndex =
-                            updateGroupIndex(
-                                    headersWithoutRoot,
-                                    headerName,
-                                    mode,
-                                    index,
-                                    groupIndex,
-                                    writer,
-                                    structureRecords);
+            }
+        }
+        int fixedLength = RecordConverter.calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+        if (options.getReadAheadDepth() > 0
+                && options.getThreads() <= 1
+                && options.getSampleEvery() <= 1) {
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                channel.position(options.getFromRecord() * fixedLength);
+                try (InputStream inputStream =
+                        RecordSource.readAhead(Channels.newInputStream(channel), options)) {
+                    return convertStream(inputStream, os, headers, generationType, options, 0);
+                }
+            }
+        }
+        try (MappedFileReader mappedFileReader = new MappedFileReader(source)) {
+            RecordConverter.setFixedLengthIfNeeded(headerRecordDto, mappedFileReader);
+            List<HeaderRecordDto> headersWithoutRoot =
+                    RecordConverter.getHeadersWithoutRoot(headers);
+            if (ParallelConverter.isParallel(headersWithoutRoot, options)) {
+                List<RecordRange> ranges =
+                        mappedFileReader.split(
+                                options.getFromRecord(),
+                                options.getToRecord(),
+                                ParallelConverter.rangeCount(options),
+                                headersWithoutRoot.size());
+                if (ranges.size() > 1) {
+                    return ParallelConverter.convertFixed(
+                            mappedFileReader, ranges, os, headers, generationType, options);
                 }
-                index++;
             }
-            if (!structureRecords.isEmpty()) {
-                writeGroup(mode, structureRecords, groupIndex, writer);
+            return RecordConverter.convertRecords(
+                    mappedFileReader.readSample(
+                            options.getFromRecord() * fixedLength,
+                            RecordSource.endOffset(options.getToRecord(), fixedLength),
+                            RecordSource.sampleGroupSize(headersWithoutRoot, options),
+                            options.getSampleEvery()),
+                    os,
+                    headers,
+                    generationType,
+                    options.getMode(),
+                    options.getFromRecord(),
+                    mappedFileReader,
+                    false);
+        }
+    }
+
+    /**
+     * Converts the records owned by a split of a file, independently of the other splits. The
+     * records are written as one output, so the outputs of the splits concatenated in order hold
+     * every record once. Variable length splits are resynchronized on the records, which works
+     * only for layouts with one record per group. The record range and sampling of the options do
+     * not apply to splits.
+     *
+     * @param split the split of the file to convert
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    public long convert(
+            FileSplit split,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        generateDecoders(headers, options);
+        headers = versions(headers, options);
+        if (GzipSource.isGzip(split.getPath())) {
+            throw new IllegalArgumentException("Compressed files can not be split");
+        }
+        HeaderRecordDto headerRecordDto = headers.get(0);
+        List<HeaderRecordDto> headersWithoutRoot = RecordConverter.getHeadersWithoutRoot(headers);
+        if (RecordConverter.isSegmentNameGrouping(headersWithoutRoot)) {
+            throw new IllegalArgumentException(
+                    "Splits are not supported for layouts grouped by segment name");
+        }
+        try (SplitReader splitReader =
+                new SplitReader(
+                        split, options.getCache().getBufferSize(), options.isBlockDescriptors())) {
+            RecordConverter.setFixedLengthIfNeeded(headerRecordDto, splitReader);
+            splitReader.setGroupSize(headersWithoutRoot.size());
+            Iterable<ByteBuffer> records = splitReader.readRecords();
+            boolean fixedFormat = RecordConverter.isFixedFormat(headerRecordDto);
+            long firstIndex =
+                    fixedFormat && splitReader.getStartOffset() > 0
+                            ? splitReader.getStartOffset()
+                                    / RecordConverter.calculateFixedLength(
+                                            headerRecordDto.getPrimitiveTypes())
+                            : 0;
+            return RecordConverter.convertRecords(
+                    records,
+                    os,
+                    headers,
+                    generationType,
+                    options.getMode(),
+                    firstIndex,
+                    splitReader,
+                    !fixedFormat);
+        }
+    }
+
+    /**
+     * Counts the records of a file. Fixed length records are counted from the size of the file,
+     * variable length records from the index, which is built if not given. Gzip compressed files
+     * are inflated to count their records.
+     *
+     * @param source the path of the binary file
+     * @param headers the list of header records describing the layout
+     * @param options the options of the conversion
+     * @return the number of records in the file
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public long countRecords(Path source, List<HeaderRecordDto> headers, ConversionOptions options)
+            throws IOException {
+        headers = versions(headers, options);
+        HeaderRecordDto headerRecordDto = headers.get(0);
+        if (GzipSource.isGzip(source)) {
+            try (InputStream inputStream =
+                    GzipSource.open(source, RecordSource.gzipDepth(options))) {
+                return countRecords(inputStream, headerRecordDto, options);
             }
-            writer.writeEndArray();
         }
+        if (RecordConverter.isFixedFormat(headerRecordDto)) {
+            long fixedLength =
+                    RecordConverter.calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+            return (Files.size(source) + fixedLength - 1) / fixedLength;
+        }
+        RecordIndex recordIndex = options.getRecordIndex();
+        if (recordIndex == null) {
+            recordIndex =
+                    RecordIndex.build(
+                            source, RecordIndex.DEFAULT_INTERVAL, options.isBlockDescriptors());
+        }
+        return recordIndex.getRecordCount();
     }
 
-    void setFixedLengthIfNeeded(HeaderRecordDto headerRecordDto, IReader reader) {
-        if (HeaderRecordType.FIXED_FORMAT.equals(headerRecordDto.getRecordType())) {
-            int length = calculateFixedLength(headerRecordDto.getPrimitiveTypes());
-            reader.setFixedLength(length);
-        } else {
-            reader.setFixedLength(0);
+    /**
+     * Counts the records of a stream by skipping them.
+     *
+     * @param inputStream the stream with the binary data
+     * @param headerRecordDto the first header record describing the layout
+     * @param options the options of the conversion
+     * @return the number of records in the stream
+     * @throws IOException if an I/O error occurs while reading the stream
+     */
+    private long countRecords(
+            InputStream inputStream, HeaderRecordDto headerRecordDto, ConversionOptions options)
+            throws IOException {
+        if (RecordConverter.isFixedFormat(headerRecordDto)) {
+            long fixedLength =
+                    RecordConverter.calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+            long length = 0;
+            long skipped;
+            while ((skipped = inputStream.skip(Long.MAX_VALUE)) > 0) {
+                length += skipped;
+            }
+            return (length + fixedLength - 1) / fixedLength;
         }
+        VariableRecordReader variableRecordReader =
+                new VariableRecordReader(
+                        inputStream,
+                        options.getCache().getBufferSize(),
+                        options.isBlockDescriptors());
+        long count = 0;
+        while (variableRecordReader.skipRecord()) {
+            count++;
+        }
+        return count;
     }
 
-    int calculateFixedLength(List<PrimitiveType> fields) {
-        if (fields == null) {
-            return 0;
+    /**
+     * Converts the binary data read from the given stream, skipping the given number of records.
+     *
+     * @param inputStream the stream with the binary data
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @param skipRecords the number of records to skip in the stream
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    private long convertStream(
+            InputStream inputStream,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options,
+            long skipRecords)
+            throws IOException {
+        RecordSource recordSource =
+                RecordSource.stream(inputStream, headers.get(0), options, skipRecords);
+        return RecordConverter.convertRecords(
+                recordSource.select(RecordConverter.getHeadersWithoutRoot(headers), options),
+                os,
+                headers,
+                generationType,
+                options.getMode(),
+                options.getFromRecord(),
+                recordSource.getReader(),
+                recordSource.isReusedBuffers());
+    }
+
+    /**
+     * Converts the complete groups of records appended to a growing file after the given state.
+     * The records are written to the given writer, which stays open for the next call. Bytes of
+     * a record which is still being appended are left for the next call.
+     *
+     * @param source the path of the binary file
+     * @param writer the writer of the converted data
+     * @param headers the list of header records describing the layout
+     * @param options the options of the conversion
+     * @param state the state after the records converted before
+     * @return the range of the converted records, empty if no group was complete
+     * @throws IOException if an I/O error occurs or the file was truncated
+     */
+    RecordRange convertAppended(
+            Path source,
+            Writer writer,
+            List<HeaderRecordDto> headers,
+            ConversionOptions options,
+            Checkpoint state)
+            throws IOException {
+        generateDecoders(headers, options);
+        return TailConverter.convert(source, writer, versions(headers, options), options, state);
+    }
+
+    /**
+     * Generates the decoders of the records when the options ask for them.
+     *
+     * @param headers the list of header records describing the layout
+     * @param options the options of the conversion
+     */
+    private static void generateDecoders(
+            List<HeaderRecordDto> headers, ConversionOptions options) {
+        if (options.isGeneratedDecoders()) {
+            headers.forEach(header -> header.getPlan().generateDecoder());
         }
-        int totalLength = 0;
-        for (PrimitiveType field : fields) {
-            totalLength += field.getLength();
-            totalLength += calculateFixedLength(field.getFields());
+    }
+
+    /**
+     * Replaces the headers by the {@link LayoutVersions} of the layout when the options tell the
+     * headers apart by the length of their records.
+     *
+     * @param headers the list of header records describing the layout
+     * @param options the options of the conversion
+     * @return the versions followed by the root headers, or the given headers
+     */
+    private static List<HeaderRecordDto> versions(
+            List<HeaderRecordDto> headers, ConversionOptions options) {
+        if (!options.isVersionsByLength()
+                || headers.stream().anyMatch(LayoutVersions.class::isInstance)) {
+            return headers;
         }
-        return totalLength;
+        List<HeaderRecordDto> versions = new ArrayList<>();
+        versions.add(
+                new LayoutVersions(
+                        RecordConverter.getHeadersWithoutRoot(headers),
+                        options.getVersionOffset()));
+        headers.stream()
+                .filter(it -> it.getPrimitiveTypes().get(0).isRootElement())
+                .forEach(versions::add);
+        return versions;
+    }
+
+    private static ConversionOptions options(Mode... modes) {
+        return ConversionOptions.builder()
+                .mode(modes.length == 0 ? Mode.WITH_ARRAY : modes[0])
+                .build();
+    }
+
+    void setFixedLengthIfNeeded(HeaderRecordDto headerRecordDto, IReader reader) {
+        RecordConverter.setFixedLengthIfNeeded(headerRecordDto, reader);
+    }
+
+    int calculateFixedLength(List<PrimitiveType> fields) {
+        return RecordConverter.calculateFixedLength(fields);
     }
 
     int updateGroupIndex(
             List<HeaderRecordDto> headers,
             String rootName,
             Mode mode,
-            int index,
+            long index,
             int groupIndex,
             Writer writer,
             List<StructureRecord> structureRecords) {
-        if ((index + 1) % headers.size() == 0) {
-            if (groupIndex == 0) {
-                writer.writeHeader(structureRecords, mode, rootName);
-            }
-            writer.writeObject(structureRecords, mode, rootName);
-            groupIndex++;
-            structureRecords.clear();
-        }
-        return groupIndex;
-    }
-
-    private void writeGroup(
-            Mode mode, List<StructureRecord> structureRecords, int groupIndex, Writer writer) {
-        StructureRecord structureRecordGroup =
-                new StructureRecord(
-                        convertToByteArray(
-                                structureRecords.stream()
-                                        .map(
-                                                structureRecord ->
-                                                        new AbstractMap.SimpleEntry<>(
-                                                                structureRecord.getBytes(),
-                                                                calculateFixedLength(
-                                                                        structureRecord
-                                                                                .getTypes())))
-                                        .collect(Collectors.toList())),
-                        structureRecords.stream()
-                                .flatMap(it -> it.getTypes().stream())
-                                .collect(Collectors.toList()));
-        if (groupIndex == 0) {
-            writer.writeHeader(Collections.singletonList(structureRecordGroup), mode, null);
-        }
-        writer.writeObject(Collections.singletonList(structureRecordGroup), mode, null);
-        structureRecords.clear();
+        return RecordConverter.updateGroupIndex(
+                headers, rootName, mode, index, groupIndex, writer, structureRecords);
     }
 
     byte[] convertToByteArray(List<Map.Entry<byte[], Integer>> byteArrayList) {
-        int totalLength = 0;
-        for (Map.Entry<byte[], Integer> byteArray : byteArrayList) {
-            totalLength += byteArray.getValue();
-        }
-        byte[] result = new byte[totalLength];
-        int currentIndex = 0;
-        for (Map.Entry<byte[], Integer> byteArray : byteArrayList) {
-            System.arraycopy(byteArray.getKey(), 0, result, currentIndex, byteArray.getValue());
-            currentIndex += byteArray.getValue();
-        }
-        return result;
-    }
-
-    private HeaderRecordDto getHeaderRecordDto(
-            List<HeaderRecordDto> headers, int index, byte[] bytes) {
-        if (HEADER_NAME_SKIP.equals(headers.get(0).getPrimitiveTypes().get(0).getName())) {
-            StructureRecord structureRecord = new StructureRecord(bytes, FILL_AND_SEG_NAME);
-            Map<String, Object> map =
-                    structureRecord.processList(FILL_AND_SEG_NAME, null, Mode.WITHOUT_ARRAY);
-            Optional<HeaderRecordDto> foundHeader =
-                    headers.stream()
-                            .filter(
-                                    it ->
-                                            Objects.equals(
-                                                    map.get(SEG_NAME_KEY),
-                                                    it.getPrimitiveTypes().get(0).getName()))
-                            .findFirst();
-            return foundHeader.orElse(headers.get(index % headers.size()));
-        }
-        return headers.get(index % headers.size());
+        return RecordConverter.convertToByteArray(byteArrayList);
     }
 }
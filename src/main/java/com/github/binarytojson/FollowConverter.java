@@ -0,0 +1,163 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.GzipSource;
+import com.github.binarytojson.reader.file.RecordRange;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.writer.ChannelOutputStream;
+import com.github.binarytojson.writer.FlushPolicy;
+import com.github.binarytojson.writer.Writer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts a file which is appended to continuously into newline delimited JSON. Only complete
+ * groups of records are converted, the bytes of a record which is still being appended are
+ * converted once the record is complete.
+ *
+ * <p>The state after the converted records is saved as a {@link Checkpoint} next to the output
+ * after every conversion. A restarted follower truncates the output to the saved position and
+ * continues with the next record, so no record is lost or written twice.
+ *
+ * <p>Appended bytes are detected through a {@link WatchService} on the directory of the source.
+ * The poll interval bounds the wait on file systems which do not report changes, such as network
+ * shares.
+ */
+@Slf4j
+public class FollowConverter implements Closeable {
+
+    /** Default interval between two checks of the size of the source, in milliseconds. */
+    public static final long DEFAULT_POLL_INTERVAL = 1000;
+
+    private final EbcdicToAsciiConvertor convertor;
+    private final Path source;
+    private final List<HeaderRecordDto> headers;
+    private final ConversionOptions options;
+    private final int groupSize;
+    private final Path checkpointFile;
+    private final PositionOutputStream output;
+    private final Writer writer;
+    private volatile boolean stopped;
+
+    /** The state after the records converted so far. */
+    @Getter private Checkpoint state;
+
+    /**
+     * Opens the output of the source, continuing after the saved state if there is one. Without
+     * saved state, the output is replaced and the source is followed from its first record.
+     *
+     * @param convertor the convertor of the records
+     * @param source the path of the followed file
+     * @param output the path of the output file
+     * @param headers the list of header records describing the layout
+     * @param options the options of the conversion
+     * @param outputBufferSize the size of the output buffer
+     * @throws IOException if the state could not be read or the output could not be opened
+     */
+    public FollowConverter(
+            EbcdicToAsciiConvertor convertor,
+            Path source,
+            Path output,
+            List<HeaderRecordDto> headers,
+            ConversionOptions options,
+            int outputBufferSize)
+            throws IOException {
+        if (GzipSource.isGzip(source)) {
+            throw new IllegalArgumentException("Compressed sources can not be followed");
+        }
+        this.convertor = convertor;
+        this.source = source;
+        this.headers = headers;
+        this.options = options;
+        this.groupSize = RecordConverter.getHeadersWithoutRoot(headers).size();
+        this.checkpointFile = Checkpoint.sidecarOf(output);
+        ChannelOutputStream outputStream;
+        if (Files.exists(checkpointFile)) {
+            state = Checkpoint.read(checkpointFile);
+            log.info("Following {} from record {}", source, state.getRecord());
+            outputStream =
+                    ChannelOutputStream.openAt(
+                            output, state.getOutputPosition(), outputBufferSize, FlushPolicy.FLUSH);
+        } else {
+            state = new Checkpoint(0, 0, 0, 0);
+            outputStream = ChannelOutputStream.open(output, outputBufferSize, FlushPolicy.FLUSH);
+        }
+        this.output = new PositionOutputStream(outputStream, state.getOutputPosition(), false);
+        this.writer = GenerationType.NDJSON.getWriterFactory().create(this.output);
+    }
+
+    /**
+     * Converts the complete groups of records appended since the last conversion and saves the
+     * new state once they are written.
+     *
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs or the source was truncated
+     */
+    public long convertAppended() throws IOException {
+        RecordRange range = convertor.convertAppended(source, writer, headers, options, state);
+        if (range.getRecordCount() == 0) {
+            return 0;
+        }
+        writer.flush();
+        output.flush();
+        int groups = (int) (range.getRecordCount() / groupSize);
+        state =
+                new Checkpoint(
+                        range.getFirstRecord() + range.getRecordCount(),
+                        range.getEndOffset(),
+                        state.getGroupIndex() + groups,
+                        output.getPosition());
+        state.write(checkpointFile);
+        log.debug("Converted {} records appended to {}", range.getRecordCount(), source);
+        return range.getRecordCount();
+    }
+
+    /**
+     * Follows the source until {@link #stop()} is called or the thread is interrupted.
+     *
+     * @param pollInterval the maximal time between two checks of the source, in milliseconds
+     * @throws IOException if an I/O error occurs or the source was truncated
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void run(long pollInterval) throws IOException, InterruptedException {
+        Path directory = source.toAbsolutePath().getParent();
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            while (!stopped) {
+                convertAppended();
+                WatchKey key = watchService.poll(pollInterval, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    // the events of the directory are not needed, only the wake up
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        }
+    }
+
+    /** Stops following the source after the current conversion. */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Closes the output. The saved state stays, so that a new follower continues after it.
+     *
+     * @throws IOException if an I/O error occurs while closing the output
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -3,6 +3,7 @@ package com.github.binarytojson;
 import com.github.binarytojson.writer.factory.CsvWriterFactory;
 import com.github.binarytojson.writer.factory.JsonCompactWriterFactory;
 import com.github.binarytojson.writer.factory.JsonWriterFactory;
+import com.github.binarytojson.writer.factory.NdjsonWriterFactory;
 import com.github.binarytojson.writer.factory.WriterFactory;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,13 +17,19 @@ import lombok.Getter;
 public enum GenerationType {
 
     /** JSON generation type using JsonWriterFactory. */
-    JSON(new JsonWriterFactory()),
+    JSON(new JsonWriterFactory(), ".json"),
 
     /** Compact JSON generation type using JsonCompactWriterFactory. */
-    JSON_COMPACT(new JsonCompactWriterFactory()),
+    JSON_COMPACT(new JsonCompactWriterFactory(), ".compact.json"),
 
     /** CSV generation type using CsvWriterFactory. */
-    CSV(new CsvWriterFactory());
+    CSV(new CsvWriterFactory(), ".csv"),
+
+    /** Newline delimited JSON generation type using NdjsonWriterFactory. */
+    NDJSON(new NdjsonWriterFactory(), ".ndjson");
 
     private final WriterFactory writerFactory;
+
+    /** The extension appended to the base path of the output files. */
+    private final String fileExtension;
 }
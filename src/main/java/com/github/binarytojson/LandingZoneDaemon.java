@@ -0,0 +1,250 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.RecordIndex;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long running conversion of the files arriving in a drop directory. Every file is matched to a
+ * layout by the first {@link LayoutRule} matching its name, and converted once its size and
+ * modification time have been stable for the stable period, so that files still being
+ * transferred are left alone. Converted files are moved to the done directory, files which
+ * failed or match no rule to the error directory. A file which could not be moved stays in the
+ * drop directory and is not converted again.
+ *
+ * <p>The layouts are parsed once and the convertor is shared by all files, so a file pays neither
+ * the start of a JVM, nor the parsing of its layout, nor a cold JIT. Arrivals are detected through
+ * a {@link WatchService}, the poll interval bounds the wait on file systems which do not report
+ * changes.
+ */
+@Slf4j
+public class LandingZoneDaemon implements Closeable {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final BatchConverter batchConverter;
+    private final List<LayoutRule> rules;
+    private final LandingZoneOptions options;
+    private final ExecutorService executor;
+    private final Map<Path, FileState> pending = new HashMap<>();
+    private final Set<Path> inProgress = ConcurrentHashMap.newKeySet();
+    private final Set<Path> failed = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped;
+
+    /**
+     * Creates the daemon and the done and error directories.
+     *
+     * @param convertor the convertor shared by all files
+     * @param rules the rules matching files to layouts, in order of priority
+     * @param options the options of the daemon
+     * @throws IOException if a directory could not be created
+     */
+    public LandingZoneDaemon(
+            EbcdicToAsciiConvertor convertor, List<LayoutRule> rules, LandingZoneOptions options)
+            throws IOException {
+        this.batchConverter =
+                new BatchConverter(convertor, options.getJobs(), options.getOutputBufferSize());
+        this.rules = rules;
+        this.options = options;
+        Files.createDirectories(options.getTargetDirectory());
+        Files.createDirectories(options.getDoneDirectory());
+        Files.createDirectories(options.getErrorDirectory());
+        this.executor = Executors.newFixedThreadPool(options.getJobs());
+    }
+
+    /**
+     * Checks the files of the drop directory and submits the stable ones for conversion.
+     *
+     * @return the number of files submitted
+     * @throws IOException if the drop directory could not be listed
+     */
+    public int scan() throws IOException {
+        long now = System.currentTimeMillis();
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(options.getDropDirectory())) {
+            files =
+                    stream.filter(Files::isRegularFile)
+                            .filter(it -> !it.getFileName().toString().startsWith("."))
+                            .filter(it -> !it.toString().endsWith(RecordIndex.EXTENSION))
+                            .sorted()
+                            .collect(Collectors.toList());
+        }
+        pending.keySet().retainAll(files);
+        failed.retainAll(files);
+        int submitted = 0;
+        for (Path file : files) {
+            if (inProgress.contains(file) || failed.contains(file)) {
+                continue;
+            }
+            FileState state;
+            try {
+                state =
+                        new FileState(
+                                Files.size(file), Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                // the file was moved away between the listing and now
+                continue;
+            }
+            FileState previous = pending.get(file);
+            if (previous == null || !previous.isSame(state)) {
+                state.since = now;
+                pending.put(file, state);
+                continue;
+            }
+            if (now - previous.since >= options.getStablePeriod()) {
+                pending.remove(file);
+                inProgress.add(file);
+                executor.submit(() -> process(file));
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * Watches the drop directory until {@link #stop()} is called or the thread is interrupted.
+     *
+     * @param pollInterval the maximal time between two checks of the drop directory, in
+     *     milliseconds
+     * @throws IOException if the drop directory could not be watched or listed
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void run(long pollInterval) throws IOException, InterruptedException {
+        Path directory = options.getDropDirectory();
+        // a pending file is checked again once its stable period has passed
+        long wait = Math.max(1, Math.min(pollInterval, options.getStablePeriod()));
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            while (!stopped) {
+                scan();
+                WatchKey key =
+                        watchService.poll(
+                                pending.isEmpty() ? pollInterval : wait, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    // the events are not needed, the directory is listed again
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        }
+    }
+
+    /** Stops watching the drop directory after the current check. */
+    public void stop() {
+        stopped = true;
+    }
+
+    /** Waits for the submitted conversions and stops the threads converting the files. */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Conversions still running after {} s", SHUTDOWN_TIMEOUT_SECONDS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Converts one file and moves it to the done or error directory. Outputs of a failed file are
+     * deleted. A file which could not be processed or moved is recorded as failed, so that it is
+     * not submitted again while it stays in the drop directory.
+     *
+     * @param file the path of the file
+     */
+    private void process(Path file) {
+        try {
+            LayoutRule rule = LayoutRule.find(rules, file);
+            boolean successful;
+            if (rule == null) {
+                log.error("No layout rule matches {}", file);
+                successful = false;
+            } else {
+                BatchResult result =
+                        batchConverter.convertFile(
+                                file,
+                                options.getTargetDirectory(),
+                                rule.getHeaders(),
+                                options.getGenerationTypes(),
+                                options.getConversionOptions());
+                successful = result.isSuccessful();
+                if (successful) {
+                    log.info(
+                            "{}: {} records in {} ms",
+                            file.getFileName(),
+                            result.getRecords(),
+                            result.getNanos() / 1_000_000);
+                } else {
+                    deleteOutputs(file);
+                }
+            }
+            Path directory =
+                    successful ? options.getDoneDirectory() : options.getErrorDirectory();
+            Files.move(
+                    file,
+                    directory.resolve(file.getFileName()),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error processing {}: {}", file, e.getMessage());
+            failed.add(file);
+            try {
+                deleteOutputs(file);
+            } catch (IOException deleteException) {
+                log.error(
+                        "Error deleting the outputs of {}: {}",
+                        file,
+                        deleteException.getMessage());
+            }
+        } finally {
+            inProgress.remove(file);
+        }
+    }
+
+    private void deleteOutputs(Path file) throws IOException {
+        for (GenerationType generationType : options.getGenerationTypes()) {
+            Files.deleteIfExists(
+                    options.getTargetDirectory()
+                            .resolve(file.getFileName() + generationType.getFileExtension()));
+        }
+    }
+
+    /** Size and modification time of a pending file, with the time since they are unchanged. */
+    private static final class FileState {
+        private final long size;
+        private final long lastModified;
+        private long since;
+
+        private FileState(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isSame(FileState other) {
+            return size == other.size && lastModified == other.lastModified;
+        }
+    }
+}
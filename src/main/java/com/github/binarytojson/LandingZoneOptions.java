@@ -0,0 +1,70 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.writer.ChannelOutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Options of a {@link LandingZoneDaemon}. */
+@Builder(toBuilder = true)
+@Getter
+public class LandingZoneOptions {
+
+    /** Default time a file must stay unchanged before it is converted, in milliseconds. */
+    public static final long DEFAULT_STABLE_PERIOD = 2000;
+
+    /** The directory where files arrive. */
+    private final Path dropDirectory;
+
+    /** The directory of the output files. */
+    private final Path targetDirectory;
+
+    /** The directory of the converted files, the done folder of the drop directory by default. */
+    private final Path doneDirectory;
+
+    /**
+     * The directory of the files which failed, the error folder of the drop directory by default.
+     */
+    private final Path errorDirectory;
+
+    /** The output formats, JSON by default. */
+    @Builder.Default
+    private final List<GenerationType> generationTypes =
+            Collections.singletonList(GenerationType.JSON);
+
+    /** The options of the conversions. */
+    @Builder.Default
+    private final ConversionOptions conversionOptions = ConversionOptions.builder().build();
+
+    /** The number of files converted at the same time, 1 by default. */
+    @Builder.Default private final int jobs = 1;
+
+    /** The size of the buffer of every output file. */
+    @Builder.Default private final int outputBufferSize = ChannelOutputStream.DEFAULT_BUFFER_SIZE;
+
+    /**
+     * The time during which the size and modification time of a file must not change before it
+     * is converted, in milliseconds.
+     */
+    @Builder.Default private final long stablePeriod = DEFAULT_STABLE_PERIOD;
+
+    /**
+     * Gets the directory of the converted files.
+     *
+     * @return the done directory
+     */
+    public Path getDoneDirectory() {
+        return doneDirectory != null ? doneDirectory : dropDirectory.resolve("done");
+    }
+
+    /**
+     * Gets the directory of the files which failed.
+     *
+     * @return the error directory
+     */
+    public Path getErrorDirectory() {
+        return errorDirectory != null ? errorDirectory : dropDirectory.resolve("error");
+    }
+}
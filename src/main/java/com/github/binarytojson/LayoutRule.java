@@ -0,0 +1,89 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Rule matching the name of a file to the layout describing it. The layout is parsed once, when
+ * the rule is created, and shared by all matching files.
+ */
+@Value
+public class LayoutRule {
+
+    private static final String COMMENT = "#";
+    private static final String SEPARATOR = "=";
+
+    /** The glob pattern matched against the name of the file, such as {@code SKU*.dat}. */
+    String pattern;
+
+    /** The layout of the matching files. */
+    List<HeaderRecordDto> headers;
+
+    /**
+     * Checks if the name of the file matches the pattern of the rule.
+     *
+     * @param file the path of the file
+     * @return true if the file is described by the layout of the rule
+     */
+    public boolean matches(Path file) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return matcher.matches(file.getFileName());
+    }
+
+    /**
+     * Reads the rules from a file with one {@code pattern = layout} line per rule. Empty lines
+     * and lines starting with # are ignored, and layout paths are relative to the directory of
+     * the rules file.
+     *
+     * @param rulesFile the path of the rules file
+     * @param layoutReader the reader of the layouts
+     * @return the rules in the order of the file
+     * @throws IOException if the rules file could not be read or a line is invalid
+     */
+    public static List<LayoutRule> read(Path rulesFile, LayoutReader layoutReader)
+            throws IOException {
+        Path directory = rulesFile.toAbsolutePath().getParent();
+        List<LayoutRule> rules = new ArrayList<>();
+        for (String line : Files.readAllLines(rulesFile, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith(COMMENT)) {
+                continue;
+            }
+            int separator = trimmed.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IOException(String.format("Invalid rule in %s: %s", rulesFile, line));
+            }
+            Path layout = directory.resolve(trimmed.substring(separator + 1).trim());
+            rules.add(
+                    new LayoutRule(
+                            trimmed.substring(0, separator).trim(),
+                            layoutReader.readAllLinesFromFile(layout.toString())));
+        }
+        return rules;
+    }
+
+    /**
+     * Finds the first rule matching the file.
+     *
+     * @param rules the rules in order of priority
+     * @param file the path of the file
+     * @return the matching rule, or null if no rule matches
+     */
+    public static LayoutRule find(List<LayoutRule> rules, Path file) {
+        for (LayoutRule rule : rules) {
+            if (rule.matches(file)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.type.EbcdicAsciiConvertor;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.type.PrimitiveType;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Header standing for the versions of a layout mixed in one file, which differ by the length of
+ * their records. Every record is converted with the version of its length, found in a table
+ * indexed by the length, so selecting a version costs the same for any number of versions. The
+ * versions of the same length are told apart by the version byte at a given offset, matched
+ * against the character declared by VERSION('c') on their header. The records are read as
+ * variable length records, and each one is a group of its own.
+ */
+final class LayoutVersions extends HeaderRecordDto {
+
+    /** The number of values of a byte. */
+    private static final int BYTE_VALUES = 256;
+
+    private static final EbcdicAsciiConvertor EBCDIC = new EbcdicAsciiConvertor();
+
+    /**
+     * The versions by record length: null for a length without version, the version of a length
+     * with a single one, or the versions of the length by the value of their version byte.
+     */
+    private final HeaderRecordDto[][] versions;
+
+    private final int versionOffset;
+
+    /**
+     * Builds the table of the versions.
+     *
+     * @param headers the versions of the layout, without root header
+     * @param versionOffset the offset of the version byte in the records, -1 if there is none
+     * @throws IllegalArgumentException if the length of a version depends on its records, or if
+     *     two versions can not be told apart
+     */
+    LayoutVersions(List<HeaderRecordDto> headers, int versionOffset) {
+        super(HeaderRecordType.VARIABLE_FORMAT, first(headers).getPrimitiveTypes());
+        this.versionOffset = versionOffset;
+        int maxLength = 0;
+        for (HeaderRecordDto header : headers) {
+            if (hasRepeatedGroups(header.getPrimitiveTypes())) {
+                throw new IllegalArgumentException(
+                        "The length of the records of " + name(header) + " depends on them");
+            }
+            maxLength = Math.max(maxLength, header.getPlan().getFixedLength());
+        }
+        versions = new HeaderRecordDto[maxLength + 1][];
+        for (HeaderRecordDto header : headers) {
+            int length = header.getPlan().getFixedLength();
+            if (versionOffset < 0 || header.getVersion() == null) {
+                if (versions[length] != null) {
+                    throw conflict(header, length);
+                }
+                versions[length] = new HeaderRecordDto[] {header};
+            } else {
+                add(header, length);
+            }
+        }
+    }
+
+    /** Adds a version told apart from the others of its length by its version byte. */
+    private void add(HeaderRecordDto header, int length) {
+        if (versionOffset >= length) {
+            throw new IllegalArgumentException(
+                    "The version byte is after the records of " + name(header));
+        }
+        HeaderRecordDto[] byVersion = versions[length];
+        if (byVersion == null) {
+            byVersion = new HeaderRecordDto[BYTE_VALUES];
+            versions[length] = byVersion;
+        } else if (byVersion.length == 1) {
+            throw conflict(header, length);
+        }
+        boolean found = false;
+        for (int value = 0; value < BYTE_VALUES; value++) {
+            if (EBCDIC.convert(new byte[] {(byte) value}).equals(header.getVersion())) {
+                if (byVersion[value] != null) {
+                    throw conflict(header, length);
+                }
+                byVersion[value] = header;
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException(
+                    "The version of " + name(header) + " is not an EBCDIC character");
+        }
+    }
+
+    /**
+     * Selects the version of a record.
+     *
+     * @param record the record, between the position and the limit of the buffer
+     * @return the version of the record
+     * @throws IllegalArgumentException if no version has records of this length, or none of them
+     *     has the version byte of the record
+     */
+    HeaderRecordDto select(ByteBuffer record) {
+        int length = record.remaining();
+        HeaderRecordDto[] byVersion = length < versions.length ? versions[length] : null;
+        if (byVersion == null) {
+            throw new IllegalArgumentException(
+                    "No version of the layout has records of " + length + " bytes");
+        }
+        if (byVersion.length == 1) {
+            return byVersion[0];
+        }
+        int value = record.get(record.position() + versionOffset) & (BYTE_VALUES - 1);
+        if (byVersion[value] == null) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "No version of the layout of records of %d bytes has the version"
+                                    + " byte 0x%02X at offset %d",
+                            length, value, versionOffset));
+        }
+        return byVersion[value];
+    }
+
+    private static HeaderRecordDto first(List<HeaderRecordDto> headers) {
+        if (headers.isEmpty()) {
+            throw new IllegalArgumentException("No version of the layout");
+        }
+        return headers.get(0);
+    }
+
+    private static IllegalArgumentException conflict(HeaderRecordDto header, int length) {
+        return new IllegalArgumentException(
+                String.format(
+                        "%s has records of %d bytes as another version, without another version"
+                                + " byte",
+                        name(header), length));
+    }
+
+    private static String name(HeaderRecordDto header) {
+        return header.getPrimitiveTypes().get(0).getName();
+    }
+
+    private static boolean hasRepeatedGroups(List<PrimitiveType> types) {
+        if (types == null) {
+            return false;
+        }
+        for (PrimitiveType type : types) {
+            if (type.getAmount() != null || hasRepeatedGroups(type.getFields())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,298 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.MappedFileReader;
+import com.github.binarytojson.reader.file.RecordIndex;
+import com.github.binarytojson.reader.file.RecordRange;
+import com.github.binarytojson.reader.file.VariableRecordReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.writer.ChannelOutputStream;
+import com.github.binarytojson.writer.Writer;
+import com.github.binarytojson.writer.factory.WriterFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts ranges of a file on a pool of threads. Every range is written to a temporary segment
+ * file, the segments are appended to the output in the order of the ranges as soon as they are
+ * complete, so the output is the same as the one of a conversion on one thread.
+ */
+@Slf4j
+final class ParallelConverter {
+
+    private static final int SEGMENTS_PER_THREAD = 4;
+    private static final String SEGMENT_PREFIX = "binarytojson";
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private ParallelConverter() {}
+
+    /**
+     * Checks if a conversion runs on several threads. Sampled conversions and layouts grouped by
+     * segment name, whose groups can not be split, run on one thread.
+     *
+     * @param headersWithoutRoot the list of header records without the root element
+     * @param options the options of the conversion
+     * @return true if the file is converted in parallel ranges
+     */
+    static boolean isParallel(List<HeaderRecordDto> headersWithoutRoot, ConversionOptions options) {
+        return options.getThreads() > 1
+                && options.getSampleEvery() <= 1
+                && !RecordConverter.isSegmentNameGrouping(headersWithoutRoot);
+    }
+
+    /**
+     * Gets the number of ranges a file is split into, several per thread so that the threads stay
+     * busy when the ranges do not take the same time.
+     *
+     * @param options the options of the conversion
+     * @return the number of ranges
+     */
+    static int rangeCount(ConversionOptions options) {
+        return options.getThreads() * SEGMENTS_PER_THREAD;
+    }
+
+    /**
+     * Converts the ranges of a file with fixed length records.
+     *
+     * @param mappedFileReader the reader of the file
+     * @param ranges the ranges of the file in order
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    static long convertFixed(
+            MappedFileReader mappedFileReader,
+            List<RecordRange> ranges,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        return convert(
+                ranges,
+                os,
+                generationType,
+                options.getThreads(),
+                (range, writer, groupIndex) ->
+                        RecordConverter.convertRecords(
+                                mappedFileReader.readBinaryFile(
+                                        range.getStartOffset(), range.getEndOffset()),
+                                writer,
+                                headers,
+                                options.getMode(),
+                                range.getFirstRecord(),
+                                groupIndex,
+                                mappedFileReader,
+                                false,
+                                null));
+    }
+
+    /**
+     * Converts the ranges of a file with variable length records. The reading of a range starts
+     * at the closest indexed record and skips the records before the range.
+     *
+     * @param source the path of the binary file
+     * @param recordIndex the index of the file
+     * @param ranges the ranges of the file in order
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param options the options of the conversion
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    static long convertVariable(
+            Path source,
+            RecordIndex recordIndex,
+            List<RecordRange> ranges,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            ConversionOptions options)
+            throws IOException {
+        return convert(
+                ranges,
+                os,
+                generationType,
+                options.getThreads(),
+                (range, writer, groupIndex) ->
+                        convertVariableRange(
+                                source, recordIndex, range, writer, headers, options, groupIndex));
+    }
+
+    private static long convertVariableRange(
+            Path source,
+            RecordIndex recordIndex,
+            RecordRange range,
+            Writer writer,
+            List<HeaderRecordDto> headers,
+            ConversionOptions options,
+            int groupIndex)
+            throws IOException {
+        RecordRange located = recordIndex.locate(range.getFirstRecord());
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            channel.position(located.getStartOffset());
+            try (InputStream inputStream =
+                    RecordSource.readAhead(Channels.newInputStream(channel), options)) {
+                VariableRecordReader variableRecordReader =
+                        new VariableRecordReader(
+                                inputStream,
+                                options.getCache().getBufferSize(),
+                                options.isBlockDescriptors());
+                RecordSource.skipRecords(
+                        variableRecordReader, range.getFirstRecord() - located.getFirstRecord());
+                return RecordConverter.convertRecords(
+                        RecordSource.limit(
+                                variableRecordReader.readBinaryFile(), range.getRecordCount()),
+                        writer,
+                        headers,
+                        options.getMode(),
+                        range.getFirstRecord(),
+                        groupIndex,
+                        variableRecordReader,
+                        true,
+                        null);
+            }
+        }
+    }
+
+    /**
+     * Converts the ranges on a pool of threads, each one into its own segment file.
+     *
+     * @param ranges the ranges of the file in order
+     * @param os the output stream for the converted data
+     * @param generationType the output format
+     * @param threads the number of threads
+     * @param rangeConverter the conversion of one range
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    private static long convert(
+            List<RecordRange> ranges,
+            OutputStream os,
+            GenerationType generationType,
+            int threads,
+            RangeConverter rangeConverter)
+            throws IOException {
+        WriterFactory writerFactory = generationType.getWriterFactory();
+        List<Path> segments = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, ranges.size()));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (RecordRange range : ranges) {
+                Path segment = Files.createTempFile(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+                int groupIndex = segments.isEmpty() ? 0 : 1;
+                segments.add(segment);
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try (Writer writer =
+                                            writerFactory.createSegment(
+                                                    Files.newOutputStream(segment))) {
+                                        return rangeConverter.convert(range, writer, groupIndex);
+                                    }
+                                }));
+            }
+            long count = 0;
+            try (Writer writer = writerFactory.create(os)) {
+                writer.writeStartArray();
+                for (int i = 0; i < futures.size(); i++) {
+                    count += await(futures.get(i));
+                    appendSegment(segments.get(i), writer, os);
+                }
+                writer.writeEndArray();
+            }
+            return count;
+        } finally {
+            executor.shutdownNow();
+            for (Path segment : segments) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    log.warn("Could not delete the segment {}", segment, e);
+                }
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The conversion was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Appends a converted segment to the output and deletes it.
+     *
+     * @param segment the path of the segment file
+     * @param writer the writer of the whole array
+     * @param os the output stream, written through its channel if it is a channel stream
+     * @throws IOException if an I/O error occurs while copying the segment
+     */
+    private static void appendSegment(Path segment, Writer writer, OutputStream os)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > 0) {
+                writer.writeSegmentSeparator();
+                WritableByteChannel target =
+                        os instanceof ChannelOutputStream
+                                ? ((ChannelOutputStream) os).channel()
+                                : Channels.newChannel(os);
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        }
+        Files.delete(segment);
+    }
+
+    /** Conversion of one range of a file. */
+    @FunctionalInterface
+    private interface RangeConverter {
+
+        /**
+         * Converts the records of the range.
+         *
+         * @param range the range of the file
+         * @param writer the writer of the segment
+         * @param groupIndex the group index to start with, 0 only for the first range
+         * @return the number of records converted
+         * @throws IOException if an I/O error occurs during the conversion process
+         */
+        long convert(RecordRange range, Writer writer, int groupIndex) throws IOException;
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.binarytojson;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.Getter;
+
+/**
+ * OutputStream counting the bytes written to the underlying stream. While detached, the written
+ * bytes are dropped, which allows a writer to replay the start of an output that is already
+ * written.
+ */
+class PositionOutputStream extends FilterOutputStream {
+
+    /** The number of bytes of the output, including the bytes written before the stream. */
+    @Getter private long position;
+
+    private boolean detached;
+
+    /**
+     * Creates a stream counting from the given position.
+     *
+     * @param out the underlying stream
+     * @param position the number of bytes already written to the output
+     * @param detached whether the written bytes are dropped until the stream is attached
+     */
+    PositionOutputStream(OutputStream out, long position, boolean detached) {
+        super(out);
+        this.position = position;
+        this.detached = detached;
+    }
+
+    /** Passes the bytes written from now on to the underlying stream. */
+    void attach() {
+        detached = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!detached) {
+            out.write(b);
+            position++;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (!detached) {
+            out.write(bytes, offset, length);
+            position += length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!detached) {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.IReader;
+import com.github.binarytojson.reader.structure.RecordPlan;
+import com.github.binarytojson.reader.structure.StructureRecord;
+import com.github.binarytojson.type.DataType;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.type.PrimitiveType;
+import com.github.binarytojson.writer.Writer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Converts records into groups written by a {@link Writer}. The records are matched to the header
+ * records of the layout by their number, or by their segment name for layouts whose first header
+ * is SKIP, and every complete group is written as one object.
+ */
+final class RecordConverter {
+
+    private static final String FILL_KEY = "FILL1";
+    private static final String SEG_NAME_KEY = "SEGNAME";
+    private static final String HEADER_NAME_SKIP = "SKIP";
+    private static final RecordPlan FILL_AND_SEG_NAME =
+            RecordPlan.compile(
+                    Arrays.asList(
+                            PrimitiveType.builder()
+                                    .name(FILL_KEY)
+                                    .dataType(DataType.CHAR)
+                                    .level(1)
+                                    .length(6)
+                                    .build(),
+                            PrimitiveType.builder()
+                                    .name(SEG_NAME_KEY)
+                                    .dataType(DataType.CHAR)
+                                    .level(1)
+                                    .length(8)
+                                    .build()));
+
+    private RecordConverter() {}
+
+    /**
+     * Converts the records and writes them as one array.
+     *
+     * @param records the records to convert
+     * @param os the output stream for the converted data
+     * @param headers the list of header records describing the layout
+     * @param generationType the output format
+     * @param mode the mode in which records are written
+     * @param firstIndex the number of the first record
+     * @param reader the reader of the records, to which the records are released once written
+     * @param reusedBuffers whether the record buffers are reused by the reader, in this case the
+     *     records kept for a group are copied
+     * @return the number of records converted
+     * @throws IOException if an I/O error occurs during the conversion process
+     */
+    static long convertRecords(
+            Iterable<ByteBuffer> records,
+            OutputStream os,
+            List<HeaderRecordDto> headers,
+            GenerationType generationType,
+            Mode mode,
+            long firstIndex,
+            IReader reader,
+            boolean reusedBuffers)
+            throws IOException {
+        try (Writer writer = generationType.getWriterFactory().create(os)) {
+            writer.writeStartArray();
+            long count =
+                    convertRecords(
+                            records,
+                            writer,
+                            headers,
+                            mode,
+                            firstIndex,
+                            0,
+                            reader,
+                            reusedBuffers,
+                            null);
+            writer.writeEndArray();
+            return count;
+        }
+    }
+
+    /**
+     * Converts the records and writes them as objects of the current array.
+     *
+     * @param records the records to convert
+     * @param writer the writer of the converted data
+     * @param headers the list of header records describing the layout
+     * @param mode the mode in which records are written
+     * @param firstIndex the number of the first record
+     * @param groupIndex the number of groups written before, the header is written only for 0
+     * @param reader the reader of the records, to which the records are released once written
+     * @param reusedBuffers whether the record buffers are reused by the reader, in this case the
+     *     records kept for a group are copied
+     * @param checkpointer the checkpointer notified after every written group, or null
+     * @return the number of records read, including the skipped ones
+     * @throws IOException if a checkpoint could not be saved
+     */
+    static long convertRecords(
+            Iterable<ByteBuffer> records,
+            Writer writer,
+            List<HeaderRecordDto> headers,
+            Mode mode,
+            long firstIndex,
+            int groupIndex,
+            IReader reader,
+            boolean reusedBuffers,
+            Checkpointer checkpointer)
+            throws IOException {
+        long index = firstIndex;
+        List<StructureRecord> structureRecords = new ArrayList<>();
+        List<ByteBuffer> unreleased = new ArrayList<>();
+        String headerName =
+                headers.stream()
+                        .filter(it -> it.getPrimitiveTypes().get(0).isRootElement())
+                        .findFirst()
+                        .map(it -> it.getPrimitiveTypes().get(0).getName())
+                        .orElse(null);
+        List<HeaderRecordDto> headersWithoutRoot = getHeadersWithoutRoot(headers);
+        for (ByteBuffer bytes : records) {
+            HeaderRecordDto headerRecord = getHeaderRecordDto(headersWithoutRoot, index, bytes);
+            PrimitiveType firstType = headerRecord.getPrimitiveTypes().get(0);
+            if (HEADER_NAME_SKIP.equals(firstType.getName())) {
+                reader.release(bytes);
+                index++;
+                continue;
+            }
+            StructureRecord structureRecord = new StructureRecord(bytes, headerRecord.getPlan());
+            if (isSegmentNameGrouping(headersWithoutRoot)) {
+                int level = firstType.getLevel();
+                if (level == 1 && !structureRecords.isEmpty()) {
+                    writeGroup(mode, structureRecords, groupIndex, writer);
+                    release(reader, unreleased);
+                    groupIndex++;
+                }
+                structureRecords.add(structureRecord);
+                unreleased.add(bytes);
+            } else {
+                structureRecords.add(structureRecord);
+                unreleased.add(bytes);
+                groupIndex =
+                        updateGroupIndex(
+                                headersWithoutRoot,
+                                headerName,
+                                mode,
+                                index,
+                                groupIndex,
+                                writer,
+                                structureRecords);
+            }
+            if (structureRecords.isEmpty()) {
+                release(reader, unreleased);
+            } else if (reusedBuffers) {
+                detachLast(structureRecords);
+            }
+            index++;
+            if (checkpointer != null && structureRecords.isEmpty()) {
+                checkpointer.groupWritten(index, groupIndex);
+            }
+        }
+        if (!structureRecords.isEmpty()) {
+            writeGroup(mode, structureRecords, groupIndex, writer);
+        }
+        release(reader, unreleased);
+        return index - firstIndex;
+    }
+
+    static List<HeaderRecordDto> getHeadersWithoutRoot(List<HeaderRecordDto> headers) {
+        return headers.stream()
+                .filter(it -> !it.getPrimitiveTypes().get(0).isRootElement())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks if records are grouped by the segment name, in this case the size of a group is
+     * known only while reading.
+     *
+     * @param headersWithoutRoot the list of header records without the root element
+     * @return true if the first header is SKIP
+     */
+    static boolean isSegmentNameGrouping(List<HeaderRecordDto> headersWithoutRoot) {
+        return HEADER_NAME_SKIP.equals(
+                headersWithoutRoot.get(0).getPrimitiveTypes().get(0).getName());
+    }
+
+    static boolean isFixedFormat(HeaderRecordDto headerRecordDto) {
+        return HeaderRecordType.FIXED_FORMAT.equals(headerRecordDto.getRecordType())
+                && calculateFixedLength(headerRecordDto.getPrimitiveTypes()) > 0;
+    }
+
+    static void setFixedLengthIfNeeded(HeaderRecordDto headerRecordDto, IReader reader) {
+        if (HeaderRecordType.FIXED_FORMAT.equals(headerRecordDto.getRecordType())) {
+            int length = calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+            reader.setFixedLength(length);
+        } else {
+            reader.setFixedLength(0);
+        }
+    }
+
+    static int calculateFixedLength(List<PrimitiveType> fields) {
+        return calculateFixedLength(fields, false);
+    }
+
+    /** Sums the lengths of the fields, or takes the longest view for the fields of a union. */
+    private static int calculateFixedLength(List<PrimitiveType> fields, boolean union) {
+        if (fields == null) {
+            return 0;
+        }
+        int totalLength = 0;
+        for (PrimitiveType field : fields) {
+            int length =
+                    (field.getLength() + calculateFixedLength(field.getFields(), field.isUnion()))
+                            * field.getOccurrences();
+            totalLength = union ? Math.max(totalLength, length) : totalLength + length;
+        }
+        return totalLength;
+    }
+
+    static int updateGroupIndex(
+            List<HeaderRecordDto> headers,
+            String rootName,
+            Mode mode,
+            long index,
+            int groupIndex,
+            Writer writer,
+            List<StructureRecord> structureRecords) {
+        if ((index + 1) % headers.size() == 0) {
+            if (groupIndex == 0) {
+                writer.writeHeader(structureRecords, mode, rootName);
+            }
+            writer.writeObject(structureRecords, mode, rootName);
+            groupIndex++;
+            structureRecords.clear();
+        }
+        return groupIndex;
+    }
+
+    static byte[] convertToByteArray(List<Map.Entry<byte[], Integer>> byteArrayList) {
+        int totalLength = 0;
+        for (Map.Entry<byte[], Integer> byteArray : byteArrayList) {
+            totalLength += byteArray.getValue();
+        }
+        byte[] result = new byte[totalLength];
+        int currentIndex = 0;
+        for (Map.Entry<byte[], Integer> byteArray : byteArrayList) {
+            System.arraycopy(byteArray.getKey(), 0, result, currentIndex, byteArray.getValue());
+            currentIndex += byteArray.getValue();
+        }
+        return result;
+    }
+
+    /**
+     * Releases the records of a written group to their reader.
+     *
+     * @param reader the reader of the records
+     * @param records the records to release, the list is cleared
+     */
+    private static void release(IReader reader, List<ByteBuffer> records) {
+        for (ByteBuffer record : records) {
+            reader.release(record);
+        }
+        records.clear();
+    }
+
+    /**
+     * Replaces the last record of the group by a copy which does not depend on the reader buffer.
+     *
+     * @param structureRecords the records of the current group
+     */
+    private static void detachLast(List<StructureRecord> structureRecords) {
+        int last = structureRecords.size() - 1;
+        StructureRecord structureRecord = structureRecords.get(last);
+        structureRecords.set(
+                last,
+                new StructureRecord(
+                        copyOf(structureRecord.getBuffer()), structureRecord.getPlan()));
+    }
+
+    private static byte[] copyOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static void writeGroup(
+            Mode mode, List<StructureRecord> structureRecords, int groupIndex, Writer writer) {
+        StructureRecord structureRecordGroup =
+                new StructureRecord(
+                        convertToByteArray(
+                                structureRecords.stream()
+                                        .map(
+                                                structureRecord ->
+                                                        new AbstractMap.SimpleEntry<>(
+                                                                structureRecord.getBytes(),
+                                                                structureRecord
+                                                                        .getPlan()
+                                                                        .getFixedLength()))
+                                        .collect(Collectors.toList())),
+                        structureRecords.stream()
+                                .flatMap(it -> it.getTypes().stream())
+                                .collect(Collectors.toList()));
+        if (groupIndex == 0) {
+            writer.writeHeader(Collections.singletonList(structureRecordGroup), mode, null);
+        }
+        writer.writeObject(Collections.singletonList(structureRecordGroup), mode, null);
+        structureRecords.clear();
+    }
+
+    private static HeaderRecordDto getHeaderRecordDto(
+            List<HeaderRecordDto> headers, long index, ByteBuffer bytes) {
+        if (HEADER_NAME_SKIP.equals(headers.get(0).getPrimitiveTypes().get(0).getName())) {
+            StructureRecord structureRecord = new StructureRecord(bytes, FILL_AND_SEG_NAME);
+            Map<String, Object> map = structureRecord.process(Mode.WITHOUT_ARRAY);
+            Optional<HeaderRecordDto> foundHeader =
+                    headers.stream()
+                            .filter(
+                                    it ->
+                                            Objects.equals(
+                                                    map.get(SEG_NAME_KEY),
+                                                    it.getPrimitiveTypes().get(0).getName()))
+                            .findFirst();
+            return foundHeader.orElse(headers.get((int) (index % headers.size())));
+        }
+        HeaderRecordDto header = headers.get((int) (index % headers.size()));
+        return header instanceof LayoutVersions ? ((LayoutVersions) header).select(bytes) : header;
+    }
+}
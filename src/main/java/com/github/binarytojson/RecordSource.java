@@ -0,0 +1,265 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.BufferedInputStreamReader;
+import com.github.binarytojson.reader.file.GzipSource;
+import com.github.binarytojson.reader.file.IReader;
+import com.github.binarytojson.reader.file.ReadAheadInputStream;
+import com.github.binarytojson.reader.file.VariableRecordReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+/**
+ * Records read from a source, with the reader to which they are released. The records of a
+ * stream are selected from the record range of the options and, when sampling, only every n-th
+ * group of them is read.
+ */
+@AllArgsConstructor
+@Getter
+final class RecordSource {
+    private final Iterable<ByteBuffer> records;
+    private final IReader reader;
+    private final boolean reusedBuffers;
+
+    /** Skips records of the source without reading them through the iterator. */
+    private final RecordSkipper skipper;
+
+    /** The offset of the next record from the start of the stream, -1 if unknown. */
+    private final LongSupplier nextOffset;
+
+    /**
+     * Reads the records of a stream, skipping the given number of records.
+     *
+     * @param inputStream the stream with the binary data
+     * @param headerRecordDto the first header record describing the layout
+     * @param options the options of the conversion
+     * @param skipRecords the number of records to skip in the stream
+     * @return the records with their reader
+     * @throws IOException if an I/O error occurs while skipping the records
+     */
+    static RecordSource stream(
+            InputStream inputStream,
+            HeaderRecordDto headerRecordDto,
+            ConversionOptions options,
+            long skipRecords)
+            throws IOException {
+        if (!RecordConverter.isFixedFormat(headerRecordDto)) {
+            VariableRecordReader variableRecordReader =
+                    new VariableRecordReader(
+                            inputStream,
+                            options.getCache().getBufferSize(),
+                            options.isBlockDescriptors());
+            skipRecords(variableRecordReader, skipRecords);
+            return new RecordSource(
+                    variableRecordReader.readBinaryFile(),
+                    variableRecordReader,
+                    true,
+                    count -> skipRecords(variableRecordReader, count),
+                    () ->
+                            variableRecordReader.isBlockBoundary()
+                                    ? variableRecordReader.getPosition()
+                                    : -1);
+        }
+        BufferedInputStream bufferedInputStream =
+                new BufferedInputStream(inputStream, options.getCache().getBufferSize());
+        long fixedLength =
+                RecordConverter.calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+        skipFully(bufferedInputStream, skipRecords * fixedLength);
+        BufferedInputStreamReader reader = new BufferedInputStreamReader();
+        Iterable<byte[]> records = reader.readBinaryFile(bufferedInputStream);
+        RecordConverter.setFixedLengthIfNeeded(headerRecordDto, reader);
+        return new RecordSource(
+                wrap(records),
+                reader,
+                false,
+                count -> skipFully(bufferedInputStream, count * fixedLength),
+                () -> -1);
+    }
+
+    /**
+     * Selects the records up to the last record of the options and, when sampling, only every
+     * n-th group of them. The records between the sampled groups are passed to the skipper of the
+     * source, so they are never decoded.
+     *
+     * @param headersWithoutRoot the list of header records without the root element
+     * @param options the options of the conversion, the records are read from its first record
+     * @return the selected records
+     */
+    Iterable<ByteBuffer> select(
+            List<HeaderRecordDto> headersWithoutRoot, ConversionOptions options) {
+        long count = recordCount(options.getFromRecord(), options.getToRecord());
+        if (options.getSampleEvery() <= 1) {
+            return limit(records, count);
+        }
+        int groupSize = sampleGroupSize(headersWithoutRoot, options);
+        long skipped = (options.getSampleEvery() - 1) * groupSize;
+        return () -> {
+            Iterator<ByteBuffer> iterator = records.iterator();
+            return new Iterator<ByteBuffer>() {
+                private long remaining = count;
+                private int inGroup;
+
+                @SneakyThrows
+                @Override
+                public boolean hasNext() {
+                    if (inGroup == groupSize) {
+                        long skip = Math.min(remaining, skipped);
+                        skipper.skip(skip);
+                        remaining -= skip;
+                        inGroup = 0;
+                    }
+                    return remaining > 0 && iterator.hasNext();
+                }
+
+                @Override
+                public ByteBuffer next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("No more records in the sample");
+                    }
+                    inGroup++;
+                    remaining--;
+                    return iterator.next();
+                }
+            };
+        };
+    }
+
+    /**
+     * Limits the number of records read. The reader is not asked for a record after the last one,
+     * so the records of the next range are never decoded.
+     *
+     * @param records the records to limit
+     * @param count the maximal number of records
+     * @return the limited records
+     */
+    static Iterable<ByteBuffer> limit(Iterable<ByteBuffer> records, long count) {
+        return () -> {
+            Iterator<ByteBuffer> iterator = records.iterator();
+            return new Iterator<ByteBuffer>() {
+                private long remaining = count;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0 && iterator.hasNext();
+                }
+
+                @Override
+                public ByteBuffer next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("No more records in the range");
+                    }
+                    remaining--;
+                    return iterator.next();
+                }
+            };
+        };
+    }
+
+    /**
+     * Gets the number of records in a group of a sample.
+     *
+     * @param headersWithoutRoot the list of header records without the root element
+     * @param options the options of the conversion
+     * @return the number of records in a group
+     */
+    static int sampleGroupSize(
+            List<HeaderRecordDto> headersWithoutRoot, ConversionOptions options) {
+        if (options.getSampleEvery() > 1
+                && RecordConverter.isSegmentNameGrouping(headersWithoutRoot)) {
+            throw new IllegalArgumentException(
+                    "Sampling is not supported for layouts grouped by segment name");
+        }
+        return headersWithoutRoot.size();
+    }
+
+    static long recordCount(long fromRecord, long toRecord) {
+        return toRecord == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, toRecord - fromRecord);
+    }
+
+    static long endOffset(long toRecord, long fixedLength) {
+        return toRecord > Long.MAX_VALUE / fixedLength ? Long.MAX_VALUE : toRecord * fixedLength;
+    }
+
+    /**
+     * Wraps the stream into a read ahead stream if a read ahead depth is set.
+     *
+     * @param inputStream the stream to read
+     * @param options the options of the conversion
+     * @return the read ahead stream, or the given stream
+     */
+    static InputStream readAhead(InputStream inputStream, ConversionOptions options) {
+        if (options.getReadAheadDepth() <= 0) {
+            return inputStream;
+        }
+        return new ReadAheadInputStream(
+                inputStream, ReadAheadInputStream.DEFAULT_BUFFER_SIZE, options.getReadAheadDepth());
+    }
+
+    static int gzipDepth(ConversionOptions options) {
+        return options.getReadAheadDepth() > 0
+                ? options.getReadAheadDepth()
+                : GzipSource.DEFAULT_DEPTH;
+    }
+
+    static void skipRecords(VariableRecordReader variableRecordReader, long count)
+            throws IOException {
+        for (long i = 0; i < count; i++) {
+            if (!variableRecordReader.skipRecord()) {
+                break;
+            }
+        }
+    }
+
+    private static void skipFully(InputStream inputStream, long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    return;
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static Iterable<ByteBuffer> wrap(Iterable<byte[]> records) {
+        return () -> {
+            Iterator<byte[]> iterator = records.iterator();
+            return new Iterator<ByteBuffer>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public ByteBuffer next() {
+                    return ByteBuffer.wrap(iterator.next());
+                }
+            };
+        };
+    }
+
+    /** Skipping of records which are not converted. */
+    @FunctionalInterface
+    interface RecordSkipper {
+
+        /**
+         * Skips the given number of records, or the remaining ones at the end of the source.
+         *
+         * @param count the number of records to skip
+         * @throws IOException if an I/O error occurs while skipping
+         */
+        void skip(long count) throws IOException;
+    }
+}
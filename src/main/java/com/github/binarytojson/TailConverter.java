@@ -0,0 +1,117 @@
+package com.github.binarytojson;
+
+import com.github.binarytojson.reader.file.MappedFileReader;
+import com.github.binarytojson.reader.file.RecordRange;
+import com.github.binarytojson.reader.file.TailScanner;
+import com.github.binarytojson.reader.file.VariableRecordReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.writer.Writer;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Converts the records appended to a growing file, for a {@link FollowConverter}. Only complete
+ * groups are converted, the bytes of a record which is still being appended are never parsed.
+ */
+final class TailConverter {
+
+    private TailConverter() {}
+
+    /**
+     * Converts the complete groups of records appended to a growing file after the given state.
+     * The records are written to the given writer, which stays open for the next call.
+     *
+     * @param source the path of the binary file
+     * @param writer the writer of the converted data
+     * @param headers the list of header records describing the layout
+     * @param options the options of the conversion
+     * @param state the state after the records converted before
+     * @return the range of the converted records, empty if no group was complete
+     * @throws IOException if an I/O error occurs or the file was truncated
+     */
+    static RecordRange convert(
+            Path source,
+            Writer writer,
+            List<HeaderRecordDto> headers,
+            ConversionOptions options,
+            Checkpoint state)
+            throws IOException {
+        List<HeaderRecordDto> headersWithoutRoot = RecordConverter.getHeadersWithoutRoot(headers);
+        if (RecordConverter.isSegmentNameGrouping(headersWithoutRoot)) {
+            throw new IllegalArgumentException(
+                    "Following is not supported for layouts grouped by segment name");
+        }
+        int groupSize = headersWithoutRoot.size();
+        HeaderRecordDto headerRecordDto = headers.get(0);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < state.getInputOffset()) {
+                throw new IOException(
+                        String.format(
+                                "%s was truncated to %d bytes, %d bytes were converted",
+                                source, size, state.getInputOffset()));
+            }
+            if (RecordConverter.isFixedFormat(headerRecordDto)) {
+                long fixedLength =
+                        RecordConverter.calculateFixedLength(headerRecordDto.getPrimitiveTypes());
+                long count =
+                        (size - state.getInputOffset()) / fixedLength / groupSize * groupSize;
+                RecordRange range =
+                        new RecordRange(
+                                state.getRecord(),
+                                count,
+                                state.getInputOffset(),
+                                state.getInputOffset() + count * fixedLength);
+                if (count > 0) {
+                    try (MappedFileReader mappedFileReader = new MappedFileReader(source)) {
+                        RecordConverter.setFixedLengthIfNeeded(headerRecordDto, mappedFileReader);
+                        RecordConverter.convertRecords(
+                                mappedFileReader.readBinaryFile(
+                                        range.getStartOffset(), range.getEndOffset()),
+                                writer,
+                                headers,
+                                options.getMode(),
+                                range.getFirstRecord(),
+                                state.getGroupIndex(),
+                                mappedFileReader,
+                                false,
+                                null);
+                    }
+                }
+                return range;
+            }
+            RecordRange range =
+                    TailScanner.scan(
+                            channel,
+                            state.getRecord(),
+                            state.getInputOffset(),
+                            groupSize,
+                            options.isBlockDescriptors());
+            if (range.getRecordCount() > 0) {
+                channel.position(range.getStartOffset());
+                VariableRecordReader variableRecordReader =
+                        new VariableRecordReader(
+                                Channels.newInputStream(channel),
+                                options.getCache().getBufferSize(),
+                                options.isBlockDescriptors());
+                // the record being appended after the range is never parsed
+                RecordConverter.convertRecords(
+                        RecordSource.limit(
+                                variableRecordReader.readBinaryFile(), range.getRecordCount()),
+                        writer,
+                        headers,
+                        options.getMode(),
+                        range.getFirstRecord(),
+                        state.getGroupIndex(),
+                        variableRecordReader,
+                        true,
+                        null);
+            }
+            return range;
+        }
+    }
+}
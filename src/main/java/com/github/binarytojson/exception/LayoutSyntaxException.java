@@ -0,0 +1,22 @@
+package com.github.binarytojson.exception;
+
+import lombok.Getter;
+
+/** Thrown when a layout file does not follow the declaration syntax. */
+@Getter
+public class LayoutSyntaxException extends ReadConfigurationException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The line of the error, starting with 1. */
+    private final int line;
+
+    /** The column of the error in its line, starting with 1. */
+    private final int column;
+
+    public LayoutSyntaxException(String message, int line, int column) {
+        super(String.format("Line %d, column %d: %s", line, column, message));
+        this.line = line;
+        this.column = column;
+    }
+}
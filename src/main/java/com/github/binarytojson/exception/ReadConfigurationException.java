@@ -2,6 +2,10 @@ package com.github.binarytojson.exception;
 
 public class ReadConfigurationException extends RuntimeException {
 
+    public ReadConfigurationException(String message) {
+        super(message);
+    }
+
     public ReadConfigurationException(String message, Throwable cause) {
         super(message, cause);
     }
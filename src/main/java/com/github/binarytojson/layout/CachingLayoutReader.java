@@ -0,0 +1,391 @@
+package com.github.binarytojson.layout;
+
+import com.github.binarytojson.exception.ReadConfigurationException;
+import com.github.binarytojson.type.DataType;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.type.PrimitiveType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Layout reader keeping the parsed layouts in a cache directory. A cache file is named after a
+ * SHA-256 hash of the library version and of the content of the layout file, so a changed layout
+ * or another version of the library never reads a stale entry, and the same layout is shared
+ * between paths. The cache files hold the parsed header records in a compact binary form, with
+ * array elements sharing their types written once, and load without the comment regexes, line
+ * normalization and array expansion of the parser.
+ *
+ * <p>Cache files are written to a temporary file first and then moved, so concurrent conversions
+ * can share the directory. A cache file which can not be read is parsed again and rewritten.
+ */
+@Slf4j
+public class CachingLayoutReader extends LayoutReader {
+
+    /** The extension of the cache files. */
+    public static final String EXTENSION = ".layout";
+
+    private static final int MAGIC = 0x4C41594F;
+    private static final int VERSION = 5;
+    private static final int NO_VALUE = -1;
+    private static final int VAR_INT_SHIFT = 7;
+    private static final int VAR_INT_MASK = 0x7F;
+    private static final int VAR_INT_CONTINUE = 0x80;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /** The directory holding the cache files. */
+    @Getter private final Path directory;
+
+    private final String libraryVersion;
+
+    /**
+     * Creates a reader caching the layouts in the given directory, which is created on first
+     * write.
+     *
+     * @param directory the directory holding the cache files
+     */
+    public CachingLayoutReader(Path directory) {
+        this(directory, libraryVersion());
+    }
+
+    CachingLayoutReader(Path directory, String libraryVersion) {
+        this.directory = directory;
+        this.libraryVersion = libraryVersion;
+    }
+
+    /**
+     * Reads the header records of a layout file from the cache, or parses the file and caches
+     * the result.
+     *
+     * @param fileName the name of the file to read
+     * @return a list of header records
+     * @throws ReadConfigurationException if an error occurs while reading the file.
+     */
+    @Override
+    public List<HeaderRecordDto> readAllLinesFromFile(String fileName) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(Paths.get(fileName));
+        } catch (IOException e) {
+            throw new ReadConfigurationException("Error reading file", e);
+        }
+        Path cacheFile = cacheFileOf(content);
+        if (Files.exists(cacheFile)) {
+            try {
+                return read(cacheFile);
+            } catch (IOException e) {
+                log.warn("Ignoring invalid layout cache {}: {}", cacheFile, e.toString());
+            }
+        }
+        List<HeaderRecordDto> headers = readAllLines(content);
+        try {
+            write(headers, cacheFile);
+            log.debug("Layout {} cached in {}", fileName, cacheFile);
+        } catch (IOException e) {
+            log.warn("Error writing layout cache {}: {}", cacheFile, e.getMessage());
+        }
+        return headers;
+    }
+
+    /**
+     * Gets the path of the cache file of a layout.
+     *
+     * @param content the bytes of the layout file
+     * @return the path of the cache file in the cache directory
+     */
+    Path cacheFileOf(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(libraryVersion.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update((byte) VERSION);
+            byte[] hash = digest.digest(content);
+            char[] name = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                name[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+                name[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+            }
+            return directory.resolve(new String(name) + EXTENSION);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Gets the version of the library from the manifest of its jar.
+     *
+     * @return the implementation version, or "development" when running from classes
+     */
+    static String libraryVersion() {
+        String version = CachingLayoutReader.class.getPackage().getImplementationVersion();
+        return version != null ? version : "development";
+    }
+
+    /**
+     * Writes header records to a cache file.
+     *
+     * @param headers the header records of a layout
+     * @param cacheFile the path of the cache file
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    static void write(List<HeaderRecordDto> headers, Path cacheFile) throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Path temporary =
+                Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName() + ".", ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                CacheWriter writer = new CacheWriter(out);
+                writeVarInt(out, headers.size());
+                for (HeaderRecordDto header : headers) {
+                    writer.writeHeader(header);
+                }
+            }
+            try {
+                Files.move(temporary, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads header records from a cache file.
+     *
+     * @param cacheFile the path of the cache file
+     * @return the header records of the layout
+     * @throws IOException if an I/O error occurs or the file is not a layout cache
+     */
+    static List<HeaderRecordDto> read(Path cacheFile) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a layout cache: " + cacheFile);
+            }
+            CacheReader reader = new CacheReader(in);
+            int size = readVarInt(in);
+            List<HeaderRecordDto> headers = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                headers.add(reader.readHeader());
+            }
+            if (in.read() != NO_VALUE) {
+                throw new IOException("Trailing bytes in layout cache: " + cacheFile);
+            }
+            return headers;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted layout cache: " + cacheFile, e);
+        }
+    }
+
+    /**
+     * Writes the header records and their types. Objects appearing several times, such as a
+     * header repeated for several records or the types shared by array elements, are written
+     * once and referenced by their number afterward.
+     */
+    private static final class CacheWriter {
+        private final DataOutput out;
+        private final Map<Object, Integer> written = new IdentityHashMap<>();
+
+        private CacheWriter(DataOutput out) {
+            this.out = out;
+        }
+
+        /** Writes the number of an object already written, or 0 followed by the new object. */
+        private boolean writeReference(Object object) throws IOException {
+            Integer number = written.get(object);
+            if (number != null) {
+                writeVarInt(out, number);
+                return true;
+            }
+            written.put(object, written.size() + 1);
+            writeVarInt(out, 0);
+            return false;
+        }
+
+        private void writeHeader(HeaderRecordDto header) throws IOException {
+            if (writeReference(header)) {
+                return;
+            }
+            HeaderRecordType recordType = header.getRecordType();
+            writeVarInt(out, recordType == null ? 0 : 1 + recordType.ordinal());
+            writeString(header.getVersion());
+            writeTypes(header.getPrimitiveTypes());
+        }
+
+        private void writeTypes(List<PrimitiveType> types) throws IOException {
+            if (types == null) {
+                writeVarInt(out, 0);
+                return;
+            }
+            writeVarInt(out, types.size() + 1);
+            for (PrimitiveType type : types) {
+                writeType(type);
+            }
+        }
+
+        private void writeType(PrimitiveType type) throws IOException {
+            if (writeReference(type)) {
+                return;
+            }
+            writeString(type.getName());
+            writeVarInt(out, type.getLevel());
+            writeVarInt(out, type.getStart());
+            writeVarInt(out, type.getNumberOfBits());
+            writeVarInt(out, type.getLength());
+            writeVarInt(out, type.getDigitsCount());
+            writeVarInt(out, type.getScaleFactor());
+            writeVarInt(out, type.getDataType() == null ? 0 : 1 + type.getDataType().ordinal());
+            writeString(type.getAmount());
+            writeString(type.getSelector());
+            writeString(type.getSelectorValue());
+            writeVarInt(out, type.getArray1());
+            writeVarInt(out, type.getArray2());
+            out.writeByte((type.isSigned() ? 1 : 0) | (type.isRootElement() ? 2 : 0));
+            writeTypes(type.getFields());
+        }
+
+        private void writeString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    /** Reads what the {@link CacheWriter} wrote, sharing the objects written once. */
+    private static final class CacheReader {
+        private final DataInput in;
+        private final List<Object> objects = new ArrayList<>();
+
+        private CacheReader(DataInput in) {
+            this.in = in;
+        }
+
+        private HeaderRecordDto readHeader() throws IOException {
+            int number = readVarInt(in);
+            if (number != 0) {
+                return (HeaderRecordDto) objects.get(number - 1);
+            }
+            int slot = reserve();
+            int recordType = readVarInt(in);
+            String version = readString();
+            HeaderRecordDto header =
+                    new HeaderRecordDto(
+                            recordType == 0 ? null : HeaderRecordType.values()[recordType - 1],
+                            readTypes(),
+                            version);
+            objects.set(slot, header);
+            return header;
+        }
+
+        private List<PrimitiveType> readTypes() throws IOException {
+            int size = readVarInt(in) - 1;
+            if (size < 0) {
+                return null;
+            }
+            List<PrimitiveType> types = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                types.add(readType());
+            }
+            return types;
+        }
+
+        private PrimitiveType readType() throws IOException {
+            int number = readVarInt(in);
+            if (number != 0) {
+                return (PrimitiveType) objects.get(number - 1);
+            }
+            int slot = reserve();
+            String name = readString();
+            int level = readVarInt(in);
+            int start = readVarInt(in);
+            int numberOfBits = readVarInt(in);
+            int length = readVarInt(in);
+            int digitsCount = readVarInt(in);
+            int scaleFactor = readVarInt(in);
+            int dataType = readVarInt(in);
+            String amount = readString();
+            String selector = readString();
+            String selectorValue = readString();
+            int array1 = readVarInt(in);
+            int array2 = readVarInt(in);
+            int flags = in.readUnsignedByte();
+            PrimitiveType type =
+                    PrimitiveType.builder()
+                            .name(name)
+                            .level(level)
+                            .start(start)
+                            .numberOfBits(numberOfBits)
+                            .length(length)
+                            .digitsCount(digitsCount)
+                            .scaleFactor(scaleFactor)
+                            .dataType(dataType == 0 ? null : DataType.values()[dataType - 1])
+                            .amount(amount)
+                            .selector(selector)
+                            .selectorValue(selectorValue)
+                            .array1(array1)
+                            .array2(array2)
+                            .signed((flags & 1) != 0)
+                            .rootElement((flags & 2) != 0)
+                            .build();
+            // the number is taken before the fields, like in the writer
+            objects.set(slot, type);
+            type.setFields(readTypes());
+            return type;
+        }
+
+        private int reserve() {
+            objects.add(null);
+            return objects.size() - 1;
+        }
+
+        private String readString() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VAR_INT_MASK) != 0) {
+            out.writeByte((remaining & VAR_INT_MASK) | VAR_INT_CONTINUE);
+            remaining >>>= VAR_INT_SHIFT;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += VAR_INT_SHIFT) {
+            int b = in.readUnsignedByte();
+            value |= (b & VAR_INT_MASK) << shift;
+            if ((b & VAR_INT_CONTINUE) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.binarytojson.layout;
+
+import com.github.binarytojson.exception.LayoutSyntaxException;
+import lombok.Value;
+
+/**
+ * Splits the text of a layout file into tokens with one pass over its characters. Comments are
+ * skipped and, as in the card images the layouts come from, everything after the 72nd column of
+ * a line, counted from its first non-blank character, is ignored.
+ */
+final class LayoutLexer {
+
+    /** The kinds of tokens. */
+    enum Kind {
+        /** A name or keyword, made of letters, digits, '_', '$' and '#'. */
+        WORD,
+        /** A word made only of digits. */
+        NUMBER,
+        /** A quoted string, without its quotes. */
+        STRING,
+        /** Any other single character, such as a parenthesis or a comma. */
+        SYMBOL,
+        /** The end of the layout. */
+        END
+    }
+
+    /** A token with its position in the layout. */
+    @Value
+    static class Token {
+        Kind kind;
+        String text;
+
+        /** The line of the token, starting with 1. */
+        int line;
+
+        /** The column of the token in its line, starting with 1. */
+        int column;
+
+        /** Whether whitespace or a comment separates the token from the previous one. */
+        boolean spaced;
+
+        /** Whether the token is the first one of its line. */
+        boolean firstOnLine;
+
+        boolean is(char symbol) {
+            return kind == Kind.SYMBOL && text.charAt(0) == symbol;
+        }
+
+        boolean isWord(String word) {
+            return kind == Kind.WORD && text.equals(word);
+        }
+
+        LayoutSyntaxException error(String message) {
+            return new LayoutSyntaxException(message, line, column);
+        }
+    }
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /** Maximum length allowed for a line. */
+    private static final int MAX_LINE_LENGTH = 72;
+
+    private final String text;
+    private int position;
+    private int line = 1;
+    private int lineStart;
+
+    /** The position of the first non-blank character of the line, or -1 before it. */
+    private int contentStart = -1;
+
+    private boolean tokenOnLine;
+
+    LayoutLexer(String text) {
+        this.text = text;
+        if (!text.isEmpty() && text.charAt(0) == BYTE_ORDER_MARK) {
+            position = 1;
+            lineStart = 1;
+        }
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return the next token, or a token of kind END at the end of the layout
+     * @throws LayoutSyntaxException if a comment or a string is not terminated
+     */
+    Token next() {
+        boolean spaced = false;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '\n') {
+                newLine(position + 1);
+                spaced = true;
+            } else if (Character.isWhitespace(c)) {
+                position++;
+                spaced = true;
+            } else {
+                if (contentStart < 0) {
+                    contentStart = position;
+                }
+                if (position >= limit()) {
+                    int end = text.indexOf('\n', position);
+                    position = end < 0 ? text.length() : end;
+                } else if (c == '/'
+                        && position + 1 < text.length()
+                        && text.charAt(position + 1) == '*') {
+                    skipComment();
+                    spaced = true;
+                } else {
+                    break;
+                }
+            }
+        }
+        if (position >= text.length()) {
+            return token(Kind.END, "", position, true);
+        }
+        int start = position;
+        char c = text.charAt(position);
+        if (isWordChar(c)) {
+            int limit = limit();
+            boolean digits = true;
+            while (position < limit && isWordChar(text.charAt(position))) {
+                digits &= isDigit(text.charAt(position));
+                position++;
+            }
+            Kind kind = digits ? Kind.NUMBER : Kind.WORD;
+            return token(kind, text.substring(start, position), start, spaced);
+        }
+        if (c == '\'') {
+            return token(Kind.STRING, readString(), start, spaced);
+        }
+        position++;
+        return token(Kind.SYMBOL, String.valueOf(c), start, spaced);
+    }
+
+    private Token token(Kind kind, String value, int start, boolean spaced) {
+        Token token =
+                new Token(kind, value, line, start - lineStart + 1, spaced, !tokenOnLine);
+        tokenOnLine = true;
+        return token;
+    }
+
+    private void newLine(int next) {
+        position = next;
+        line++;
+        lineStart = next;
+        contentStart = -1;
+        tokenOnLine = false;
+    }
+
+    private int limit() {
+        return (int) Math.min(text.length(), (long) contentStart + MAX_LINE_LENGTH);
+    }
+
+    /** Skips a comment, which may span several lines and is not cut at the 72nd column. */
+    private void skipComment() {
+        int startLine = line;
+        int startColumn = position - lineStart + 1;
+        position += 2;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '*' && position + 1 < text.length() && text.charAt(position + 1) == '/') {
+                position += 2;
+                return;
+            }
+            if (c == '\n') {
+                newLine(position + 1);
+            } else {
+                if (contentStart < 0 && !Character.isWhitespace(c)) {
+                    contentStart = position;
+                }
+                position++;
+            }
+        }
+        throw new LayoutSyntaxException("Unterminated comment", startLine, startColumn);
+    }
+
+    /** Reads a string ending on the same line, where two quotes stand for one. */
+    private String readString() {
+        int startColumn = position - lineStart + 1;
+        int limit = limit();
+        StringBuilder value = new StringBuilder();
+        position++;
+        while (position < limit && text.charAt(position) != '\n') {
+            char c = text.charAt(position++);
+            if (c != '\'') {
+                value.append(c);
+            } else if (position < limit && text.charAt(position) == '\'') {
+                value.append(c);
+                position++;
+            } else {
+                return value.toString();
+            }
+        }
+        throw new LayoutSyntaxException("Unterminated string", line, startColumn);
+    }
+
+    private static boolean isWordChar(char c) {
+        return c >= 'A' && c <= 'Z'
+                || c >= 'a' && c <= 'z'
+                || isDigit(c)
+                || c == '_'
+                || c == '$'
+                || c == '#';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
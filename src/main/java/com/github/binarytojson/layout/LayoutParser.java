@@ -0,0 +1,504 @@
+package com.github.binarytojson.layout;
+
+import com.github.binarytojson.exception.LayoutSyntaxException;
+import com.github.binarytojson.layout.LayoutLexer.Kind;
+import com.github.binarytojson.layout.LayoutLexer.Token;
+import com.github.binarytojson.type.DataType;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.type.PrimitiveType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Value;
+
+/**
+ * Parses the declarations of a layout file with one pass over its tokens. A layout is a list of
+ * records, each one introduced by a header statement starting with DCL, 0DCL, DECLARE or ROOT,
+ * and every other statement declares one field:
+ *
+ * <pre>
+ * DCL 01 ORDER(2) VB,
+ *    03 ID       CHAR(4),
+ *    03 LINE(3),
+ *       05 QTY   FIXED(7,2),
+ *    03 CNT      PIC'99V9',
+ *    03 NOTE     OCCURS:CNT,
+ *       05 TEXT  CHAR(10);
+ * </pre>
+ *
+ * A statement ends with a comma or a semicolon, or where a new line starts with a level number or
+ * a header keyword. Statements without a level number are ignored, and so are the declarations
+ * before the first header. The fields are returned in the order of the layout, the nesting of the
+ * levels is left to the caller. A header may declare with VERSION('c') the character of the
+ * version byte of its records.
+ *
+ * <p>A group declared with UNION:REF overlays its fields on the same bytes, as alternative views
+ * of which the one declared with WHEN:'value' matching the value of REF is read, or else the one
+ * declared without WHEN. A UNION without a reference keeps its fields one after the other.
+ */
+final class LayoutParser {
+
+    private static final Set<String> HEADER_KEYWORDS =
+            new HashSet<>(Arrays.asList("ROOT", "0DCL", "DCL", "DECLARE"));
+
+    private static final String ROOT = "ROOT";
+
+    /** The bits of a byte, for BIT and FIXED BIN fields. */
+    private static final int BYTE_BITS = 8;
+
+    /** The digits of a byte, for packed decimal FIXED fields. */
+    private static final int BYTE_DIGITS = 2;
+
+    /** A record of the layout, with its fields in the order of the layout. */
+    @Value
+    static class Record {
+        HeaderRecordType recordType;
+        int count;
+        List<PrimitiveType> types;
+
+        /** The character declared by VERSION('c') on the header, null if there is none. */
+        String version;
+    }
+
+    private final LayoutLexer lexer;
+    private Token lookahead;
+
+    /** The tokens of the current statement, without its terminator. */
+    private List<Token> statement;
+
+    private int index;
+
+    LayoutParser(String text) {
+        lexer = new LayoutLexer(text);
+        lookahead = lexer.next();
+    }
+
+    /**
+     * Parses the layout.
+     *
+     * @return the records of the layout
+     * @throws LayoutSyntaxException if the layout does not follow the declaration syntax
+     */
+    List<Record> parse() {
+        List<Record> records = new ArrayList<>();
+        List<PrimitiveType> types = null;
+        boolean implicit = false;
+        while (lookahead.getKind() != Kind.END) {
+            statement = readStatement();
+            if (statement.isEmpty()) {
+                continue;
+            }
+            boolean header = isHeaderKeyword(statement.get(0));
+            if (header || types == null) {
+                if (implicit) {
+                    records.remove(records.size() - 1);
+                }
+                implicit = !header;
+                types = new ArrayList<>();
+                records.add(new Record(recordType(), count(), types, header ? version() : null));
+            }
+            index = header ? 1 : 0;
+            if (header && statement.get(0).isWord(ROOT) && isKind(Kind.WORD)) {
+                types.add(
+                        PrimitiveType.builder()
+                                .name(statement.get(1).getText())
+                                .rootElement(true)
+                                .build());
+            } else if (isKind(Kind.NUMBER)) {
+                declaration(header, types);
+            }
+        }
+        return records;
+    }
+
+    /** Reads the tokens up to the end of the statement, checking the parentheses. */
+    private List<Token> readStatement() {
+        List<Token> tokens = new ArrayList<>();
+        Token open = null;
+        int depth = 0;
+        while (lookahead.getKind() != Kind.END) {
+            Token token = lookahead;
+            if (depth == 0) {
+                if (token.is(',') || token.is(';')) {
+                    lookahead = lexer.next();
+                    return tokens;
+                }
+                if (token.isFirstOnLine()
+                        && (token.getKind() == Kind.NUMBER || isHeaderKeyword(token))
+                        && !tokens.isEmpty()
+                        && (tokens.size() > 1 || !isHeaderKeyword(tokens.get(0)))) {
+                    return tokens;
+                }
+            }
+            if (token.is('(')) {
+                open = depth == 0 ? token : open;
+                depth++;
+            } else if (token.is(')') && --depth < 0) {
+                throw token.error("Unbalanced closing parenthesis");
+            }
+            tokens.add(token);
+            lookahead = lexer.next();
+        }
+        if (depth > 0) {
+            throw open.error("Unclosed parenthesis");
+        }
+        return tokens;
+    }
+
+    private static boolean isHeaderKeyword(Token token) {
+        return token.getKind() == Kind.WORD && HEADER_KEYWORDS.contains(token.getText());
+    }
+
+    private HeaderRecordType recordType() {
+        for (Token token : statement) {
+            if (token.isWord(HeaderRecordType.FIXED_FORMAT.getValue())) {
+                return HeaderRecordType.FIXED_FORMAT;
+            }
+        }
+        return HeaderRecordType.VARIABLE_FORMAT;
+    }
+
+    /** Gets the number of records of the header, from the first number in parentheses. */
+    private int count() {
+        for (int i = 0; i + 2 < statement.size(); i++) {
+            if (statement.get(i).is('(')
+                    && statement.get(i + 1).getKind() == Kind.NUMBER
+                    && statement.get(i + 2).is(')')) {
+                return number(statement.get(i + 1));
+            }
+        }
+        return 1;
+    }
+
+    /** Gets the character of VERSION('c') in the header, the version byte of its records. */
+    private String version() {
+        for (int i = 0; i + 1 < statement.size(); i++) {
+            Token keyword = statement.get(i);
+            if (keyword.isWord("VERSION") && statement.get(i + 1).is('(')) {
+                Token value = i + 2 < statement.size() ? statement.get(i + 2) : keyword;
+                if (value.getKind() != Kind.STRING || value.getText().length() != 1) {
+                    throw value.error("Expected a single quoted character after VERSION(");
+                }
+                return value.getText();
+            }
+        }
+        return null;
+    }
+
+    private void declaration(boolean header, List<PrimitiveType> types) {
+        Token levelToken = statement.get(index++);
+        int level = number(levelToken);
+        if (!isKind(Kind.WORD) && !isKind(Kind.NUMBER)) {
+            throw (index < statement.size() ? statement.get(index) : levelToken)
+                    .error("Expected a field name after the level number");
+        }
+        String name = statement.get(index++).getText();
+
+        // NAME(n) gives the quantity of a typed field, NAME(n,m) the dimensions of a group
+        int quantity = 1;
+        int array1 = 0;
+        int array2 = 0;
+        boolean dimensions = isDimension(1);
+        if (dimensions) {
+            quantity = number(statement.get(index + 1));
+            array1 = header ? 0 : quantity;
+            index += 3;
+        }
+        if (isDimension(2)) {
+            array1 = number(statement.get(index + 1));
+            array2 = number(statement.get(index + 3));
+            index += 5;
+        } else if (!dimensions && isSymbol('(') && !statement.get(index).isSpaced()) {
+            throw statement.get(index).error("Expected the dimensions of " + name);
+        }
+
+        Attributes attributes = attributes();
+        if (attributes.union != null
+                && (attributes.dataType != null || attributes.amount != null)) {
+            throw attributes.union.error("Expected a group without OCCURS for UNION");
+        }
+        if (attributes.dataType == null) {
+            types.add(
+                    PrimitiveType.builder()
+                            .name(name)
+                            .amount(attributes.amount)
+                            .selector(attributes.selector)
+                            .selectorValue(attributes.selectorValue)
+                            .level(level)
+                            .array1(array1)
+                            .array2(array2)
+                            .build());
+            return;
+        }
+        // an array of values is one type for all its elements, as an array of groups
+        types.add(
+                PrimitiveType.builder()
+                        .name(name)
+                        .level(level)
+                        .length(length(attributes.dataType, attributes.digits))
+                        .dataType(attributes.dataType)
+                        .digitsCount(attributes.digits)
+                        .numberOfBits(attributes.dataType == DataType.BIT ? attributes.digits : 0)
+                        .scaleFactor(attributes.scale)
+                        .selectorValue(attributes.selectorValue)
+                        .array1(quantity > 1 ? quantity : 0)
+                        .build());
+    }
+
+    /** Checks for NAME(n) or NAME(n,m) at the current token. */
+    private boolean isDimension(int numbers) {
+        int end = index + numbers * 2;
+        if (end >= statement.size()
+                || !statement.get(index).is('(')
+                || statement.get(index).isSpaced()
+                || !statement.get(end).is(')')) {
+            return false;
+        }
+        for (int i = 1; i < numbers * 2; i++) {
+            Token token = statement.get(index + i);
+            if (i % 2 == 1 ? token.getKind() != Kind.NUMBER : !token.is(',')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The attributes following the name of a field. */
+    private static final class Attributes {
+        private DataType dataType;
+        private int digits;
+        private int scale;
+        private String amount;
+        private Token union;
+        private String selector;
+        private String selectorValue;
+    }
+
+    private Attributes attributes() {
+        Attributes attributes = new Attributes();
+        String previous = null;
+        while (index < statement.size()) {
+            Token token = statement.get(index++);
+            if (token.is('(')) {
+                // the arguments of an attribute which does not matter for the record
+                skipParentheses();
+            } else if (token.getKind() == Kind.WORD) {
+                attribute(token, previous, attributes);
+                previous = token.getText();
+            }
+        }
+        return attributes;
+    }
+
+    private void attribute(Token token, String previous, Attributes attributes) {
+        switch (token.getText()) {
+            case "BIT":
+                type(attributes, token, DataType.BIT, false);
+                break;
+            case "CHAR":
+                type(attributes, token, DataType.CHAR, false);
+                break;
+            case "FIXED":
+                if (isSymbol('(')) {
+                    type(attributes, token, DataType.FIXED, true);
+                } else if (isWordWithArguments("DEC")) {
+                    index++;
+                    type(attributes, token, DataType.FIXED, true);
+                } else if (isWordWithArguments("BIN")) {
+                    index++;
+                    type(attributes, token, DataType.FIXED_BINARY, true);
+                } else if ("BINARY".equals(previous)) {
+                    setType(attributes, token, DataType.FIXED_BINARY);
+                }
+                break;
+            case "PIC":
+                if (!isKind(Kind.STRING)) {
+                    throw token.error("Expected a picture after PIC");
+                }
+                setType(attributes, token, DataType.PIC);
+                picture(statement.get(index++), attributes);
+                break;
+            case "OCCURS":
+                attributes.amount = reference(token, "count");
+                break;
+            case "UNION":
+                if (isSymbol(':')) {
+                    attributes.union = token;
+                    attributes.selector = reference(token, "selector");
+                }
+                break;
+            case "WHEN":
+                attributes.selectorValue = selectorValue(token);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean isWordWithArguments(String word) {
+        return index + 1 < statement.size()
+                && statement.get(index).isWord(word)
+                && statement.get(index + 1).is('(');
+    }
+
+    /** Reads the data type with its precision and, for decimal types, its scale. */
+    private void type(Attributes attributes, Token token, DataType dataType, boolean scaled) {
+        setType(attributes, token, dataType);
+        if (!isSymbol('(')) {
+            throw token.error("Expected the length of " + token.getText());
+        }
+        Token open = statement.get(index++);
+        if (!isKind(Kind.NUMBER)) {
+            throw open.error("Expected a number after " + token.getText() + "(");
+        }
+        attributes.digits = number(statement.get(index++));
+        if (scaled && isSymbol(',')) {
+            index++;
+            if (isKind(Kind.NUMBER)) {
+                attributes.scale = number(statement.get(index++));
+            }
+        }
+        if (!isSymbol(')')) {
+            throw (index < statement.size() ? statement.get(index) : open)
+                    .error("Expected ')' after the length of " + token.getText());
+        }
+        index++;
+    }
+
+    private static void setType(Attributes attributes, Token token, DataType dataType) {
+        if (attributes.dataType != null) {
+            throw token.error("Duplicate data type " + token.getText());
+        }
+        attributes.dataType = dataType;
+    }
+
+    /**
+     * Reads a numeric picture, where every digit and every (n)9 stands for digits of the field
+     * and V marks the position of the decimal point.
+     */
+    private static void picture(Token token, Attributes attributes) {
+        String picture = token.getText();
+        int digits = 0;
+        int scale = -1;
+        int i = 0;
+        while (i < picture.length()) {
+            char c = picture.charAt(i);
+            int count = 1;
+            if (c == 'V' && scale < 0) {
+                scale = 0;
+                count = 0;
+            } else if (c == '(') {
+                int end = picture.indexOf(')', i);
+                if (end < 0 || end + 1 >= picture.length() || picture.charAt(end + 1) != '9') {
+                    throw pictureError(token, i, "Expected (n)9 in picture");
+                }
+                try {
+                    count = Integer.parseInt(picture.substring(i + 1, end));
+                } catch (NumberFormatException e) {
+                    throw pictureError(token, i + 1, "Expected a number in picture");
+                }
+                i = end + 1;
+            } else if (c < '0' || c > '9') {
+                throw pictureError(token, i, "Unsupported picture character '" + c + "'");
+            }
+            digits += count;
+            scale += scale < 0 ? 0 : count;
+            i++;
+        }
+        if (digits == 0) {
+            throw token.error("Expected digits in picture");
+        }
+        attributes.digits = digits;
+        attributes.scale = Math.max(scale, 0);
+    }
+
+    private static LayoutSyntaxException pictureError(Token token, int offset, String message) {
+        // the column of the string points at its opening quote
+        return new LayoutSyntaxException(message, token.getLine(), token.getColumn() + 1 + offset);
+    }
+
+    /**
+     * Reads the reference of OCCURS:REF or UNION:REF, which may be subscripted as in
+     * OCCURS:COUNT(1).
+     */
+    private String reference(Token token, String what) {
+        if (!isSymbol(':')) {
+            throw token.error("Expected ':' after " + token.getText());
+        }
+        index++;
+        if (!isKind(Kind.WORD) && !isKind(Kind.NUMBER)) {
+            throw token.error("Expected the " + what + " of " + token.getText());
+        }
+        StringBuilder amount = new StringBuilder(statement.get(index++).getText());
+        while (isSymbol('(') && !statement.get(index).isSpaced()) {
+            int start = index++;
+            skipParentheses();
+            for (int i = start; i < index; i++) {
+                amount.append(statement.get(i).getText());
+            }
+        }
+        return amount.toString();
+    }
+
+    /** Reads the value of WHEN:'value', a string, a number or a word. */
+    private String selectorValue(Token token) {
+        if (!isSymbol(':')) {
+            throw token.error("Expected ':' after WHEN");
+        }
+        index++;
+        if (!isKind(Kind.STRING) && !isKind(Kind.NUMBER) && !isKind(Kind.WORD)) {
+            throw token.error("Expected the value of WHEN");
+        }
+        return statement.get(index++).getText().trim();
+    }
+
+    /** Skips to the token after the parenthesis closing the one before the current token. */
+    private void skipParentheses() {
+        int depth = 1;
+        while (depth > 0) {
+            Token token = statement.get(index++);
+            if (token.is('(')) {
+                depth++;
+            } else if (token.is(')')) {
+                depth--;
+            }
+        }
+    }
+
+    private boolean isKind(Kind kind) {
+        return index < statement.size() && statement.get(index).getKind() == kind;
+    }
+
+    private boolean isSymbol(char symbol) {
+        return index < statement.size() && statement.get(index).is(symbol);
+    }
+
+    private static int number(Token token) {
+        try {
+            return Integer.parseInt(token.getText());
+        } catch (NumberFormatException e) {
+            throw token.error("Number out of range " + token.getText());
+        }
+    }
+
+    /**
+     * Calculates the length of the data based on the data type and digits count.
+     *
+     * @param dataType the data type of the field
+     * @param digits the number of digits, or bits for BIT and FIXED BIN
+     * @return the length of the data in bytes
+     */
+    private static int length(DataType dataType, int digits) {
+        switch (dataType) {
+            case BIT:
+            case FIXED_BINARY:
+                return (digits + BYTE_BITS - 1) / BYTE_BITS;
+            case FIXED:
+                return (digits + BYTE_DIGITS - 1) / BYTE_DIGITS;
+            default:
+                return digits;
+        }
+    }
+}
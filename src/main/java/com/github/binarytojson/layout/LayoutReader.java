@@ -1,8 +1,8 @@
 package com.github.binarytojson.layout;
 
+import com.github.binarytojson.exception.LayoutSyntaxException;
 import com.github.binarytojson.exception.ReadConfigurationException;
 import com.github.binarytojson.type.HeaderRecordDto;
-import com.github.binarytojson.type.HeaderRecordType;
 import com.github.binarytojson.type.PrimitiveType;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -15,15 +15,15 @@ import java.util.Deque;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
 /** Service class for reading and processing configuration files. */
 @Slf4j
 public class LayoutReader {
 
-    /** Regular expression pattern for matching numbers enclosed in parentheses. */
-    private static final Pattern PATTERN_NUMBER = Pattern.compile("\\((\\d+)\\)");
+    /** Regular expression pattern for matching the first line of a header record. */
+    private static final Pattern HEADER_PATTERN =
+            Pattern.compile("^(ROOT|0DCL|DCL|DECLARE)\\b.*$");
 
     private static final Pattern NEW_LINE_PATTERN = Pattern.compile("\\r?\\n");
 
@@ -40,8 +40,6 @@ public class LayoutReader {
     /** Maximum length allowed for a line. */
     private static final int MAX_LINE_LENGTH = 72;
 
-    private final LayoutRowParser layoutRowParser = new LayoutRowParser();
-
     /**
      * Reads all lines from a file, normalizes them, and returns a list of processed lines.
      *
@@ -51,47 +49,43 @@ public class LayoutReader {
      */
     public List<HeaderRecordDto> readAllLinesFromFile(String fileName) {
         try {
-            List<String> linesFromFile =
-                    replaceMultilineComments(
-                            removeEmptyLines(
-                                    new String(
-                                            Files.readAllBytes(Paths.get(fileName)),
-                                            StandardCharsets.UTF_8)));
-
-            List<List<String>> headerRecords = splitByRecord(linesFromFile);
-            List<HeaderRecordDto> result = new ArrayList<>();
-            for (List<String> headerRecord : headerRecords) {
-                processRecord(headerRecord, result);
-            }
-            return result;
+            return readAllLines(Files.readAllBytes(Paths.get(fileName)));
         } catch (IOException e) {
             throw new ReadConfigurationException("Error reading file", e);
         }
     }
 
-    private void processRecord(List<String> headerRecord, List<HeaderRecordDto> result) {
-        String headerLine = headerRecord.get(0);
-        HeaderRecordType recordType =
-                headerLine.contains(HeaderRecordType.FIXED_FORMAT.getValue())
-                        ? HeaderRecordType.FIXED_FORMAT
-                        : HeaderRecordType.VARIABLE_FORMAT;
-        Matcher matcher = PATTERN_NUMBER.matcher(headerLine);
-        int count = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
-        List<PrimitiveType> types =
-                stylization(
-                        headerRecord.stream()
-                                .map(this::normalizeLine)
-                                .flatMap(
-                                        line ->
-                                                layoutRowParser.parseRow(line, isHeaderRecord(line))
-                                                        .stream())
-                                .collect(Collectors.toList()));
-        HeaderRecordDto header = new HeaderRecordDto(recordType, types);
-        for (int i = 0; i < count; i++) {
-            result.add(header);
+    /**
+     * Reads the header records from the content of a layout file.
+     *
+     * @param content the bytes of the layout file, encoded in UTF-8
+     * @return the list of header records, one per record of the data file
+     * @throws LayoutSyntaxException if the layout does not follow the declaration syntax
+     */
+    public List<HeaderRecordDto> readAllLines(byte[] content) {
+        List<HeaderRecordDto> result = new ArrayList<>();
+        LayoutParser parser = new LayoutParser(new String(content, StandardCharsets.UTF_8));
+        for (LayoutParser.Record record : parser.parse()) {
+            HeaderRecordDto header =
+                    new HeaderRecordDto(
+                            record.getRecordType(),
+                            stylization(record.getTypes()),
+                            record.getVersion());
+            for (int i = 0; i < record.getCount(); i++) {
+                result.add(header);
+            }
         }
+        return result;
     }
 
+    /**
+     * Converts the multi-line comments to single-line comments and splits the lines.
+     *
+     * @param input the content of the layout file
+     * @return the lines of the content
+     * @deprecated layouts are tokenized by {@link LayoutLexer} and read by {@link LayoutParser}
+     */
+    @Deprecated
     List<String> replaceMultilineComments(String input) {
         // Regex pattern to find multi-line comments
         Matcher matcher = PATTERN_COMMENTS.matcher(input);
@@ -110,6 +104,14 @@ public class LayoutReader {
         return Arrays.asList(NEW_LINE_PATTERN.split(result.toString()));
     }
 
+    /**
+     * Removes the blank lines.
+     *
+     * @param input the content of the layout file
+     * @return the content without blank lines
+     * @deprecated layouts are tokenized by {@link LayoutLexer} and read by {@link LayoutParser}
+     */
+    @Deprecated
     String removeEmptyLines(String input) {
         return input.replaceAll("(?m)^\\s*$[\n\r]+", "");
     }
@@ -119,7 +121,9 @@ public class LayoutReader {
      *
      * @param line the input line to be normalized
      * @return the normalized line
+     * @deprecated layouts are tokenized by {@link LayoutLexer} and read by {@link LayoutParser}
      */
+    @Deprecated
     String normalizeLine(String line) {
         String normalized =
                 line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) : line;
@@ -131,7 +135,9 @@ public class LayoutReader {
      *
      * @param listFromFile the input lines from file
      * @return split into header records lines by keywords 0DCL|DCL|DECLARE
+     * @deprecated layouts are tokenized by {@link LayoutLexer} and read by {@link LayoutParser}
      */
+    @Deprecated
     public List<List<String>> splitByRecord(List<String> listFromFile) {
         List<List<String>> parts = new ArrayList<>();
         List<String> currentPart = new ArrayList<>();
@@ -153,15 +159,26 @@ public class LayoutReader {
         return parts;
     }
 
+    /**
+     * Checks if a line starts a header record.
+     *
+     * @param line the normalized line
+     * @return true if the line starts with ROOT, 0DCL, DCL or DECLARE
+     * @deprecated layouts are tokenized by {@link LayoutLexer} and read by {@link LayoutParser}
+     */
+    @Deprecated
     boolean isHeaderRecord(String line) {
-        return line.matches("^(ROOT|0DCL|DCL|DECLARE)\\b.*$");
+        return HEADER_PATTERN.matcher(line).matches();
     }
 
+    /**
+     * Nests the types under the groups of lower level. An array stays one type with its
+     * dimensions, whose fields describe every element.
+     */
     private List<PrimitiveType> stylization(List<PrimitiveType> primitiveTypes) {
         List<PrimitiveType> results = new ArrayList<>();
-        List<PrimitiveType> newPrimitiveTypes = copyArrays(primitiveTypes);
         Deque<PrimitiveType> stack = new ArrayDeque<>();
-        for (PrimitiveType pt : newPrimitiveTypes) {
+        for (PrimitiveType pt : primitiveTypes) {
             while (!stack.isEmpty() && stack.peek().getLevel() >= pt.getLevel()) {
                 stack.pop();
             }
@@ -177,92 +194,4 @@ public class LayoutReader {
         }
         return results;
     }
-
-    private List<PrimitiveType> copyArrays(List<PrimitiveType> primitiveTypes) {
-        List<PrimitiveType> newPrimitiveTypes = new ArrayList<>();
-        for (int i = 0; i < primitiveTypes.size(); i++) {
-            PrimitiveType primitiveType = primitiveTypes.get(i);
-            if (primitiveType.getArray1() > 0) {
-                doCopyArrays(primitiveTypes, primitiveType, i, newPrimitiveTypes);
-            } else {
-                newPrimitiveTypes.add(primitiveType);
-            }
-        }
-        return newPrimitiveTypes;
-    }
-
-    private void doCopyArrays(
-            List<PrimitiveType> primitiveTypes,
-            PrimitiveType primitiveType,
-            int i,
-            List<PrimitiveType> newPrimitiveTypes) {
-        int indexElement = getIndexElement(primitiveTypes, primitiveType, i);
-        if (primitiveType.getArray2() > 0) {
-            copyValuesArray2d(
-                    primitiveType, primitiveTypes, newPrimitiveTypes, i + 1, indexElement);
-        } else {
-            copyValuesArray1d(
-                    primitiveType, primitiveTypes, newPrimitiveTypes, i + 1, indexElement);
-        }
-    }
-
-    private int getIndexElement(
-            List<PrimitiveType> primitiveTypes, PrimitiveType primitiveType, int i) {
-        int indexElement = i + 1;
-        while (indexElement < primitiveTypes.size()
-                && primitiveTypes.get(indexElement).getLevel() > primitiveType.getLevel()) {
-            indexElement++;
-        }
-        return indexElement;
-    }
-
-    private void copyValuesArray1d(
-            PrimitiveType primitiveType,
-            List<PrimitiveType> primitiveTypes,
-            List<PrimitiveType> newPrimitiveTypes,
-            int indexFrom,
-            int indexTo) {
-        for (int index = 1; index <= primitiveType.getArray1(); index++) {
-            newPrimitiveTypes.add(
-                    primitiveType
-                            .toBuilder()
-                            .name(primitiveType.getName() + "(" + index + ")")
-                            .build());
-            if (index < primitiveType.getArray1()) {
-                for (int index2 = indexFrom; index2 < indexTo; index2++) {
-                    if (primitiveTypes.get(index2).getArray1() > 0) {
-                        doCopyArrays(
-                                primitiveTypes,
-                                primitiveTypes.get(index2),
-                                index2,
-                                newPrimitiveTypes);
-                    } else {
-                        newPrimitiveTypes.add(primitiveTypes.get(index2));
-                    }
-                }
-            }
-        }
-    }
-
-    private void copyValuesArray2d(
-            PrimitiveType primitiveType,
-            List<PrimitiveType> primitiveTypes,
-            List<PrimitiveType> newPrimitiveTypes,
-            int indexFrom,
-            int indexTo) {
-        for (int index = 1; index <= primitiveType.getArray1(); index++) {
-            for (int index2 = 1; index2 <= primitiveType.getArray2(); index2++) {
-                newPrimitiveTypes.add(
-                        primitiveType
-                                .toBuilder()
-                                .name(primitiveType.getName() + "(" + index + "," + index2 + ")")
-                                .build());
-                if (index < primitiveType.getArray1() || index2 < primitiveType.getArray2()) {
-                    for (int index3 = indexFrom; index3 < indexTo; index3++) {
-                        newPrimitiveTypes.add(primitiveTypes.get(index3));
-                    }
-                }
-            }
-        }
-    }
 }
@@ -5,7 +5,9 @@ import com.github.binarytojson.type.PrimitiveType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -15,7 +17,10 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * The LayoutRowParser class is responsible for parsing a line of text representing a row in a data
  * file and extracting relevant information such as level, name, and data type.
+ *
+ * @deprecated layouts are read by {@link LayoutParser}, which {@link LayoutReader} uses
  */
+@Deprecated
 @Slf4j
 public class LayoutRowParser {
     private static final String DEFAULT_NUMBER = "0";
@@ -32,6 +37,17 @@ public class LayoutRowParser {
     /** Pattern to match the root element in layout rows. */
     private static final Pattern ROOT_PATTERN = Pattern.compile("ROOT\\s+(.+?),");
 
+    /** The compiled aliases of the data types, by alias. */
+    private static final Map<String, Pattern> ALIAS_PATTERNS = new HashMap<>();
+
+    static {
+        for (DataType dataType : DataType.values()) {
+            for (String alias : dataType.getAliases()) {
+                ALIAS_PATTERNS.put(alias, Pattern.compile(alias));
+            }
+        }
+    }
+
     /** List of data types to check for parsing. */
     private static final List<DataType> TYPES_TO_CHECK =
             Arrays.asList(
@@ -126,8 +142,7 @@ public class LayoutRowParser {
 
     private List<PrimitiveType> getPrimitiveTypes(
             String line, DataType typeToCheck, String alias, int quantity, String name, int level) {
-        Pattern typePattern = Pattern.compile(alias);
-        Matcher typeMatcher = typePattern.matcher(line);
+        Matcher typeMatcher = ALIAS_PATTERNS.get(alias).matcher(line);
         if (typeMatcher.find()) {
             List<PrimitiveType> primitiveTypes = new ArrayList<>();
             for (int index = 0; index < quantity; index++) {
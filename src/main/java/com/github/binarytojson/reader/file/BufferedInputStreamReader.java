@@ -1,18 +1,22 @@
 package com.github.binarytojson.reader.file;
 
 import static com.github.binarytojson.utils.Constants.HEADER_WITH_RDW_LENGTH;
+import static com.github.binarytojson.utils.Constants.MASK_FOR_DEFINE_BYTE;
 
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
-/** Class for reading binary data from a BufferedInputStream. */
+/**
+ * Class for reading binary data from a BufferedInputStream. Fixed length records are read into
+ * pooled arrays, which are reused for later records once they are released.
+ */
 @Slf4j
 public class BufferedInputStreamReader implements IReader {
 
@@ -39,12 +43,25 @@ public class BufferedInputStreamReader implements IReader {
         iterator.modifyFixedLength(fixedLength);
     }
 
+    /**
+     * Releases a fixed length record, its array is reused for one of the next records.
+     *
+     * @param record the record returned by the reader
+     */
+    @Override
+    public void release(ByteBuffer record) {
+        if (iterator.pool != null && record.hasArray()) {
+            iterator.pool.release(record.array());
+        }
+    }
+
     /**
      * Inner class that implements the {@link Iterator} interface to iterate over binary records.
      */
     private static class RecordIterator implements Iterator<byte[]> {
         private final BufferedInputStream bufferedInputStream;
         private int fixedLength;
+        private RecordBufferPool pool;
 
         /**
          * Constructs a {@link RecordIterator} with the provided {@link DataInputStream}.
@@ -63,6 +80,10 @@ public class BufferedInputStreamReader implements IReader {
          */
         public void modifyFixedLength(int fixedLength) {
             this.fixedLength = fixedLength;
+            this.pool =
+                    fixedLength > 0
+                            ? new RecordBufferPool(fixedLength, RecordBufferPool.DEFAULT_CAPACITY)
+                            : null;
         }
 
         /**
@@ -73,7 +94,11 @@ public class BufferedInputStreamReader implements IReader {
         @SneakyThrows
         @Override
         public boolean hasNext() {
-            return bufferedInputStream.available() > 0;
+            // available() can be 0 before the end of a pipe or socket, so the next byte is read
+            bufferedInputStream.mark(1);
+            int next = bufferedInputStream.read();
+            bufferedInputStream.reset();
+            return next >= 0;
         }
 
         /**
@@ -89,38 +114,60 @@ public class BufferedInputStreamReader implements IReader {
                         "Not enough bytes left in the buffer for a complete record");
             }
             if (fixedLength > 0) {
-                byte[] recordData = new byte[fixedLength];
-                if (bufferedInputStream.read(recordData) != -1) {
+                byte[] recordData = pool.acquire();
+                if (readFully(recordData) > 0) {
                     return recordData;
                 }
+                pool.release(recordData);
             } else {
-                if (bufferedInputStream.available() >= HEADER_WITH_RDW_LENGTH) {
-                    int rdw = readShort(bufferedInputStream);
-                    int recordLength =
-                            rdw + readShort(bufferedInputStream) - HEADER_WITH_RDW_LENGTH;
-                    byte[] recordData = new byte[recordLength];
-                    if (bufferedInputStream.read(recordData) != -1) {
-                        return recordData;
-                    }
+                byte[] header = new byte[HEADER_WITH_RDW_LENGTH];
+                if (readFully(header) < HEADER_WITH_RDW_LENGTH) {
+                    log.warn("Truncated record descriptor word at the end of the stream");
+                    return new byte[] {};
+                }
+                int recordLength =
+                        readShort(header, 0) + readShort(header, 2) - HEADER_WITH_RDW_LENGTH;
+                byte[] recordData = new byte[recordLength];
+                if (readFully(recordData) > 0) {
+                    return recordData;
                 }
             }
             return new byte[] {};
         }
 
         /**
-         * Reads a short integer from the input stream.
+         * Reads the record until it is complete or the stream ends, the stream can return less
+         * bytes than requested when no more bytes are available at the moment. The rest of a
+         * truncated record is filled with zeros.
          *
-         * @param inputStream the input stream from which to read the short integer
-         * @return the short integer read from the input stream
-         * @throws IOException if an I/O error occurs during the conversion process
+         * @param recordData the array to fill
+         * @return the number of bytes read
+         * @throws IOException if an I/O error occurs while reading
          */
-        private int readShort(InputStream inputStream) throws IOException {
-            int ch1 = inputStream.read();
-            int ch2 = inputStream.read();
-            if ((ch1 | ch2) < 0) {
-                throw new EOFException();
+        private int readFully(byte[] recordData) throws IOException {
+            int length = 0;
+            while (length < recordData.length) {
+                int read =
+                        bufferedInputStream.read(recordData, length, recordData.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
             }
-            return (ch1 << 8) + ch2;
+            Arrays.fill(recordData, length, recordData.length, (byte) 0);
+            return length;
+        }
+
+        /**
+         * Reads an unsigned short integer from the record descriptor word.
+         *
+         * @param header the bytes of the record descriptor word
+         * @param index the index of the first byte of the integer
+         * @return the short integer read from the record descriptor word
+         */
+        private int readShort(byte[] header, int index) {
+            return (header[index] & MASK_FOR_DEFINE_BYTE) << 8
+                    | (header[index + 1] & MASK_FOR_DEFINE_BYTE);
         }
     }
 }
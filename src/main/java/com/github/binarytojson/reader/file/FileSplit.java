@@ -0,0 +1,47 @@
+package com.github.binarytojson.reader.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * An arbitrary byte range of a binary file, converted independently of the other ranges of the
+ * file. The range owns the records which start in it, so that the splits of a file together
+ * convert every record exactly once. A record can therefore end after the end of its split.
+ */
+@Value
+public class FileSplit {
+
+    /** The path of the file. */
+    Path path;
+
+    /** The offset of the first byte of the split. */
+    long start;
+
+    /** The offset after the last byte of the split. */
+    long end;
+
+    /**
+     * Splits a file into contiguous ranges of the given size, the last one can be shorter. The
+     * ranges ignore the records, they are aligned when they are read.
+     *
+     * @param path the path of the file
+     * @param splitSize the number of bytes of a split
+     * @return the list of splits in order, empty for an empty file
+     * @throws IOException if the size of the file could not be read
+     */
+    public static List<FileSplit> of(Path path, long splitSize) throws IOException {
+        if (splitSize <= 0) {
+            throw new IllegalArgumentException("Split size must be positive");
+        }
+        long size = Files.size(path);
+        List<FileSplit> splits = new ArrayList<>();
+        for (long start = 0; start < size; start += splitSize) {
+            splits.add(new FileSplit(path, start, Math.min(size, start + splitSize)));
+        }
+        return splits;
+    }
+}
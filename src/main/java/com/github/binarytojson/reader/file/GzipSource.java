@@ -0,0 +1,101 @@
+package com.github.binarytojson.reader.file;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Utility class for gzip compressed sources. A compressed source is inflated on the I/O thread of
+ * a {@link ReadAheadInputStream}, so decompression overlaps with the decoding of the records.
+ *
+ * <p>Binary records may start with any bytes, including the gzip magic number, so compressed files
+ * are recognized by their extension. Only streams without a name, such as the standard input, are
+ * recognized by their content, with the whole fixed part of the gzip header.
+ */
+public class GzipSource {
+
+    /** Default number of inflated buffers handed over ahead of the consumed one. */
+    public static final int DEFAULT_DEPTH = 2;
+
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+    private static final int DEFLATE_METHOD = 8;
+    private static final int RESERVED_FLAGS = 0xe0;
+    private static final int GZIP_HEADER_LENGTH = 4;
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+
+    private GzipSource() {}
+
+    /**
+     * Checks if the file is gzip compressed, by its extension.
+     *
+     * @param path the path of the file
+     * @return true if the file name ends with .gz
+     */
+    public static boolean isGzip(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null
+                && fileName.toString().toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * Opens a stream which may be gzip compressed, such as the standard input. The stream is
+     * checked without consuming it for a gzip header, the magic number followed by the deflate
+     * method and flags without reserved bits, and a compressed stream is inflated like a compressed
+     * file. Closing the returned stream closes the given one.
+     *
+     * @param inputStream the stream to read
+     * @param depth the number of inflated buffers handed over ahead of the consumed one
+     * @return the stream of inflated bytes, or of the plain bytes if the stream is not compressed
+     * @throws IOException if the stream could not be read
+     */
+    public static InputStream inflateIfGzip(InputStream inputStream, int depth)
+            throws IOException {
+        BufferedInputStream bufferedInputStream =
+                new BufferedInputStream(inputStream, INFLATE_BUFFER_SIZE);
+        bufferedInputStream.mark(GZIP_HEADER_LENGTH);
+        boolean gzip = hasGzipHeader(bufferedInputStream);
+        bufferedInputStream.reset();
+        if (!gzip) {
+            return bufferedInputStream;
+        }
+        return new ReadAheadInputStream(
+                new GZIPInputStream(bufferedInputStream, INFLATE_BUFFER_SIZE),
+                ReadAheadInputStream.DEFAULT_BUFFER_SIZE,
+                depth);
+    }
+
+    private static boolean hasGzipHeader(InputStream inputStream) throws IOException {
+        return inputStream.read() == GZIP_MAGIC_FIRST
+                && inputStream.read() == GZIP_MAGIC_SECOND
+                && inputStream.read() == DEFLATE_METHOD
+                && (inputStream.read() & RESERVED_FLAGS) == 0;
+    }
+
+    /**
+     * Opens the compressed file for reading. The returned stream must be closed to stop the
+     * inflating thread.
+     *
+     * @param path the path of the compressed file
+     * @param depth the number of inflated buffers handed over ahead of the consumed one
+     * @return the stream of inflated bytes
+     * @throws IOException if the file could not be opened or is not gzip compressed
+     */
+    public static InputStream open(Path path, int depth) throws IOException {
+        InputStream file = Files.newInputStream(path);
+        try {
+            return new ReadAheadInputStream(
+                    new GZIPInputStream(file, INFLATE_BUFFER_SIZE),
+                    ReadAheadInputStream.DEFAULT_BUFFER_SIZE,
+                    depth);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+}
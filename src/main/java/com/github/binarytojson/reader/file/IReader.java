@@ -1,5 +1,7 @@
 package com.github.binarytojson.reader.file;
 
+import java.nio.ByteBuffer;
+
 /** Interface for Reader with fixed/not fixed length functionality */
 public interface IReader {
 
@@ -9,4 +11,12 @@ public interface IReader {
      * @param fixedLength the fixed length to set. 0 - length depend on RDW
      */
     void setFixedLength(int fixedLength);
+
+    /**
+     * Releases a record which is no longer used, so that the reader can reuse its buffer. Readers
+     * which do not pool their buffers ignore it.
+     *
+     * @param record the record returned by the reader
+     */
+    default void release(ByteBuffer record) {}
 }
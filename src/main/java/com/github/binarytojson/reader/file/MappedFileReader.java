@@ -0,0 +1,236 @@
+package com.github.binarytojson.reader.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import lombok.SneakyThrows;
+
+/**
+ * Class for reading fixed length records from a file through memory mapped chunks. Records are
+ * returned as slices of the mapping, so no record bytes are copied. Chunks are aligned to the
+ * record length, which allows files larger than 2 GB to be read.
+ */
+public class MappedFileReader implements IReader, Closeable {
+
+    /** Default size of one mapped chunk (256 megabytes). */
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int chunkSize;
+    private int fixedLength;
+
+    /**
+     * Opens the file for reading with the default chunk size.
+     *
+     * @param path the path of the file to read
+     * @throws IOException if the file could not be opened
+     */
+    public MappedFileReader(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the file for reading with the given chunk size.
+     *
+     * @param path the path of the file to read
+     * @param chunkSize the maximum number of bytes mapped at once
+     * @throws IOException if the file could not be opened
+     */
+    public MappedFileReader(Path path, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads the whole file in fixed length records.
+     *
+     * @return an Iterable of buffers, each one positioned on a single record
+     */
+    public Iterable<ByteBuffer> readBinaryFile() {
+        return readBinaryFile(0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the records between the given offsets in fixed length records.
+     *
+     * @param startOffset the offset of the first record
+     * @param endOffset the offset after the last record, limited by the size of the file
+     * @return an Iterable of buffers, each one positioned on a single record
+     */
+    public Iterable<ByteBuffer> readBinaryFile(long startOffset, long endOffset) {
+        return readSample(startOffset, endOffset, 1, 1);
+    }
+
+    /**
+     * Reads every n-th group of records between the given offsets. The records between two read
+     * groups are skipped without being mapped.
+     *
+     * @param startOffset the offset of the first record
+     * @param endOffset the offset after the last record, limited by the size of the file
+     * @param groupSize the number of records in a group
+     * @param every the distance between two read groups, in groups
+     * @return an Iterable of buffers, each one positioned on a single record
+     */
+    public Iterable<ByteBuffer> readSample(
+            long startOffset, long endOffset, int groupSize, long every) {
+        if (groupSize <= 0 || every <= 0) {
+            throw new IllegalArgumentException("Group size and sample distance must be positive");
+        }
+        return () -> new RecordIterator(startOffset, endOffset, groupSize, every);
+    }
+
+    /**
+     * Splits the records from the given one to the end of the file into ranges of about the same
+     * size. Ranges start at multiples of the alignment, so that groups of records are never split.
+     *
+     * @param fromRecord the number of the first record, starting from 0
+     * @param parts the requested number of ranges
+     * @param alignment the number of records in a group
+     * @return the list of non-empty ranges in order
+     * @throws IOException if the size of the file could not be read
+     */
+    public List<RecordRange> split(long fromRecord, int parts, int alignment) throws IOException {
+        return split(fromRecord, Long.MAX_VALUE, parts, alignment);
+    }
+
+    /**
+     * Splits the records between the given ones into ranges of about the same size, aligned like
+     * {@link #split(long, int, int)}.
+     *
+     * @param fromRecord the number of the first record, starting from 0
+     * @param toRecord the number of the record after the last one, limited by the size of the file
+     * @param parts the requested number of ranges
+     * @param alignment the number of records in a group
+     * @return the list of non-empty ranges in order
+     * @throws IOException if the size of the file could not be read
+     */
+    public List<RecordRange> split(long fromRecord, long toRecord, int parts, int alignment)
+            throws IOException {
+        if (fixedLength <= 0) {
+            throw new IllegalStateException("Fixed length is not set");
+        }
+        long size = channel.size();
+        long recordCount = Math.min(toRecord, (size + fixedLength - 1) / fixedLength);
+        List<RecordRange> ranges = new ArrayList<>();
+        long first = Math.min(fromRecord, recordCount);
+        for (int part = 1; part <= parts; part++) {
+            long next = recordCount;
+            if (part < parts) {
+                long target = first + (recordCount - first) / (parts - part + 1);
+                next = Math.min(recordCount, (target + alignment - 1) / alignment * alignment);
+            }
+            if (next > first) {
+                ranges.add(
+                        new RecordRange(
+                                first,
+                                next - first,
+                                first * fixedLength,
+                                Math.min(size, next * fixedLength)));
+                first = next;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Sets the fixed length for reading binary records.
+     *
+     * @param fixedLength the fixed length to set, must be positive
+     */
+    @Override
+    public void setFixedLength(int fixedLength) {
+        if (fixedLength <= 0) {
+            throw new IllegalArgumentException("Mapped reader supports only fixed length records");
+        }
+        this.fixedLength = fixedLength;
+    }
+
+    /**
+     * Closes the underlying file channel.
+     *
+     * @throws IOException if an I/O error occurs while closing the channel
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Inner class that iterates over the records of the mapped chunks. */
+    private class RecordIterator implements Iterator<ByteBuffer> {
+        private final long end;
+        private final int groupSize;
+        private final long skippedRecords;
+        private long position;
+        private int inGroup;
+        private MappedByteBuffer chunk;
+        private long chunkStart;
+
+        @SneakyThrows
+        RecordIterator(long startOffset, long endOffset, int groupSize, long every) {
+            this.position = startOffset;
+            this.end = Math.min(endOffset, channel.size());
+            this.groupSize = groupSize;
+            this.skippedRecords = (every - 1) * groupSize;
+        }
+
+        /**
+         * Checks if there are more binary records available for reading.
+         *
+         * @return true if there are more records, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        /**
+         * Returns the next record as a slice of the current chunk. The last record can be shorter
+         * than the fixed length if the file is truncated.
+         *
+         * @return the buffer positioned on the next record
+         */
+        @SneakyThrows
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more records in the file");
+            }
+            if (fixedLength <= 0) {
+                throw new IllegalStateException("Fixed length is not set");
+            }
+            int length = (int) Math.min(fixedLength, end - position);
+            if (chunk == null || position + length > chunkStart + chunk.capacity()) {
+                mapChunk();
+            }
+            int offset = (int) (position - chunkStart);
+            ByteBuffer record = chunk.duplicate();
+            ((Buffer) record).limit(offset + length);
+            ((Buffer) record).position(offset);
+            position += length;
+            if (++inGroup == groupSize) {
+                inGroup = 0;
+                position += skippedRecords * fixedLength;
+            }
+            return record;
+        }
+
+        private void mapChunk() throws IOException {
+            long alignedSize = Math.max(fixedLength, chunkSize / fixedLength * (long) fixedLength);
+            chunkStart = position;
+            chunk =
+                    channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            chunkStart,
+                            Math.min(alignedSize, end - chunkStart));
+        }
+    }
+}
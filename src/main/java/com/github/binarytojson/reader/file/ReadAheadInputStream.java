@@ -0,0 +1,218 @@
+package com.github.binarytojson.reader.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream which reads its source ahead on a dedicated I/O thread. The thread fills a fixed set
+ * of buffers while the previous ones are consumed, so reading from slow storage overlaps with the
+ * decoding of the records. The buffers are handed over in both directions through bounded queues
+ * and reused, so no memory is allocated after the start.
+ *
+ * <p>Closing the stream stops the I/O thread and closes the source.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    /** Default size of one read ahead buffer (1 megabyte). */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final int END_OF_STREAM = -1;
+
+    private final InputStream source;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread thread;
+    private Chunk current;
+    private int position;
+    private volatile boolean closed;
+
+    /**
+     * Starts reading the source ahead.
+     *
+     * @param source the stream to read
+     * @param bufferSize the size of one buffer
+     * @param depth the number of buffers filled ahead of the consumed one, at least 1
+     */
+    public ReadAheadInputStream(InputStream source, int bufferSize, int depth) {
+        if (bufferSize <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Buffer size and depth must be positive");
+        }
+        this.source = source;
+        this.free = new ArrayBlockingQueue<>(depth + 1);
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i <= depth; i++) {
+            free.add(new Chunk(new byte[bufferSize]));
+        }
+        this.thread = new Thread(this::readAhead, "read-ahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reads the next byte.
+     *
+     * @return the byte, or -1 at the end of the stream
+     * @throws IOException if reading the source failed
+     */
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return END_OF_STREAM;
+        }
+        return current.bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Reads bytes from the current buffer, waiting for the next buffer only if the current one is
+     * consumed.
+     *
+     * @param bytes the array receiving the bytes
+     * @param offset the offset in the array
+     * @param length the maximal number of bytes to read
+     * @return the number of bytes read, or -1 at the end of the stream
+     * @throws IOException if reading the source failed
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return END_OF_STREAM;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.bytes, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Skips bytes of the current buffer, waiting for the next buffer only if the current one is
+     * consumed.
+     *
+     * @param length the number of bytes to skip
+     * @return the number of bytes skipped
+     * @throws IOException if reading the source failed
+     */
+    @Override
+    public long skip(long length) throws IOException {
+        if (length <= 0 || !nextChunk()) {
+            return 0;
+        }
+        int count = (int) Math.min(length, current.length - position);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Gets the number of bytes available without waiting for the I/O thread.
+     *
+     * @return the number of unread bytes of the current buffer
+     */
+    @Override
+    public int available() {
+        return current == null || current.length < 0 ? 0 : current.length - position;
+    }
+
+    /**
+     * Stops the I/O thread and closes the source.
+     *
+     * @throws IOException if closing the source failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            thread.interrupt();
+            source.close();
+        }
+    }
+
+    /**
+     * Makes sure the current buffer has unread bytes, handing the consumed buffer back to the I/O
+     * thread. An error of the source is thrown once the bytes read before it are consumed.
+     *
+     * @return true if bytes are available, false at the end of the stream
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || position == current.length) {
+            if (current != null) {
+                if (current.error != null) {
+                    throw current.error;
+                }
+                free.add(current);
+            }
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the input");
+            }
+            position = 0;
+        }
+        return current.length >= 0;
+    }
+
+    /** Loop of the I/O thread, filling free buffers until the end of the source or an error. */
+    private void readAhead() {
+        try {
+            while (!closed) {
+                Chunk chunk = free.take();
+                fill(chunk);
+                filled.put(chunk);
+                if (chunk.length < 0 || chunk.error != null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fills the buffer from the source. After the first read, the source is read further only
+     * while it has bytes available, so a slow source such as a pipe is not delayed until the
+     * buffer is full.
+     *
+     * @param chunk the buffer to fill
+     */
+    private void fill(Chunk chunk) {
+        int length = 0;
+        chunk.error = null;
+        try {
+            do {
+                int read = source.read(chunk.bytes, length, chunk.bytes.length - length);
+                if (read < 0) {
+                    if (length == 0) {
+                        length = END_OF_STREAM;
+                    }
+                    break;
+                }
+                length += read;
+            } while (length < chunk.bytes.length && (length == 0 || source.available() > 0));
+        } catch (IOException e) {
+            chunk.error = e;
+        }
+        chunk.length = length;
+    }
+
+    /**
+     * A buffer with the number of valid bytes, -1 marking the end of the stream, and the error
+     * which stopped the reading.
+     */
+    private static final class Chunk {
+        private final byte[] bytes;
+        private int length;
+        private IOException error;
+
+        private Chunk(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
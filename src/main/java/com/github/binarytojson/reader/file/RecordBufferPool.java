@@ -0,0 +1,52 @@
+package com.github.binarytojson.reader.file;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of record buffers of one length. A buffer is acquired for every record read and released
+ * when the record has been written, so a conversion in a steady state reuses the same few arrays
+ * instead of allocating one per record. The pool is used by a single conversion and is not thread
+ * safe.
+ */
+public class RecordBufferPool {
+
+    /** Default maximal number of free buffers kept by the pool. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int recordLength;
+    private final int capacity;
+    private final Deque<byte[]> free = new ArrayDeque<>();
+
+    /**
+     * Constructs a pool of buffers of the given length.
+     *
+     * @param recordLength the length of every buffer
+     * @param capacity the maximal number of free buffers kept
+     */
+    public RecordBufferPool(int recordLength, int capacity) {
+        this.recordLength = recordLength;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes a free buffer, a new buffer is allocated only if there is none.
+     *
+     * @return a buffer of the record length, its content is undefined
+     */
+    public byte[] acquire() {
+        byte[] buffer = free.pollFirst();
+        return buffer != null ? buffer : new byte[recordLength];
+    }
+
+    /**
+     * Gives a buffer back to the pool. The buffer must not be used after it was released.
+     *
+     * @param buffer the buffer to release, ignored if it has another length
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length == recordLength && free.size() < capacity) {
+            free.addFirst(buffer);
+        }
+    }
+}
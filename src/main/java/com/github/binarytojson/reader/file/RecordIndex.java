@@ -0,0 +1,362 @@
+package com.github.binarytojson.reader.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Sidecar index of record offsets in a variable length file. The index is built by one pass over
+ * the record descriptor words and keeps the offset of every N-th record, which allows to jump to a
+ * record, to count records and to split the file into balanced ranges without decoding fields.
+ *
+ * <p>The index file holds delta encoded variable length longs, so it stays small even for files
+ * with billions of records.
+ */
+public class RecordIndex {
+
+    /** The extension of the sidecar file, appended to the name of the indexed file. */
+    public static final String EXTENSION = ".idx";
+
+    /** Default number of records between two index entries. */
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    private static final int MAGIC = 0x52494458;
+    private static final int VERSION = 1;
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+    private static final int VAR_LONG_SHIFT = 7;
+    private static final int VAR_LONG_MASK = 0x7F;
+    private static final int VAR_LONG_CONTINUE = 0x80;
+
+    /** The minimal number of records between two index entries. */
+    @Getter private final int interval;
+
+    /** The total number of records in the file. */
+    @Getter private final long recordCount;
+
+    /** The length of the indexed file. */
+    @Getter private final long fileLength;
+
+    /** The last modification time of the indexed file in milliseconds. */
+    @Getter private final long lastModified;
+
+    /** Whether the indexed file has block descriptor words. */
+    @Getter private final boolean blockDescriptors;
+
+    private final long[] records;
+    private final long[] offsets;
+
+    private RecordIndex(
+            int interval,
+            long recordCount,
+            long fileLength,
+            long lastModified,
+            boolean blockDescriptors,
+            long[] records,
+            long[] offsets) {
+        this.interval = interval;
+        this.recordCount = recordCount;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.blockDescriptors = blockDescriptors;
+        this.records = records;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds the index of a variable length file. With block descriptor words the entries are
+     * placed on block boundaries, so they can be a bit more than the interval apart.
+     *
+     * @param source the path of the variable length file
+     * @param interval the minimal number of records between two index entries
+     * @param blockDescriptors whether blocks start with a block descriptor word
+     * @return the built index
+     * @throws IOException if an I/O error occurs or a descriptor word is invalid
+     */
+    public static RecordIndex build(Path source, int interval, boolean blockDescriptors)
+            throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Index interval must be positive");
+        }
+        long lastModified = Files.getLastModifiedTime(source).toMillis();
+        List<long[]> entries = new ArrayList<>();
+        long count = 0;
+        long sinceEntry = interval;
+        try (InputStream inputStream = Files.newInputStream(source)) {
+            VariableRecordReader reader =
+                    new VariableRecordReader(inputStream, SCAN_BUFFER_SIZE, blockDescriptors);
+            while (true) {
+                long offset = reader.getPosition();
+                boolean blockBoundary = reader.isBlockBoundary();
+                if (!reader.skipRecord()) {
+                    break;
+                }
+                if (sinceEntry >= interval && blockBoundary) {
+                    entries.add(new long[] {count, offset});
+                    sinceEntry = 0;
+                }
+                count++;
+                sinceEntry++;
+            }
+        }
+        long[] records = new long[entries.size()];
+        long[] offsets = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            records[i] = entries.get(i)[0];
+            offsets[i] = entries.get(i)[1];
+        }
+        return new RecordIndex(
+                interval,
+                count,
+                Files.size(source),
+                lastModified,
+                blockDescriptors,
+                records,
+                offsets);
+    }
+
+    /**
+     * Gets the path of the sidecar index file of the given file.
+     *
+     * @param source the path of the indexed file
+     * @return the path of the index file
+     */
+    public static Path sidecarOf(Path source) {
+        return source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Reads the sidecar index of the given file if it exists and is up to date.
+     *
+     * @param source the path of the indexed file
+     * @return the index, or null if there is no valid sidecar
+     * @throws IOException if an I/O error occurs while reading the index
+     */
+    public static RecordIndex readSidecar(Path source) throws IOException {
+        Path sidecar = sidecarOf(source);
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        RecordIndex index = read(sidecar);
+        return index.matches(source) ? index : null;
+    }
+
+    /**
+     * Reads an index file.
+     *
+     * @param path the path of the index file
+     * @return the index
+     * @throws IOException if an I/O error occurs or the file is not an index
+     */
+    public static RecordIndex read(Path path) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a record index: " + path);
+            }
+            int interval = (int) readVarLong(in);
+            long recordCount = readVarLong(in);
+            long fileLength = readVarLong(in);
+            long lastModified = readVarLong(in);
+            boolean blockDescriptors = in.readBoolean();
+            int size = (int) readVarLong(in);
+            long[] records = new long[size];
+            long[] offsets = new long[size];
+            long record = 0;
+            long offset = 0;
+            for (int i = 0; i < size; i++) {
+                record += readVarLong(in);
+                offset += readVarLong(in);
+                records[i] = record;
+                offsets[i] = offset;
+            }
+            return new RecordIndex(
+                    interval,
+                    recordCount,
+                    fileLength,
+                    lastModified,
+                    blockDescriptors,
+                    records,
+                    offsets);
+        }
+    }
+
+    /**
+     * Writes the index to a file.
+     *
+     * @param path the path of the index file
+     * @throws IOException if an I/O error occurs while writing the index
+     */
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarLong(out, interval);
+            writeVarLong(out, recordCount);
+            writeVarLong(out, fileLength);
+            writeVarLong(out, lastModified);
+            out.writeBoolean(blockDescriptors);
+            writeVarLong(out, records.length);
+            for (int i = 0; i < records.length; i++) {
+                writeVarLong(out, i == 0 ? records[i] : records[i] - records[i - 1]);
+                writeVarLong(out, i == 0 ? offsets[i] : offsets[i] - offsets[i - 1]);
+            }
+        }
+    }
+
+    /**
+     * Checks if the index still describes the given file.
+     *
+     * @param source the path of the indexed file
+     * @return true if the length and the modification time of the file did not change
+     * @throws IOException if an I/O error occurs while reading the file attributes
+     */
+    public boolean matches(Path source) throws IOException {
+        return Files.size(source) == fileLength
+                && Files.getLastModifiedTime(source).toMillis() == lastModified;
+    }
+
+    /**
+     * Finds the closest indexed position at or before the given record.
+     *
+     * @param record the number of the record, starting from 0
+     * @return the range starting at the indexed position and ending at the end of the file
+     */
+    public RecordRange locate(long record) {
+        if (record < 0 || record > recordCount) {
+            throw new IllegalArgumentException("Record out of range: " + record);
+        }
+        if (records.length == 0) {
+            return new RecordRange(0, 0, 0, fileLength);
+        }
+        int found = Arrays.binarySearch(records, record);
+        int entry = found >= 0 ? found : Math.max(0, -found - 2);
+        return new RecordRange(
+                records[entry], recordCount - records[entry], offsets[entry], fileLength);
+    }
+
+    /**
+     * Splits the file into ranges of about the same number of bytes. Ranges start at indexed
+     * records, so a file can be split into fewer ranges than requested.
+     *
+     * @param parts the requested number of ranges
+     * @return the list of ranges covering the whole file in order
+     */
+    public List<RecordRange> split(int parts) {
+        List<RecordRange> ranges = new ArrayList<>();
+        if (records.length == 0) {
+            ranges.add(new RecordRange(0, 0, 0, fileLength));
+            return ranges;
+        }
+        int previous = 0;
+        for (int part = 1; part <= parts; part++) {
+            int next = records.length;
+            if (part < parts) {
+                long target = fileLength / parts * part;
+                int found = Arrays.binarySearch(offsets, target);
+                next = found >= 0 ? found : -found - 1;
+            }
+            if (next > previous) {
+                long endRecord = next < records.length ? records[next] : recordCount;
+                long endOffset = next < records.length ? offsets[next] : fileLength;
+                ranges.add(
+                        new RecordRange(
+                                records[previous],
+                                endRecord - records[previous],
+                                offsets[previous],
+                                endOffset));
+                previous = next;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Splits the records from the given one to the end of the file into ranges of about the same
+     * number of bytes. Ranges start at multiples of the alignment, so that groups of records are
+     * never split. A range can start between two indexed records, in this case its offsets are
+     * those of the closest indexed records around it and the records before the first one have to
+     * be skipped.
+     *
+     * @param fromRecord the number of the first record, starting from 0
+     * @param parts the requested number of ranges
+     * @param alignment the number of records in a group
+     * @return the list of non-empty ranges in order
+     */
+    public List<RecordRange> split(long fromRecord, int parts, int alignment) {
+        return split(fromRecord, Long.MAX_VALUE, parts, alignment);
+    }
+
+    /**
+     * Splits the records between the given ones into ranges of about the same number of bytes,
+     * aligned like {@link #split(long, int, int)}.
+     *
+     * @param fromRecord the number of the first record, starting from 0
+     * @param toRecord the number of the record after the last one, limited by the record count
+     * @param parts the requested number of ranges
+     * @param alignment the number of records in a group
+     * @return the list of non-empty ranges in order
+     */
+    public List<RecordRange> split(long fromRecord, long toRecord, int parts, int alignment) {
+        List<RecordRange> ranges = new ArrayList<>();
+        long end = Math.min(toRecord, recordCount);
+        long first = Math.min(fromRecord, end);
+        for (RecordRange range : split(parts)) {
+            long last = range.getFirstRecord() + range.getRecordCount();
+            long next = Math.min(end, (last + alignment - 1) / alignment * alignment);
+            if (next > first) {
+                ranges.add(
+                        new RecordRange(
+                                first,
+                                next - first,
+                                locate(first).getStartOffset(),
+                                offsetAtOrAfter(next)));
+                first = next;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Finds the offset of the closest indexed record at or after the given record.
+     *
+     * @param record the number of the record, starting from 0
+     * @return the offset of the indexed record, or the length of the file if there is none
+     */
+    private long offsetAtOrAfter(long record) {
+        int found = Arrays.binarySearch(records, record);
+        int entry = found >= 0 ? found : -found - 1;
+        return entry < records.length ? offsets[entry] : fileLength;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        long rest = value;
+        while ((rest & ~VAR_LONG_MASK) != 0) {
+            out.write((int) (rest & VAR_LONG_MASK) | VAR_LONG_CONTINUE);
+            rest >>>= VAR_LONG_SHIFT;
+        }
+        out.write((int) rest);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int current;
+        do {
+            current = in.readUnsignedByte();
+            value |= (long) (current & VAR_LONG_MASK) << shift;
+            shift += VAR_LONG_SHIFT;
+        } while ((current & VAR_LONG_CONTINUE) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.binarytojson.reader.file;
+
+import lombok.Value;
+
+/** A contiguous range of records in a binary file. */
+@Value
+public class RecordRange {
+
+    /** The number of the first record in the range, starting from 0. */
+    long firstRecord;
+
+    /** The number of records in the range. */
+    long recordCount;
+
+    /** The offset of the first byte of the range. */
+    long startOffset;
+
+    /** The offset after the last byte of the range. */
+    long endOffset;
+}
@@ -0,0 +1,328 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.utils.Constants.HEADER_WITH_RDW_LENGTH;
+import static com.github.binarytojson.utils.Constants.MASK_FOR_DEFINE_BYTE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+/**
+ * Class for reading the records of a {@link FileSplit} without reading the rest of the file, so
+ * that the splits of a file can be converted by independent tasks.
+ *
+ * <p>Fixed length records, or groups of them, start at the first multiple of their length in the
+ * split. Variable length records are found by resynchronizing: every offset from the start of the
+ * split is tried as the start of a chain of descriptor words, and the first offset from which a
+ * number of consecutive descriptor words are valid and consistent is taken as a record boundary,
+ * similar to the way line oriented formats look for the next line feed. With block descriptor
+ * words, the chain is made of blocks exactly filled by their records, and a split owns the blocks
+ * which start in it. Segments which continue a spanned record of the previous split are skipped,
+ * as the previous split reads them past its end.
+ *
+ * <p>Resynchronization is a heuristic. Record data which happens to form a valid chain of
+ * descriptor words would be taken for one, a longer chain makes it less likely.
+ */
+public class SplitReader implements IReader, Closeable {
+
+    /** Default number of consecutive descriptor words validated to resynchronize. */
+    public static final int DEFAULT_SYNC_DEPTH = 8;
+
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final int UNKNOWN = -1;
+
+    private final FileSplit split;
+    private final int bufferSize;
+    private final boolean blockDescriptors;
+    private final int syncDepth;
+    private final FileChannel channel;
+    private int fixedLength;
+    private int groupSize = 1;
+    private MappedFileReader mappedFileReader;
+
+    /** The offset of the first record owned by the split, -1 if it owns none. */
+    @Getter private long startOffset = UNKNOWN;
+
+    /**
+     * Opens the file of the split with the default synchronization depth.
+     *
+     * @param split the split to read
+     * @param bufferSize the initial size of the read buffer of variable length records
+     * @param blockDescriptors whether blocks start with a block descriptor word
+     * @throws IOException if the file could not be opened
+     */
+    public SplitReader(FileSplit split, int bufferSize, boolean blockDescriptors)
+            throws IOException {
+        this(split, bufferSize, blockDescriptors, DEFAULT_SYNC_DEPTH);
+    }
+
+    /**
+     * Opens the file of the split.
+     *
+     * @param split the split to read
+     * @param bufferSize the initial size of the read buffer of variable length records
+     * @param blockDescriptors whether blocks start with a block descriptor word
+     * @param syncDepth the number of consecutive descriptor words, or blocks, validated to
+     *     resynchronize on variable length records
+     * @throws IOException if the file could not be opened
+     */
+    public SplitReader(FileSplit split, int bufferSize, boolean blockDescriptors, int syncDepth)
+            throws IOException {
+        if (syncDepth <= 0) {
+            throw new IllegalArgumentException("Synchronization depth must be positive");
+        }
+        this.split = split;
+        this.bufferSize = bufferSize;
+        this.blockDescriptors = blockDescriptors;
+        this.syncDepth = syncDepth;
+        this.channel = FileChannel.open(split.getPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Sets the fixed length of the records, 0 for variable length records.
+     *
+     * @param fixedLength the fixed length to set
+     */
+    @Override
+    public void setFixedLength(int fixedLength) {
+        if (fixedLength < 0) {
+            throw new IllegalArgumentException("Fixed length must not be negative");
+        }
+        this.fixedLength = fixedLength;
+    }
+
+    /**
+     * Sets the number of records of a group, which are never split. The start of a variable
+     * length group can not be recognized, so only fixed length records can be grouped.
+     *
+     * @param groupSize the number of records of a group, 1 by default
+     */
+    public void setGroupSize(int groupSize) {
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("Group size must be positive");
+        }
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Reads the records owned by the split. The last record can end after the end of the split.
+     * Variable length records are views of the read buffer, valid until the next record is read.
+     *
+     * @return an Iterable of buffers, each one positioned on a single record, to iterate once
+     * @throws IOException if an I/O error occurs or a descriptor word is invalid
+     */
+    public Iterable<ByteBuffer> readRecords() throws IOException {
+        if (fixedLength > 0) {
+            long groupLength = (long) fixedLength * groupSize;
+            startOffset = (split.getStart() + groupLength - 1) / groupLength * groupLength;
+            if (startOffset >= split.getEnd()) {
+                startOffset = UNKNOWN;
+                return Collections.emptyList();
+            }
+            long endOffset = (split.getEnd() + groupLength - 1) / groupLength * groupLength;
+            mappedFileReader = new MappedFileReader(split.getPath());
+            mappedFileReader.setFixedLength(fixedLength);
+            return mappedFileReader.readBinaryFile(startOffset, endOffset);
+        }
+        if (groupSize > 1) {
+            throw new IllegalArgumentException(
+                    "Variable length records can only be split with one record per group");
+        }
+        startOffset = synchronize();
+        if (startOffset < 0) {
+            return Collections.emptyList();
+        }
+        channel.position(startOffset);
+        // the channel is closed with the split reader
+        VariableRecordReader variableRecordReader =
+                new VariableRecordReader(
+                        Channels.newInputStream(channel), bufferSize, blockDescriptors);
+        variableRecordReader.skipContinuation();
+        long end = split.getEnd() - startOffset;
+        Iterator<ByteBuffer> iterator =
+                new Iterator<ByteBuffer>() {
+                    private ByteBuffer next;
+
+                    @SneakyThrows
+                    @Override
+                    public boolean hasNext() {
+                        if (next == null && variableRecordReader.getBlockOffset() < end) {
+                            next = variableRecordReader.nextRecord();
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public ByteBuffer next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException("No more records in the split");
+                        }
+                        ByteBuffer result = next;
+                        next = null;
+                        return result;
+                    }
+                };
+        return () -> iterator;
+    }
+
+    /**
+     * Closes the file of the split.
+     *
+     * @throws IOException if an I/O error occurs while closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (mappedFileReader != null) {
+                mappedFileReader.close();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Finds the first record boundary in the split, or block boundary with block descriptor
+     * words.
+     *
+     * @return the offset of the boundary, -1 if there is none in the split
+     */
+    private long synchronize() throws IOException {
+        if (split.getStart() == 0) {
+            return 0;
+        }
+        long size = channel.size();
+        Window window = new Window(channel);
+        for (long offset = split.getStart(); offset < split.getEnd(); offset++) {
+            if (isChain(window, offset, size)) {
+                return offset;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Checks if a chain of valid descriptor words starts at the offset. The chain is valid if it
+     * has the synchronization depth or ends exactly at the end of the file.
+     */
+    private boolean isChain(Window window, long offset, long size) throws IOException {
+        long position = offset;
+        int previousSegment = UNKNOWN;
+        for (int i = 0; i < syncDepth; i++) {
+            if (position == size) {
+                return i > 0;
+            }
+            if (position + HEADER_WITH_RDW_LENGTH > size) {
+                return false;
+            }
+            long blockEnd = size;
+            if (blockDescriptors) {
+                long length = window.blockLength(position);
+                if (length <= HEADER_WITH_RDW_LENGTH || position + length > size) {
+                    return false;
+                }
+                blockEnd = position + length;
+                position += HEADER_WITH_RDW_LENGTH;
+            }
+            do {
+                if (position + HEADER_WITH_RDW_LENGTH > blockEnd) {
+                    return false;
+                }
+                int segment = window.segment(position);
+                int length = window.unsignedShort(position);
+                if (segment < 0
+                        || length < HEADER_WITH_RDW_LENGTH
+                        || !follows(previousSegment, segment)) {
+                    return false;
+                }
+                previousSegment = segment;
+                position += length;
+            } while (blockDescriptors && position < blockEnd);
+            if (position > blockEnd) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Checks if a segment can follow the previous one of a chain. */
+    private static boolean follows(int previous, int segment) {
+        if (previous == UNKNOWN) {
+            return true;
+        }
+        boolean inSpannedRecord =
+                previous == VariableRecordReader.SEGMENT_FIRST
+                        || previous == VariableRecordReader.SEGMENT_MIDDLE;
+        boolean continuation =
+                segment == VariableRecordReader.SEGMENT_MIDDLE
+                        || segment == VariableRecordReader.SEGMENT_LAST;
+        return inSpannedRecord == continuation;
+    }
+
+    /** Bytes of the file read around the tested offsets, so descriptors are not read one by one. */
+    private static final class Window {
+        private final FileChannel channel;
+        private final byte[] bytes = new byte[WINDOW_SIZE];
+        private long offset;
+        private int length;
+
+        private Window(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /** Gets the length of the block descriptor word at the position. */
+        private long blockLength(long position) throws IOException {
+            if ((byteAt(position) & VariableRecordReader.EXTENDED_BDW_FLAG) != 0) {
+                return ((long) unsignedShort(position) << 16 | unsignedShort(position + 2))
+                        & VariableRecordReader.EXTENDED_BDW_MASK;
+            }
+            return byteAt(position + 2) == 0 && byteAt(position + 3) == 0
+                    ? unsignedShort(position)
+                    : UNKNOWN;
+        }
+
+        /** Gets the segment of the record descriptor word at the position, -1 if it is invalid. */
+        private int segment(long position) throws IOException {
+            int control = byteAt(position + 2);
+            return (control & ~VariableRecordReader.SEGMENT_CONTROL_MASK) == 0
+                            && byteAt(position + 3) == 0
+                    ? control
+                    : UNKNOWN;
+        }
+
+        private int unsignedShort(long position) throws IOException {
+            return byteAt(position) << 8 | byteAt(position + 1);
+        }
+
+        private int byteAt(long position) throws IOException {
+            if (position < offset || position >= offset + length) {
+                load(position);
+            }
+            return bytes[(int) (position - offset)] & MASK_FOR_DEFINE_BYTE;
+        }
+
+        private void load(long position) throws IOException {
+            offset = position;
+            length = 0;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, offset + length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+            if (length == 0) {
+                throw new IOException(String.format("No data at offset %d", position));
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.utils.Constants.HEADER_WITH_RDW_LENGTH;
+import static com.github.binarytojson.utils.Constants.MASK_FOR_DEFINE_BYTE;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utility class finding the complete variable length records at the end of a file which is still
+ * being appended to. Only the descriptor words are read, the record data is skipped.
+ *
+ * <p>A record counts only once all its bytes are in the file, and spanned records only once their
+ * last segment is. With block descriptor words, the records are counted block by block, so that
+ * the end of the scanned range is always a block boundary from which reading can start again.
+ */
+public class TailScanner {
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private TailScanner() {}
+
+    /**
+     * Scans the file from the given offset to its current end. The returned range ends after the
+     * last complete group of records, the bytes after it are left for a later scan.
+     *
+     * @param channel the channel of the file
+     * @param firstRecord the number of the record at the start offset
+     * @param startOffset the offset of the first record, a block boundary
+     * @param groupSize the number of records in a group
+     * @param blockDescriptors whether blocks start with a block descriptor word
+     * @return the range of the complete groups, empty if no group is complete yet
+     * @throws IOException if an I/O error occurs or a descriptor word is invalid
+     */
+    public static RecordRange scan(
+            FileChannel channel,
+            long firstRecord,
+            long startOffset,
+            int groupSize,
+            boolean blockDescriptors)
+            throws IOException {
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("Group size must be positive");
+        }
+        long size = channel.size();
+        long position = startOffset;
+        long blockEnd = startOffset;
+        long records = 0;
+        long completeRecords = 0;
+        long completeOffset = startOffset;
+        boolean spanning = false;
+        byte[] descriptor = new byte[HEADER_WITH_RDW_LENGTH];
+        channel.position(startOffset);
+        // the channel is left open for the caller, so the stream is not closed
+        DataInputStream in =
+                new DataInputStream(
+                        new BufferedInputStream(
+                                Channels.newInputStream(channel), SCAN_BUFFER_SIZE));
+        while (true) {
+            boolean boundary = !blockDescriptors || position >= blockEnd;
+            if (boundary && !spanning && records % groupSize == 0) {
+                completeRecords = records;
+                completeOffset = position;
+            }
+            if (position + HEADER_WITH_RDW_LENGTH > size) {
+                break;
+            }
+            if (blockDescriptors && boundary) {
+                in.readFully(descriptor);
+                long length = blockLength(descriptor);
+                if (length < HEADER_WITH_RDW_LENGTH) {
+                    throw new IOException(
+                            String.format("Invalid block descriptor word at offset %d", position));
+                }
+                if (position + length > size) {
+                    break;
+                }
+                blockEnd = position + length;
+                position += HEADER_WITH_RDW_LENGTH;
+                continue;
+            }
+            in.readFully(descriptor);
+            int length = unsignedShort(descriptor, 0);
+            if (length < HEADER_WITH_RDW_LENGTH) {
+                throw new IOException(
+                        String.format("Invalid record descriptor word at offset %d", position));
+            }
+            if (position + length > size) {
+                break;
+            }
+            skipFully(in, length - HEADER_WITH_RDW_LENGTH);
+            position += length;
+            int segment = descriptor[2] & VariableRecordReader.SEGMENT_CONTROL_MASK;
+            spanning =
+                    segment == VariableRecordReader.SEGMENT_FIRST
+                            || segment == VariableRecordReader.SEGMENT_MIDDLE;
+            if (!spanning) {
+                records++;
+            }
+        }
+        return new RecordRange(firstRecord, completeRecords, startOffset, completeOffset);
+    }
+
+    private static long blockLength(byte[] descriptor) {
+        if ((descriptor[0] & VariableRecordReader.EXTENDED_BDW_FLAG) != 0) {
+            return ((long) unsignedShort(descriptor, 0) << 16 | unsignedShort(descriptor, 2))
+                    & VariableRecordReader.EXTENDED_BDW_MASK;
+        }
+        return unsignedShort(descriptor, 0);
+    }
+
+    private static int unsignedShort(byte[] bytes, int index) {
+        return (bytes[index] & MASK_FOR_DEFINE_BYTE) << 8
+                | (bytes[index + 1] & MASK_FOR_DEFINE_BYTE);
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                in.readByte();
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
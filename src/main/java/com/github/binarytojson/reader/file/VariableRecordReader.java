@@ -0,0 +1,351 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.utils.Constants.HEADER_WITH_RDW_LENGTH;
+import static com.github.binarytojson.utils.Constants.MASK_FOR_DEFINE_BYTE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class for reading variable length records (RECFM=VB/VBS) from an InputStream. Records are
+ * described by record descriptor words (RDW), blocks can optionally start with block descriptor
+ * words (BDW) and spanned segments are joined into one logical record.
+ *
+ * <p>The stream is read in bulk into a reusable buffer. A returned record is a view of that buffer
+ * and stays valid only until the next record is read.
+ */
+@Slf4j
+public class VariableRecordReader implements IReader {
+
+    static final int EXTENDED_BDW_FLAG = 0x80;
+    static final int EXTENDED_BDW_MASK = 0x7FFFFFFF;
+    static final int SEGMENT_CONTROL_MASK = 0x03;
+    static final int SEGMENT_COMPLETE = 0;
+    static final int SEGMENT_FIRST = 1;
+    static final int SEGMENT_LAST = 2;
+    static final int SEGMENT_MIDDLE = 3;
+    private static final ByteBuffer SKIPPED = ByteBuffer.allocate(0);
+
+    private final InputStream inputStream;
+    private final boolean blockDescriptors;
+    private byte[] buffer;
+    private int start;
+    private int end;
+    private boolean endOfStream;
+    private long blockRemaining;
+    private long blockStart;
+    private byte[] spanned = new byte[0];
+    private int spannedLength;
+
+    /** The offset in the stream of the first byte not consumed yet. */
+    @Getter private long position;
+
+    /**
+     * Constructs a VariableRecordReader over the given stream.
+     *
+     * @param inputStream the stream from which to read binary data
+     * @param bufferSize the initial size of the read buffer
+     * @param blockDescriptors whether blocks start with a block descriptor word
+     */
+    public VariableRecordReader(InputStream inputStream, int bufferSize, boolean blockDescriptors) {
+        this.inputStream = inputStream;
+        this.blockDescriptors = blockDescriptors;
+        this.buffer = new byte[Math.max(bufferSize, HEADER_WITH_RDW_LENGTH)];
+    }
+
+    /**
+     * Reads the stream in variable length records.
+     *
+     * @return an Iterable of buffers, each one positioned on a single record
+     */
+    public Iterable<ByteBuffer> readBinaryFile() {
+        return RecordIterator::new;
+    }
+
+    /**
+     * Only variable length records are supported by this reader.
+     *
+     * @param fixedLength the fixed length to set, must be 0
+     */
+    @Override
+    public void setFixedLength(int fixedLength) {
+        if (fixedLength != 0) {
+            throw new IllegalArgumentException("Variable reader supports only RDW records");
+        }
+    }
+
+    /**
+     * Reads the next logical record.
+     *
+     * @return the buffer positioned on the record, or null at the end of the stream
+     * @throws IOException if an I/O error occurs or a descriptor word is invalid
+     */
+    public ByteBuffer nextRecord() throws IOException {
+        return readRecord(true);
+    }
+
+    /**
+     * Skips the next logical record. Only the descriptor words are read, the record data is
+     * skipped without being copied when the stream supports it.
+     *
+     * @return true if a record was skipped, false at the end of the stream
+     * @throws IOException if an I/O error occurs or a descriptor word is invalid
+     */
+    public boolean skipRecord() throws IOException {
+        return readRecord(false) != null;
+    }
+
+    /**
+     * Checks if the reader is positioned at the start of a block. Without block descriptor words
+     * every record boundary is a block boundary.
+     *
+     * @return true if the next record starts a new block
+     */
+    public boolean isBlockBoundary() {
+        return !blockDescriptors || blockRemaining <= 0;
+    }
+
+    /**
+     * Gets the offset of the block in which the next record starts. Without block descriptor
+     * words every record is a block of its own.
+     *
+     * @return the offset of the block descriptor word, or of the next record at a block boundary
+     */
+    public long getBlockOffset() {
+        return isBlockBoundary() ? position : blockStart;
+    }
+
+    /**
+     * Skips the segments which continue a spanned record started before the current position, so
+     * that the next record read is a whole logical record.
+     *
+     * @return the number of skipped segments
+     * @throws IOException if an I/O error occurs or a descriptor word is invalid
+     */
+    public int skipContinuation() throws IOException {
+        int skipped = 0;
+        while (nextBlock() && fill(HEADER_WITH_RDW_LENGTH)) {
+            int segment = buffer[start + 2] & SEGMENT_CONTROL_MASK;
+            if (segment != SEGMENT_MIDDLE && segment != SEGMENT_LAST) {
+                break;
+            }
+            int length = readUnsignedShort(start);
+            if (length < HEADER_WITH_RDW_LENGTH) {
+                throw new IOException(
+                        String.format("Invalid record descriptor word at offset %d", position));
+            }
+            consume(HEADER_WITH_RDW_LENGTH);
+            skipData(length - HEADER_WITH_RDW_LENGTH);
+            skipped++;
+        }
+        return skipped;
+    }
+
+    private ByteBuffer readRecord(boolean materialize) throws IOException {
+        boolean spanning = false;
+        spannedLength = 0;
+        while (nextBlock()) {
+            if (!fill(HEADER_WITH_RDW_LENGTH)) {
+                log.warn("Truncated record descriptor word at offset {}", position);
+                consume(end - start);
+                break;
+            }
+            int length = readUnsignedShort(start);
+            int segment = buffer[start + 2] & SEGMENT_CONTROL_MASK;
+            if (length < HEADER_WITH_RDW_LENGTH) {
+                throw new IOException(
+                        String.format("Invalid record descriptor word at offset %d", position));
+            }
+            consume(HEADER_WITH_RDW_LENGTH);
+            int dataLength = length - HEADER_WITH_RDW_LENGTH;
+            if (!materialize) {
+                skipData(dataLength);
+                spanning = segment == SEGMENT_FIRST || segment == SEGMENT_MIDDLE;
+                if (!spanning) {
+                    return SKIPPED;
+                }
+                continue;
+            }
+            if (!fill(dataLength)) {
+                log.warn("Truncated record at offset {}", position - HEADER_WITH_RDW_LENGTH);
+                dataLength = end - start;
+            }
+            int dataStart = start;
+            consume(dataLength);
+            if (segment == SEGMENT_COMPLETE) {
+                if (spanning) {
+                    log.warn("Incomplete spanned record before offset {}", position);
+                }
+                return ByteBuffer.wrap(buffer, dataStart, dataLength);
+            }
+            if (segment == SEGMENT_FIRST) {
+                spannedLength = 0;
+            } else if (!spanning) {
+                log.warn("Spanned segment without a first segment at offset {}", position);
+            }
+            appendSpanned(dataStart, dataLength);
+            spanning = true;
+            if (segment == SEGMENT_LAST) {
+                return ByteBuffer.wrap(spanned, 0, spannedLength);
+            }
+        }
+        if (spanning) {
+            log.warn("Incomplete spanned record at the end of the stream");
+            return materialize ? ByteBuffer.wrap(spanned, 0, spannedLength) : SKIPPED;
+        }
+        return null;
+    }
+
+    /**
+     * Positions the reader on the next record descriptor word, reading a block descriptor word
+     * first if needed.
+     *
+     * @return true if more data is available, false at the end of the stream
+     */
+    private boolean nextBlock() throws IOException {
+        if (!blockDescriptors) {
+            return fill(1);
+        }
+        while (blockRemaining <= 0) {
+            if (!fill(HEADER_WITH_RDW_LENGTH)) {
+                if (end > start) {
+                    log.warn("Truncated block descriptor word at offset {}", position);
+                    consume(end - start);
+                }
+                return false;
+            }
+            long length;
+            if ((buffer[start] & EXTENDED_BDW_FLAG) != 0) {
+                length = (readUnsignedShort(start) << 16 | readUnsignedShort(start + 2))
+                        & EXTENDED_BDW_MASK;
+            } else {
+                length = readUnsignedShort(start);
+            }
+            if (length < HEADER_WITH_RDW_LENGTH) {
+                throw new IOException(
+                        String.format("Invalid block descriptor word at offset %d", position));
+            }
+            blockStart = position;
+            consume(HEADER_WITH_RDW_LENGTH);
+            blockRemaining = length - HEADER_WITH_RDW_LENGTH;
+        }
+        return fill(1);
+    }
+
+    private void appendSpanned(int from, int length) {
+        if (spannedLength + length > spanned.length) {
+            spanned = Arrays.copyOf(spanned, Math.max(spannedLength + length, spanned.length * 2));
+        }
+        System.arraycopy(buffer, from, spanned, spannedLength, length);
+        spannedLength += length;
+    }
+
+    private int readUnsignedShort(int index) {
+        return (buffer[index] & MASK_FOR_DEFINE_BYTE) << 8
+                | (buffer[index + 1] & MASK_FOR_DEFINE_BYTE);
+    }
+
+    private void consume(int length) {
+        start += length;
+        position += length;
+        blockRemaining -= length;
+    }
+
+    /**
+     * Skips record data, first from the buffer and then directly in the stream.
+     *
+     * @param length the number of bytes to skip
+     */
+    private void skipData(int length) throws IOException {
+        int buffered = Math.min(length, end - start);
+        consume(buffered);
+        long remaining = (long) length - buffered;
+        while (remaining > 0 && !endOfStream) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    endOfStream = true;
+                    log.warn("Truncated record at offset {}", position);
+                    break;
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+            position += skipped;
+            blockRemaining -= skipped;
+        }
+    }
+
+    /**
+     * Makes sure the buffer holds at least the required number of unread bytes. The unread bytes
+     * are moved to the beginning of the buffer, which grows only if a record does not fit.
+     *
+     * @param required the number of bytes needed
+     * @return true if enough bytes are available, false if the stream ended before
+     */
+    private boolean fill(int required) throws IOException {
+        if (end - start >= required) {
+            return true;
+        }
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+        while (end < required && !endOfStream) {
+            int read = inputStream.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                endOfStream = true;
+            } else {
+                end += read;
+            }
+        }
+        return end >= required;
+    }
+
+    /**
+     * Inner class that implements the {@link Iterator} interface to iterate over the records.
+     */
+    private class RecordIterator implements Iterator<ByteBuffer> {
+        private ByteBuffer next;
+
+        /**
+         * Checks if there are more binary records available for reading.
+         *
+         * @return true if there are more records, false otherwise
+         */
+        @SneakyThrows
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = nextRecord();
+            }
+            return next != null;
+        }
+
+        /**
+         * Reads the next binary record.
+         *
+         * @return the next binary record as a view of the read buffer
+         */
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more records in the stream");
+            }
+            ByteBuffer result = next;
+            next = null;
+            return result;
+        }
+    }
+}
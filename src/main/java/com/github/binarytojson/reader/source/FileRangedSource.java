@@ -0,0 +1,46 @@
+package com.github.binarytojson.reader.source;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** Ranged source reading a local file through positional reads of a {@link FileChannel}. */
+public class FileRangedSource implements RangedSource {
+
+    private final FileChannel channel;
+
+    /**
+     * Opens the file.
+     *
+     * @param path the path of the file
+     * @throws IOException if the file could not be opened
+     */
+    public FileRangedSource(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void readFully(long position, byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            // positional reads do not move the channel, so concurrent calls are safe
+            if (channel.read(buffer, position + buffer.position() - offset) < 0) {
+                throw new EOFException(
+                        String.format("End of file before offset %d", position + length));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.binarytojson.reader.source;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Ranged source reading an object over HTTP with range requests, such as an object behind an
+ * object storage gateway. Every range is a separate request, so concurrent ranges are transferred
+ * over separate connections, and the connections are kept alive between requests by the JDK.
+ *
+ * <p>The size is read from the {@code Content-Range} header of the response to a request of the
+ * first byte, which also checks that the server supports range requests.
+ */
+public class HttpRangedSource implements RangedSource {
+
+    /** Default timeout of connections and reads, in milliseconds. */
+    public static final int DEFAULT_TIMEOUT = 30_000;
+
+    private static final String RANGE = "Range";
+    private static final String CONTENT_RANGE = "Content-Range";
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private final URL url;
+    private final Map<String, String> requestHeaders;
+    private final int timeout;
+    private volatile long size = -1;
+
+    /**
+     * Creates a source for the object at the URL.
+     *
+     * @param url the URL of the object
+     */
+    public HttpRangedSource(URL url) {
+        this(url, Collections.emptyMap(), DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a source for the object at the URL, sending additional headers with every request.
+     *
+     * @param url the URL of the object
+     * @param requestHeaders the headers added to every request, such as an authorization
+     * @param timeout the timeout of connections and reads, in milliseconds
+     */
+    public HttpRangedSource(URL url, Map<String, String> requestHeaders, int timeout) {
+        String protocol = url.getProtocol();
+        if (!"http".equals(protocol) && !"https".equals(protocol)) {
+            throw new IllegalArgumentException("Unsupported protocol: " + protocol);
+        }
+        this.url = url;
+        this.requestHeaders = requestHeaders;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Checks if a source path is an HTTP URL.
+     *
+     * @param source the source path given on the command line
+     * @return true if the source is read with range requests
+     */
+    public static boolean isUrl(String source) {
+        return source.startsWith("http://") || source.startsWith("https://");
+    }
+
+    @Override
+    public long size() throws IOException {
+        if (size < 0) {
+            HttpURLConnection connection = open(0, 0);
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_PARTIAL && status != RANGE_NOT_SATISFIABLE) {
+                throw unexpected(connection, status);
+            }
+            long parsed = parseSize(connection.getHeaderField(CONTENT_RANGE));
+            drain(connection, status);
+            size = parsed;
+        }
+        return size;
+    }
+
+    @Override
+    public void readFully(long position, byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        HttpURLConnection connection = open(position, position + length - 1);
+        int status = connection.getResponseCode();
+        if (status == RANGE_NOT_SATISFIABLE) {
+            connection.disconnect();
+            throw new EOFException(
+                    String.format("End of %s before offset %d", url, position + length));
+        }
+        if (status != HttpURLConnection.HTTP_PARTIAL) {
+            throw unexpected(connection, status);
+        }
+        try (InputStream inputStream = connection.getInputStream()) {
+            int done = 0;
+            while (done < length) {
+                int read = inputStream.read(bytes, offset + done, length - done);
+                if (read < 0) {
+                    throw new EOFException(
+                            String.format("End of %s before offset %d", url, position + length));
+                }
+                done += read;
+            }
+        }
+    }
+
+    /** Nothing to release, the connections are pooled by the JDK. */
+    @Override
+    public void close() {
+        // every request closes its own response
+    }
+
+    private HttpURLConnection open(long first, long last) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        connection.setRequestProperty(RANGE, "bytes=" + first + "-" + last);
+        return connection;
+    }
+
+    /**
+     * Parses the size from a {@code Content-Range} header such as {@code bytes 0-0/1234}, or
+     * {@code bytes *}{@code /0} for an empty object.
+     */
+    private long parseSize(String contentRange) throws IOException {
+        int slash = contentRange == null ? -1 : contentRange.lastIndexOf('/');
+        if (slash < 0 || contentRange.endsWith("*")) {
+            throw new IOException(
+                    String.format("No size in the Content-Range of %s: %s", url, contentRange));
+        }
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(
+                    String.format("Invalid Content-Range of %s: %s", url, contentRange), e);
+        }
+    }
+
+    /** Creates the error of an unexpected response and closes its connection. */
+    private IOException unexpected(HttpURLConnection connection, int status) throws IOException {
+        String message = connection.getResponseMessage();
+        connection.disconnect();
+        if (status == HttpURLConnection.HTTP_OK) {
+            return new IOException(String.format("%s does not support range requests", url));
+        }
+        return new IOException(
+                String.format("Unexpected response from %s: %d %s", url, status, message));
+    }
+
+    /** Reads the rest of a response, so that its connection can be reused. */
+    private static void drain(HttpURLConnection connection, int status) throws IOException {
+        try (InputStream inputStream =
+                status < HttpURLConnection.HTTP_BAD_REQUEST
+                        ? connection.getInputStream()
+                        : connection.getErrorStream()) {
+            if (inputStream != null) {
+                byte[] bytes = new byte[64];
+                while (inputStream.read(bytes) >= 0) {
+                    // the first byte is not needed
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.binarytojson.reader.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * InputStream reading a {@link RangedSource} in chunks fetched concurrently. Up to the prefetch
+ * depth of chunks following the consumed one are read at the same time by a pool of threads, and
+ * handed over in the order of the source. A source whose single reads are limited by latency, such
+ * as an object read over HTTP, is thereby read at the bandwidth of several transfers.
+ *
+ * <p>Skipping past the fetched chunks restarts the prefetch at the target, so the skipped bytes
+ * are not transferred. The chunk buffers are reused. Closing the stream stops the threads, the
+ * source is left open.
+ */
+public class PrefetchInputStream extends InputStream {
+
+    /** Default size of one chunk (4 megabytes). */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /** Default number of chunks fetched at the same time. */
+    public static final int DEFAULT_DEPTH = 4;
+
+    private static final int END_OF_STREAM = -1;
+
+    private final RangedSource source;
+    private final int chunkSize;
+    private final int depth;
+    private final long size;
+    private final ExecutorService executor;
+    private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+    private final Queue<byte[]> free = new ConcurrentLinkedQueue<>();
+    private long nextPosition;
+    private long takenPosition;
+    private Chunk current;
+    private int position;
+    private boolean closed;
+
+    /**
+     * Starts fetching the first chunks of the source.
+     *
+     * @param source the source to read
+     * @param chunkSize the size of one chunk
+     * @param depth the number of chunks fetched at the same time
+     * @throws IOException if the size of the source could not be read
+     */
+    public PrefetchInputStream(RangedSource source, int chunkSize, int depth) throws IOException {
+        if (chunkSize <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Chunk size and depth must be positive");
+        }
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.depth = depth;
+        this.size = source.size();
+        this.executor =
+                Executors.newFixedThreadPool(
+                        depth,
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "prefetch");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        prefetch();
+    }
+
+    /**
+     * Reads the next byte.
+     *
+     * @return the byte, or -1 at the end of the source
+     * @throws IOException if reading the source failed
+     */
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return END_OF_STREAM;
+        }
+        return current.bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Reads bytes from the current chunk, waiting for the next chunk only if the current one is
+     * consumed.
+     *
+     * @param bytes the array receiving the bytes
+     * @param offset the offset in the array
+     * @param length the maximal number of bytes to read
+     * @return the number of bytes read, or -1 at the end of the source
+     * @throws IOException if reading the source failed
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return END_OF_STREAM;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.bytes, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Skips bytes. Chunks already being fetched are consumed, a target after them restarts the
+     * prefetch at the target.
+     *
+     * @param length the number of bytes to skip
+     * @return the number of bytes skipped
+     * @throws IOException if reading the source failed
+     */
+    @Override
+    public long skip(long length) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (length <= 0) {
+            return 0;
+        }
+        long start = current == null ? takenPosition : current.start + position;
+        long target = Math.min(size, start + length);
+        if (target >= nextPosition) {
+            for (Future<Chunk> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            release();
+            nextPosition = target;
+            takenPosition = target;
+            prefetch();
+        } else {
+            while (current == null || target >= current.start + current.length) {
+                release();
+                current = take();
+            }
+            position = (int) (target - current.start);
+        }
+        return target - start;
+    }
+
+    /**
+     * Gets the number of bytes available without waiting for a fetch.
+     *
+     * @return the number of unread bytes of the current chunk
+     */
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    /** Stops the threads fetching the chunks. */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Makes sure the current chunk has unread bytes, handing the consumed chunk back.
+     *
+     * @return true if bytes are available, false at the end of the source
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || position == current.length) {
+            release();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            current = take();
+        }
+        return true;
+    }
+
+    /** Takes the next fetched chunk and schedules the fetch of the one after the last. */
+    private Chunk take() throws IOException {
+        Future<Chunk> future = pending.poll();
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the source");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error reading the source", e.getCause());
+        }
+        position = 0;
+        takenPosition = chunk.start + chunk.length;
+        prefetch();
+        return chunk;
+    }
+
+    /** Hands the buffer of the current chunk back for the next fetches. */
+    private void release() {
+        if (current != null) {
+            free.add(current.bytes);
+            current = null;
+        }
+        position = 0;
+    }
+
+    /** Schedules the fetch of chunks until the depth is reached or the source is exhausted. */
+    private void prefetch() {
+        while (pending.size() < depth && nextPosition < size) {
+            long start = nextPosition;
+            int length = (int) Math.min(chunkSize, size - start);
+            nextPosition += length;
+            pending.add(
+                    executor.submit(
+                            () -> {
+                                byte[] bytes = free.poll();
+                                if (bytes == null) {
+                                    bytes = new byte[chunkSize];
+                                }
+                                source.readFully(start, bytes, 0, length);
+                                return new Chunk(bytes, start, length);
+                            }));
+        }
+    }
+
+    /** A fetched range of the source. */
+    private static final class Chunk {
+        private final byte[] bytes;
+        private final long start;
+        private final int length;
+
+        private Chunk(byte[] bytes, long start, int length) {
+            this.bytes = bytes;
+            this.start = start;
+            this.length = length;
+        }
+    }
+}
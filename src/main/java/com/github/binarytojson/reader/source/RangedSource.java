@@ -0,0 +1,34 @@
+package com.github.binarytojson.reader.source;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of binary data with a known size, read by ranges at any position. Unlike a stream, the
+ * ranges of a source can be read concurrently, so that several parts of a remote object are
+ * transferred at the same time.
+ *
+ * <p>Implementations must allow concurrent calls of {@link #readFully}.
+ */
+public interface RangedSource extends Closeable {
+
+    /**
+     * Gets the size of the source.
+     *
+     * @return the number of bytes of the source
+     * @throws IOException if the size could not be read
+     */
+    long size() throws IOException;
+
+    /**
+     * Reads a range of the source.
+     *
+     * @param position the offset of the first byte in the source
+     * @param bytes the array receiving the bytes
+     * @param offset the offset in the array
+     * @param length the number of bytes to read
+     * @throws java.io.EOFException if the range ends after the end of the source
+     * @throws IOException if the range could not be read
+     */
+    void readFully(long position, byte[] bytes, int offset, int length) throws IOException;
+}
@@ -0,0 +1,428 @@
+package com.github.binarytojson.reader.structure;
+
+import com.github.binarytojson.Mode;
+import com.github.binarytojson.type.PrimitiveType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates the Java source of a {@link RecordDecoder} for a {@link RecordPlan} and compiles it
+ * with the compiler of the running JDK. The generated decoder has one method per group and mode,
+ * reading the fields one after the other at constant offsets with the concrete readers of their
+ * types, so the JIT can inline the readers. Long groups are split into methods of at most {@link
+ * #FIELDS_PER_METHOD} fields, as the JIT does not compile huge methods. The elements of an array
+ * are read by a loop, calling the method of the element group at the offsets given by the stride.
+ * The array elements of the WITH_ARRAY mode are collected in lists resolved while generating, the
+ * way the interpreter collects them by name while reading.
+ */
+@Slf4j
+final class DecoderGenerator {
+
+    private static final String PACKAGE = "com.github.binarytojson.generated";
+
+    /** The number of fields read by one generated method. */
+    private static final int FIELDS_PER_METHOD = 64;
+
+    private static final AtomicInteger DECODERS = new AtomicInteger();
+
+    private final Map<PrimitiveType, Integer> types = new IdentityHashMap<>();
+    private final Map<String[], Integer> names = new IdentityHashMap<>();
+    private final Map<Class<?>, String> readers = new LinkedHashMap<>();
+    private final StringBuilder methods = new StringBuilder();
+    private int methodCount;
+
+    /** The list collecting the elements of each array name. */
+    private final Map<String, Integer> arrays = new HashMap<>();
+
+    private int lists;
+    private boolean supported = true;
+
+    private DecoderGenerator() {}
+
+    /**
+     * Generates and compiles the decoder of a plan.
+     *
+     * @param plan the plan of the records
+     * @return the decoder, null if the plan has fields at offsets depending on the record or if
+     *     the decoder can not be compiled
+     */
+    static RecordDecoder generate(RecordPlan plan) {
+        if (!isStatic(plan.fields)) {
+            log.debug("Layout with repeated groups or unions, its records are interpreted");
+            return null;
+        }
+        DecoderGenerator generator = new DecoderGenerator();
+        String className = "Decoder" + DECODERS.incrementAndGet();
+        String source = generator.source(className, plan.fields);
+        if (!generator.supported) {
+            log.debug("Layout with arrays which can not be resolved, its records are interpreted");
+            return null;
+        }
+        PrimitiveType[] types = new PrimitiveType[generator.types.size()];
+        generator.types.forEach((type, index) -> types[index] = type);
+        String[][] names = new String[generator.names.size()][];
+        generator.names.forEach((elements, index) -> names[index] = elements);
+        return load(PACKAGE + "." + className, source, types, names, plan.getFixedLength());
+    }
+
+    private static boolean isStatic(FieldPlan[] fields) {
+        for (FieldPlan field : fields) {
+            if (field.getKind() == FieldPlan.Kind.UNION) {
+                // the offsets after a union are static, but its view depends on the record
+                return false;
+            } else if (field.getKind() == FieldPlan.Kind.GROUP) {
+                if (field.getAmount() != null
+                        || field.isArray() && field.getStride() == FieldPlan.NONE
+                        || !isStatic(field.children)) {
+                    return false;
+                }
+            } else if (field.getKind() == FieldPlan.Kind.VALUE) {
+                if (field.getOffset() == FieldPlan.NONE
+                        || field.getReader() == null
+                        || !isInstantiable(field.getReader().getClass())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isInstantiable(Class<?> type) {
+        try {
+            return Modifier.isPublic(type.getModifiers())
+                    && type.getCanonicalName() != null
+                    && Modifier.isPublic(type.getConstructor().getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private String source(String className, FieldPlan[] fields) {
+        String withoutArray = group(fields, false);
+        arrays.clear();
+        String withArray = group(fields, true);
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n");
+        source.append("import com.github.binarytojson.Mode;\n");
+        source.append("import com.github.binarytojson.reader.structure.RecordDecoder;\n");
+        source.append("import com.github.binarytojson.type.PrimitiveType;\n");
+        source.append("import java.util.ArrayList;\n");
+        source.append("import java.util.LinkedHashMap;\n");
+        source.append("import java.util.List;\n");
+        source.append("import java.util.Map;\n\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(className).append(" extends RecordDecoder {\n");
+        readers.forEach(
+                (type, name) ->
+                        source.append("    private static final ")
+                                .append(type.getCanonicalName())
+                                .append(' ')
+                                .append(name)
+                                .append(" = new ")
+                                .append(type.getCanonicalName())
+                                .append("();\n"));
+        source.append("\n    public ").append(className);
+        source.append("(PrimitiveType[] types, String[][] names, int length) {\n");
+        source.append("        super(types, names, length);\n    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public Map<String, Object> decode(byte[] b, int o, Mode mode) {\n");
+        source.append("        if (mode == Mode.").append(Mode.WITH_ARRAY).append(") {\n");
+        source.append("            return ").append(withArray);
+        source.append("(b, o, new List[").append(lists).append("]);\n        }\n");
+        source.append("        return ").append(withoutArray).append("(b, o, null);\n    }\n");
+        source.append(methods);
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Generates the method decoding the fields of a group, and the methods of its groups.
+     *
+     * @return the name of the method
+     */
+    private String group(FieldPlan[] fields, boolean withArray) {
+        String name = (withArray ? "a" : "n") + methodCount++;
+        List<String> statements = new ArrayList<>();
+        for (FieldPlan field : fields) {
+            statements.add(statement(field, withArray));
+        }
+        StringBuilder body = new StringBuilder();
+        if (statements.size() <= FIELDS_PER_METHOD) {
+            statements.forEach(statement -> body.append("        ").append(statement));
+        } else {
+            for (int i = 0; i < statements.size(); i += FIELDS_PER_METHOD) {
+                String part = name + "_" + i / FIELDS_PER_METHOD;
+                body.append("        ").append(part).append("(r, b, o, l);\n");
+                methods.append("\n    private void ").append(part);
+                methods.append("(Map<String, Object> r, byte[] b, int o, List<String>[] l) {\n");
+                statements
+                        .subList(i, Math.min(i + FIELDS_PER_METHOD, statements.size()))
+                        .forEach(statement -> methods.append("        ").append(statement));
+                methods.append("    }\n");
+            }
+        }
+        methods.append("\n    private Map<String, Object> ").append(name);
+        methods.append("(byte[] b, int o, List<String>[] l) {\n");
+        methods.append("        Map<String, Object> r = new LinkedHashMap<>(");
+        methods.append(fields.length * 4 / 3 + 1).append(");\n");
+        methods.append(body);
+        methods.append("        return removeFillers(r);\n    }\n");
+        return name;
+    }
+
+    private String statement(FieldPlan field, boolean withArray) {
+        switch (field.getKind()) {
+            case GROUP:
+                String children = group(field.children, withArray);
+                if (field.isArray()) {
+                    return loop(
+                            field,
+                            String.format(
+                                    "addChildren(r, %s, %s(b, %s, l));",
+                                    elementName(field, withArray),
+                                    children,
+                                    elementOffset(field)));
+                }
+                String groupName = withArray ? field.getArrayName() : field.getName();
+                return "addChildren(r, " + literal(groupName) + ", " + children + "(b, o, l));\n";
+            case VALUE:
+                return field.isArray() ? values(field, withArray) : value(field, withArray);
+            default:
+                if (field.isArray()) {
+                    return loop(field, "r.put(names[" + names(field.elementNames) + "][e], null);");
+                }
+                return "r.put(" + literal(field.getName()) + ", null);\n";
+        }
+    }
+
+    /** Generates a loop over the elements of an array, with the element index in e. */
+    private static String loop(FieldPlan array, String statement) {
+        return String.format(
+                "for (int e = 0; e < %d; e++) {\n            %s\n        }\n",
+                array.getOccurrences(), statement);
+    }
+
+    private static String elementOffset(FieldPlan array) {
+        return "o + " + array.getOffset() + " + e * " + array.getStride();
+    }
+
+    /** Generates the key of an element of an array of groups. */
+    private String elementName(FieldPlan array, boolean withArray) {
+        if (!withArray) {
+            return "names[" + names(array.elementNames) + "][e]";
+        }
+        if (array.rowNames == null) {
+            return literal(array.getName());
+        }
+        return "names[" + names(array.rowNames) + "][e / " + array.getType().getArray2() + "]";
+    }
+
+    private int names(String[] elements) {
+        return names.computeIfAbsent(elements, e -> names.size());
+    }
+
+    private String read(FieldPlan field, String offset) {
+        PrimitiveType type = field.getType();
+        Integer typeIndex = types.get(type);
+        if (typeIndex == null) {
+            typeIndex = types.size();
+            types.put(type, typeIndex);
+        }
+        String reader =
+                readers.computeIfAbsent(field.getReader().getClass(), c -> "R" + readers.size());
+        return String.format(
+                "%s.readValue(b, %s, %d, types[%d])",
+                reader, offset, field.getLength(), typeIndex);
+    }
+
+    /** Generates the reading of the elements of an array of values. */
+    private String values(FieldPlan array, boolean withArray) {
+        String read = read(array, elementOffset(array));
+        if (!withArray) {
+            return loop(array, "r.put(names[" + names(array.elementNames) + "][e], " + read + ");");
+        }
+        // the first element starts a new list, as in the interpreter
+        int list = lists++;
+        arrays.put(array.getName(), list);
+        return String.format(
+                "l[%d] = new ArrayList<>(%d);\n        %s        r.put(%s, l[%d]);\n",
+                list,
+                array.getOccurrences(),
+                loop(array, "l[" + list + "].add(" + read + ");"),
+                literal(array.getName()),
+                list);
+    }
+
+    private String value(FieldPlan field, boolean withArray) {
+        String read = read(field, "o + " + field.getOffset());
+        if (withArray && field.getName().indexOf('(') > 0) {
+            String name = literal(field.getArrayName());
+            if (field.getArrayIndex() == 1) {
+                int list = lists++;
+                arrays.put(field.getArrayName(), list);
+                return String.format(
+                        "l[%d] = new ArrayList<>();\n        %s",
+                        list, addElement(list, read, name));
+            }
+            Integer list = arrays.get(field.getArrayName());
+            if (list == null) {
+                supported = false;
+                return "";
+            }
+            return addElement(list, read, name);
+        }
+        return "r.put(" + literal(field.getName()) + ", " + read + ");\n";
+    }
+
+    private static String addElement(int list, String read, String name) {
+        return String.format("l[%d].add(%s);\n        r.put(%s, l[%d]);\n", list, read, name, list);
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < ' ' || c > '~') {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static RecordDecoder load(
+            String className,
+            String source,
+            PrimitiveType[] types,
+            String[][] names,
+            int length) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            log.warn("No Java compiler in the running JVM, the records are interpreted");
+            return null;
+        }
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        StringWriter diagnostics = new StringWriter();
+        try (JavaFileManager fileManager =
+                new MemoryFileManager(
+                        compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8),
+                        classes)) {
+            JavaFileObject file =
+                    new SimpleJavaFileObject(
+                            URI.create("string:///" + className.replace('.', '/') + ".java"),
+                            JavaFileObject.Kind.SOURCE) {
+                        @Override
+                        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                            return source;
+                        }
+                    };
+            List<String> options =
+                    Arrays.asList("-classpath", classPath(), "-proc:none", "-g:none");
+            boolean compiled =
+                    compiler.getTask(
+                                    diagnostics,
+                                    fileManager,
+                                    null,
+                                    options,
+                                    null,
+                                    Collections.singletonList(file))
+                            .call();
+            if (!compiled || !classes.containsKey(className)) {
+                log.warn(
+                        "Could not compile the decoder, the records are interpreted: {}",
+                        diagnostics);
+                return null;
+            }
+            byte[] bytes = classes.get(className).toByteArray();
+            Class<?> decoderClass = new DecoderClassLoader().define(className, bytes);
+            return (RecordDecoder)
+                    decoderClass
+                            .getConstructor(PrimitiveType[].class, String[][].class, int.class)
+                            .newInstance(types, names, length);
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            log.warn("Could not load the decoder, the records are interpreted: {}", e.toString());
+            return null;
+        }
+    }
+
+    /** Gets the class path holding the classes the generated decoders use. */
+    private static String classPath() {
+        CodeSource codeSource = RecordDecoder.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null) {
+            try {
+                return Paths.get(codeSource.getLocation().toURI()).toString();
+            } catch (URISyntaxException | RuntimeException e) {
+                log.debug("Code source not on the file system: {}", codeSource.getLocation());
+            }
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    /** Keeps the compiled classes in memory. */
+    private static final class MemoryFileManager
+            extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, ByteArrayOutputStream> classes;
+
+        private MemoryFileManager(
+                StandardJavaFileManager fileManager, Map<String, ByteArrayOutputStream> classes) {
+            super(fileManager);
+            this.classes = classes;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(
+                Location location,
+                String className,
+                JavaFileObject.Kind kind,
+                FileObject sibling) {
+            return new SimpleJavaFileObject(
+                    URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    classes.put(className, bytes);
+                    return bytes;
+                }
+            };
+        }
+    }
+
+    /** Defines every decoder in its own loader, so it is unloaded with its plan. */
+    private static final class DecoderClassLoader extends ClassLoader {
+        private DecoderClassLoader() {
+            super(RecordDecoder.class.getClassLoader());
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.github.binarytojson.reader.structure;
+
+import com.github.binarytojson.reader.type.TypeReader;
+import com.github.binarytojson.type.PrimitiveType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Field of a {@link RecordPlan}, with everything derived from the layout once: the reader of its
+ * type, its static offset, the names under which it is written in both modes, the index parsed
+ * from its name and the parts of the OCCURS reference of a repeated group or of the selector of a
+ * union. An array is one field for all its elements, which are found from its offset and stride.
+ * A field is immutable, apart from the occurrence names it keeps, and shared by all records and
+ * threads.
+ */
+@Getter
+public final class FieldPlan {
+
+    /** Not an array element, or an offset which depends on the data of the record. */
+    static final int NONE = -1;
+
+    /** The kind of a field. */
+    public enum Kind {
+        /** A field holding a value. */
+        VALUE,
+        /** A group of fields. */
+        GROUP,
+        /** A group of alternative views over the same bytes, of which one is read. */
+        UNION,
+        /** A field without type nor children, written with a null value. */
+        EMPTY
+    }
+
+    private final Kind kind;
+
+    /** The layout type of the field, read by its reader, never modified. */
+    private final PrimitiveType type;
+
+    /** The name of the field in the layout. */
+    private final String name;
+
+    /**
+     * The length of a value field, or the length of the longest view of a union, -1 if the
+     * length of a view depends on the record.
+     */
+    private final int length;
+
+    /**
+     * The offset of the field in the record, or in the element of the enclosing array, -1 if it
+     * follows a repeated group whose count is read from the record.
+     */
+    private final int offset;
+
+    /** The number of elements of an array, 1 for other fields. */
+    private final int occurrences;
+
+    /**
+     * The distance between the elements of an array, the length of one element, -1 if the field
+     * is not an array or if the length depends on the record.
+     */
+    private final int stride;
+
+    /** The reader of a value field. */
+    private final TypeReader reader;
+
+    /**
+     * Whether the value is needed later in the record, as the count of a repeated group or the
+     * selector of a union.
+     */
+    private final boolean referenced;
+
+    /** The name with the array index removed, under which array elements are collected. */
+    private final String arrayName;
+
+    /** The index of the field in its array, from 1, 0 if the name has no index. */
+    private final int arrayIndex;
+
+    /** The OCCURS reference of a repeated group, null if the group is not repeated. */
+    private final String amount;
+
+    /** The value of the selector choosing this view of a union, null for other fields. */
+    private final String selectorValue;
+
+    final FieldPlan[] children;
+
+    // the cells of the record keeping the values of the counter named as a value field, or
+    // counting the occurrences of a repeated group or selecting the view of a union, -1 and 0
+    // if there is none
+    final int counterCell;
+    final int counterCells;
+
+    // the names of the occurrences of a repeated group, grown to the largest count read
+    @Getter(AccessLevel.NONE)
+    private volatile String[] occurrenceNames = new String[0];
+
+    // the names of the elements of an array, and the names of the rows of a two dimensional
+    // array, under which its elements are collected
+    final String[] elementNames;
+    final String[] rowNames;
+
+    // the parts of the OCCURS reference or of the selector, so that a record never parses it
+    final int referenceIndex;
+    final String referencePrefix;
+    final String referenceSuffix;
+
+    // the views of a union by the trimmed value of their selector, and the view without value
+    @Getter(AccessLevel.NONE)
+    private final Map<String, FieldPlan> views;
+
+    @Getter(AccessLevel.NONE)
+    private final FieldPlan defaultView;
+
+    // the index of a group replaces the index of the OCCURS references of its children
+    final int groupIndex;
+
+    // the name and index of the occurrences of a repeated group, -1 for the occurrence number
+    final String occurrenceArrayName;
+    final int occurrenceIndex;
+
+    @SuppressWarnings("java:S107")
+    FieldPlan(
+            Kind kind,
+            PrimitiveType type,
+            int offset,
+            TypeReader reader,
+            int stride,
+            int counterCell,
+            int counterCells,
+            FieldPlan[] children) {
+        this.kind = kind;
+        this.type = type;
+        this.name = type.getName();
+        this.length = kind == Kind.UNION ? viewLength(children) : type.getLength();
+        this.offset = offset;
+        this.occurrences = type.getOccurrences();
+        this.stride = stride;
+        this.reader = reader;
+        this.referenced = kind == Kind.VALUE && counterCell != NONE;
+        this.counterCell = counterCell;
+        this.counterCells = counterCells;
+        this.children = children;
+        this.arrayIndex = name.indexOf('(') > 0 ? index(name) : 0;
+        this.arrayName =
+                kind == Kind.GROUP || kind == Kind.UNION
+                        ? withoutIndex(name)
+                        : baseName(name, name.indexOf('(') > 0);
+        this.amount = type.getAmount();
+        this.selectorValue = type.getSelectorValue();
+        String reference = amount != null ? amount : type.getSelector();
+        if (reference != null) {
+            int start = reference.indexOf('(');
+            int end = reference.indexOf(')', start);
+            boolean substitutable = start != -1 && end != -1;
+            this.referenceIndex = start > 0 ? index(reference) : 0;
+            this.referencePrefix = substitutable ? reference.substring(0, start + 1) : null;
+            this.referenceSuffix = substitutable ? reference.substring(end) : null;
+        } else {
+            this.referenceIndex = 0;
+            this.referencePrefix = null;
+            this.referenceSuffix = null;
+        }
+        if (kind == Kind.UNION) {
+            Map<String, FieldPlan> selected = new HashMap<>();
+            FieldPlan otherwise = null;
+            for (FieldPlan view : children) {
+                if (view.selectorValue != null) {
+                    selected.putIfAbsent(view.selectorValue.trim(), view);
+                } else if (otherwise == null) {
+                    otherwise = view;
+                }
+            }
+            this.views = selected;
+            this.defaultView = otherwise;
+        } else {
+            this.views = null;
+            this.defaultView = null;
+        }
+        this.groupIndex = index(name);
+        this.occurrenceArrayName = withoutIndex(name + "(1)");
+        this.occurrenceIndex = name.indexOf('(') != -1 ? index(name) : NONE;
+        if (type.getArray1() > 0) {
+            elementNames = new String[occurrences];
+            rowNames = type.getArray2() > 0 ? new String[type.getArray1()] : null;
+            for (int element = 0; element < occurrences; element++) {
+                elementNames[element] =
+                        rowNames == null
+                                ? name + "(" + (element + 1) + ")"
+                                : name + "(" + row(element) + "," + column(element) + ")";
+            }
+            for (int row = 1; rowNames != null && row <= rowNames.length; row++) {
+                rowNames[row - 1] = name + "(" + row + ")";
+            }
+        } else {
+            elementNames = null;
+            rowNames = null;
+        }
+    }
+
+    /**
+     * Checks whether the field is an array, whose elements are read one after the other.
+     *
+     * @return true for an array, false for other fields
+     */
+    public boolean isArray() {
+        return elementNames != null;
+    }
+
+    /** Gets the name of an element of an array, or the name of another field for NONE. */
+    String name(int element) {
+        return element == NONE ? name : elementNames[element];
+    }
+
+    /**
+     * Gets the name under which an element of an array is collected, the name of the array or of
+     * the row of a two dimensional array, or the array name of another field for NONE.
+     */
+    String arrayName(int element) {
+        if (element == NONE) {
+            return arrayName;
+        }
+        return rowNames == null ? name : rowNames[row(element) - 1];
+    }
+
+    /** Gets the index of an element in its array from 1, or the index of another field. */
+    int arrayIndex(int element) {
+        return element == NONE ? arrayIndex : element + 1;
+    }
+
+    /**
+     * Gets the index replacing the index of the OCCURS references in an element, which two
+     * dimensional arrays do not have.
+     */
+    int groupIndex(int element) {
+        if (element == NONE) {
+            return groupIndex;
+        }
+        return rowNames == null ? element + 1 : 0;
+    }
+
+    /** Gets the index of the occurrences of a repeated element, as {@link #groupIndex(int)}. */
+    int occurrenceIndex(int element) {
+        return element == NONE ? occurrenceIndex : groupIndex(element);
+    }
+
+    /** Gets the name under which the occurrences of a repeated element are collected. */
+    String occurrenceArrayName(int element) {
+        return element == NONE ? occurrenceArrayName : arrayName(element);
+    }
+
+    /** Gets the cell of the value of a counter, or of an element of an array of counters. */
+    int counterCell(int element) {
+        return counterCell + arrayIndex(element);
+    }
+
+    /**
+     * Gets the name of an occurrence of a repeated group in the WITHOUT_ARRAY mode. The names
+     * of the occurrences of a group which is not an array are kept for the following records.
+     *
+     * @param element the index of the element of a repeated array, NONE for other groups
+     * @param occurrence the number of the occurrence, from 1
+     * @return the name of the occurrence
+     */
+    String occurrenceName(int element, int occurrence) {
+        if (element != NONE) {
+            return elementNames[element] + "(" + occurrence + ")";
+        }
+        String[] names = occurrenceNames;
+        if (occurrence > names.length) {
+            // records may race to grow the names, every copy holds the same names
+            String[] grown = Arrays.copyOf(names, Math.max(occurrence, names.length * 2));
+            for (int i = names.length; i < grown.length; i++) {
+                grown[i] = name + "(" + (i + 1) + ")";
+            }
+            occurrenceNames = grown;
+            names = grown;
+        }
+        return names[occurrence - 1];
+    }
+
+    /**
+     * Gets the view of a union selected by a value, the first view declared with the trimmed
+     * value or else the view declared without value.
+     *
+     * @param value the value of the selector, null if it was not read
+     * @return the selected view, null if no view is selected
+     */
+    FieldPlan view(String value) {
+        FieldPlan view = value == null ? null : views.get(value.trim());
+        return view != null ? view : defaultView;
+    }
+
+    /**
+     * Gets the number of bytes of a field, all its elements included.
+     *
+     * @return the length, -1 if it depends on the record
+     */
+    int extent() {
+        int extent = 0;
+        if (kind == Kind.VALUE || kind == Kind.UNION) {
+            extent = length;
+        } else if (kind == Kind.GROUP) {
+            if (amount != null) {
+                return NONE;
+            }
+            for (FieldPlan child : children) {
+                int childExtent = child.extent();
+                if (childExtent == NONE) {
+                    return NONE;
+                }
+                extent += childExtent;
+            }
+        }
+        return extent == NONE ? NONE : extent * occurrences;
+    }
+
+    /** Gets the length of the longest view of a union, -1 if one depends on the record. */
+    static int viewLength(FieldPlan[] views) {
+        int length = 0;
+        for (FieldPlan view : views) {
+            int extent = view.extent();
+            if (extent == NONE) {
+                return NONE;
+            }
+            length = Math.max(length, extent);
+        }
+        return length;
+    }
+
+    private int row(int element) {
+        return element / type.getArray2() + 1;
+    }
+
+    private int column(int element) {
+        return element % type.getArray2() + 1;
+    }
+
+    /**
+     * Gets the fields of a group.
+     *
+     * @return the children of the group, empty for other fields
+     */
+    public List<FieldPlan> getChildren() {
+        return children == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(Arrays.asList(children));
+    }
+
+    private static String baseName(String name, boolean indexed) {
+        return indexed ? name.substring(0, name.indexOf('(')) : name;
+    }
+
+    /**
+     * Removes the index of a group name, keeping the first index of two dimensional arrays, so
+     * {@code A(2)} becomes {@code A} and {@code B(1,2)} becomes {@code B(1)}.
+     */
+    private static String withoutIndex(String name) {
+        int startIndex = name.indexOf('(');
+        int commaIndex = name.indexOf(',');
+        if (startIndex <= 0) {
+            return name;
+        }
+        int endIndex = commaIndex > 0 ? commaIndex : startIndex;
+        String newName = name.substring(0, endIndex);
+        return commaIndex > 0 ? newName + ")" : newName;
+    }
+
+    /**
+     * Gets the index extracted from the given name.
+     *
+     * @param name the name containing an index in parentheses
+     * @return the index, 0 if there is none or it is not a single number
+     */
+    static int index(String name) {
+        int startIndex = name.indexOf('(');
+        int endIndex = name.indexOf(')', startIndex);
+        if (startIndex != -1 && endIndex != -1) {
+            String indexStr = name.substring(startIndex + 1, endIndex);
+            try {
+                return Integer.parseInt(indexStr);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
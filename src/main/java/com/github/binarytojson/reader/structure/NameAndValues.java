@@ -3,6 +3,13 @@ package com.github.binarytojson.reader.structure;
 import lombok.Builder;
 import lombok.Getter;
 
+/**
+ * The name and the values of a field read by {@link StructureRecord#getData}.
+ *
+ * @deprecated records are processed from their {@link RecordPlan} with {@link
+ *     StructureRecord#process}
+ */
+@Deprecated
 @Builder
 @Getter
 public class NameAndValues {
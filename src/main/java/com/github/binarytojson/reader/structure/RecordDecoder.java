@@ -0,0 +1,82 @@
+package com.github.binarytojson.reader.structure;
+
+import com.github.binarytojson.Mode;
+import com.github.binarytojson.type.PrimitiveType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * Decoder of the records of one layout, generated from its {@link RecordPlan} by {@link
+ * RecordPlan#generateDecoder()}. A generated decoder reads every field at a constant offset with
+ * the concrete reader of its type, and gives the same result as {@link
+ * StructureRecord#process(Mode)}. Decoders keep no state, so they are shared by all threads.
+ */
+public abstract class RecordDecoder {
+
+    private static final String FILL_1_KEY = "FILL1";
+    private static final String FILL_2_KEY = "FILL2";
+
+    /** The layout types of the fields, passed to their readers. */
+    protected final PrimitiveType[] types;
+
+    /** The names of the elements of the arrays. */
+    protected final String[][] names;
+
+    /** The minimal length of the records the decoder reads, the end of its last field. */
+    @Getter private final int length;
+
+    protected RecordDecoder(PrimitiveType[] types, String[][] names, int length) {
+        this.types = types;
+        this.names = names;
+        this.length = length;
+    }
+
+    /**
+     * Decodes a record.
+     *
+     * @param bytes the bytes holding the record, at least the length of the decoder from the offset
+     * @param offset the offset of the record in the bytes
+     * @param mode the mode indicating whether to include array information
+     * @return a map containing the processed data
+     */
+    public abstract Map<String, Object> decode(byte[] bytes, int offset, Mode mode);
+
+    /**
+     * Adds the fields of a group to the result, collecting groups with the same name in a list.
+     *
+     * @param result the result map
+     * @param name the key of the group
+     * @param children the fields of the group
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected static void addChildren(
+            Map<String, Object> result, String name, Map<String, Object> children) {
+        if (result.containsKey(name)) {
+            Object item = result.get(name);
+            if (item instanceof List) {
+                ((List) item).add(children);
+            } else {
+                List<Object> items = new ArrayList<>();
+                items.add(item);
+                items.add(children);
+                result.put(name, items);
+            }
+        } else {
+            result.put(name, children);
+        }
+    }
+
+    /**
+     * Removes the filler fields, which are never written.
+     *
+     * @param result the fields of a group
+     * @return the given map
+     */
+    protected static Map<String, Object> removeFillers(Map<String, Object> result) {
+        result.remove(FILL_1_KEY);
+        result.remove(FILL_2_KEY);
+        return result;
+    }
+}
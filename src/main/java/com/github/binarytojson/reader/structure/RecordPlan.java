@@ -0,0 +1,318 @@
+package com.github.binarytojson.reader.structure;
+
+import com.github.binarytojson.reader.type.BitReader;
+import com.github.binarytojson.reader.type.CharReader;
+import com.github.binarytojson.reader.type.FixedBinaryReader;
+import com.github.binarytojson.reader.type.FixedReader;
+import com.github.binarytojson.reader.type.PicReader;
+import com.github.binarytojson.reader.type.TypeReader;
+import com.github.binarytojson.type.DataType;
+import com.github.binarytojson.type.PrimitiveType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Immutable plan of a record layout, compiled once per layout and shared by all its records. The
+ * plan resolves for every field what the records would otherwise derive again from the layout:
+ * the type reader, the offset of the fields before the first repeated group, the stride of the
+ * arrays, the names in both modes, the parsed OCCURS references and the views of the unions by
+ * selector value. The layout types are never modified, so decoding a record needs no copy of them
+ * and only keeps its own position and the values of its counts and selectors.
+ * Plans of layouts without repeated groups nor unions can also generate a {@link RecordDecoder}
+ * on demand.
+ */
+@Getter
+public final class RecordPlan {
+
+    /**
+     * A map that associates each supported data type with its corresponding type reader. The
+     * readers keep no state, so they are shared by all plans.
+     */
+    private static final Map<DataType, TypeReader> TYPE_READERS = new EnumMap<>(DataType.class);
+
+    static {
+        TYPE_READERS.put(DataType.BIT, new BitReader());
+        TYPE_READERS.put(DataType.CHAR, new CharReader());
+        TYPE_READERS.put(DataType.FIXED_BINARY, new FixedBinaryReader());
+        TYPE_READERS.put(DataType.FIXED, new FixedReader());
+        TYPE_READERS.put(DataType.PIC, new PicReader());
+    }
+
+    /** The layout types the plan is compiled from. */
+    private final List<PrimitiveType> types;
+
+    /**
+     * The length of the record without repeated groups, as the sum of the type lengths, where a
+     * union counts for its longest view.
+     */
+    private final int fixedLength;
+
+    @Getter(AccessLevel.NONE)
+    final FieldPlan[] fields;
+
+    /**
+     * The number of cells a record needs for the values of the counts of repeated groups and of
+     * the selectors of unions.
+     */
+    @Getter(AccessLevel.NONE)
+    final int counterCells;
+
+    /** The generated decoder of the records, null if it is not generated. */
+    private volatile RecordDecoder decoder;
+
+    @Getter(AccessLevel.NONE)
+    private boolean decoderGenerated;
+
+    private RecordPlan(
+            List<PrimitiveType> types, int fixedLength, FieldPlan[] fields, int counterCells) {
+        this.types = types;
+        this.fixedLength = fixedLength;
+        this.fields = fields;
+        this.counterCells = counterCells;
+    }
+
+    /**
+     * Compiles the plan of a layout.
+     *
+     * @param types the list of PrimitiveTypes describing the record
+     * @return the plan of the record
+     */
+    public static RecordPlan compile(@NonNull List<PrimitiveType> types) {
+        Set<String> counters = new HashSet<>();
+        collectCounters(types, counters);
+        Map<String, Integer> sizes = new HashMap<>();
+        counters.forEach(counter -> sizes.put(counter, 0));
+        sizeCounters(types, sizes);
+        Compiler compiler = new Compiler(sizes);
+        FieldPlan[] fields = compiler.compile(types);
+        return new RecordPlan(
+                Collections.unmodifiableList(new ArrayList<>(types)),
+                fixedLength(types, false),
+                fields,
+                compiler.counterCells);
+    }
+
+    /**
+     * Gets the top level fields of the plan.
+     *
+     * @return the compiled fields, in the order of the layout
+     */
+    public List<FieldPlan> getFields() {
+        return Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * Generates the decoder of the records on first call, which the records then use instead of
+     * interpreting the plan. Layouts with repeated groups, whose offsets depend on the record,
+     * and with unions, whose views depend on the record, keep being interpreted, as do all
+     * layouts when the running JVM has no Java compiler.
+     *
+     * @return the generated decoder, null if the plan can not be generated
+     */
+    public synchronized RecordDecoder generateDecoder() {
+        if (!decoderGenerated) {
+            decoder = DecoderGenerator.generate(this);
+            decoderGenerated = true;
+        }
+        return decoder;
+    }
+
+    /**
+     * Collects the names of the fields a record has to remember, the fields counting the
+     * occurrences of a repeated group or selecting the view of a union.
+     */
+    private static void collectCounters(List<PrimitiveType> types, Set<String> counters) {
+        for (PrimitiveType type : types) {
+            if (type.getAmount() != null) {
+                counters.add(baseName(type.getAmount()));
+            }
+            if (type.isUnion()) {
+                counters.add(baseName(type.getSelector()));
+            }
+            if (hasFields(type)) {
+                collectCounters(type.getFields(), counters);
+            }
+        }
+    }
+
+    /**
+     * Sizes the cells keeping the values of the counters: one cell for a single field and one
+     * per element for an array, at the index of the element.
+     */
+    private static void sizeCounters(List<PrimitiveType> types, Map<String, Integer> sizes) {
+        for (PrimitiveType type : types) {
+            if (hasFields(type)) {
+                sizeCounters(type.getFields(), sizes);
+            } else if (type.getDataType() != null) {
+                String name = baseName(type.getName());
+                Integer size = sizes.get(name);
+                if (size != null) {
+                    int last =
+                            type.getArray1() > 0
+                                    ? type.getOccurrences()
+                                    : FieldPlan.index(type.getName());
+                    sizes.put(name, Math.max(size, last + 1));
+                }
+            }
+        }
+    }
+
+    private static String baseName(String name) {
+        int start = name.indexOf('(');
+        return start > 0 ? name.substring(0, start) : name;
+    }
+
+    private static int fixedLength(List<PrimitiveType> types, boolean union) {
+        if (types == null) {
+            return 0;
+        }
+        int totalLength = 0;
+        for (PrimitiveType type : types) {
+            int length =
+                    (type.getLength() + fixedLength(type.getFields(), type.isUnion()))
+                            * type.getOccurrences();
+            totalLength = union ? Math.max(totalLength, length) : totalLength + length;
+        }
+        return totalLength;
+    }
+
+    private static boolean hasFields(PrimitiveType type) {
+        return type.getFields() != null && !type.getFields().isEmpty();
+    }
+
+    /** Walks the layout in the order of the record, while the offsets are still static. */
+    private static final class Compiler {
+        private final Map<String, Integer> counterSizes;
+        private final Map<String, Integer> counters = new HashMap<>();
+        private int counterCells;
+        private int offset;
+
+        private Compiler(Map<String, Integer> counterSizes) {
+            this.counterSizes = counterSizes;
+        }
+
+        private FieldPlan[] compile(List<PrimitiveType> types) {
+            FieldPlan[] plans = new FieldPlan[types.size()];
+            for (int i = 0; i < plans.length; i++) {
+                plans[i] = compile(types.get(i));
+            }
+            return plans;
+        }
+
+        private FieldPlan compile(PrimitiveType type) {
+            int fieldOffset = offset;
+            boolean array = type.getArray1() > 0;
+            if (type.isUnion() && hasFields(type)) {
+                return compileUnion(type, fieldOffset, array);
+            }
+            if (hasFields(type)) {
+                if (array) {
+                    // the fields of an element are at offsets from the start of the element
+                    offset = 0;
+                }
+                if (type.getAmount() != null) {
+                    // the fields after a repeated group depend on its count
+                    offset = FieldPlan.NONE;
+                }
+                FieldPlan[] children = compile(type.getFields());
+                int stride = array ? offset : FieldPlan.NONE;
+                if (array) {
+                    offset = next(fieldOffset, stride, type.getOccurrences());
+                }
+                String counter = type.getAmount() == null ? null : baseName(type.getAmount());
+                return new FieldPlan(
+                        FieldPlan.Kind.GROUP,
+                        type,
+                        fieldOffset,
+                        null,
+                        stride,
+                        cell(counter),
+                        size(counter),
+                        children);
+            }
+            if (Objects.isNull(type.getDataType())) {
+                return new FieldPlan(
+                        FieldPlan.Kind.EMPTY,
+                        type,
+                        fieldOffset,
+                        null,
+                        FieldPlan.NONE,
+                        FieldPlan.NONE,
+                        0,
+                        null);
+            }
+            int stride = array ? type.getLength() : FieldPlan.NONE;
+            offset = next(fieldOffset, type.getLength(), type.getOccurrences());
+            String counter = baseName(type.getName());
+            return new FieldPlan(
+                    FieldPlan.Kind.VALUE,
+                    type,
+                    fieldOffset,
+                    TYPE_READERS.get(type.getDataType()),
+                    stride,
+                    cell(counter),
+                    size(counter),
+                    null);
+        }
+
+        /** Compiles the views of a union, which all start where the union starts. */
+        private FieldPlan compileUnion(PrimitiveType type, int fieldOffset, boolean array) {
+            // the fields of an element are at offsets from the start of the element
+            int start = array ? 0 : fieldOffset;
+            FieldPlan[] views = new FieldPlan[type.getFields().size()];
+            for (int i = 0; i < views.length; i++) {
+                offset = start;
+                views[i] = compile(type.getFields().get(i));
+            }
+            int length = FieldPlan.viewLength(views);
+            offset = next(fieldOffset, length, type.getOccurrences());
+            String selector = baseName(type.getSelector());
+            return new FieldPlan(
+                    FieldPlan.Kind.UNION,
+                    type,
+                    fieldOffset,
+                    null,
+                    array ? length : FieldPlan.NONE,
+                    cell(selector),
+                    size(selector),
+                    views);
+        }
+
+        /** Gets the first cell of the values of a counter, -1 if the name is no counter. */
+        private int cell(String counter) {
+            int size = size(counter);
+            if (size == 0) {
+                return FieldPlan.NONE;
+            }
+            return counters.computeIfAbsent(
+                    counter,
+                    name -> {
+                        int cell = counterCells;
+                        counterCells += size;
+                        return cell;
+                    });
+        }
+
+        private int size(String counter) {
+            return counter == null ? 0 : counterSizes.getOrDefault(counter, 0);
+        }
+
+        /** Gets the offset after the elements of a field, -1 if it depends on the record. */
+        private static int next(int offset, int stride, int occurrences) {
+            return offset == FieldPlan.NONE || stride == FieldPlan.NONE
+                    ? FieldPlan.NONE
+                    : offset + stride * occurrences;
+        }
+    }
+}
@@ -2,311 +2,565 @@ package com.github.binarytojson.reader.structure;
 
 import com.github.binarytojson.Mode;
 import com.github.binarytojson.exception.UnsupportedTypeException;
-import com.github.binarytojson.reader.type.BitReader;
-import com.github.binarytojson.reader.type.CharReader;
-import com.github.binarytojson.reader.type.FixedBinaryReader;
-import com.github.binarytojson.reader.type.FixedReader;
-import com.github.binarytojson.reader.type.PicReader;
 import com.github.binarytojson.reader.type.TypeReader;
-import com.github.binarytojson.type.DataType;
 import com.github.binarytojson.type.PrimitiveType;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * The StructureRecord class represents a record with a byte array and provides methods to extract
- * data based on specified data types. It uses a map of data types to type readers for reading
- * values from the byte array.
+ * data based on its {@link RecordPlan}. The plan is shared by all records of a layout, the record
+ * only keeps its position and the values of the fields counting repeated groups or selecting the
+ * views of unions, in the cells the plan assigned to them. Only the selected view of a union is
+ * read.
  */
 @SuppressWarnings("java:S1171")
-@Getter
-@RequiredArgsConstructor
 @Slf4j
 public class StructureRecord {
 
-    private static final String FILL_1_KEY = "FILL1";
-    private static final String FILL_2_KEY = "FILL2";
-    /** The byte array representing the record. */
-    private final byte @NonNull [] bytes;
+    /** Per thread array for the fields of records which are not backed by an array. */
+    private static final ThreadLocal<byte[]> FIELD_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[0]);
+
+    /** The buffer holding the record bytes between its position and limit. */
+    @Getter private final ByteBuffer buffer;
+
+    /** The compiled layout of the record. */
+    @Getter private final RecordPlan plan;
+
+    /** The lists collecting the array elements in the WITH_ARRAY mode, by array name. */
+    private final Map<String, Object> fields = new HashMap<>();
+
+    /** The values of the counters read while the record is processed. */
+    private String[] counters;
+
+    private int position;
 
     /**
-     * The list of PrimitiveTypes comes from layout Can be modified during reading in case of VB and
-     * keyword OCCURS (amount of repeats) in layout
+     * Constructs a StructureRecord over the given byte array.
+     *
+     * @param bytes the byte array representing the record
+     * @param types the list of PrimitiveTypes describing the record
      */
-    private final @NonNull List<PrimitiveType> types;
+    public StructureRecord(byte @NonNull [] bytes, @NonNull List<PrimitiveType> types) {
+        this(ByteBuffer.wrap(bytes), RecordPlan.compile(types));
+    }
 
-    /** The map contains field values */
-    private final Map<String, Object> fields = new LinkedHashMap<>();
+    /**
+     * Constructs a StructureRecord over the given byte array.
+     *
+     * @param bytes the byte array representing the record
+     * @param plan the compiled layout of the record
+     */
+    public StructureRecord(byte @NonNull [] bytes, @NonNull RecordPlan plan) {
+        this(ByteBuffer.wrap(bytes), plan);
+    }
 
-    private int position;
+    /**
+     * Constructs a StructureRecord over the remaining bytes of the given buffer. The bytes are not
+     * copied, the record reads them in place.
+     *
+     * @param buffer the buffer positioned on the record bytes
+     * @param types the list of PrimitiveTypes describing the record
+     */
+    public StructureRecord(@NonNull ByteBuffer buffer, @NonNull List<PrimitiveType> types) {
+        this(buffer, RecordPlan.compile(types));
+    }
 
-    /** Resets the current position within the byte array. */
-    public void resetPosition() {
-        this.position = 0;
+    /**
+     * Constructs a StructureRecord over the remaining bytes of the given buffer. The bytes are not
+     * copied, the record reads them in place.
+     *
+     * @param buffer the buffer positioned on the record bytes
+     * @param plan the compiled layout of the record
+     */
+    public StructureRecord(@NonNull ByteBuffer buffer, @NonNull RecordPlan plan) {
+        this.buffer = buffer;
+        this.plan = plan;
     }
 
-    /** A map that associates each supported data type with its corresponding type reader. */
-    private final Map<DataType, TypeReader> typeReaderMap = new HashMap<>();
+    /**
+     * Gets the layout types of the record.
+     *
+     * @return the list of PrimitiveTypes the plan is compiled from
+     */
+    public List<PrimitiveType> getTypes() {
+        return plan.getTypes();
+    }
 
-    {
-        typeReaderMap.put(DataType.BIT, new BitReader());
-        typeReaderMap.put(DataType.CHAR, new CharReader());
-        typeReaderMap.put(DataType.FIXED_BINARY, new FixedBinaryReader());
-        typeReaderMap.put(DataType.FIXED, new FixedReader());
-        typeReaderMap.put(DataType.PIC, new PicReader());
+    /**
+     * Processes the record from its start. A record can be processed several times, every time
+     * with the same result. Records backed by an array and long enough for the generated decoder
+     * of the plan, if there is one, are decoded by it.
+     *
+     * @param mode the mode indicating whether to include array information
+     * @return a map containing the processed data
+     */
+    public Map<String, Object> process(Mode mode) {
+        RecordDecoder decoder = plan.getDecoder();
+        if (decoder != null && buffer.hasArray() && getLen() >= decoder.getLength()) {
+            return decoder.decode(buffer.array(), buffer.arrayOffset() + buffer.position(), mode);
+        }
+        position = 0;
+        fields.clear();
+        if (counters == null) {
+            counters = new String[plan.counterCells];
+        } else {
+            Arrays.fill(counters, null);
+        }
+        return processFields(plan.fields, 0, 0, mode);
     }
 
     /**
-     * Retrieves the data of the specified primitive type from the record starting at the specified
-     * position.
+     * Resets the current position within the byte array.
+     *
+     * @deprecated {@link #process(Mode)} always processes the record from its start
+     */
+    @Deprecated
+    public void resetPosition() {
+        this.position = 0;
+    }
+
+    /**
+     * Retrieves the data of the specified primitive type from the record starting at the current
+     * position, which is moved after the field.
      *
      * @param type the primitive type for which data needs to be extracted
      * @param mode the mode indicating whether to include array information
-     * @return the extracted data as a string
+     * @return the name and the extracted data, or only the name of a type without data type
      * @throws UnsupportedTypeException if the specified type is not supported
+     * @deprecated use {@link #process(Mode)}, which reads the fields from the shared plan of the
+     *     layout instead of compiling every type on its own
      */
-    @SuppressWarnings("unchecked")
+    @Deprecated
     public NameAndValues getData(PrimitiveType type, Mode mode) {
-        DataType dt = type.getDataType();
-        if (Objects.isNull(dt)) {
+        if (type.getDataType() == null) {
             return NameAndValues.builder().name(type.getName()).build();
-        } else if (typeReaderMap.containsKey(dt)) {
-            int toPosition = position + type.getLength();
-            toPosition = Math.min(toPosition, getLen());
-            String value =
-                    typeReaderMap.get(dt).readValue(subArray(bytes, position, toPosition), type);
-            int arrayIndex = type.getName().indexOf('(');
-            String name;
-            if (arrayIndex > 0 && mode == Mode.WITH_ARRAY) {
-                name = type.getName().substring(0, arrayIndex);
-                int index = getIndex(type.getName());
-                if (index == 1) {
-                    List<String> values = new ArrayList<>();
-                    values.add(value);
-                    fields.put(name, values);
-                } else {
-                    ((List<String>) fields.get(name)).add(value);
-                }
-            } else {
-                name = type.getName();
-                fields.put(type.getName(), value);
-            }
-            position += type.getLength();
-            return NameAndValues.builder()
-                    .name(name)
-                    .values(arrayIndex > 0 ? fields.get(name) : value)
-                    .build();
-        } else {
-            log.info("Unknown type : {}", type);
-            throw new UnsupportedTypeException("Unknown type");
         }
-    }
-
-    private byte[] subArray(byte[] array, int startIndex, int endIndex) {
-        int length = endIndex - startIndex;
-        byte[] subArray = new byte[length];
-        System.arraycopy(array, startIndex, subArray, 0, length);
-        return subArray;
+        FieldPlan field = RecordPlan.compile(Collections.singletonList(type)).fields[0];
+        Map<String, Object> result = new LinkedHashMap<>();
+        processChild(result, field, position, 0, mode);
+        Map.Entry<String, Object> entry = null;
+        for (Map.Entry<String, Object> value : result.entrySet()) {
+            entry = value;
+        }
+        return NameAndValues.builder().name(entry.getKey()).values(entry.getValue()).build();
     }
 
     /**
-     * Processes a list of PrimitiveType objects recursively.
+     * Processes a list of PrimitiveType objects recursively from the current position, which is
+     * moved after them. The types are not modified. The list is compiled into a plan of its own,
+     * so the counts of its repeated groups are read from fields of the list.
      *
      * @param list the list of PrimitiveType objects to process
-     * @param parent the parent PrimitiveType object
+     * @param parent the parent PrimitiveType object, whose index replaces the index of the OCCURS
+     *     references of the list, or null
      * @param mode the mode indicating whether to include array information
      * @return a map containing the processed data
+     * @deprecated use {@link #process(Mode)}, which reads the fields from the shared plan of the
+     *     layout instead of compiling the list for every call
      */
+    @Deprecated
     public Map<String, Object> processList(
             List<PrimitiveType> list, PrimitiveType parent, Mode mode) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        for (int index = 0; index < list.size(); index++) {
-            PrimitiveType type = list.get(index);
-            boolean readElement = true;
-            if (fieldsNotEmpty(type)) {
-                if (type.getAmount() != null) {
-                    readElement =
-                            processAmount(type, getAmountStr(parent, mode, type), list, index);
+        RecordPlan listPlan = RecordPlan.compile(list);
+        String[] recordCounters = counters;
+        counters = new String[listPlan.counterCells];
+        try {
+            return processFields(
+                    listPlan.fields,
+                    position,
+                    parent == null ? 0 : FieldPlan.index(parent.getName()),
+                    mode);
+        } finally {
+            counters = recordCounters;
+        }
+    }
+
+    /**
+     * Gets the field value by name, from the record processed in the given mode. In the
+     * WITH_ARRAY mode, an element of an array is named with its index.
+     *
+     * @param name the name of the field
+     * @param mode the mode indicating whether to include array information
+     * @return the field value, or the name if the record has no such field
+     * @deprecated use the map returned by {@link #process(Mode)}
+     */
+    @Deprecated
+    public String getFieldValue(String name, Mode mode) {
+        Map<String, Object> result = new StructureRecord(buffer, plan).process(mode);
+        int arrayIndex = name.indexOf('(');
+        if (arrayIndex > 0 && mode == Mode.WITH_ARRAY) {
+            Object values = findValue(result, name.substring(0, arrayIndex));
+            int index = FieldPlan.index(name) - 1;
+            Object value =
+                    values instanceof List && index >= 0 && index < ((List<?>) values).size()
+                            ? ((List<?>) values).get(index)
+                            : null;
+            return value instanceof String ? (String) value : name;
+        }
+        Object value = findValue(result, name);
+        return value instanceof String ? (String) value : name;
+    }
+
+    /** Finds the value of a field in the processed groups, null if there is none. */
+    private static Object findValue(Object group, String name) {
+        if (group instanceof Map) {
+            Map<?, ?> fieldsOfGroup = (Map<?, ?>) group;
+            Object value = fieldsOfGroup.get(name);
+            if (value != null && !(value instanceof Map)) {
+                return value;
+            }
+            for (Object child : fieldsOfGroup.values()) {
+                Object found = findValue(child, name);
+                if (found != null) {
+                    return found;
                 }
-                if (readElement) {
-                    Map<String, Object> children = processList(type.getFields(), type, mode);
-                    modifyTypeNameForArrayMode(mode, type);
-                    addChildrenToResult(result, type, children);
+            }
+        } else if (group instanceof List) {
+            for (Object item : (List<?>) group) {
+                Object found = findValue(item, name);
+                if (found != null) {
+                    return found;
                 }
-
-            } else {
-                NameAndValues nameAndValues = getData(type, mode);
-                result.put(nameAndValues.getName(), nameAndValues.getValues());
             }
         }
-        result.remove(FILL_1_KEY);
-        result.remove(FILL_2_KEY);
-        return result;
+        return null;
     }
 
     /**
-     * Modifies the type name to include array information based on the mode.
+     * Processes the fields of a group recursively.
      *
+     * @param plans the compiled fields to process
+     * @param base the position of the element of the enclosing array, from which the static
+     *     offsets of the fields are counted, 0 outside of arrays
+     * @param parentIndex the index of the enclosing group, replacing the index of the OCCURS
+     *     references, 0 if there is none
      * @param mode the mode indicating whether to include array information
-     * @param type the PrimitiveType object
+     * @return a map containing the processed data
      */
-    private void modifyTypeNameForArrayMode(Mode mode, PrimitiveType type) {
-        if (mode == Mode.WITH_ARRAY) {
-            int startIndex = type.getName().indexOf('(');
-            int commaIndex = type.getName().indexOf(',');
-            if (startIndex > 0) {
-                int endIndex = commaIndex > 0 ? commaIndex : startIndex;
-                String newName = type.getName().substring(0, endIndex);
-                if (commaIndex > 0) {
-                    newName += ")";
-                }
-                type.setName(newName);
-            }
+    private Map<String, Object> processFields(
+            FieldPlan[] plans, int base, int parentIndex, Mode mode) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (FieldPlan field : plans) {
+            processChild(result, field, base, parentIndex, mode);
+        }
+        return RecordDecoder.removeFillers(result);
+    }
+
+    private void processChild(
+            Map<String, Object> result, FieldPlan field, int base, int parentIndex, Mode mode) {
+        if (field.isArray()) {
+            processElements(result, field, start(field, base), parentIndex, mode);
+        } else {
+            processField(result, field, FieldPlan.NONE, base, parentIndex, mode);
         }
     }
 
     /**
-     * Adds children to the result map under the appropriate key.
+     * Processes the elements of an array one after the other, from its single field plan.
      *
      * @param result the result map
-     * @param type the parent PrimitiveType object
-     * @param children the children to be added
+     * @param array the array
+     * @param start the position of the first element
+     * @param parentIndex the index of the enclosing group
+     * @param mode the mode indicating whether to include array information
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private void addChildrenToResult(
-            Map<String, Object> result, PrimitiveType type, Map<String, Object> children) {
-        if (result.containsKey(type.getName())) {
-            Object item = result.get(type.getName());
-            if (item instanceof List) {
-                ((List) item).add(children);
-            } else {
-                List<Object> items = new ArrayList<>();
-                items.add(item);
-                items.add(children);
-                result.put(type.getName(), items);
-            }
-        } else {
-            result.put(type.getName(), children);
+    private void processElements(
+            Map<String, Object> result, FieldPlan array, int start, int parentIndex, Mode mode) {
+        int stride = array.getStride();
+        position = start;
+        for (int element = 0; element < array.getOccurrences(); element++) {
+            // without a stride, an element starts where the previous one ends
+            int elementStart = stride != FieldPlan.NONE ? start + element * stride : position;
+            processField(result, array, element, elementStart, parentIndex, mode);
+        }
+        if (stride != FieldPlan.NONE) {
+            position = start + array.getOccurrences() * stride;
         }
     }
 
     /**
-     * Gets the amount string for the given PrimitiveType object.
+     * Processes a field, or an element of an array.
      *
-     * @param parent the parent PrimitiveType object
+     * @param result the result map
+     * @param field the field
+     * @param element the index of the element from 0, NONE if the field is not an array
+     * @param base the position of the element, or for other fields the position from which the
+     *     static offsets of the enclosing group are counted
+     * @param parentIndex the index of the enclosing group
      * @param mode the mode indicating whether to include array information
-     * @param type the PrimitiveType object
-     * @return the amount string
      */
-    private String getAmountStr(PrimitiveType parent, Mode mode, PrimitiveType type) {
-        if (Objects.nonNull(parent)) {
-            int index = getIndex(parent.getName());
-            if (index != 0) {
-                String amount = type.getAmount();
-                int startIndex = amount.indexOf('(');
-                int endIndex = amount.indexOf(')', startIndex);
-                if (startIndex != -1 && endIndex != -1) {
-                    type.setAmount(
-                            amount.substring(0, startIndex + 1)
-                                    + index
-                                    + amount.substring(endIndex));
+    private void processField(
+            Map<String, Object> result,
+            FieldPlan field,
+            int element,
+            int base,
+            int parentIndex,
+            Mode mode) {
+        switch (field.getKind()) {
+            case GROUP:
+                if (field.getAmount() != null) {
+                    processOccurrences(result, field, element, parentIndex, mode);
+                } else {
+                    if (element != FieldPlan.NONE) {
+                        position = base;
+                    }
+                    Map<String, Object> children =
+                            processFields(field.children, base, field.groupIndex(element), mode);
+                    RecordDecoder.addChildren(
+                            result,
+                            mode == Mode.WITH_ARRAY
+                                    ? field.arrayName(element)
+                                    : field.name(element),
+                            children);
                 }
-            }
+                break;
+            case UNION:
+                processUnion(result, field, element, base, parentIndex, mode);
+                break;
+            case VALUE:
+                readField(
+                        result,
+                        field,
+                        element,
+                        element != FieldPlan.NONE ? base : start(field, base),
+                        mode);
+                break;
+            default:
+                result.put(field.name(element), null);
+                break;
+        }
+    }
+
+    private int start(FieldPlan field, int base) {
+        return field.getOffset() != FieldPlan.NONE ? base + field.getOffset() : position;
+    }
+
+    /**
+     * Processes the occurrences of a repeated group, whose count is read from the record.
+     *
+     * @param result the result map
+     * @param group the repeated group
+     * @param element the index of the element of a repeated array, NONE for other groups
+     * @param parentIndex the index of the enclosing group
+     * @param mode the mode indicating whether to include array information
+     */
+    private void processOccurrences(
+            Map<String, Object> result,
+            FieldPlan group,
+            int element,
+            int parentIndex,
+            Mode mode) {
+        int amount = count(group, parentIndex);
+        // a negative count is read as a single occurrence
+        int count = amount < 0 ? 1 : amount;
+        int occurrenceIndex = group.occurrenceIndex(element);
+        for (int i = 1; i <= count; i++) {
+            int index = occurrenceIndex != FieldPlan.NONE ? occurrenceIndex : i;
+            Map<String, Object> children = processFields(group.children, position, index, mode);
+            RecordDecoder.addChildren(
+                    result,
+                    mode == Mode.WITH_ARRAY
+                            ? group.occurrenceArrayName(element)
+                            : group.occurrenceName(element, i),
+                    children);
+        }
+    }
+
+    /**
+     * Processes the view of a union selected by the value of its selector, or its default view.
+     * The other views are not read.
+     *
+     * @param result the result map
+     * @param union the union
+     * @param element the index of the element from 0, NONE if the union is not an array
+     * @param base the position of the element, or for other unions the position from which the
+     *     static offsets of the enclosing group are counted
+     * @param parentIndex the index of the enclosing group, replacing the index of the selector
+     * @param mode the mode indicating whether to include array information
+     */
+    private void processUnion(
+            Map<String, Object> result,
+            FieldPlan union,
+            int element,
+            int base,
+            int parentIndex,
+            Mode mode) {
+        int start = element != FieldPlan.NONE ? base : start(union, base);
+        Map<String, Object> children = new LinkedHashMap<>();
+        FieldPlan view = union.view(referencedValue(union, parentIndex));
+        position = start;
+        if (view != null) {
+            processChild(children, view, base, union.groupIndex(element), mode);
+        }
+        // a union of views with static lengths ends after its longest view
+        if (union.getLength() != FieldPlan.NONE) {
+            position = start + union.getLength();
         }
-        return this.getFieldValue(type.getAmount(), mode);
+        RecordDecoder.addChildren(
+                result,
+                mode == Mode.WITH_ARRAY ? union.arrayName(element) : union.name(element),
+                RecordDecoder.removeFillers(children));
     }
 
     /**
-     * Checks if the given PrimitiveType object has non-empty fields.
+     * Reads a value field, or an element of an array of values, and records it when it is
+     * referenced later in the record.
      *
-     * @param type the PrimitiveType object to check
-     * @return true if the fields are not empty, otherwise false
+     * @param result the result map
+     * @param field the value field
+     * @param element the index of the element from 0, NONE if the field is not an array
+     * @param start the position of the value in the record
+     * @param mode the mode indicating whether to include array information
+     * @throws UnsupportedTypeException if the type of the field is not supported
      */
-    private boolean fieldsNotEmpty(PrimitiveType type) {
-        return type.getFields() != null && !type.getFields().isEmpty();
+    @SuppressWarnings("unchecked")
+    private void readField(
+            Map<String, Object> result, FieldPlan field, int element, int start, Mode mode) {
+        if (field.getReader() == null) {
+            log.info("Unknown type : {}", field.getType());
+            throw new UnsupportedTypeException("Unknown type");
+        }
+        int toPosition = Math.min(start + field.getLength(), getLen());
+        String value =
+                readValue(
+                        field.getReader(), field.getType(), start, Math.max(0, toPosition - start));
+        position = start + field.getLength();
+        if (field.isReferenced()) {
+            counters[field.counterCell(element)] = value;
+        }
+        if (mode == Mode.WITH_ARRAY
+                && (element != FieldPlan.NONE || field.getName().indexOf('(') > 0)) {
+            String name = field.arrayName(element);
+            List<String> values;
+            if (field.arrayIndex(element) == 1) {
+                values = new ArrayList<>();
+                fields.put(name, values);
+            } else {
+                values = (List<String>) fields.get(name);
+            }
+            values.add(value);
+            result.put(name, values);
+            return;
+        }
+        result.put(field.name(element), value);
     }
 
     /**
-     * Processes the amount for the given PrimitiveType object.
+     * Reads a field in place. Records backed by an array are read directly, other records are
+     * copied into a reused per thread array first.
      *
-     * @param type the PrimitiveType object
-     * @param amountStr the amount string
-     * @param list the list of PrimitiveType objects
-     * @param index the index of the current PrimitiveType object
-     * @return true if the element should be read, otherwise false
+     * @param typeReader the reader of the field type
+     * @param type the primitive type of the field
+     * @param start the position of the field in the record
+     * @param length the length of the field
+     * @return the value of the field
      */
-    private boolean processAmount(
-            PrimitiveType type, String amountStr, List<PrimitiveType> list, int index) {
-        int amount = Integer.parseInt(amountStr);
-        if (amount == 0) {
-            return false;
+    private String readValue(TypeReader typeReader, PrimitiveType type, int start, int length) {
+        int offset = buffer.position() + start;
+        if (buffer.hasArray()) {
+            return typeReader.readValue(
+                    buffer.array(), buffer.arrayOffset() + offset, length, type);
+        }
+        byte[] fieldBuffer = FIELD_BUFFER.get();
+        if (fieldBuffer.length < length) {
+            fieldBuffer = new byte[Math.max(length, fieldBuffer.length * 2)];
+            FIELD_BUFFER.set(fieldBuffer);
+        }
+        for (int i = 0; i < length; i++) {
+            fieldBuffer[i] = buffer.get(offset + i);
+        }
+        return typeReader.readValue(fieldBuffer, 0, length, type);
+    }
+
+    private byte[] subArray(int startIndex, int endIndex) {
+        int length = endIndex - startIndex;
+        byte[] subArray = new byte[length];
+        int offset = buffer.position() + startIndex;
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + offset, subArray, 0, length);
         } else {
-            String name = type.getName();
-            type.setAmount(null);
-            type.setName(name + "(1)");
-            for (int i = 1; i < amount; i++) {
-                PrimitiveType newType = type.copy();
-                newType.setName(name + "(" + (i + 1) + ")");
-                list.add(index + i, newType);
+            for (int i = 0; i < length; i++) {
+                subArray[i] = buffer.get(offset + i);
             }
         }
-        return true;
+        return subArray;
     }
 
     /**
-     * Gets the length of the byte array representing the record.
+     * Gets the count of a repeated group, from the cell of the counter named by its OCCURS
+     * reference. A reference which is not a counter read before is parsed as a number.
      *
-     * @return the length of the byte array
+     * @param group the repeated group
+     * @param parentIndex the index of the enclosing group, replacing the index of the reference
+     * @return the count
+     * @throws NumberFormatException if the count is not a number
      */
-    public int getLen() {
-        return bytes.length;
+    private int count(FieldPlan group, int parentIndex) {
+        String value = referencedValue(group, parentIndex);
+        if (value == null) {
+            value =
+                    parentIndex != 0 && group.referencePrefix != null
+                            ? group.referencePrefix + parentIndex + group.referenceSuffix
+                            : group.getAmount();
+        }
+        return Integer.parseInt(value);
     }
 
     /**
-     * Gets the field value by name.
+     * Gets the value of the field named by the OCCURS reference of a repeated group or by the
+     * selector of a union, from its cell.
      *
-     * @param name the name of the field
-     * @param mode the mode indicating whether to include array information
-     * @return the field value
+     * @param field the repeated group or the union
+     * @param parentIndex the index of the enclosing group, replacing the index of the reference
+     * @return the value, null if the field was not read
      */
-    @SuppressWarnings("unchecked")
-    public String getFieldValue(String name, Mode mode) {
-        int arrayIndex = name.indexOf('(');
-        String newName;
-        if (arrayIndex > 0 && mode == Mode.WITH_ARRAY) {
-            newName = name.substring(0, arrayIndex);
-            int index = getIndex(name) - 1;
-            List<String> values = (List<String>) fields.get(newName);
-            return values.get(index);
+    private String referencedValue(FieldPlan field, int parentIndex) {
+        int index =
+                parentIndex != 0 && field.referencePrefix != null
+                        ? parentIndex
+                        : field.referenceIndex;
+        // an indexed reference has an index from 1, the cell 0 is the counter without index
+        if (field.counterCell != FieldPlan.NONE
+                && (index > 0 || field.referencePrefix == null)
+                && index < field.counterCells) {
+            return counters[field.counterCell + index];
         }
-        return (String) fields.getOrDefault(name, name);
+        return null;
     }
 
     /**
-     * Gets the index extracted from the given name.
+     * Gets the length of the byte array representing the record.
      *
-     * @param name the name containing an index in parentheses
-     * @return the index
+     * @return the length of the byte array
      */
-    private int getIndex(String name) {
-        int startIndex = name.indexOf('(');
-        int endIndex = name.indexOf(')', startIndex);
-        if (startIndex != -1 && endIndex != -1) {
-            String indexStr = name.substring(startIndex + 1, endIndex);
-            try {
-                return Integer.parseInt(indexStr);
-            } catch (NumberFormatException e) {
-                return 0;
-            }
+    public int getLen() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Gets the bytes of the record. The backing array is returned when it holds exactly the record,
+     * otherwise the bytes are copied.
+     *
+     * @return the byte array representing the record
+     */
+    public byte[] getBytes() {
+        if (buffer.hasArray()
+                && buffer.arrayOffset() == 0
+                && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
         }
-        return 0;
+        return subArray(0, getLen());
     }
 }
@@ -18,12 +18,27 @@ public class BitReader implements TypeReader {
      */
     @Override
     public String readValue(byte[] bytes, PrimitiveType type) {
+        return readValue(bytes, 0, bytes.length, type);
+    }
+
+    /**
+     * Reads and extracts the binary value from a range of the given bytes, without copying the
+     * range.
+     *
+     * @param bytes the bytes to read from
+     * @param offset the offset of the value in the bytes
+     * @param length the length of the value
+     * @param type the PrimitiveType specifying the start position and length of the bits to be read
+     * @return a binary string representation of the extracted bits
+     */
+    @Override
+    public String readValue(byte[] bytes, int offset, int length, PrimitiveType type) {
         int start = type.getStart();
         int numberOfBits = type.getNumberOfBits();
         StringBuilder builder = new StringBuilder();
         // Iterate through each byte in the list
-        for (int i = 0; i < bytes.length; i++) {
-            int currentByte = bytes[i] & MASK_FOR_DEFINE_BYTE;
+        for (int i = 0; i < length; i++) {
+            int currentByte = bytes[offset + i] & MASK_FOR_DEFINE_BYTE;
             // Iterate through each bit in the byte from higher to lower
             for (int j = 7; j >= 0; j--) {
                 // Extracting the j-th bit
@@ -22,6 +22,20 @@ public class CharReader implements TypeReader {
      */
     @Override
     public String readValue(byte[] bytes, PrimitiveType type) {
-        return ebcdicAsciiConvertor.convert(bytes);
+        return readValue(bytes, 0, bytes.length, type);
+    }
+
+    /**
+     * Reads the value from a range of the given bytes for CHAR type, without copying the range.
+     *
+     * @param bytes the bytes holding the value
+     * @param offset the offset of the value in the bytes
+     * @param length the length of the value
+     * @param type the PrimitiveType representing the data type (CHAR in this case)
+     * @return string representing the value read from the bytes for CHAR type
+     */
+    @Override
+    public String readValue(byte[] bytes, int offset, int length, PrimitiveType type) {
+        return ebcdicAsciiConvertor.convert(bytes, offset, length);
     }
 }
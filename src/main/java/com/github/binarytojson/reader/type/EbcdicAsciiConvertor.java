@@ -12,16 +12,31 @@ public class EbcdicAsciiConvertor {
     private static final int LENGTH_OF_UNICODE_PREFIX = 5;
 
     public String convert(byte[] ebcdicBytes) {
-        byte[] bytes = new byte[ebcdicBytes.length];
+        return convert(ebcdicBytes, 0, ebcdicBytes.length);
+    }
+
+    /**
+     * Converts a range of EBCDIC bytes to a string. Non-printable characters are written as
+     * unicode escapes, they are counted first, so the result is allocated only once.
+     *
+     * @param ebcdicBytes the bytes to convert
+     * @param offset the offset of the first byte
+     * @param length the number of bytes to convert
+     * @return the converted string
+     */
+    public String convert(byte[] ebcdicBytes, int offset, int length) {
+        int end = offset + length;
+        int nonPrintable = 0;
+        for (int index = offset; index < end; index++) {
+            if (isNonPrintable(EBCDIC_2_ASCII[ebcdicBytes[index] & MASK_FOR_DEFINE_BYTE])) {
+                nonPrintable++;
+            }
+        }
+        byte[] bytes = new byte[length + nonPrintable * LENGTH_OF_UNICODE_PREFIX];
         int i = 0;
-        for (int el : ebcdicBytes) {
-            int symbol = EBCDIC_2_ASCII[el & MASK_FOR_DEFINE_BYTE];
-            if (symbol < NON_PRINTABLE_CHARACTERS_BELOW_32
-                    || (symbol > NON_PRINTABLE_CHARACTERS_BEYOND_126
-                            && symbol < NON_PRINTABLE_CHARACTERS_BELOW_192)) {
-                byte[] newBytes = new byte[bytes.length + LENGTH_OF_UNICODE_PREFIX];
-                System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
-                bytes = newBytes;
+        for (int index = offset; index < end; index++) {
+            int symbol = EBCDIC_2_ASCII[ebcdicBytes[index] & MASK_FOR_DEFINE_BYTE];
+            if (isNonPrintable(symbol)) {
                 bytes[i++] = '\\';
                 bytes[i++] = 'u';
                 bytes[i++] = '0';
@@ -36,6 +51,12 @@ public class EbcdicAsciiConvertor {
         return new String(bytes, StandardCharsets.ISO_8859_1);
     }
 
+    private static boolean isNonPrintable(int symbol) {
+        return symbol < NON_PRINTABLE_CHARACTERS_BELOW_32
+                || (symbol > NON_PRINTABLE_CHARACTERS_BEYOND_126
+                        && symbol < NON_PRINTABLE_CHARACTERS_BELOW_192);
+    }
+
     /** Predefined EBCDIC to ASCII conversion table. */
     static final int[] EBCDIC_2_ASCII =
             new int[] {
@@ -20,21 +20,26 @@ public class FixedBinaryReader implements TypeReader {
 
     @Override
     public String readValue(byte[] bytes, PrimitiveType type) {
+        return readValue(bytes, 0, bytes.length, type);
+    }
+
+    @Override
+    public String readValue(byte[] bytes, int offset, int length, PrimitiveType type) {
         int digitsCount = type.getDigitsCount();
         int controlLen = getControlLen(digitsCount);
-        if (bytes.length != controlLen) {
+        if (length != controlLen) {
             throw new UnsupportedTypeException(
                     String.format("Could not read var : %s", type.getName()));
         }
         long result = 0;
         String sign = "";
-        for (int i = 0; i < bytes.length; i++) {
-            int currentByte = bytes[i];
+        for (int i = 0; i < length; i++) {
+            int currentByte = bytes[offset + i];
             if (i == 0 && type.isSigned()) {
                 sign = (currentByte & SIGN_DETECTION_MASK) != 0 ? SIGN_MINUS : "";
                 currentByte &= MASK_WITHOUT_SIGN;
             }
-            result |= (long) (currentByte & MASK_FOR_DEFINE_BYTE) << (bytes.length - i - 1) * LONG;
+            result |= (long) (currentByte & MASK_FOR_DEFINE_BYTE) << (length - i - 1) * LONG;
         }
         return sign + result;
     }
@@ -13,20 +13,26 @@ public class FixedReader implements TypeReader {
 
     @Override
     public String readValue(byte[] bytes, PrimitiveType type) {
+        return readValue(bytes, 0, bytes.length, type);
+    }
+
+    @Override
+    public String readValue(byte[] bytes, int offset, int length, PrimitiveType type) {
         int digitsCount = type.getDigitsCount();
         int scaleFactor = type.getScaleFactor();
 
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < bytes.length; i++) {
-            int firstDigit = (bytes[i] & MASK_FOR_DEFINE_HIGH_NIBBLE) >> SHIFT_FOR_HIGH_NIBBLE;
-            int secondDigit = bytes[i] & MASK_FOR_DEFINE_LOW_NIBBLE;
-            if (i == bytes.length - 1 && secondDigit == VALUE_MINUS) {
+        for (int i = 0; i < length; i++) {
+            int currentByte = bytes[offset + i];
+            int firstDigit = (currentByte & MASK_FOR_DEFINE_HIGH_NIBBLE) >> SHIFT_FOR_HIGH_NIBBLE;
+            int secondDigit = currentByte & MASK_FOR_DEFINE_LOW_NIBBLE;
+            if (i == length - 1 && secondDigit == VALUE_MINUS) {
                 sb.append(firstDigit);
                 sb.insert(0, SIGN_MINUS);
             } else {
                 sb.append(firstDigit);
                 setDecimalPoint(digitsCount, scaleFactor, sb);
-                if (i < bytes.length - 1) {
+                if (i < length - 1) {
                     sb.append(secondDigit);
                 }
                 setDecimalPoint(digitsCount, scaleFactor, sb);
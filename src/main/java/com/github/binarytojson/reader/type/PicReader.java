@@ -24,7 +24,22 @@ public class PicReader implements TypeReader {
      */
     @Override
     public String readValue(byte[] bytes, PrimitiveType type) {
-        return insertDotAtPosition(ebcdicAsciiConvertor.convert(bytes), type.getScaleFactor());
+        return readValue(bytes, 0, bytes.length, type);
+    }
+
+    /**
+     * Reads the value from a range of the given bytes, without copying the range.
+     *
+     * @param bytes the bytes to read from
+     * @param offset the offset of the value in the bytes
+     * @param length the length of the value
+     * @param type the PrimitiveType indicating the type of value to be read
+     * @return a string representing the value read
+     */
+    @Override
+    public String readValue(byte[] bytes, int offset, int length, PrimitiveType type) {
+        return insertDotAtPosition(
+                ebcdicAsciiConvertor.convert(bytes, offset, length), type.getScaleFactor());
     }
 
     /**
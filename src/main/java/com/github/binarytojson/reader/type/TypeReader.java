@@ -1,8 +1,23 @@
 package com.github.binarytojson.reader.type;
 
 import com.github.binarytojson.type.PrimitiveType;
+import java.util.Arrays;
 
 public interface TypeReader {
 
     String readValue(byte[] bytes, PrimitiveType type);
+
+    /**
+     * Reads the value from a range of the given bytes. The readers of this package read the range
+     * in place, other readers get a copy of the range.
+     *
+     * @param bytes the bytes holding the value
+     * @param offset the offset of the value in the bytes
+     * @param length the length of the value
+     * @param type the PrimitiveType describing the value
+     * @return string representing the value
+     */
+    default String readValue(byte[] bytes, int offset, int length, PrimitiveType type) {
+        return readValue(Arrays.copyOfRange(bytes, offset, offset + length), type);
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.binarytojson.type;
 
+import com.github.binarytojson.reader.structure.RecordPlan;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,4 +17,24 @@ public class HeaderRecordDto {
 
     /** The list of primitive types describing the data structure. */
     private List<PrimitiveType> primitiveTypes;
+
+    /**
+     * The character of the version byte telling the records of this header apart from the records
+     * of the same length of other versions of the layout, null if there is none.
+     */
+    private String version;
+
+    /** The plan compiled from the primitive types on first use, shared by all records. */
+    @Getter(lazy = true)
+    private final RecordPlan plan = RecordPlan.compile(primitiveTypes);
+
+    /**
+     * Constructs a header record without version.
+     *
+     * @param recordType the type of header record
+     * @param primitiveTypes the list of primitive types describing the data structure
+     */
+    public HeaderRecordDto(HeaderRecordType recordType, List<PrimitiveType> primitiveTypes) {
+        this(recordType, primitiveTypes, null);
+    }
 }
@@ -29,6 +29,32 @@ public class PrimitiveType {
     private int array2;
     private boolean rootElement;
 
+    /** The reference of the field selecting the view of a union, null for other fields. */
+    private String selector;
+
+    /** The value of the selector choosing this view of a union, null for the default view. */
+    private String selectorValue;
+
+    /**
+     * Gets the number of elements of an array, the product of its dimensions. The elements share
+     * this type and its fields, they are not copied.
+     *
+     * @return the number of elements, 1 if the type is not an array
+     */
+    public int getOccurrences() {
+        return Math.max(1, array1) * Math.max(1, array2);
+    }
+
+    /**
+     * Checks whether the type is a union, whose fields are alternative views over the same bytes,
+     * of which only the one chosen by the selector is read.
+     *
+     * @return true for a union, false for other types
+     */
+    public boolean isUnion() {
+        return selector != null;
+    }
+
     public PrimitiveType copy() {
         return toBuilder()
                 .fields(
@@ -0,0 +1,208 @@
+package com.github.binarytojson.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OutputStream writing to a file channel through a direct buffer. Writes of at least half the
+ * buffer are passed to the channel together with the buffered bytes in one gathering write,
+ * without copying them. When the buffer is written is decided by the {@link FlushPolicy}, so
+ * flushes of the writers do not have to reach the file.
+ *
+ * <p>Closing the stream writes the remaining bytes and closes the channel.
+ */
+public class ChannelOutputStream extends OutputStream {
+
+    /** Default size of the buffer (1 megabyte). */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final FlushPolicy flushPolicy;
+    private boolean closed;
+
+    /**
+     * Creates a stream writing to the channel.
+     *
+     * @param channel the channel to write to
+     * @param bufferSize the size of the direct buffer
+     * @param flushPolicy when the buffer is written to the channel
+     */
+    public ChannelOutputStream(FileChannel channel, int bufferSize, FlushPolicy flushPolicy) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Creates or truncates the file and opens a stream writing to it.
+     *
+     * @param path the path of the file
+     * @param bufferSize the size of the direct buffer
+     * @param flushPolicy when the buffer is written to the file
+     * @return the stream writing to the file
+     * @throws IOException if the file could not be opened
+     */
+    public static ChannelOutputStream open(Path path, int bufferSize, FlushPolicy flushPolicy)
+            throws IOException {
+        FileChannel channel =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE);
+        try {
+            return new ChannelOutputStream(channel, bufferSize, flushPolicy);
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a stream continuing the file at the given position, for example to resume an
+     * interrupted conversion. The bytes after the position are truncated.
+     *
+     * @param path the path of the file
+     * @param position the number of bytes of the file to keep
+     * @param bufferSize the size of the direct buffer
+     * @param flushPolicy when the buffer is written to the file
+     * @return the stream writing to the file after the position
+     * @throws IOException if the file could not be opened or is shorter than the position
+     */
+    public static ChannelOutputStream openAt(
+            Path path, long position, int bufferSize, FlushPolicy flushPolicy) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < position) {
+                throw new IOException(
+                        String.format("%s is shorter than %d bytes", path, position));
+            }
+            channel.truncate(position);
+            channel.position(position);
+            return new ChannelOutputStream(channel, bufferSize, flushPolicy);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a byte to the buffer, writing the buffer to the channel first if it is full.
+     *
+     * @param b the byte to write
+     * @throws IOException if writing to the channel failed
+     */
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    /**
+     * Writes bytes to the buffer. Bytes which do not fit into the buffer are written to the
+     * channel, large arrays together with the buffered bytes in one gathering write.
+     *
+     * @param bytes the bytes to write
+     * @param offset the offset in the array
+     * @param length the number of bytes to write
+     * @throws IOException if writing to the channel failed
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        if (length <= buffer.remaining()) {
+            buffer.put(bytes, offset, length);
+            return;
+        }
+        if (length < buffer.capacity() / 2) {
+            drain();
+            buffer.put(bytes, offset, length);
+            return;
+        }
+        ((Buffer) buffer).flip();
+        ByteBuffer data = ByteBuffer.wrap(bytes, offset, length);
+        ByteBuffer[] sources = {buffer, data};
+        while (data.hasRemaining()) {
+            channel.write(sources);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    /**
+     * Flushes the stream according to the flush policy.
+     *
+     * @throws IOException if writing to the channel failed
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed || flushPolicy == FlushPolicy.BUFFER_FULL) {
+            return;
+        }
+        drain();
+        if (flushPolicy == FlushPolicy.SYNC) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Writes the buffered bytes and gives access to the channel, for example to transfer a file
+     * into it. Bytes written to the channel directly must not be mixed with unflushed writes to
+     * this stream.
+     *
+     * @return the channel after all buffered bytes
+     * @throws IOException if writing to the channel failed
+     */
+    public WritableByteChannel channel() throws IOException {
+        ensureOpen();
+        drain();
+        return channel;
+    }
+
+    /**
+     * Writes the buffered bytes and closes the channel. Closing a closed stream has no effect.
+     *
+     * @throws IOException if writing to or closing the channel failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drain();
+            if (flushPolicy == FlushPolicy.SYNC) {
+                channel.force(true);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -83,11 +83,7 @@ public class CsvWriter implements Writer {
             throws IOException {
         List<Map<String, Object>> maps =
                 structureRecords.stream()
-                        .map(
-                                it -> {
-                                    it.resetPosition();
-                                    return it.processList(it.getTypes(), null, mode);
-                                })
+                        .map(it -> it.process(mode))
                         .collect(Collectors.toList());
         Map<String, Object> result = getStringObjectMap(maps, mode);
         if (Objects.nonNull(rootName)) {
@@ -156,6 +152,20 @@ public class CsvWriter implements Writer {
         csvGenerator.writeEndArray();
     }
 
+    /** Flushes the written rows to the stream, segments need no separator in CSV. */
+    @SneakyThrows
+    @Override
+    public void writeSegmentSeparator() {
+        csvGenerator.flush();
+    }
+
+    /** Flushes the written rows to the stream. */
+    @SneakyThrows
+    @Override
+    public void flush() {
+        csvGenerator.flush();
+    }
+
     /**
      * Closes the underlying CsvGenerator.
      *
@@ -0,0 +1,12 @@
+package com.github.binarytojson.writer;
+
+/** Enum representing when a {@link ChannelOutputStream} writes its buffer to the channel. */
+public enum FlushPolicy {
+
+    /** The buffer is written only when it is full and when the stream is closed. */
+    BUFFER_FULL,
+    /** The buffer is also written when the stream is flushed. */
+    FLUSH,
+    /** The buffer is also written when the stream is flushed, and forced to the storage device. */
+    SYNC
+}
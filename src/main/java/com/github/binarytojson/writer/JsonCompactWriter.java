@@ -1,6 +1,5 @@
 package com.github.binarytojson.writer;
 
-import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -19,15 +18,26 @@ public class JsonCompactWriter extends JsonWriter {
      */
     public JsonCompactWriter(OutputStream os) throws IOException {
         super(os);
-        jsonGenerator.setPrettyPrinter(getPrettyPrinter());
     }
 
     /**
-     * Retrieves the PrettyPrinter used for formatting JSON output in a compact manner.
+     * Constructs a JsonCompactWriter with the specified OutputStream.
+     *
+     * @param os the OutputStream to write JSON data to
+     * @param segment whether to write a segment of an array
+     * @throws IOException if an I/O error occurs while creating the JsonCompactWriter
+     */
+    public JsonCompactWriter(OutputStream os, boolean segment) throws IOException {
+        super(os, segment);
+    }
+
+    /**
+     * Creates the PrettyPrinter used for formatting JSON output in a compact manner.
      *
      * @return the PrettyPrinter instance with compact formatting settings
      */
-    private PrettyPrinter getPrettyPrinter() {
+    @Override
+    protected DefaultPrettyPrinter createPrettyPrinter() {
         DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
         printer.indentObjectsWith(new DefaultPrettyPrinter.NopIndenter());
         printer.indentArraysWith(new DefaultPrettyPrinter.NopIndenter());
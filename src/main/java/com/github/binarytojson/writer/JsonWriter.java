@@ -22,9 +22,6 @@ public class JsonWriter implements Writer {
     /** The JSON factory to create JSON generators. */
     private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
-    /** The default pretty printer for formatting JSON output. */
-    private static final DefaultPrettyPrinter PRETTY_PRINTER = new DefaultPrettyPrinter();
-
     /** The object mapper to serialize Java objects into JSON. */
     private static final ObjectMapper OBJECT_MAPPER =
             new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
@@ -39,11 +36,36 @@ public class JsonWriter implements Writer {
      * @throws IOException if an I/O error occurs while creating the JsonGenerator
      */
     public JsonWriter(OutputStream os) throws IOException {
+        this(os, false);
+    }
+
+    /**
+     * Constructs a JsonWriter object with the provided output stream. A segment writer writes the
+     * objects without array brackets, separated like array elements, so that the segment can be
+     * appended to the array of another writer.
+     *
+     * @param os the output stream to write JSON data to
+     * @param segment whether to write a segment of an array
+     * @throws IOException if an I/O error occurs while creating the JsonGenerator
+     */
+    public JsonWriter(OutputStream os, boolean segment) throws IOException {
         jsonGenerator = JSON_FACTORY.createGenerator(os);
-        jsonGenerator.setPrettyPrinter(PRETTY_PRINTER);
+        DefaultPrettyPrinter prettyPrinter = createPrettyPrinter();
+        jsonGenerator.setPrettyPrinter(
+                segment ? new SegmentPrettyPrinter(prettyPrinter) : prettyPrinter);
         jsonGenerator.setCodec(OBJECT_MAPPER);
     }
 
+    /**
+     * Creates the pretty printer for formatting JSON output. A pretty printer keeps the nesting
+     * state, so every generator gets its own instance.
+     *
+     * @return the new pretty printer
+     */
+    protected DefaultPrettyPrinter createPrettyPrinter() {
+        return new DefaultPrettyPrinter();
+    }
+
     /**
      * Writes the header information based on the specified list of PrimitiveTypes and
      * StructureRecord.
@@ -69,7 +91,7 @@ public class JsonWriter implements Writer {
     public void writeObject(List<StructureRecord> structureRecords, Mode mode, String rootName) {
         List<Map<String, Object>> maps =
                 structureRecords.stream()
-                        .map(it -> it.processList(it.getTypes(), null, mode))
+                        .map(it -> it.process(mode))
                         .collect(Collectors.toList());
         Map<String, Object> result = getStringObjectMap(maps, mode);
         if (Objects.nonNull(rootName)) {
@@ -92,6 +114,21 @@ public class JsonWriter implements Writer {
         jsonGenerator.writeEndArray();
     }
 
+    /** Writes the separator before a segment and flushes the written data to the stream. */
+    @SneakyThrows
+    @Override
+    public void writeSegmentSeparator() {
+        jsonGenerator.writeRawValue("");
+        jsonGenerator.flush();
+    }
+
+    /** Flushes the written data to the stream. */
+    @SneakyThrows
+    @Override
+    public void flush() {
+        jsonGenerator.flush();
+    }
+
     /**
      * Closes the underlying JsonGenerator.
      *
@@ -0,0 +1,74 @@
+package com.github.binarytojson.writer;
+
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.Separators;
+import com.github.binarytojson.Mode;
+import com.github.binarytojson.reader.structure.StructureRecord;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import lombok.SneakyThrows;
+
+/**
+ * The NdjsonWriter class extends JsonCompactWriter to write newline delimited JSON. Every object
+ * is written on its own line, which is terminated by a line feed, and no array encloses them. The
+ * output can therefore be appended to, and segments of it can be concatenated as they are.
+ */
+public class NdjsonWriter extends JsonCompactWriter {
+
+    /**
+     * Constructs a NdjsonWriter with the specified OutputStream.
+     *
+     * @param os the OutputStream to write JSON lines to
+     * @throws IOException if an I/O error occurs while creating the NdjsonWriter
+     */
+    public NdjsonWriter(OutputStream os) throws IOException {
+        // lines need no separator, so a segment is written like a whole output
+        super(os, false);
+    }
+
+    /**
+     * Creates the compact PrettyPrinter without separator between root objects, as every object
+     * ends its line itself.
+     *
+     * @return the PrettyPrinter instance with compact formatting settings
+     */
+    @Override
+    protected DefaultPrettyPrinter createPrettyPrinter() {
+        return super.createPrettyPrinter()
+                .withSeparators(Separators.createDefaultInstance().withRootSeparator(""));
+    }
+
+    /**
+     * Writes the provided structure records as one JSON line.
+     *
+     * @param structureRecords the list of structure records to be written
+     * @param mode the mode in which to process the records
+     * @param rootName the name of the root element
+     */
+    @SneakyThrows
+    @Override
+    public void writeObject(List<StructureRecord> structureRecords, Mode mode, String rootName) {
+        super.writeObject(structureRecords, mode, rootName);
+        jsonGenerator.writeRaw('\n');
+    }
+
+    /** Writes nothing, the lines are not enclosed in an array. */
+    @Override
+    public void writeStartArray() {
+        // nothing to do for json lines
+    }
+
+    /** Writes nothing, the lines are not enclosed in an array. */
+    @Override
+    public void writeEndArray() {
+        // nothing to do for json lines
+    }
+
+    /** Flushes the written lines to the stream, segments need no separator in NDJSON. */
+    @SneakyThrows
+    @Override
+    public void writeSegmentSeparator() {
+        jsonGenerator.flush();
+    }
+}
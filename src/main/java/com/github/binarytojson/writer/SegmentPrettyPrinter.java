@@ -0,0 +1,44 @@
+package com.github.binarytojson.writer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import java.io.IOException;
+
+/**
+ * Pretty printer for a segment of an array. The objects are written at the root level, but they
+ * are separated like array elements of the wrapped pretty printer.
+ */
+class SegmentPrettyPrinter extends DefaultPrettyPrinter {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a SegmentPrettyPrinter with the settings of the given pretty printer.
+     *
+     * @param base the pretty printer used for the whole array
+     */
+    SegmentPrettyPrinter(DefaultPrettyPrinter base) {
+        super(base);
+    }
+
+    /**
+     * Creates a new instance for a generator.
+     *
+     * @return the new pretty printer
+     */
+    @Override
+    public SegmentPrettyPrinter createInstance() {
+        return new SegmentPrettyPrinter(this);
+    }
+
+    /**
+     * Writes the separator between two root objects as the separator between array elements.
+     *
+     * @param g the generator used for writing
+     * @throws IOException if an I/O error occurs while writing
+     */
+    @Override
+    public void writeRootValueSeparator(JsonGenerator g) throws IOException {
+        writeArrayValueSeparator(g);
+    }
+}
@@ -35,6 +35,16 @@ public interface Writer extends Closeable {
     /** Writes the end of an array. */
     void writeEndArray();
 
+    /**
+     * Writes the separator before a segment of objects which is appended directly to the output
+     * stream, and flushes the buffered output, so the segment lands after the separator. Writes
+     * nothing by default, which suits writers without separators that do not buffer their output.
+     */
+    default void writeSegmentSeparator() {}
+
+    /** Flushes the written data to the output stream. Does nothing by default. */
+    default void flush() {}
+
     /**
      * Converts a list of maps into a single map with string keys and object values.
      *
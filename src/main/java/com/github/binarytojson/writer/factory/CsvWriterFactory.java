@@ -22,4 +22,16 @@ public class CsvWriterFactory implements WriterFactory {
     public Writer create(OutputStream os) throws IOException {
         return new CsvWriter(os);
     }
+
+    /**
+     * Creates a new CsvWriter instance which writes a segment of an array.
+     *
+     * @param os the OutputStream to which the CsvWriter will write data
+     * @return a new CsvWriter instance
+     * @throws IOException if an I/O error occurs while creating the CsvWriter
+     */
+    @Override
+    public Writer createSegment(OutputStream os) throws IOException {
+        return new CsvWriter(os);
+    }
 }
@@ -22,4 +22,16 @@ public class JsonCompactWriterFactory implements WriterFactory {
     public Writer create(OutputStream os) throws IOException {
         return new JsonCompactWriter(os);
     }
+
+    /**
+     * Creates a new JsonCompactWriter instance which writes a segment of an array.
+     *
+     * @param os the OutputStream to which the JsonCompactWriter will write data
+     * @return a new JsonCompactWriter instance
+     * @throws IOException if an I/O error occurs while creating the JsonCompactWriter
+     */
+    @Override
+    public Writer createSegment(OutputStream os) throws IOException {
+        return new JsonCompactWriter(os, true);
+    }
 }
@@ -22,4 +22,16 @@ public class JsonWriterFactory implements WriterFactory {
     public Writer create(OutputStream os) throws IOException {
         return new JsonWriter(os);
     }
+
+    /**
+     * Creates a new JsonWriter instance which writes a segment of an array.
+     *
+     * @param os the OutputStream to which the JsonWriter will write data
+     * @return a new JsonWriter instance
+     * @throws IOException if an I/O error occurs while creating the JsonWriter
+     */
+    @Override
+    public Writer createSegment(OutputStream os) throws IOException {
+        return new JsonWriter(os, true);
+    }
 }
@@ -0,0 +1,38 @@
+package com.github.binarytojson.writer.factory;
+
+import com.github.binarytojson.writer.NdjsonWriter;
+import com.github.binarytojson.writer.Writer;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The NdjsonWriterFactory class implements the WriterFactory interface to create instances of
+ * NdjsonWriter.
+ */
+public class NdjsonWriterFactory implements WriterFactory {
+
+    /**
+     * Creates a new NdjsonWriter instance with the specified OutputStream.
+     *
+     * @param os the OutputStream to which the NdjsonWriter will write data
+     * @return a new NdjsonWriter instance
+     * @throws IOException if an I/O error occurs while creating the NdjsonWriter
+     */
+    @Override
+    public Writer create(OutputStream os) throws IOException {
+        return new NdjsonWriter(os);
+    }
+
+    /**
+     * Creates a new NdjsonWriter instance which writes a segment of the lines. Lines need no
+     * separator, so the segment writer is the same as the one of a whole output.
+     *
+     * @param os the OutputStream to which the NdjsonWriter will write data
+     * @return a new NdjsonWriter instance
+     * @throws IOException if an I/O error occurs while creating the NdjsonWriter
+     */
+    @Override
+    public Writer createSegment(OutputStream os) throws IOException {
+        return new NdjsonWriter(os);
+    }
+}
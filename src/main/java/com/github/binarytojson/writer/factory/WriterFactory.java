@@ -17,4 +17,18 @@ public interface WriterFactory {
      * @throws IOException if an I/O error occurs while creating the Writer.
      */
     Writer create(OutputStream os) throws IOException;
+
+    /**
+     * Creates a new Writer instance which writes a segment of an array. The segment has no array
+     * brackets, it is appended to the output of another writer after {@link
+     * Writer#writeSegmentSeparator()}. By default, it is a writer created by {@link
+     * #create(OutputStream)}.
+     *
+     * @param os the OutputStream to which the Writer will write data
+     * @return a new Writer instance
+     * @throws IOException if an I/O error occurs while creating the Writer.
+     */
+    default Writer createSegment(OutputStream os) throws IOException {
+        return create(os);
+    }
 }
@@ -0,0 +1,110 @@
+package com.github.binarytojson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchConverterTest {
+
+    private final EbcdicToAsciiConvertor convertor = new EbcdicToAsciiConvertor();
+
+    @TempDir Path directory;
+
+    @Test
+    void testFindSources() throws IOException {
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Files.copy(source, directory.resolve("b.dat"));
+        Files.copy(source, directory.resolve("a.dat"));
+        Files.write(directory.resolve("a.dat.idx"), new byte[0]);
+        Files.write(directory.resolve("notes.txt"), new byte[0]);
+
+        assertEquals(
+                Arrays.asList(
+                        directory.resolve("a.dat"),
+                        directory.resolve("b.dat"),
+                        directory.resolve("notes.txt")),
+                BatchConverter.findSources(directory.toString()));
+        assertEquals(
+                Arrays.asList(directory.resolve("a.dat"), directory.resolve("b.dat")),
+                BatchConverter.findSources(directory + "/*.dat"));
+        assertTrue(BatchConverter.isBatch(directory.toString()));
+        assertTrue(BatchConverter.isBatch(directory + "/*.dat"));
+        assertFalse(BatchConverter.isBatch(source.toString()));
+    }
+
+    @Test
+    void testConvertBatch() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path input = Files.createDirectory(directory.resolve("input"));
+        Files.copy(source, input.resolve("a.dat"));
+        Files.copy(source, input.resolve("b.dat"));
+        Files.write(input.resolve("broken.dat"), new byte[] {1});
+        Path output = directory.resolve("output");
+
+        List<BatchResult> results =
+                new BatchConverter(convertor, 2, 64)
+                        .convert(
+                                BatchConverter.findSources(input.toString()),
+                                output,
+                                headers,
+                                Arrays.asList(GenerationType.JSON, GenerationType.CSV),
+                                ConversionOptions.builder().build());
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        long records = convertor.convert(source, expected, headers, GenerationType.JSON);
+        assertEquals(3, results.size());
+        for (BatchResult result : results.subList(0, 2)) {
+            assertTrue(result.isSuccessful());
+            assertEquals(records, result.getRecords());
+            assertEquals(Files.size(source), result.getBytes());
+            assertEquals(
+                    expected.toString("UTF-8"),
+                    new String(
+                            Files.readAllBytes(
+                                    output.resolve(result.getSource().getFileName() + ".json")),
+                            "UTF-8"));
+            assertTrue(Files.exists(output.resolve(result.getSource().getFileName() + ".csv")));
+        }
+        assertEquals(input.resolve("broken.dat"), results.get(2).getSource());
+    }
+
+    @Test
+    void testConvertRecursiveGlobKeepsDirectories() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path input = Files.createDirectories(directory.resolve("input/sub"));
+        Files.copy(source, input.getParent().resolve("a.dat"));
+        Files.copy(source, input.resolve("a.dat"));
+        Path output = directory.resolve("output");
+
+        List<Path> sources = BatchConverter.findSources(directory + "/input/**.dat");
+        assertEquals(2, sources.size());
+        List<BatchResult> results =
+                new BatchConverter(convertor, 2, 64)
+                        .convert(
+                                sources,
+                                output,
+                                headers,
+                                Arrays.asList(GenerationType.JSON),
+                                ConversionOptions.builder().build());
+
+        assertTrue(results.stream().allMatch(BatchResult::isSuccessful));
+        assertTrue(Files.exists(output.resolve("a.dat.json")));
+        assertTrue(Files.exists(output.resolve("sub/a.dat.json")));
+    }
+}
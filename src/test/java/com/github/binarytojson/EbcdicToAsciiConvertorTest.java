@@ -1,9 +1,14 @@
 package com.github.binarytojson;
 
+import static com.github.binarytojson.TestData.toVariable;
+import static com.github.binarytojson.TestData.trickle;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doNothing;
@@ -13,23 +18,37 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.github.binarytojson.layout.LayoutReader;
 import com.github.binarytojson.reader.file.BufferedInputStreamReader;
+import com.github.binarytojson.reader.file.FileSplit;
 import com.github.binarytojson.reader.file.IReader;
+import com.github.binarytojson.reader.file.RecordIndex;
+import com.github.binarytojson.reader.source.FileRangedSource;
+import com.github.binarytojson.reader.source.RangedSource;
 import com.github.binarytojson.reader.structure.StructureRecord;
 import com.github.binarytojson.type.DataType;
 import com.github.binarytojson.type.HeaderRecordDto;
 import com.github.binarytojson.type.HeaderRecordType;
 import com.github.binarytojson.type.PrimitiveType;
+import com.github.binarytojson.writer.ChannelOutputStream;
+import com.github.binarytojson.writer.FlushPolicy;
 import com.github.binarytojson.writer.Writer;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -93,6 +112,8 @@ public class EbcdicToAsciiConvertorTest {
 
         when(inputStream.available()).thenReturn(10);
         when(inputStream.read()).thenThrow(new IOException("IO error"));
+        when(inputStream.read(any(byte[].class), anyInt(), anyInt()))
+                .thenThrow(new IOException("IO error"));
         assertThrows(
                 IOException.class,
                 () ->
@@ -174,4 +195,448 @@ public class EbcdicToAsciiConvertorTest {
         // Ensure the byte array is correctly formed
         assertArrayEquals(new byte[] {0x01, 0x02}, result);
     }
+
+    @Test
+    void testConvertPathMatchesStream() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (InputStream inputStream = Files.newInputStream(source)) {
+            convertor.convert(inputStream, expected, headers, GenerationType.JSON, Cache.DEFAULT);
+        }
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        convertor.convert(source, actual, headers, GenerationType.JSON);
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+        ByteArrayOutputStream readAhead = new ByteArrayOutputStream();
+        convertor.convert(
+                source,
+                readAhead,
+                headers,
+                GenerationType.JSON,
+                ConversionOptions.builder().readAheadDepth(2).build());
+        assertEquals(expected.toString("UTF-8"), readAhead.toString("UTF-8"));
+    }
+
+    @Test
+    void testConvertFromRecordWithIndex() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        int fixedLength = convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes());
+        byte[] data = Files.readAllBytes(source);
+        Path variableSource = createVariableFile(source, fixedLength);
+        List<HeaderRecordDto> variableHeaders = toVariableFormat(headers);
+        ConversionOptions options = ConversionOptions.builder().fromRecord(4).build();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        convertor.convert(source, expected, headers, GenerationType.JSON, options);
+        ByteArrayOutputStream withoutIndex = new ByteArrayOutputStream();
+        convertor.convert(
+                variableSource, withoutIndex, variableHeaders, GenerationType.JSON, options);
+        ByteArrayOutputStream withIndex = new ByteArrayOutputStream();
+        RecordIndex recordIndex = RecordIndex.build(variableSource, 3, false);
+        convertor.convert(
+                variableSource,
+                withIndex,
+                variableHeaders,
+                GenerationType.JSON,
+                options.toBuilder().recordIndex(recordIndex).build());
+
+        assertEquals(3, expected.toString("UTF-8").split("GRP_LAYOUT").length);
+        assertEquals(expected.toString("UTF-8"), withoutIndex.toString("UTF-8"));
+        assertEquals(expected.toString("UTF-8"), withIndex.toString("UTF-8"));
+        assertEquals(
+                data.length / fixedLength,
+                convertor.countRecords(variableSource, variableHeaders, options));
+    }
+
+    @Test
+    void testConvertInParallelMatchesSequential() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        ConversionOptions options = ConversionOptions.builder().threads(3).build();
+        for (GenerationType generationType : GenerationType.values()) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            convertor.convert(source, expected, headers, generationType);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            convertor.convert(source, actual, headers, generationType, options);
+            assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+
+            ByteArrayOutputStream expectedFrom = new ByteArrayOutputStream();
+            convertor.convert(
+                    source,
+                    expectedFrom,
+                    headers,
+                    generationType,
+                    ConversionOptions.builder().fromRecord(1).build());
+            ByteArrayOutputStream actualFrom = new ByteArrayOutputStream();
+            convertor.convert(
+                    source,
+                    actualFrom,
+                    headers,
+                    generationType,
+                    options.toBuilder().fromRecord(1).build());
+            assertEquals(expectedFrom.toString("UTF-8"), actualFrom.toString("UTF-8"));
+
+            Path target = Files.createTempFile("parallel", ".out");
+            target.toFile().deleteOnExit();
+            try (OutputStream os =
+                    ChannelOutputStream.open(target, 64, FlushPolicy.BUFFER_FULL)) {
+                convertor.convert(source, os, headers, generationType, options);
+            }
+            assertEquals(
+                    expected.toString("UTF-8"),
+                    new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testConvertVariableInParallelMatchesSequential() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path variableSource =
+                createVariableFile(
+                        source, convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes()));
+        List<HeaderRecordDto> variableHeaders = toVariableFormat(headers);
+        ConversionOptions options =
+                ConversionOptions.builder()
+                        .threads(2)
+                        .recordIndex(RecordIndex.build(variableSource, 1, false))
+                        .build();
+        for (GenerationType generationType : GenerationType.values()) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            convertor.convert(source, expected, headers, generationType);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            convertor.convert(variableSource, actual, variableHeaders, generationType, options);
+            assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+        }
+        ByteArrayOutputStream expectedFrom = new ByteArrayOutputStream();
+        convertor.convert(
+                source,
+                expectedFrom,
+                headers,
+                GenerationType.JSON,
+                ConversionOptions.builder().fromRecord(3).build());
+        ByteArrayOutputStream actualFrom = new ByteArrayOutputStream();
+        convertor.convert(
+                variableSource,
+                actualFrom,
+                variableHeaders,
+                GenerationType.JSON,
+                options.toBuilder().fromRecord(3).build());
+        assertEquals(expectedFrom.toString("UTF-8"), actualFrom.toString("UTF-8"));
+    }
+
+    @Test
+    void testConvertGzipSource() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path compressed = Files.createTempFile("sku", ".dat.gz");
+        compressed.toFile().deleteOnExit();
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(source, os);
+        }
+        ConversionOptions options = ConversionOptions.builder().fromRecord(2).build();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        convertor.convert(source, expected, headers, GenerationType.CSV, options);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        convertor.convert(compressed, actual, headers, GenerationType.CSV, options);
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+        assertEquals(6, convertor.countRecords(compressed, headers, options));
+    }
+
+    @Test
+    void testConvertPipedStream() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path variableSource =
+                createVariableFile(
+                        source, convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes()));
+        assertPipedMatchesFile(source, headers);
+        assertPipedMatchesFile(variableSource, toVariableFormat(headers));
+    }
+
+    /** Converts the file through a stream which, like a pipe, never reports available bytes. */
+    private void assertPipedMatchesFile(Path source, List<HeaderRecordDto> headers)
+            throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        long records = convertor.convert(source, expected, headers, GenerationType.JSON);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        assertEquals(
+                records,
+                convertor.convert(
+                        trickle(Files.readAllBytes(source), 7),
+                        actual,
+                        headers,
+                        GenerationType.JSON,
+                        ConversionOptions.builder().cache(Cache.DEFAULT).build()));
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+    }
+
+    @Test
+    void testConvertRangedSource() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path variableSource =
+                createVariableFile(
+                        source, convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes()));
+        ConversionOptions range =
+                ConversionOptions.builder().fromRecord(2).readAheadDepth(3).build();
+        assertRangedMatchesFile(source, headers, ConversionOptions.builder().build());
+        assertRangedMatchesFile(source, headers, range);
+        assertRangedMatchesFile(variableSource, toVariableFormat(headers), range);
+    }
+
+    private void assertRangedMatchesFile(
+            Path source, List<HeaderRecordDto> headers, ConversionOptions options)
+            throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        long records = convertor.convert(source, expected, headers, GenerationType.JSON, options);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (RangedSource rangedSource = new FileRangedSource(source)) {
+            assertEquals(
+                    records,
+                    convertor.convert(
+                            rangedSource, actual, headers, GenerationType.JSON, options));
+        }
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+    }
+
+    @Test
+    void testConvertSplitsMatchesWholeFile() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path variableSource =
+                createVariableFile(
+                        source, convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes()));
+        assertSplitsMatchWholeFile(source, headers);
+        assertSplitsMatchWholeFile(variableSource, toVariableFormat(headers));
+    }
+
+    private void assertSplitsMatchWholeFile(Path source, List<HeaderRecordDto> headers)
+            throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        long records = convertor.convert(source, expected, headers, GenerationType.NDJSON);
+        ConversionOptions options = ConversionOptions.builder().build();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        long converted = 0;
+        for (FileSplit split : FileSplit.of(source, 100)) {
+            ByteArrayOutputStream part = new ByteArrayOutputStream();
+            converted += convertor.convert(split, part, headers, GenerationType.NDJSON, options);
+            part.writeTo(actual);
+        }
+        assertEquals(records, converted);
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+    }
+
+    @Test
+    void testConvertRangeAndSample() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        int fixedLength = convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes());
+        byte[] bytes = Files.readAllBytes(source);
+        Path sampleSource = Files.createTempFile("sample", ".dat");
+        sampleSource.toFile().deleteOnExit();
+        try (OutputStream os = Files.newOutputStream(sampleSource)) {
+            os.write(bytes, fixedLength, fixedLength);
+            os.write(bytes, 3 * fixedLength, fixedLength);
+        }
+        Path variableSource = createVariableFile(source, fixedLength);
+        List<HeaderRecordDto> variableHeaders = toVariableFormat(headers);
+        ConversionOptions sample =
+                ConversionOptions.builder().fromRecord(1).toRecord(5).sampleEvery(2).build();
+        ConversionOptions range = ConversionOptions.builder().fromRecord(1).toRecord(4).build();
+        for (GenerationType generationType : GenerationType.values()) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            convertor.convert(sampleSource, expected, headers, generationType);
+            ByteArrayOutputStream mapped = new ByteArrayOutputStream();
+            convertor.convert(source, mapped, headers, generationType, sample);
+            assertEquals(expected.toString("UTF-8"), mapped.toString("UTF-8"));
+            ByteArrayOutputStream variable = new ByteArrayOutputStream();
+            convertor.convert(variableSource, variable, variableHeaders, generationType, sample);
+            assertEquals(expected.toString("UTF-8"), variable.toString("UTF-8"));
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            try (InputStream inputStream = Files.newInputStream(source)) {
+                convertor.convert(inputStream, stream, headers, generationType, sample);
+            }
+            assertEquals(expected.toString("UTF-8"), stream.toString("UTF-8"));
+
+            ByteArrayOutputStream expectedRange = new ByteArrayOutputStream();
+            assertEquals(
+                    3, convertor.convert(source, expectedRange, headers, generationType, range));
+            ByteArrayOutputStream parallelRange = new ByteArrayOutputStream();
+            convertor.convert(
+                    variableSource,
+                    parallelRange,
+                    variableHeaders,
+                    generationType,
+                    range.toBuilder()
+                            .threads(2)
+                            .recordIndex(RecordIndex.build(variableSource, 1, false))
+                            .build());
+            assertEquals(expectedRange.toString("UTF-8"), parallelRange.toString("UTF-8"));
+        }
+    }
+
+    @Test
+    void testResumeFromCheckpoint() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path variableSource =
+                createVariableFile(
+                        source, convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes()));
+        for (GenerationType generationType : GenerationType.values()) {
+            assertResumedMatchesUninterrupted(source, headers, generationType);
+            assertResumedMatchesUninterrupted(
+                    variableSource, toVariableFormat(headers), generationType);
+        }
+    }
+
+    private void assertResumedMatchesUninterrupted(
+            Path source, List<HeaderRecordDto> headers, GenerationType generationType)
+            throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        convertor.convert(source, expected, headers, generationType);
+        Path target = Files.createTempFile("resume", ".out");
+        target.toFile().deleteOnExit();
+        Path checkpointFile = Checkpoint.sidecarOf(target);
+        checkpointFile.toFile().deleteOnExit();
+        ConversionOptions options =
+                ConversionOptions.builder()
+                        .checkpointFile(checkpointFile)
+                        .checkpointInterval(1)
+                        .build();
+        long limit = expected.size() * 2L / 3;
+        assertThrows(
+                IOException.class,
+                () -> {
+                    try (OutputStream os =
+                            new FilterOutputStream(Files.newOutputStream(target)) {
+                                private long remaining = limit;
+
+                                @Override
+                                public void write(byte[] bytes, int offset, int length)
+                                        throws IOException {
+                                    if (length > remaining) {
+                                        out.write(bytes, offset, (int) remaining);
+                                        remaining = 0;
+                                        throw new IOException("No space left on device");
+                                    }
+                                    out.write(bytes, offset, length);
+                                    remaining -= length;
+                                }
+                            }) {
+                        convertor.convert(source, os, headers, generationType, options);
+                    }
+                });
+
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        assertTrue(checkpoint.getRecord() > 0);
+        try (OutputStream os =
+                ChannelOutputStream.openAt(
+                        target, checkpoint.getOutputPosition(), 64, FlushPolicy.FLUSH)) {
+            convertor.convert(
+                    source,
+                    os,
+                    headers,
+                    generationType,
+                    options.toBuilder().resumeFrom(checkpoint).build());
+        }
+        assertEquals(
+                expected.toString("UTF-8"),
+                new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(checkpointFile));
+    }
+
+    @Test
+    void testConvertVersionsByLength() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader()
+                        .readAllLines(
+                                ("DCL 01 V1 VB VERSION('1'), 03 VERSION CHAR(1), 03 NAME CHAR(2);\n"
+                                                + "DCL 01 V2 VB VERSION('2'), 03 VERSION CHAR(1),"
+                                                + " 03 CODE CHAR(2);\n"
+                                                + "DCL 01 V3 VB, 03 VERSION CHAR(1),"
+                                                + " 03 NAME CHAR(2), 03 MAIL CHAR(1);\n")
+                                        .getBytes(StandardCharsets.UTF_8));
+        byte[] source = {
+            0, 7, 0, 0, (byte) 0xF2, (byte) 0xC2, (byte) 0xC2,
+            0, 8, 0, 0, (byte) 0xF3, (byte) 0xC3, (byte) 0xC3, (byte) 0xC3,
+            0, 7, 0, 0, (byte) 0xF1, (byte) 0xC1, (byte) 0xC1
+        };
+        ConversionOptions options =
+                ConversionOptions.builder().versionsByLength(true).versionOffset(0).build();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertEquals(
+                3,
+                convertor.convert(
+                        new ByteArrayInputStream(source),
+                        os,
+                        headers,
+                        GenerationType.NDJSON,
+                        options));
+        assertEquals(
+                "{\"V2\" : {\"VERSION\" : \"2\",\"CODE\" : \"BB\"}}\n"
+                        + "{\"V3\" : {\"VERSION\" : \"3\",\"NAME\" : \"CC\",\"MAIL\" : \"C\"}}\n"
+                        + "{\"V1\" : {\"VERSION\" : \"1\",\"NAME\" : \"AA\"}}\n",
+                os.toString("UTF-8"));
+
+        byte[] unknown = {0, 6, 0, 0, (byte) 0xF1, (byte) 0xC1};
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        convertor.convert(
+                                new ByteArrayInputStream(unknown),
+                                new ByteArrayOutputStream(),
+                                headers,
+                                GenerationType.NDJSON,
+                                options));
+        byte[] unknownVersion = {0, 7, 0, 0, (byte) 0xF4, (byte) 0xC1, (byte) 0xC1};
+        assertEquals(
+                "No version of the layout of records of 3 bytes has the version byte 0xF4 at"
+                        + " offset 0",
+                assertThrows(
+                                IllegalArgumentException.class,
+                                () ->
+                                        convertor.convert(
+                                                new ByteArrayInputStream(unknownVersion),
+                                                new ByteArrayOutputStream(),
+                                                headers,
+                                                GenerationType.NDJSON,
+                                                options))
+                        .getMessage());
+        // without version byte, the versions of the same length can not be told apart
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        convertor.convert(
+                                new ByteArrayInputStream(source),
+                                new ByteArrayOutputStream(),
+                                headers,
+                                GenerationType.NDJSON,
+                                options.toBuilder().versionOffset(-1).build()));
+    }
+
+    /** Copies the fixed length records of the source into a temporary file with RDWs. */
+    private static Path createVariableFile(Path source, int fixedLength) throws IOException {
+        Path variableSource = Files.createTempFile("sku", ".dat");
+        variableSource.toFile().deleteOnExit();
+        Files.write(variableSource, toVariable(Files.readAllBytes(source), fixedLength));
+        return variableSource;
+    }
+
+    private static List<HeaderRecordDto> toVariableFormat(List<HeaderRecordDto> headers) {
+        return Collections.singletonList(
+                new HeaderRecordDto(
+                        HeaderRecordType.VARIABLE_FORMAT, headers.get(0).getPrimitiveTypes()));
+    }
 }
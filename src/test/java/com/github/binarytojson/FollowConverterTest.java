@@ -0,0 +1,116 @@
+package com.github.binarytojson;
+
+import static com.github.binarytojson.TestData.toVariable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.HeaderRecordType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FollowConverterTest {
+
+    private final EbcdicToAsciiConvertor convertor = new EbcdicToAsciiConvertor();
+
+    @TempDir Path directory;
+
+    @Test
+    void testFollowFixedLengthSource() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        byte[] data = Files.readAllBytes(Paths.get("src/test/resources/data/sku.dat"));
+        int fixedLength = convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes());
+        assertFollowedMatchesConverted(data, headers, fixedLength);
+    }
+
+    @Test
+    void testFollowVariableLengthSource() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        byte[] data = Files.readAllBytes(Paths.get("src/test/resources/data/sku.dat"));
+        int fixedLength = convertor.calculateFixedLength(headers.get(0).getPrimitiveTypes());
+        assertFollowedMatchesConverted(
+                toVariable(data, fixedLength),
+                Collections.singletonList(
+                        new HeaderRecordDto(
+                                HeaderRecordType.VARIABLE_FORMAT,
+                                headers.get(0).getPrimitiveTypes())),
+                fixedLength + 4);
+    }
+
+    @Test
+    void testFollowFailsOnTruncatedSource() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        byte[] data = Files.readAllBytes(Paths.get("src/test/resources/data/sku.dat"));
+        Path source = directory.resolve("feed.dat");
+        Files.write(source, data);
+        try (FollowConverter followConverter = open(source, headers)) {
+            followConverter.convertAppended();
+            Files.write(source, Arrays.copyOf(data, data.length / 2));
+            assertThrows(IOException.class, followConverter::convertAppended);
+        }
+    }
+
+    /**
+     * Appends the data in pieces which split records, restarting the follower in between, and
+     * compares the output with the conversion of the whole data.
+     */
+    private void assertFollowedMatchesConverted(
+            byte[] data, List<HeaderRecordDto> headers, int recordLength) throws IOException {
+        Path source = directory.resolve("feed" + recordLength + ".dat");
+        Path whole = directory.resolve("whole" + recordLength + ".dat");
+        Files.write(whole, data);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        long records = convertor.convert(whole, expected, headers, GenerationType.NDJSON);
+
+        int firstPart = recordLength * 2 + recordLength / 2;
+        int secondPart = data.length - recordLength / 3;
+        Files.write(source, Arrays.copyOf(data, firstPart));
+        try (FollowConverter followConverter = open(source, headers)) {
+            assertEquals(2, followConverter.convertAppended());
+            assertEquals(0, followConverter.convertAppended());
+            append(source, Arrays.copyOfRange(data, firstPart, secondPart));
+            assertEquals(records - 3, followConverter.convertAppended());
+        }
+        append(source, Arrays.copyOfRange(data, secondPart, data.length));
+        try (FollowConverter followConverter = open(source, headers)) {
+            assertEquals(records - 1, followConverter.getState().getRecord());
+            assertEquals(1, followConverter.convertAppended());
+            assertEquals(records, followConverter.getState().getRecord());
+        }
+        String output =
+                new String(
+                        Files.readAllBytes(directory.resolve("feed" + recordLength + ".ndjson")),
+                        StandardCharsets.UTF_8);
+        assertEquals(expected.toString("UTF-8"), output);
+        assertEquals(records, output.split("\n").length);
+    }
+
+    private FollowConverter open(Path source, List<HeaderRecordDto> headers) throws IOException {
+        String name = source.getFileName().toString().replace(".dat", ".ndjson");
+        return new FollowConverter(
+                convertor,
+                source,
+                directory.resolve(name),
+                headers,
+                ConversionOptions.builder().build(),
+                64);
+    }
+
+    private static void append(Path source, byte[] bytes) throws IOException {
+        Files.write(source, bytes, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.binarytojson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.type.HeaderRecordDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LandingZoneDaemonTest {
+
+    private final EbcdicToAsciiConvertor convertor = new EbcdicToAsciiConvertor();
+
+    @TempDir Path directory;
+
+    @Test
+    void testReadRules() throws IOException {
+        Files.copy(
+                Paths.get("src/test/resources/layout/sku.txt"), directory.resolve("sku.txt"));
+        Path rulesFile = directory.resolve("rules.txt");
+        Files.write(
+                rulesFile,
+                Arrays.asList("# layouts of the drop directory", "", "SKU*.dat = sku.txt"),
+                StandardCharsets.UTF_8);
+
+        List<LayoutRule> rules = LayoutRule.read(rulesFile, new LayoutReader());
+
+        assertEquals(1, rules.size());
+        assertEquals("SKU*.dat", rules.get(0).getPattern());
+        assertTrue(rules.get(0).matches(Paths.get("drop", "SKU_20240101.dat")));
+        assertFalse(rules.get(0).matches(Paths.get("drop", "ORDERS.dat")));
+        assertEquals(
+                rules.get(0), LayoutRule.find(rules, Paths.get("drop", "SKU_20240101.dat")));
+    }
+
+    @Test
+    void testConvertArrivingFiles() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path source = Paths.get("src/test/resources/data/sku.dat");
+        Path drop = Files.createDirectory(directory.resolve("drop"));
+        Path target = directory.resolve("target");
+        Files.copy(source, drop.resolve("SKU_1.dat"));
+        Files.write(drop.resolve("ORDERS.dat"), new byte[] {1, 2, 3});
+        LandingZoneOptions options =
+                LandingZoneOptions.builder()
+                        .dropDirectory(drop)
+                        .targetDirectory(target)
+                        .jobs(2)
+                        .stablePeriod(0)
+                        .build();
+
+        try (LandingZoneDaemon daemon =
+                new LandingZoneDaemon(
+                        convertor,
+                        Collections.singletonList(new LayoutRule("SKU*.dat", headers)),
+                        options)) {
+            // the first scan records the size of the files, the second finds them unchanged
+            assertEquals(0, daemon.scan());
+            assertEquals(2, daemon.scan());
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        convertor.convert(source, expected, headers, GenerationType.JSON);
+        assertEquals(
+                expected.toString("UTF-8"),
+                new String(Files.readAllBytes(target.resolve("SKU_1.dat.json")), "UTF-8"));
+        assertTrue(Files.exists(drop.resolve("done").resolve("SKU_1.dat")));
+        assertTrue(Files.exists(drop.resolve("error").resolve("ORDERS.dat")));
+        assertFalse(Files.exists(drop.resolve("SKU_1.dat")));
+        assertFalse(Files.exists(drop.resolve("ORDERS.dat")));
+    }
+
+    @Test
+    void testFileWhichCouldNotBeMovedIsNotConvertedAgain() throws IOException {
+        List<HeaderRecordDto> headers =
+                new LayoutReader().readAllLinesFromFile("src/test/resources/layout/sku.txt");
+        Path drop = Files.createDirectory(directory.resolve("drop"));
+        Path target = directory.resolve("target");
+        Path done = directory.resolve("done");
+        Files.copy(Paths.get("src/test/resources/data/sku.dat"), drop.resolve("SKU_1.dat"));
+        LandingZoneOptions options =
+                LandingZoneOptions.builder()
+                        .dropDirectory(drop)
+                        .targetDirectory(target)
+                        .doneDirectory(done)
+                        .stablePeriod(0)
+                        .build();
+
+        try (LandingZoneDaemon daemon =
+                new LandingZoneDaemon(
+                        convertor,
+                        Collections.singletonList(new LayoutRule("SKU*.dat", headers)),
+                        options)) {
+            // a file in place of the done directory makes the move fail after the conversion
+            Files.delete(done);
+            Files.write(done, new byte[0]);
+            assertEquals(0, daemon.scan());
+            assertEquals(1, daemon.scan());
+            daemon.close();
+            // a file submitted again would be rejected by the stopped threads
+            assertEquals(0, daemon.scan());
+            assertEquals(0, daemon.scan());
+        }
+
+        assertTrue(Files.exists(drop.resolve("SKU_1.dat")));
+        assertFalse(Files.exists(target.resolve("SKU_1.dat.json")));
+    }
+}
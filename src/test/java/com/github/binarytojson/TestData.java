@@ -0,0 +1,126 @@
+package com.github.binarytojson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Fixtures shared by the tests of the readers, the sources and the conversions. */
+public final class TestData {
+
+    private TestData() {}
+
+    /**
+     * Creates bytes counting up from 0, wrapping at 256.
+     *
+     * @param length the number of bytes
+     * @return the bytes
+     */
+    public static byte[] sequence(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    /**
+     * Creates a record or block descriptor word.
+     *
+     * @param length the length of the record or block, including the descriptor
+     * @param segment the segment control of a spanned record, 0 for a whole record
+     * @return the descriptor
+     */
+    public static byte[] descriptor(int length, int segment) {
+        return new byte[] {(byte) (length >> 8), (byte) length, (byte) segment, 0};
+    }
+
+    /**
+     * Concatenates byte arrays.
+     *
+     * @param parts the arrays
+     * @return the bytes of the arrays one after the other
+     * @throws IOException never, declared by the output stream
+     */
+    public static byte[] join(byte[]... parts) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            os.write(part);
+        }
+        return os.toByteArray();
+    }
+
+    /**
+     * Prefixes every fixed length record with its record descriptor word.
+     *
+     * @param data the fixed length records
+     * @param fixedLength the length of the records
+     * @return the variable length records
+     */
+    public static byte[] toVariable(byte[] data, int fixedLength) {
+        ByteArrayOutputStream variable = new ByteArrayOutputStream();
+        for (int offset = 0; offset < data.length; offset += fixedLength) {
+            variable.write(descriptor(fixedLength + 4, 0), 0, 4);
+            variable.write(data, offset, fixedLength);
+        }
+        return variable.toByteArray();
+    }
+
+    /**
+     * Reads a stream to its end, 7 bytes at a time so that reads end inside its buffers.
+     *
+     * @param inputStream the stream
+     * @return the bytes read
+     * @throws IOException if the stream could not be read
+     */
+    public static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int read;
+        while ((read = inputStream.read(buffer, 0, buffer.length)) >= 0) {
+            os.write(buffer, 0, read);
+        }
+        return os.toByteArray();
+    }
+
+    /**
+     * Copies records whose buffers may be reused by their reader.
+     *
+     * @param records the records
+     * @return the copies of the records
+     */
+    public static List<byte[]> copy(Iterable<ByteBuffer> records) {
+        List<byte[]> copies = new ArrayList<>();
+        for (ByteBuffer record : records) {
+            byte[] bytes = new byte[record.remaining()];
+            record.get(bytes);
+            copies.add(bytes);
+        }
+        return copies;
+    }
+
+    /**
+     * Creates a stream which, like a pipe, returns few bytes per read and never reports available
+     * bytes.
+     *
+     * @param data the bytes of the stream
+     * @param chunk the maximal number of bytes returned by a read
+     * @return the stream
+     */
+    public static InputStream trickle(byte[] data, int chunk) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.binarytojson.layout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.github.binarytojson.type.HeaderRecordDto;
+import com.github.binarytojson.type.PrimitiveType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingLayoutReaderTest {
+
+    private static final String LAYOUT =
+            "DCL 01 ORDER VB,\n"
+                    + "3 ID CHAR(4),\n"
+                    + "3 LINE(2),\n"
+                    + "5 SKU CHAR(3),\n"
+                    + "5 QTY FIXED(5),\n"
+                    + "3 CNT PIC'9',\n"
+                    + "3 NOTE OCCURS:CNT,\n"
+                    + "5 TEXT CHAR(10);\n"
+                    + "DCL 01 TRAILER VB VERSION('1'),\n"
+                    + "3 TOTAL FIXED(9,2) /* amount */,\n"
+                    + "3 BODY UNION:TOTAL,\n"
+                    + "5 TEXT CHAR(2) WHEN:'0';\n";
+
+    @TempDir Path directory;
+
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    private CachingLayoutReader reader(String libraryVersion) {
+        return new CachingLayoutReader(directory.resolve("cache"), libraryVersion) {
+            @Override
+            public List<HeaderRecordDto> readAllLines(byte[] content) {
+                parsed.incrementAndGet();
+                return super.readAllLines(content);
+            }
+        };
+    }
+
+    private Path writeLayout() throws IOException {
+        Path layout = directory.resolve("order.txt");
+        Files.write(layout, LAYOUT.getBytes(StandardCharsets.UTF_8));
+        return layout;
+    }
+
+    private List<Path> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("cache"))) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static void assertSameLayout(
+            List<HeaderRecordDto> expected, List<HeaderRecordDto> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getRecordType(), actual.get(i).getRecordType());
+            assertEquals(expected.get(i).getVersion(), actual.get(i).getVersion());
+            assertEquals(expected.get(i).getPrimitiveTypes(), actual.get(i).getPrimitiveTypes());
+        }
+    }
+
+    @Test
+    void testReadFromCache() throws IOException {
+        Path layout = writeLayout();
+        List<HeaderRecordDto> expected = new LayoutReader().readAllLinesFromFile(layout.toString());
+
+        List<HeaderRecordDto> first = reader("1.0").readAllLinesFromFile(layout.toString());
+        assertEquals(1, parsed.get());
+        assertEquals(1, cacheFiles().size());
+        assertSameLayout(expected, first);
+
+        List<HeaderRecordDto> cached = reader("1.0").readAllLinesFromFile(layout.toString());
+        assertEquals(1, parsed.get());
+        assertSameLayout(expected, cached);
+        // an array is cached as one type with its dimensions
+        PrimitiveType line = cached.get(0).getPrimitiveTypes().get(0).getFields().get(1);
+        assertEquals("LINE", line.getName());
+        assertEquals(2, line.getArray1());
+        assertEquals(2, line.getFields().size());
+        assertEquals("1", cached.get(1).getVersion());
+    }
+
+    @Test
+    void testInvalidCacheIsParsedAgain() throws IOException {
+        Path layout = writeLayout();
+        reader("1.0").readAllLinesFromFile(layout.toString());
+        Path cacheFile = cacheFiles().get(0);
+        Files.write(cacheFile, new byte[] {1, 2, 3});
+
+        List<HeaderRecordDto> headers = reader("1.0").readAllLinesFromFile(layout.toString());
+        assertEquals(2, parsed.get());
+        assertSameLayout(new LayoutReader().readAllLinesFromFile(layout.toString()), headers);
+        assertSameLayout(headers, CachingLayoutReader.read(cacheFile));
+    }
+
+    @Test
+    void testKeyDependsOnContentAndVersion() {
+        byte[] content = LAYOUT.getBytes(StandardCharsets.UTF_8);
+        Path cacheFile = reader("1.0").cacheFileOf(content);
+        assertEquals(cacheFile, reader("1.0").cacheFileOf(content.clone()));
+        assertNotEquals(cacheFile, reader("1.1").cacheFileOf(content));
+        assertNotEquals(cacheFile, reader("1.0").cacheFileOf((LAYOUT + " ").getBytes()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.binarytojson.layout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.binarytojson.exception.LayoutSyntaxException;
+import com.github.binarytojson.type.DataType;
+import com.github.binarytojson.type.HeaderRecordType;
+import com.github.binarytojson.type.PrimitiveType;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LayoutParserTest {
+
+    private static List<LayoutParser.Record> parse(String layout) {
+        return new LayoutParser(layout).parse();
+    }
+
+    @Test
+    void testParseRecords() {
+        List<LayoutParser.Record> records =
+                parse(
+                        "\uFEFF/* orders\n   and totals */\n"
+                                + "DCL 01 ORDER (2) VB, 03 ID CHAR(4), 03 AMT FIXED DEC(7,2),\n"
+                                + "  03 FLAGS BIT(12)   /* no comma */\n"
+                                + "  03 CNT FIXED BIN(15),\n"
+                                + "  03 LIST(3) PIC'99',\n"
+                                + "  03 GRID(2,3),\n"
+                                + "    05 NOTE OCCURS : CNT ;\n"
+                                + "0DCL 01 TOTAL FB,\n"
+                                + "  03 SUM FIXED(9,2);\n");
+        assertEquals(2, records.size());
+
+        LayoutParser.Record order = records.get(0);
+        assertEquals(HeaderRecordType.VARIABLE_FORMAT, order.getRecordType());
+        assertEquals(2, order.getCount());
+        List<PrimitiveType> types = order.getTypes();
+        assertEquals(8, types.size());
+        assertEquals("ORDER", types.get(0).getName());
+        assertEquals(DataType.CHAR, types.get(1).getDataType());
+        assertEquals(4, types.get(2).getLength());
+        assertEquals(2, types.get(2).getScaleFactor());
+        assertEquals(12, types.get(3).getNumberOfBits());
+        assertEquals(DataType.FIXED_BINARY, types.get(4).getDataType());
+        assertEquals(2, types.get(4).getLength());
+        assertEquals("LIST", types.get(5).getName());
+        assertEquals(3, types.get(5).getArray1());
+        assertEquals(2, types.get(5).getLength());
+        assertEquals(2, types.get(6).getArray1());
+        assertEquals(3, types.get(6).getArray2());
+        assertEquals(6, types.get(6).getOccurrences());
+        assertEquals("CNT", types.get(7).getAmount());
+
+        assertEquals(HeaderRecordType.FIXED_FORMAT, records.get(1).getRecordType());
+        assertEquals(1, records.get(1).getCount());
+    }
+
+    @Test
+    void testParsePicture() {
+        List<PrimitiveType> types =
+                parse("DCL 01 R, 03 A PIC'9V99', 03 B PIC'(5)9V(2)9', 03 C OCCURS:A(1);")
+                        .get(0)
+                        .getTypes();
+        assertEquals(3, types.get(1).getDigitsCount());
+        assertEquals(2, types.get(1).getScaleFactor());
+        assertEquals(7, types.get(2).getLength());
+        assertEquals(2, types.get(2).getScaleFactor());
+        assertEquals("A(1)", types.get(3).getAmount());
+    }
+
+    @Test
+    void testParseUnion() {
+        List<PrimitiveType> types =
+                parse(
+                        "DCL 01 R, 03 K CHAR(1), 03 U UNION:K, 05 A WHEN:'A ', 05 B WHEN:2,\n"
+                                + "  05 C CHAR(3), 03 P UNION, 05 D CHAR(1);")
+                        .get(0)
+                        .getTypes();
+        assertEquals("K", types.get(2).getSelector());
+        assertTrue(types.get(2).isUnion());
+        assertEquals("A", types.get(3).getSelectorValue());
+        assertEquals("2", types.get(4).getSelectorValue());
+        assertNull(types.get(5).getSelectorValue());
+        // a union without selector keeps its fields one after the other
+        assertFalse(types.get(6).isUnion());
+    }
+
+    @Test
+    void testParseVersion() {
+        List<LayoutParser.Record> records =
+                parse("DCL 01 A VB VERSION('1'), 03 VERSION CHAR(1);\nDCL 01 B VB, 03 V CHAR(1);");
+        assertEquals("1", records.get(0).getVersion());
+        assertEquals(HeaderRecordType.VARIABLE_FORMAT, records.get(0).getRecordType());
+        assertEquals(2, records.get(0).getTypes().size());
+        assertNull(records.get(1).getVersion());
+    }
+
+    @Test
+    void testIgnoreAfterColumn72() {
+        String layout =
+                "DCL 01 R,\n   03 A CHAR(1),"
+                        + String.join("", Collections.nCopies(60, " "))
+                        + "03 B CHAR(1),\n";
+        assertEquals(2, parse(layout).get(0).getTypes().size());
+    }
+
+    @Test
+    void testSyntaxErrors() {
+        assertError("DCL 01 R,\n  03 A CHAR(X),", 2, 12);
+        assertError("DCL 01 R,\n  03 A CHAR(1) BIT(3),", 2, 16);
+        assertError("DCL 01 R,\n  03 A PIC'9X9',", 2, 13);
+        assertError("DCL 01 R,\n  /* open\n  03 A CHAR(1),", 2, 3);
+        assertError("DCL 01 R,\n  03 A CHAR(1)),", 2, 15);
+        assertError("DCL 01 R,\n  03 A CHAR(1,\n", 2, 12);
+        assertError("DCL 01 R,\n  03 ;", 2, 3);
+        assertError("DCL 01 R,\n  03 U UNION: ,", 2, 8);
+        assertError("DCL 01 R,\n  03 A CHAR(1) UNION:K,", 2, 16);
+        assertError("DCL 01 R,\n  03 V WHEN 'A',", 2, 8);
+        assertError("DCL 01 R VERSION('AB'),", 1, 18);
+    }
+
+    private static void assertError(String layout, int line, int column) {
+        LayoutSyntaxException e = assertThrows(LayoutSyntaxException.class, () -> parse(layout));
+        assertEquals(line, e.getLine(), e.getMessage());
+        assertEquals(column, e.getColumn(), e.getMessage());
+        assertTrue(e.getMessage().startsWith("Line " + line + ", column " + column + ": "));
+    }
+}
@@ -25,6 +25,7 @@ class LayoutReaderTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void testNormalizeLine() {
         String input = "   DCL (123) /* comment */  ";
         String expected = "DCL (123)";
@@ -33,6 +34,7 @@ class LayoutReaderTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void testReplaceMultilineComments() {
         String input = "/* This is a comment\nline 1 */\nAnother line /* comment */";
         List<String> expected =
@@ -42,6 +44,7 @@ class LayoutReaderTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void testRemoveEmptyLines() {
         String input = "\n\nline 1\n\nline 2\n";
         String expected = "line 1\nline 2\n";
@@ -50,12 +53,14 @@ class LayoutReaderTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void testIsHeaderRecord() {
         assertTrue(layoutReader.isHeaderRecord("DCL RECORD"));
         assertFalse(layoutReader.isHeaderRecord("Non-header line"));
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void testSplitByRecord() {
         List<String> input = Arrays.asList("DCL HEADER 1", "line 1", "DCL HEADER 2", "line 2");
         List<List<String>> expected =
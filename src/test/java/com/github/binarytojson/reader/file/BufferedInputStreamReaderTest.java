@@ -0,0 +1,41 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.TestData.trickle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BufferedInputStreamReaderTest {
+
+    private static List<byte[]> readAll(byte[] data, int fixedLength) {
+        BufferedInputStreamReader reader = new BufferedInputStreamReader();
+        Iterable<byte[]> records =
+                reader.readBinaryFile(new BufferedInputStream(trickle(data, 1), 2));
+        reader.setFixedLength(fixedLength);
+        List<byte[]> result = new ArrayList<>();
+        for (byte[] record : records) {
+            result.add(record.clone());
+        }
+        return result;
+    }
+
+    @Test
+    void testReadFixedLengthRecordsFromPipe() {
+        List<byte[]> records = readAll(new byte[] {1, 2, 3, 4, 5, 6}, 3);
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[] {1, 2, 3}, records.get(0));
+        assertArrayEquals(new byte[] {4, 5, 6}, records.get(1));
+    }
+
+    @Test
+    void testReadVariableLengthRecordsFromPipe() {
+        List<byte[]> records = readAll(new byte[] {0, 6, 0, 0, 1, 2, 0, 5, 0, 0, 3}, 0);
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[] {1, 2}, records.get(0));
+        assertArrayEquals(new byte[] {3}, records.get(1));
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.binarytojson.reader.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+class GzipSourceTest {
+
+    @Test
+    void testOpenCompressedFile() throws IOException {
+        byte[] data = new byte[300000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7);
+        }
+        Path path = Files.createTempFile("gzip", ".gz");
+        path.toFile().deleteOnExit();
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(path))) {
+            os.write(data);
+        }
+        assertTrue(GzipSource.isGzip(path));
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        try (InputStream inputStream = GzipSource.open(path, 1)) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                inflated.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(data, inflated.toByteArray());
+    }
+
+    @Test
+    void testPlainFileIsNotGzip() throws IOException {
+        Path path = Files.createTempFile("plain", ".dat");
+        path.toFile().deleteOnExit();
+        // binary records may start with the gzip header, only the extension tells a gzip file
+        Files.write(path, new byte[] {0x1f, (byte) 0x8b, 0x08, 0x00});
+        assertFalse(GzipSource.isGzip(path));
+    }
+
+    @Test
+    void testInflateIfGzip() throws IOException {
+        byte[] data = {0x1f, 0x00, 0x01, 0x02};
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream os = new GZIPOutputStream(compressed)) {
+            os.write(data);
+        }
+        for (byte[] source : new byte[][] {data, compressed.toByteArray()}) {
+            assertInflated(data, source);
+        }
+        // the magic number alone is not a gzip header
+        byte[] magic = {0x1f, (byte) 0x8b, 0x01, 0x02};
+        assertInflated(magic, magic);
+        byte[] reserved = {0x1f, (byte) 0x8b, 0x08, (byte) 0x80};
+        assertInflated(reserved, reserved);
+    }
+
+    private static void assertInflated(byte[] data, byte[] source) throws IOException {
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        try (InputStream inputStream =
+                GzipSource.inflateIfGzip(new ByteArrayInputStream(source), 1)) {
+            int read;
+            while ((read = inputStream.read()) >= 0) {
+                inflated.write(read);
+            }
+        }
+        assertArrayEquals(data, inflated.toByteArray());
+    }
+}
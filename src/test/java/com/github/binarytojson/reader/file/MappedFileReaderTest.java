@@ -0,0 +1,84 @@
+package com.github.binarytojson.reader.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+class MappedFileReaderTest {
+
+    private static Path createFile(byte[] content) throws IOException {
+        Path path = Files.createTempFile("mapped", ".dat");
+        path.toFile().deleteOnExit();
+        Files.write(path, content);
+        return path;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void testReadRecordsAcrossChunks() throws IOException {
+        byte[] content = new byte[20];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        // chunk of 10 bytes is aligned down to 8 bytes, so records never cross a chunk
+        try (MappedFileReader reader = new MappedFileReader(createFile(content), 10)) {
+            reader.setFixedLength(4);
+            List<byte[]> records = new ArrayList<>();
+            for (ByteBuffer record : reader.readBinaryFile()) {
+                records.add(toBytes(record));
+            }
+            assertEquals(5, records.size());
+            assertArrayEquals(new byte[] {0, 1, 2, 3}, records.get(0));
+            assertArrayEquals(new byte[] {8, 9, 10, 11}, records.get(2));
+            assertArrayEquals(new byte[] {16, 17, 18, 19}, records.get(4));
+        }
+    }
+
+    @Test
+    void testReadTruncatedLastRecord() throws IOException {
+        try (MappedFileReader reader = new MappedFileReader(createFile(new byte[] {1, 2, 3}))) {
+            reader.setFixedLength(2);
+            Iterator<ByteBuffer> iterator = reader.readBinaryFile().iterator();
+            assertArrayEquals(new byte[] {1, 2}, toBytes(iterator.next()));
+            assertArrayEquals(new byte[] {3}, toBytes(iterator.next()));
+            assertFalse(iterator.hasNext());
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
+
+    @Test
+    void testSplitAlignedToGroups() throws IOException {
+        try (MappedFileReader reader = new MappedFileReader(createFile(new byte[21]))) {
+            reader.setFixedLength(2);
+            List<RecordRange> ranges = reader.split(1, 3, 2);
+            assertEquals(3, ranges.size());
+            assertEquals(new RecordRange(1, 3, 2, 8), ranges.get(0));
+            assertEquals(new RecordRange(4, 4, 8, 16), ranges.get(1));
+            assertEquals(new RecordRange(8, 3, 16, 21), ranges.get(2));
+            assertEquals(1, reader.split(0, 20, 11).size());
+        }
+    }
+
+    @Test
+    void testRejectVariableLength() throws IOException {
+        try (MappedFileReader reader = new MappedFileReader(createFile(new byte[] {1}))) {
+            assertThrows(IllegalArgumentException.class, () -> reader.setFixedLength(0));
+        }
+    }
+}
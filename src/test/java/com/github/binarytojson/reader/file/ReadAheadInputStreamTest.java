@@ -0,0 +1,61 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.TestData.readAll;
+import static com.github.binarytojson.TestData.sequence;
+import static com.github.binarytojson.TestData.trickle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+
+class ReadAheadInputStreamTest {
+
+    @Test
+    void testReadAcrossBuffers() throws IOException {
+        byte[] data = sequence(1000);
+        try (ReadAheadInputStream inputStream =
+                new ReadAheadInputStream(new ByteArrayInputStream(data), 16, 2)) {
+            assertEquals(0, inputStream.read());
+            assertEquals(10, inputStream.skip(10));
+            byte[] rest = readAll(inputStream);
+            assertEquals(data.length - 11, rest.length);
+            assertEquals(11, rest[0]);
+            assertEquals((byte) 999, rest[rest.length - 1]);
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    void testReadFromSlowSource() throws IOException {
+        byte[] data = sequence(100);
+        try (ReadAheadInputStream inputStream = new ReadAheadInputStream(trickle(data, 3), 64, 1)) {
+            assertArrayEquals(data, readAll(inputStream));
+        }
+    }
+
+    @Test
+    void testErrorAfterReadBytes() throws IOException {
+        InputStream failing =
+                new InputStream() {
+                    private int count;
+
+                    @Override
+                    public int read() throws IOException {
+                        if (count == 5) {
+                            throw new IOException("Disk error");
+                        }
+                        return count++;
+                    }
+                };
+        try (ReadAheadInputStream inputStream = new ReadAheadInputStream(failing, 64, 2)) {
+            byte[] buffer = new byte[64];
+            assertEquals(5, inputStream.read(buffer, 0, buffer.length));
+            IOException exception = assertThrows(IOException.class, inputStream::read);
+            assertEquals("Disk error", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.binarytojson.reader.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class RecordBufferPoolTest {
+
+    @Test
+    void testReuseReleasedBuffers() {
+        RecordBufferPool pool = new RecordBufferPool(4, 1);
+        byte[] first = pool.acquire();
+        byte[] second = pool.acquire();
+        assertEquals(4, first.length);
+        assertNotSame(first, second);
+        pool.release(first);
+        pool.release(second);
+        pool.release(new byte[3]);
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.binarytojson.reader.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RecordIndexTest {
+
+    /** Creates a file of ten records, record i holds i + 1 data bytes. */
+    private static Path createFile() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        for (int i = 0; i < 10; i++) {
+            os.write(new byte[] {0, (byte) (i + 5), 0, 0});
+            os.write(new byte[i + 1]);
+        }
+        Path path = Files.createTempFile("index", ".dat");
+        path.toFile().deleteOnExit();
+        Path sidecar = RecordIndex.sidecarOf(path);
+        sidecar.toFile().deleteOnExit();
+        Files.write(path, os.toByteArray());
+        return path;
+    }
+
+    /** Offset of record i in the file created by {@link #createFile()}. */
+    private static long offsetOf(int record) {
+        return 4L * record + (long) record * (record + 1) / 2;
+    }
+
+    @Test
+    void testLocate() throws IOException {
+        RecordIndex index = RecordIndex.build(createFile(), 3, false);
+        assertEquals(10, index.getRecordCount());
+        assertEquals(offsetOf(10), index.getFileLength());
+        RecordRange range = index.locate(7);
+        assertEquals(6, range.getFirstRecord());
+        assertEquals(offsetOf(6), range.getStartOffset());
+        assertEquals(4, range.getRecordCount());
+        assertEquals(0, index.locate(0).getStartOffset());
+    }
+
+    @Test
+    void testSplit() throws IOException {
+        RecordIndex index = RecordIndex.build(createFile(), 1, false);
+        List<RecordRange> ranges = index.split(2);
+        assertEquals(2, ranges.size());
+        assertEquals(0, ranges.get(0).getStartOffset());
+        assertEquals(ranges.get(0).getEndOffset(), ranges.get(1).getStartOffset());
+        assertEquals(offsetOf(10), ranges.get(1).getEndOffset());
+        assertEquals(10, ranges.get(0).getRecordCount() + ranges.get(1).getRecordCount());
+        assertEquals(offsetOf(7), ranges.get(1).getStartOffset());
+    }
+
+    @Test
+    void testSplitAlignedToGroups() throws IOException {
+        RecordIndex index = RecordIndex.build(createFile(), 3, false);
+        List<RecordRange> ranges = index.split(1, 3, 4);
+        assertEquals(2, ranges.size());
+        assertEquals(new RecordRange(1, 7, 0, offsetOf(9)), ranges.get(0));
+        assertEquals(new RecordRange(8, 2, offsetOf(6), offsetOf(10)), ranges.get(1));
+    }
+
+    @Test
+    void testWriteAndReadSidecar() throws IOException {
+        Path path = createFile();
+        assertNull(RecordIndex.readSidecar(path));
+        RecordIndex.build(path, 4, false).write(RecordIndex.sidecarOf(path));
+        RecordIndex index = RecordIndex.readSidecar(path);
+        assertNotNull(index);
+        assertEquals(10, index.getRecordCount());
+        assertEquals(4, index.getInterval());
+        assertEquals(8, index.locate(9).getFirstRecord());
+        assertEquals(offsetOf(8), index.locate(9).getStartOffset());
+        Files.write(path, new byte[] {0, 5, 0, 0, 1}, StandardOpenOption.APPEND);
+        assertNull(RecordIndex.readSidecar(path));
+    }
+}
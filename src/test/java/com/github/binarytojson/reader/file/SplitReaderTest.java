@@ -0,0 +1,116 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.TestData.copy;
+import static com.github.binarytojson.TestData.descriptor;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SplitReaderTest {
+
+    @TempDir Path directory;
+
+    /** Random records, every fifth one spanned over three segments, optionally in blocks. */
+    private static byte[] variableFile(boolean blockDescriptors) throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        for (int i = 0; i < 300; i++) {
+            int segments = i % 5 == 0 ? 3 : 1;
+            for (int segment = 0; segment < segments; segment++) {
+                byte[] data = new byte[1 + random.nextInt(60)];
+                random.nextBytes(data);
+                int control = segments == 1 ? 0 : segment == 0 ? 1 : segment == 2 ? 2 : 3;
+                block.write(descriptor(data.length + 4, control));
+                block.write(data);
+                if (!blockDescriptors || random.nextInt(3) == 0) {
+                    if (blockDescriptors) {
+                        file.write(descriptor(block.size() + 4, 0));
+                    }
+                    block.writeTo(file);
+                    block.reset();
+                }
+            }
+        }
+        if (block.size() > 0) {
+            file.write(descriptor(block.size() + 4, 0));
+            block.writeTo(file);
+        }
+        return file.toByteArray();
+    }
+
+    private List<byte[]> readSplits(Path path, long splitSize, int fixedLength, boolean bdw)
+            throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        for (FileSplit split : FileSplit.of(path, splitSize)) {
+            try (SplitReader splitReader = new SplitReader(split, 16, bdw)) {
+                splitReader.setFixedLength(fixedLength);
+                records.addAll(copy(splitReader.readRecords()));
+            }
+        }
+        return records;
+    }
+
+    private static void assertRecordsEqual(List<byte[]> expected, List<byte[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "record " + i);
+        }
+    }
+
+    @Test
+    void testSplitsOfVariableLengthFile() throws IOException {
+        for (boolean blockDescriptors : new boolean[] {false, true}) {
+            byte[] data = variableFile(blockDescriptors);
+            Path path = directory.resolve("variable" + blockDescriptors + ".dat");
+            Files.write(path, data);
+            List<byte[]> expected =
+                    copy(
+                            new VariableRecordReader(
+                                            new ByteArrayInputStream(data), 64, blockDescriptors)
+                                    .readBinaryFile());
+            assertEquals(300, expected.size());
+            for (long splitSize : new long[] {3, 7, 100, 1000, 4096, data.length}) {
+                assertRecordsEqual(
+                        expected, readSplits(path, splitSize, 0, blockDescriptors));
+            }
+        }
+    }
+
+    @Test
+    void testSplitsOfFixedLengthFile() throws IOException {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        Path path = directory.resolve("fixed.dat");
+        Files.write(path, data);
+        List<byte[]> records = readSplits(path, 7, 10, false);
+        assertEquals(10, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i * 10, records.get(i)[0]);
+        }
+    }
+
+    @Test
+    void testSplitAlignsFixedLengthGroups() throws IOException {
+        Path path = directory.resolve("groups.dat");
+        Files.write(path, new byte[100]);
+        try (SplitReader splitReader = new SplitReader(new FileSplit(path, 25, 50), 16, false)) {
+            splitReader.setFixedLength(10);
+            splitReader.setGroupSize(2);
+            assertEquals(2, copy(splitReader.readRecords()).size());
+            assertEquals(40, splitReader.getStartOffset());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.TestData.descriptor;
+import static com.github.binarytojson.TestData.join;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TailScannerTest {
+
+    @TempDir Path directory;
+
+    private RecordRange scan(byte[] data, int groupSize, boolean blockDescriptors)
+            throws IOException {
+        Path file = directory.resolve("tail.dat");
+        Files.write(file, data);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return TailScanner.scan(channel, 10, 0, groupSize, blockDescriptors);
+        }
+    }
+
+    @Test
+    void testScanStopsBeforeTruncatedRecord() throws IOException {
+        byte[] data =
+                join(
+                        descriptor(6, 0),
+                        new byte[] {1, 2},
+                        descriptor(5, 0),
+                        new byte[] {3},
+                        descriptor(8, 0),
+                        new byte[] {4, 5});
+        assertEquals(new RecordRange(10, 2, 0, 11), scan(data, 1, false));
+        assertEquals(new RecordRange(10, 2, 0, 11), scan(data, 2, false));
+        assertEquals(new RecordRange(10, 0, 0, 0), scan(data, 3, false));
+        assertEquals(new RecordRange(10, 1, 0, 6), scan(Arrays.copyOf(data, 8), 1, false));
+    }
+
+    @Test
+    void testScanWaitsForLastSegment() throws IOException {
+        byte[] data =
+                join(
+                        descriptor(5, 0),
+                        new byte[] {1},
+                        descriptor(5, 1),
+                        new byte[] {2},
+                        descriptor(5, 3),
+                        new byte[] {3});
+        assertEquals(new RecordRange(10, 1, 0, 5), scan(data, 1, false));
+        byte[] complete = join(data, descriptor(5, 2), new byte[] {4});
+        assertEquals(new RecordRange(10, 2, 0, 20), scan(complete, 1, false));
+    }
+
+    @Test
+    void testScanCountsWholeBlocks() throws IOException {
+        byte[] firstBlock =
+                join(
+                        descriptor(14, 0),
+                        descriptor(5, 0),
+                        new byte[] {1},
+                        descriptor(5, 0),
+                        new byte[] {2});
+        byte[] secondBlock = join(descriptor(9, 0), descriptor(5, 0), new byte[] {3});
+        byte[] data = join(firstBlock, secondBlock);
+        assertEquals(new RecordRange(10, 3, 0, 23), scan(data, 1, true));
+        assertEquals(new RecordRange(10, 2, 0, 14), scan(Arrays.copyOf(data, 22), 1, true));
+        assertEquals(new RecordRange(10, 0, 0, 0), scan(Arrays.copyOf(data, 13), 1, true));
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.binarytojson.reader.file;
+
+import static com.github.binarytojson.TestData.copy;
+import static com.github.binarytojson.TestData.descriptor;
+import static com.github.binarytojson.TestData.join;
+import static com.github.binarytojson.TestData.trickle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VariableRecordReaderTest {
+
+    private static List<byte[]> readAll(VariableRecordReader reader) {
+        return copy(reader.readBinaryFile());
+    }
+
+    @Test
+    void testReadRecords() throws IOException {
+        byte[] data =
+                join(descriptor(6, 0), new byte[] {1, 2}, descriptor(5, 0), new byte[] {3});
+        List<byte[]> records =
+                readAll(new VariableRecordReader(new ByteArrayInputStream(data), 4, false));
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[] {1, 2}, records.get(0));
+        assertArrayEquals(new byte[] {3}, records.get(1));
+    }
+
+    @Test
+    void testReadFromStreamWithoutAvailableBytes() throws IOException {
+        byte[] data =
+                join(
+                        descriptor(7, 0),
+                        new byte[] {1, 2, 3},
+                        descriptor(4, 0),
+                        descriptor(5, 0),
+                        new byte[] {4});
+        List<byte[]> records = readAll(new VariableRecordReader(trickle(data, 1), 16, false));
+        assertEquals(3, records.size());
+        assertArrayEquals(new byte[] {1, 2, 3}, records.get(0));
+        assertArrayEquals(new byte[] {}, records.get(1));
+        assertArrayEquals(new byte[] {4}, records.get(2));
+    }
+
+    @Test
+    void testReadBlocksAndSpannedSegments() throws IOException {
+        byte[] firstBlock =
+                join(
+                        new byte[] {0, 18, 0, 0},
+                        descriptor(6, 0),
+                        new byte[] {1, 2},
+                        descriptor(8, 1),
+                        new byte[] {3, 4, 5, 6});
+        byte[] secondBlock =
+                join(
+                        new byte[] {(byte) 0x80, 0, 0, 15},
+                        descriptor(5, 3),
+                        new byte[] {7},
+                        descriptor(6, 2),
+                        new byte[] {8, 9});
+        VariableRecordReader reader =
+                new VariableRecordReader(
+                        new ByteArrayInputStream(join(firstBlock, secondBlock)), 8, true);
+        List<byte[]> records = readAll(reader);
+        assertEquals(2, records.size());
+        assertArrayEquals(new byte[] {1, 2}, records.get(0));
+        assertArrayEquals(new byte[] {3, 4, 5, 6, 7, 8, 9}, records.get(1));
+        assertEquals(33, reader.getPosition());
+    }
+
+    @Test
+    void testTruncatedRecord() throws IOException {
+        byte[] data = join(descriptor(8, 0), new byte[] {1, 2});
+        VariableRecordReader reader =
+                new VariableRecordReader(new ByteArrayInputStream(data), 4, false);
+        assertArrayEquals(new byte[] {1, 2}, readAll(reader).get(0));
+        assertNull(reader.nextRecord());
+    }
+
+    @Test
+    void testInvalidDescriptor() {
+        VariableRecordReader reader =
+                new VariableRecordReader(new ByteArrayInputStream(descriptor(2, 0)), 4, false);
+        assertThrows(IOException.class, reader::nextRecord);
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.binarytojson.reader.source;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpRangedSourceTest {
+
+    private final byte[] data = sequence(10_000);
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private HttpServer server;
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/data.bin", this::serveRange);
+        server.createContext(
+                "/no-ranges.bin", exchange -> respond(exchange, 200, data, 0, data.length));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testReadRanges() throws IOException {
+        HttpRangedSource source = new HttpRangedSource(url("/data.bin"));
+        assertEquals(data.length, source.size());
+        byte[] bytes = new byte[100];
+        source.readFully(5000, bytes, 0, 100);
+        assertArrayEquals(Arrays.copyOfRange(data, 5000, 5100), bytes);
+        assertThrows(EOFException.class, () -> source.readFully(9990, bytes, 0, 100));
+    }
+
+    @Test
+    void testPrefetchChunksConcurrently() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (PrefetchInputStream inputStream =
+                new PrefetchInputStream(new HttpRangedSource(url("/data.bin")), 1000, 4)) {
+            byte[] buffer = new byte[333];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                os.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(data, os.toByteArray());
+        // one request for the size and one per chunk
+        assertEquals(11, rangeRequests.get());
+    }
+
+    @Test
+    void testServerWithoutRanges() throws IOException {
+        HttpRangedSource source = new HttpRangedSource(url("/no-ranges.bin"));
+        IOException e = assertThrows(IOException.class, source::size);
+        assertTrue(e.getMessage().contains("does not support range requests"));
+    }
+
+    @Test
+    void testIsUrl() {
+        assertTrue(HttpRangedSource.isUrl("http://gateway/archive/sku.dat"));
+        assertTrue(HttpRangedSource.isUrl("https://gateway/archive/sku.dat"));
+        assertFalse(HttpRangedSource.isUrl("archive/sku.dat"));
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    /** Serves the single range of the request, like an object storage gateway. */
+    private void serveRange(HttpExchange exchange) throws IOException {
+        rangeRequests.incrementAndGet();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int first = Integer.parseInt(bounds[0]);
+        int last = Math.min(Integer.parseInt(bounds[1]), data.length - 1);
+        if (first >= data.length) {
+            exchange.getResponseHeaders().set("Content-Range", "bytes */" + data.length);
+            respond(exchange, 416, data, 0, 0);
+            return;
+        }
+        exchange.getResponseHeaders()
+                .set("Content-Range", "bytes " + first + "-" + last + "/" + data.length);
+        respond(exchange, 206, data, first, last - first + 1);
+    }
+
+    private static void respond(
+            HttpExchange exchange, int status, byte[] bytes, int offset, int length)
+            throws IOException {
+        try (InputStream request = exchange.getRequestBody()) {
+            exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes, offset, length);
+            }
+        }
+    }
+}
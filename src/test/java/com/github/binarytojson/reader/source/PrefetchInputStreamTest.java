@@ -0,0 +1,89 @@
+package com.github.binarytojson.reader.source;
+
+import static com.github.binarytojson.TestData.readAll;
+import static com.github.binarytojson.TestData.sequence;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PrefetchInputStreamTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void testReadFileInChunks() throws IOException {
+        byte[] data = sequence(1000);
+        Path file = directory.resolve("data.bin");
+        Files.write(file, data);
+        try (RangedSource source = new FileRangedSource(file);
+                PrefetchInputStream inputStream = new PrefetchInputStream(source, 16, 3)) {
+            assertEquals(data.length, source.size());
+            assertArrayEquals(data, readAll(inputStream));
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    void testSkipRestartsPrefetch() throws IOException {
+        byte[] data = sequence(1000);
+        AtomicLong fetched = new AtomicLong();
+        RangedSource source =
+                new RangedSource() {
+                    @Override
+                    public long size() {
+                        return data.length;
+                    }
+
+                    @Override
+                    public void readFully(long position, byte[] bytes, int offset, int length) {
+                        fetched.addAndGet(length);
+                        System.arraycopy(data, (int) position, bytes, offset, length);
+                    }
+
+                    @Override
+                    public void close() {}
+                };
+        try (PrefetchInputStream inputStream = new PrefetchInputStream(source, 10, 2)) {
+            assertEquals(0, inputStream.read());
+            // within the chunks being fetched
+            assertEquals(14, inputStream.skip(14));
+            assertEquals(15, inputStream.read());
+            // after them, only the chunks from the target are fetched
+            assertEquals(884, inputStream.skip(884));
+            assertEquals((byte) 900, (byte) inputStream.read());
+            byte[] rest = readAll(inputStream);
+            assertArrayEquals(Arrays.copyOfRange(data, 901, 1000), rest);
+            assertEquals(0, inputStream.skip(10));
+        }
+        // the skipped chunks from 40 to 900 were never fetched
+        assertTrue(fetched.get() <= 140);
+    }
+
+    @Test
+    void testReadFailsOnFetchError() throws IOException {
+        Path file = directory.resolve("short.bin");
+        Files.write(file, sequence(10));
+        RangedSource source =
+                new FileRangedSource(file) {
+                    @Override
+                    public long size() {
+                        return 100;
+                    }
+                };
+        try (PrefetchInputStream inputStream = new PrefetchInputStream(source, 64, 2)) {
+            assertThrows(EOFException.class, () -> readAll(inputStream));
+        } finally {
+            source.close();
+        }
+    }
+}
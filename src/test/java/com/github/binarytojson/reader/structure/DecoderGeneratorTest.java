@@ -0,0 +1,81 @@
+package com.github.binarytojson.reader.structure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.github.binarytojson.Mode;
+import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.type.PrimitiveType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class DecoderGeneratorTest {
+
+    private static final String LAYOUT =
+            "DCL 01 ORDER FB,\n"
+                    + "  03 ID CHAR(2),\n"
+                    + "  03 FILL1 CHAR(1),\n"
+                    + "  03 AMT FIXED DEC(3,1),\n"
+                    + "  03 FLAGS BIT(4),\n"
+                    + "  03 LINE(2),\n"
+                    + "    05 CODE CHAR(1),\n"
+                    + "    05 QTY(2) PIC'99',\n"
+                    + "  03 TAIL CHAR(1);\n";
+
+    private static final byte[] RECORD = {
+        (byte) 0xC1, (byte) 0xC2, 0x40, 0x12, 0x3D, (byte) 0xA0, (byte) 0xC3, (byte) 0xF0,
+        (byte) 0xF1, (byte) 0xF0, (byte) 0xF2, (byte) 0xC4, (byte) 0xF0, (byte) 0xF3,
+        (byte) 0xF0, (byte) 0xF4, (byte) 0xE9
+    };
+
+    private static List<PrimitiveType> layout(String layout) {
+        return new LayoutReader()
+                .readAllLines(layout.getBytes(StandardCharsets.UTF_8))
+                .get(0)
+                .getPrimitiveTypes();
+    }
+
+    @Test
+    void testDecodeAsInterpreter() {
+        RecordPlan interpreted = RecordPlan.compile(layout(LAYOUT));
+        RecordPlan generated = RecordPlan.compile(layout(LAYOUT));
+        RecordDecoder decoder = generated.generateDecoder();
+        assertNotNull(decoder);
+        assertEquals(RECORD.length, decoder.getLength());
+        for (Mode mode : Mode.values()) {
+            Map<String, Object> expected = new StructureRecord(RECORD, interpreted).process(mode);
+            assertEquals(expected, decoder.decode(RECORD, 0, mode));
+            assertEquals(expected, new StructureRecord(RECORD, generated).process(mode));
+        }
+    }
+
+    @Test
+    void testShortRecordInterpreted() {
+        RecordPlan interpreted = RecordPlan.compile(layout(LAYOUT));
+        RecordPlan generated = RecordPlan.compile(layout(LAYOUT));
+        assertNotNull(generated.generateDecoder());
+        byte[] record = Arrays.copyOf(RECORD, 9);
+        for (Mode mode : Mode.values()) {
+            assertEquals(
+                    new StructureRecord(record, interpreted).process(mode),
+                    new StructureRecord(record, generated).process(mode));
+        }
+    }
+
+    @Test
+    void testRepeatedGroupNotGenerated() {
+        RecordPlan plan =
+                RecordPlan.compile(
+                        layout(
+                                "DCL 01 R FB,\n"
+                                        + "  03 N CHAR(1),\n"
+                                        + "  03 ITEM OCCURS:N,\n"
+                                        + "    05 CODE CHAR(2);\n"));
+        assertNull(plan.generateDecoder());
+        assertNull(plan.getDecoder());
+    }
+}
@@ -0,0 +1,304 @@
+package com.github.binarytojson.reader.structure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.binarytojson.Mode;
+import com.github.binarytojson.layout.LayoutReader;
+import com.github.binarytojson.type.DataType;
+import com.github.binarytojson.type.PrimitiveType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RecordPlanTest {
+
+    // COUNT=2, NAME=12, CODE=34 and 56, TAIL=9 in EBCDIC
+    private static final byte[] RECORD = {
+        (byte) 0xF2, (byte) 0xF1, (byte) 0xF2, (byte) 0xF3, (byte) 0xF4, (byte) 0xF5, (byte) 0xF6,
+        (byte) 0xF9
+    };
+
+    private static PrimitiveType field(String name, int length) {
+        return PrimitiveType.builder()
+                .name(name)
+                .level(2)
+                .dataType(DataType.CHAR)
+                .length(length)
+                .build();
+    }
+
+    private static List<PrimitiveType> layout() {
+        PrimitiveType group =
+                PrimitiveType.builder()
+                        .name("ITEM")
+                        .level(2)
+                        .amount("COUNT")
+                        .fields(Collections.singletonList(field("CODE", 2)))
+                        .build();
+        return Arrays.asList(field("COUNT", 1), field("NAME", 2), group, field("TAIL", 1));
+    }
+
+    @Test
+    void testCompileOffsets() {
+        RecordPlan plan = RecordPlan.compile(layout());
+        List<FieldPlan> fields = plan.getFields();
+        assertEquals(0, fields.get(0).getOffset());
+        assertTrue(fields.get(0).isReferenced());
+        assertEquals(1, fields.get(1).getOffset());
+        assertEquals(FieldPlan.Kind.GROUP, fields.get(2).getKind());
+        // the fields from the repeated group on depend on its count
+        assertEquals(FieldPlan.NONE, fields.get(2).getChildren().get(0).getOffset());
+        assertEquals(FieldPlan.NONE, fields.get(3).getOffset());
+        assertEquals(6, plan.getFixedLength());
+    }
+
+    @Test
+    void testProcessWithoutModifyingLayout() {
+        List<PrimitiveType> types = layout();
+        RecordPlan plan = RecordPlan.compile(types);
+        StructureRecord record = new StructureRecord(RECORD, plan);
+
+        Map<String, Object> result = record.process(Mode.WITHOUT_ARRAY);
+        assertEquals("2", result.get("COUNT"));
+        assertEquals("12", result.get("NAME"));
+        assertEquals(Collections.singletonMap("CODE", "34"), result.get("ITEM(1)"));
+        assertEquals(Collections.singletonMap("CODE", "56"), result.get("ITEM(2)"));
+        assertEquals("9", result.get("TAIL"));
+        // processing again gives the same result
+        assertEquals(result, record.process(Mode.WITHOUT_ARRAY));
+
+        Map<String, Object> withArray = record.process(Mode.WITH_ARRAY);
+        assertEquals(
+                Arrays.asList(
+                        Collections.singletonMap("CODE", "34"),
+                        Collections.singletonMap("CODE", "56")),
+                withArray.get("ITEM"));
+
+        assertEquals(layout(), types);
+        assertSame(types.get(2), plan.getTypes().get(2));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedEntryPoints() {
+        List<PrimitiveType> types = layout();
+        StructureRecord record = new StructureRecord(RECORD, types);
+        NameAndValues count = record.getData(types.get(0), Mode.WITHOUT_ARRAY);
+        assertEquals("COUNT", count.getName());
+        assertEquals("2", count.getValues());
+        assertEquals(
+                Collections.singletonMap("NAME", "12"),
+                record.processList(types.subList(1, 2), null, Mode.WITHOUT_ARRAY));
+
+        record.resetPosition();
+        Map<String, Object> all = record.processList(types, null, Mode.WITHOUT_ARRAY);
+        assertEquals(record.process(Mode.WITHOUT_ARRAY), all);
+        assertEquals("34", record.getFieldValue("CODE", Mode.WITHOUT_ARRAY));
+        assertEquals("12", record.getFieldValue("NAME", Mode.WITHOUT_ARRAY));
+        assertEquals("3", record.getFieldValue("3", Mode.WITHOUT_ARRAY));
+    }
+
+    @Test
+    void testArrayElementsShareOnePlan() {
+        PrimitiveType sub =
+                PrimitiveType.builder()
+                        .name("SUB")
+                        .level(3)
+                        .fields(Collections.singletonList(field("X", 1)))
+                        .build();
+        PrimitiveType line =
+                PrimitiveType.builder()
+                        .name("LINE")
+                        .level(2)
+                        .array1(3)
+                        .fields(Arrays.asList(field("CODE", 1), sub))
+                        .build();
+        PrimitiveType qty =
+                PrimitiveType.builder()
+                        .name("QTY")
+                        .level(2)
+                        .dataType(DataType.CHAR)
+                        .length(1)
+                        .array1(2)
+                        .build();
+        RecordPlan plan = RecordPlan.compile(Arrays.asList(line, qty));
+        FieldPlan lines = plan.getFields().get(0);
+        assertTrue(lines.isArray());
+        assertEquals(3, lines.getOccurrences());
+        assertEquals(2, lines.getStride());
+        // the fields of an element are at offsets from its start
+        assertEquals(1, lines.getChildren().get(1).getChildren().get(0).getOffset());
+        assertEquals(6, plan.getFields().get(1).getOffset());
+        assertEquals(8, plan.getFixedLength());
+
+        Map<String, Object> result = new StructureRecord(RECORD, plan).process(Mode.WITHOUT_ARRAY);
+        Map<String, Object> third = new LinkedHashMap<>();
+        third.put("CODE", "4");
+        third.put("SUB", Collections.singletonMap("X", "5"));
+        assertEquals(third, result.get("LINE(3)"));
+        assertEquals("9", result.get("QTY(2)"));
+
+        Map<String, Object> withArray = new StructureRecord(RECORD, plan).process(Mode.WITH_ARRAY);
+        assertEquals(3, ((List<?>) withArray.get("LINE")).size());
+        assertEquals(Arrays.asList("6", "9"), withArray.get("QTY"));
+    }
+
+    @Test
+    void testCountsFromCounterCells() {
+        PrimitiveType counts =
+                PrimitiveType.builder()
+                        .name("CNT")
+                        .level(2)
+                        .dataType(DataType.CHAR)
+                        .length(1)
+                        .array1(2)
+                        .build();
+        // the index of the reference is replaced by the index of the enclosing element
+        PrimitiveType repeated =
+                PrimitiveType.builder()
+                        .name("Q")
+                        .level(3)
+                        .amount("CNT(1)")
+                        .fields(Collections.singletonList(field("X", 1)))
+                        .build();
+        PrimitiveType parts =
+                PrimitiveType.builder()
+                        .name("P")
+                        .level(2)
+                        .array1(2)
+                        .fields(Collections.singletonList(repeated))
+                        .build();
+        RecordPlan plan = RecordPlan.compile(Arrays.asList(counts, parts));
+        assertTrue(plan.getFields().get(0).isReferenced());
+        byte[] record = {(byte) 0xF1, (byte) 0xF2, (byte) 0xC1, (byte) 0xC2, (byte) 0xC3};
+
+        Map<String, Object> result = new StructureRecord(record, plan).process(Mode.WITHOUT_ARRAY);
+        assertEquals(
+                Collections.singletonMap("Q(1)", Collections.singletonMap("X", "A")),
+                result.get("P(1)"));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("Q(1)", Collections.singletonMap("X", "B"));
+        second.put("Q(2)", Collections.singletonMap("X", "C"));
+        assertEquals(second, result.get("P(2)"));
+
+        Map<String, Object> withArray = new StructureRecord(record, plan).process(Mode.WITH_ARRAY);
+        assertEquals(Arrays.asList("1", "2"), withArray.get("CNT"));
+        assertEquals(
+                Collections.singletonMap(
+                        "Q",
+                        Arrays.asList(
+                                Collections.singletonMap("X", "B"),
+                                Collections.singletonMap("X", "C"))),
+                ((List<?>) withArray.get("P")).get(1));
+    }
+
+    @Test
+    void testUnknownCounter() {
+        PrimitiveType repeated =
+                PrimitiveType.builder()
+                        .name("ITEM")
+                        .level(2)
+                        .amount("MISSING")
+                        .fields(Collections.singletonList(field("CODE", 1)))
+                        .build();
+        StructureRecord record =
+                new StructureRecord(RECORD, RecordPlan.compile(Arrays.asList(repeated)));
+        assertThrows(NumberFormatException.class, () -> record.process(Mode.WITHOUT_ARRAY));
+    }
+
+    private static RecordPlan plan(String layout) {
+        return RecordPlan.compile(
+                new LayoutReader()
+                        .readAllLines(layout.getBytes(StandardCharsets.UTF_8))
+                        .get(0)
+                        .getPrimitiveTypes());
+    }
+
+    /** Processes a record, giving the fields of its header group. */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> process(byte[] record, RecordPlan plan, Mode mode) {
+        Map<String, Object> result = new StructureRecord(record, plan).process(mode);
+        return (Map<String, Object>) result.values().iterator().next();
+    }
+
+    private static Map<String, Object> map(String key, Object value) {
+        return Collections.singletonMap(key, value);
+    }
+
+    @Test
+    void testUnionReadsSelectedView() {
+        RecordPlan plan =
+                plan(
+                        "DCL 01 PAY FB,\n"
+                                + "  03 KIND CHAR(1),\n"
+                                + "  03 DETAIL UNION:KIND,\n"
+                                + "    05 CARD WHEN:'C',\n"
+                                + "      07 PAN CHAR(4),\n"
+                                + "    05 BANK WHEN:'B',\n"
+                                + "      07 IBAN CHAR(6),\n"
+                                + "    05 RAW CHAR(2),\n"
+                                + "  03 AMT CHAR(2);\n");
+        List<FieldPlan> fields = plan.getFields().get(0).getChildren();
+        assertEquals(FieldPlan.Kind.UNION, fields.get(1).getKind());
+        assertEquals(6, fields.get(1).getLength());
+        // the union is as long as its longest view
+        assertEquals(7, fields.get(2).getOffset());
+        assertEquals(9, plan.getFixedLength());
+        assertNull(plan.generateDecoder());
+
+        // KIND=C, then 123456 and AMT=42 in EBCDIC
+        byte[] record = {
+            (byte) 0xC3, (byte) 0xF1, (byte) 0xF2, (byte) 0xF3, (byte) 0xF4, (byte) 0xF5,
+            (byte) 0xF6, (byte) 0xF4, (byte) 0xF2
+        };
+        Map<String, Object> card = process(record, plan, Mode.WITHOUT_ARRAY);
+        assertEquals(map("CARD", map("PAN", "1234")), card.get("DETAIL"));
+        assertEquals("42", card.get("AMT"));
+        record[0] = (byte) 0xC2;
+        assertEquals(
+                map("BANK", map("IBAN", "123456")),
+                process(record, plan, Mode.WITH_ARRAY).get("DETAIL"));
+        record[0] = (byte) 0xE7;
+        assertEquals(map("RAW", "12"), process(record, plan, Mode.WITHOUT_ARRAY).get("DETAIL"));
+    }
+
+    @Test
+    void testUnionWithRepeatedView() {
+        RecordPlan plan =
+                plan(
+                        "DCL 01 R FB,\n"
+                                + "  03 KIND CHAR(1),\n"
+                                + "  03 N CHAR(1),\n"
+                                + "  03 BODY UNION:KIND,\n"
+                                + "    05 LIST WHEN:'L',\n"
+                                + "      07 ITEM OCCURS:N,\n"
+                                + "        09 V CHAR(1),\n"
+                                + "    05 TEXT CHAR(3),\n"
+                                + "  03 TAIL CHAR(1);\n");
+        // the fields after a view depending on the record follow the view read
+        assertEquals(FieldPlan.NONE, plan.getFields().get(0).getChildren().get(3).getOffset());
+
+        byte[] list = {(byte) 0xD3, (byte) 0xF2, (byte) 0xC1, (byte) 0xC2, (byte) 0xE9};
+        Map<String, Object> items = new LinkedHashMap<>();
+        items.put("ITEM(1)", map("V", "A"));
+        items.put("ITEM(2)", map("V", "B"));
+        Map<String, Object> result = process(list, plan, Mode.WITHOUT_ARRAY);
+        assertEquals(map("LIST", items), result.get("BODY"));
+        assertEquals("Z", result.get("TAIL"));
+
+        byte[] text = {
+            (byte) 0xE3, (byte) 0xF2, (byte) 0xE7, (byte) 0xE8, (byte) 0xE9, (byte) 0xE6
+        };
+        result = process(text, plan, Mode.WITHOUT_ARRAY);
+        assertEquals(map("TEXT", "XYZ"), result.get("BODY"));
+        assertEquals("W", result.get("TAIL"));
+    }
+}
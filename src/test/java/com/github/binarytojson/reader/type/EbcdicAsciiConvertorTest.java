@@ -70,4 +70,12 @@ class EbcdicAsciiConvertorTest {
         assertEquals(
                 expected.toString(), actual, "Conversion of all non-printable characters failed");
     }
+
+    @Test
+    void testConvertRange() {
+        // EBCDIC for 'A', non-printable, 'B', 'C'
+        byte[] ebcdicBytes = {(byte) 0xC1, 0x00, (byte) 0xC2, (byte) 0xC3};
+        String actual = convertor.convert(ebcdicBytes, 1, 2);
+        assertEquals("\\u0000B", actual, "Conversion of a range failed");
+    }
 }
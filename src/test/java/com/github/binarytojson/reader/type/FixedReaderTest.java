@@ -63,4 +63,13 @@ class FixedReaderTest {
         String result = fixedReader.readValue(bytes, type);
         assertEquals("0", result);
     }
+
+    @Test
+    void testReadValueFromRange() {
+        // Representing a negative number (-12.3) between two other bytes
+        byte[] bytes = {0x7F, 0x12, (byte) 0x3D, 0x7F};
+        PrimitiveType type = PrimitiveType.builder().digitsCount(3).scaleFactor(1).build();
+        String result = fixedReader.readValue(bytes, 1, 2, type);
+        assertEquals("-12.3", result);
+    }
 }
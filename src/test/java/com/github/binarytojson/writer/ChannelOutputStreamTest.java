@@ -0,0 +1,54 @@
+package com.github.binarytojson.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class ChannelOutputStreamTest {
+
+    @Test
+    void testWriteSmallAndLargeArrays() throws IOException {
+        Path target = Files.createTempFile("channel", ".out");
+        target.toFile().deleteOnExit();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        byte[] large = new byte[40];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        try (ChannelOutputStream os = ChannelOutputStream.open(target, 16, FlushPolicy.FLUSH)) {
+            for (int i = 0; i < 5; i++) {
+                os.write('a' + i);
+                expected.write('a' + i);
+            }
+            os.write(large, 3, 30);
+            expected.write(large, 3, 30);
+            os.write(large, 0, 14);
+            expected.write(large, 0, 14);
+        }
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(target));
+    }
+
+    @Test
+    void testFlushPolicy() throws IOException {
+        Path target = Files.createTempFile("channel", ".out");
+        target.toFile().deleteOnExit();
+        try (ChannelOutputStream os =
+                ChannelOutputStream.open(target, 16, FlushPolicy.BUFFER_FULL)) {
+            os.write(new byte[4]);
+            os.flush();
+            assertEquals(0, Files.size(target));
+            os.channel();
+            assertEquals(4, Files.size(target));
+        }
+        try (ChannelOutputStream os = ChannelOutputStream.open(target, 16, FlushPolicy.FLUSH)) {
+            os.write(new byte[4]);
+            os.flush();
+            assertEquals(4, Files.size(target));
+        }
+    }
+}